@@ -0,0 +1,194 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bind JSON object to JavaBean directly from JsonParser without building the
+ * intermediate Map. Values are validated and converted as BeanObjectMapper
+ * does, numbers are set to primitive properties without boxing, and values of
+ * unknown properties are skipped.
+ *
+ * @author Michael Liao
+ */
+class BeanBinder {
+
+    final JsonReader jsonReader;
+    final JsonParser parser;
+    final BeanObjectMapper mapper;
+    final TypeAdapters typeAdapters;
+
+    BeanBinder(JsonReader jsonReader, JsonParser parser) {
+        this.jsonReader = jsonReader;
+        this.parser = parser;
+        this.mapper = JsonReader.DEFAULT_OBJECT_MAPPER;
+        this.typeAdapters = jsonReader.typeAdapters;
+    }
+
+    /**
+     * Read JSON object from current token BEGIN_OBJECT and bind to bean.
+     *
+     * @param clazz Bean class.
+     * @param path  Path of the object, e.g. Order.items[0].
+     * @return The bean.
+     */
+    @SuppressWarnings("unchecked")
+    Object readObject(Class<?> clazz, String path) throws IOException {
+        if (!BeanObjectMapper.isBeanClass(clazz)) {
+            // abstract class, interface, etc. are handled by BeanObjectMapper as before:
+            return mapper.toObject(path, (Map<String, Object>) jsonReader.readTree(parser, null), clazz, typeAdapters);
+        }
+        PropertySetters pss = BeanMetadata.of(clazz).getSetters();
+        try {
+            Object target = pss.codec != null ? pss.codec.newInstance() : null;
+            if (target == null) {
+                target = mapper.newInstance(clazz, null);
+            }
+            Set<String> found = pss.hasRequired ? new HashSet<>() : null;
+            while (parser.nextToken() == JsonToken.KEY) {
+                String propertyName = parser.getString();
+                PropertySetter ps = pss.getPropertySetter(propertyName);
+                if (ps == null) {
+                    parser.skipValue();
+                    continue;
+                }
+                if (found != null) {
+                    found.add(propertyName);
+                }
+                parser.nextToken();
+                readProperty(target, ps, path, propertyName);
+            }
+            if (found != null) {
+                for (String propertyName : pss.map.keySet()) {
+                    if (pss.getPropertySetter(propertyName).isRequired() && !found.contains(propertyName)) {
+                        throw new JsonValidateException("Required", path + "." + propertyName);
+                    }
+                }
+            }
+            return target;
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read value from current token and set to property.
+     */
+    void readProperty(Object target, PropertySetter ps, String path, String propertyName) throws Exception {
+        Class<?> propertyType = ps.getPropertyType();
+        switch (parser.currentToken()) {
+        case BEGIN_OBJECT:
+            ps.setProperty(target, readObject(propertyType, path + "." + propertyName));
+            return;
+        case BEGIN_ARRAY:
+            ps.setProperty(target, readArray(ps, path, propertyName));
+            return;
+        case NUMBER:
+            if (!ps.hasConstraints() && propertyType.isPrimitive() && setNumber(target, ps, propertyType)) {
+                return;
+            }
+            break;
+        case BOOLEAN:
+            if (propertyType == boolean.class) {
+                // BooleanValidator only checks null:
+                ps.setBoolean(target, parser.getBoolean());
+                return;
+            }
+            break;
+        default:
+            break;
+        }
+        ps.setProperty(target, mapper.toPropertyValue(ps, path, propertyName, readSimpleValue(), typeAdapters));
+    }
+
+    /**
+     * Set number to primitive property without boxing. Return false if the
+     * number must be converted by BeanObjectMapper, e.g. double to int.
+     */
+    boolean setNumber(Object target, PropertySetter ps, Class<?> propertyType) throws Exception {
+        TokenReader reader = parser.reader;
+        if (reader.numberFitsLong()) {
+            long n = reader.numberLongValue();
+            if (propertyType == long.class) {
+                ps.setLong(target, n);
+            } else if (propertyType == int.class) {
+                ps.setInt(target, (int) n);
+            } else if (propertyType == double.class) {
+                ps.setDouble(target, n);
+            } else if (propertyType == short.class) {
+                ps.setShort(target, (short) n);
+            } else if (propertyType == byte.class) {
+                ps.setByte(target, (byte) n);
+            } else {
+                return false;
+            }
+            return true;
+        }
+        if (!reader.numberIsInteger && !reader.losslessNumbers) {
+            if (propertyType == double.class) {
+                ps.setDouble(target, reader.numberDoubleValue());
+                return true;
+            }
+            if (propertyType == float.class) {
+                ps.setFloat(target, (float) reader.numberDoubleValue());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read JSON array from current token BEGIN_ARRAY as List or array.
+     */
+    @SuppressWarnings("unchecked")
+    Object readArray(PropertySetter ps, String path, String propertyName) throws IOException {
+        Class<?> propertyType = ps.getPropertyType();
+        if (!propertyType.isAssignableFrom(List.class) && !propertyType.isArray()) {
+            throw new JsonBindException("Cannot set Json array to property: " + propertyName + "(type: " + propertyType.getName() + ")");
+        }
+        Class<?> genericType = ps.getGenericType();
+        List<Object> resultList = new ArrayList<>();
+        int index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            switch (parser.currentToken()) {
+            case BEGIN_OBJECT:
+                resultList.add(readObject(genericType, path + "." + propertyName + "[" + index + "]"));
+                break;
+            case BEGIN_ARRAY:
+                Object element = jsonReader.readTree(parser, null);
+                // only List<Object> can hold nested array:
+                resultList.add(Object.class.equals(genericType) ? element
+                        : mapper.toObject(path + "." + propertyName + "[" + index + "]", (Map<String, Object>) element, genericType, typeAdapters));
+                break;
+            default:
+                resultList.add(mapper.toSimpleValue(genericType, readSimpleValue(), typeAdapters));
+            }
+            index++;
+        }
+        return mapper.toListOrArray(propertyType, genericType, resultList);
+    }
+
+    /**
+     * Read current token as String, Number, Boolean or null.
+     */
+    Object readSimpleValue() throws IOException {
+        switch (parser.currentToken()) {
+        case STRING:
+            return parser.getString();
+        case NUMBER:
+            return parser.getNumber();
+        case BOOLEAN:
+            return parser.getBoolean();
+        case NULL:
+            return null;
+        default:
+            throw new JsonParseException("Unexpected token: " + parser.currentToken(), parser.reader.reader.readed);
+        }
+    }
+}
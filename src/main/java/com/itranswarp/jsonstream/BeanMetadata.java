@@ -0,0 +1,161 @@
+package com.itranswarp.jsonstream;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Process-wide registry of bean metadata, which holds PropertySetters with
+ * validators, PropertyGetters and the default constructor of
+ * bean class, and is shared by all readers and writers.
+ * 
+ * Metadata is stored in ClassValue, which is kept by the bean class itself, so
+ * it is collected with the bean class when its ClassLoader goes away. Each
+ * part of metadata is resolved lazily and only once even if it is accessed by
+ * multiple threads at the same time.
+ * 
+ * @author Michael Liao
+ */
+class BeanMetadata {
+
+    static final ClassValue<BeanMetadata> REGISTRY = new ClassValue<BeanMetadata>() {
+        @Override
+        protected BeanMetadata computeValue(Class<?> clazz) {
+            // cheap to create, and only one is kept if created concurrently:
+            return new BeanMetadata(clazz);
+        }
+    };
+
+    final Class<?> clazz;
+
+    private volatile PropertySetters setters;
+    private volatile PropertyGetters getters;
+    private volatile Constructor<?> constructor;
+
+    // setters and getters loaded from snapshot, or null to scan class:
+    private Map<String, Member> setterMembers;
+    private Map<String, Member> getterMembers;
+
+    private BeanMetadata(Class<?> clazz) {
+        this.clazz = clazz;
+    }
+
+    /**
+     * Get metadata of the bean class.
+     */
+    static BeanMetadata of(Class<?> clazz) {
+        return REGISTRY.get(clazz);
+    }
+
+    PropertySetters getSetters() {
+        PropertySetters pss = this.setters;
+        if (pss == null) {
+            synchronized (this) {
+                pss = this.setters;
+                if (pss == null) {
+                    pss = new PropertySetters(clazz, setterMembers);
+                    this.setters = pss;
+                }
+            }
+        }
+        return pss;
+    }
+
+    PropertyGetters getGetters() {
+        PropertyGetters pgs = this.getters;
+        if (pgs == null) {
+            synchronized (this) {
+                pgs = this.getters;
+                if (pgs == null) {
+                    pgs = new PropertyGetters(clazz, getterMembers);
+                    this.getters = pgs;
+                }
+            }
+        }
+        return pgs;
+    }
+
+    /**
+     * Resolve setters, getters and constructor of bean classes and their nested
+     * bean classes in parallel.
+     * 
+     * @param classes Bean classes.
+     * @return All resolved bean classes.
+     */
+    static Set<Class<?>> warmUp(Collection<Class<?>> classes) {
+        Set<Class<?>> resolved = ConcurrentHashMap.newKeySet();
+        List<Class<?>> pending = new ArrayList<>(classes);
+        while (!pending.isEmpty()) {
+            pending = pending.parallelStream().filter(clazz -> BeanObjectMapper.isBeanClass(clazz) && resolved.add(clazz))
+                    .flatMap(clazz -> BeanMetadata.of(clazz).resolve().stream()).distinct().collect(Collectors.toList());
+        }
+        return resolved;
+    }
+
+    /**
+     * Resolve all metadata, and return types of properties.
+     */
+    List<Class<?>> resolve() {
+        List<Class<?>> types = new ArrayList<>();
+        for (PropertySetter ps : getSetters().map.values()) {
+            types.add(ps.getPropertyType());
+            types.add(ps.getGenericType());
+        }
+        for (Member member : getGetters().members.values()) {
+            types.add(member instanceof Field ? ((Field) member).getType() : ((Method) member).getReturnType());
+        }
+        try {
+            getConstructor();
+        } catch (NoSuchMethodException e) {
+            // cannot be created by default constructor
+        }
+        return types;
+    }
+
+    /**
+     * Use setters and getters loaded from snapshot, which are resolved to
+     * accessors when first used, without scanning class. It has no effect if
+     * they are already resolved.
+     */
+    synchronized void preload(Map<String, Member> setterMembers, Map<String, Member> getterMembers) {
+        this.setterMembers = setterMembers;
+        this.getterMembers = getterMembers;
+    }
+
+    /**
+     * Get the accessible default constructor.
+     */
+    Constructor<?> getConstructor() throws NoSuchMethodException {
+        Constructor<?> cons = this.constructor;
+        if (cons == null) {
+            cons = clazz.getDeclaredConstructor();
+            cons.setAccessible(true);
+            // resolve the same constructor if set concurrently:
+            this.constructor = cons;
+        }
+        return cons;
+    }
+
+    /**
+     * Create new bean instance by codec generated at compile time, or by the
+     * default constructor.
+     */
+    Object newInstance() throws Exception {
+        GeneratedBeanCodec codec = getSetters().codec;
+        if (codec != null) {
+            Object bean = codec.newInstance();
+            if (bean != null) {
+                return bean;
+            }
+        }
+        return getConstructor().newInstance();
+    }
+}
@@ -0,0 +1,250 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Snapshot of resolved bean metadata, which is written at build time and
+ * loaded at startup to find setters, getters and fields of bean classes by
+ * name, without scanning all methods and fields of class hierarchy. Each bean
+ * is checked by a hash of its class files, and is scanned as usual if it is
+ * changed after the snapshot is written.
+ *
+ * The snapshot is a JSON file, and is loaded from resource
+ * META-INF/jsonstream/metadata.json by JsonBuilder.loadMetadata(). It can be
+ * generated after compilation by running main() with the output file and
+ * names of classes or packages, e.g. by exec-maven-plugin:
+ *
+ * <pre>
+ * java com.itranswarp.jsonstream.BeanMetadataSnapshot target/classes/META-INF/jsonstream/metadata.json com.example.model.*
+ * </pre>
+ *
+ * @author Michael Liao
+ */
+public final class BeanMetadataSnapshot {
+
+    /**
+     * Resource name of snapshot.
+     */
+    public static final String RESOURCE = "META-INF/jsonstream/metadata.json";
+
+    static final Log log = LogFactory.getLog(BeanMetadataSnapshot.class);
+
+    static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class,
+                double.class }) {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    private BeanMetadataSnapshot() {
+    }
+
+    /**
+     * Write snapshot of bean classes and their nested bean classes.
+     *
+     * @param writer  The writer.
+     * @param classes Bean classes.
+     * @throws IOException If write failed.
+     */
+    public static void write(Writer writer, Class<?>... classes) throws IOException {
+        List<Class<?>> resolved = new ArrayList<>(BeanMetadata.warmUp(Arrays.asList(classes)));
+        resolved.sort(Comparator.comparing(Class::getName));
+        List<Object> beans = new ArrayList<>(resolved.size());
+        for (Class<?> clazz : resolved) {
+            BeanMetadata metadata = BeanMetadata.of(clazz);
+            Map<String, Object> bean = new LinkedHashMap<>();
+            bean.put("class", clazz.getName());
+            bean.put("fingerprint", fingerprint(clazz));
+            bean.put("setters", toMemberNames(metadata.getSetters().members));
+            bean.put("getters", toMemberNames(metadata.getGetters().members));
+            beans.add(bean);
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("beans", beans);
+        new JsonBuilder().createWriter(writer).write(snapshot);
+        writer.flush();
+    }
+
+    /**
+     * Load snapshot and resolve metadata of bean classes. Bean class which
+     * cannot be resolved by snapshot, e.g. snapshot is out of date and the
+     * fingerprint of class is changed, is skipped and scanned when used.
+     *
+     * @param reader The reader of snapshot.
+     * @param loader ClassLoader to load bean classes.
+     * @return Number of bean classes loaded.
+     * @throws IOException If read failed.
+     */
+    @SuppressWarnings("unchecked")
+    static int load(Reader reader, ClassLoader loader) throws IOException {
+        Map<String, Object> snapshot = (Map<String, Object>) new JsonBuilder().createReader(reader).parse();
+        List<Object> beans = (List<Object>) snapshot.get("beans");
+        if (beans == null) {
+            return 0;
+        }
+        return (int) beans.parallelStream().filter(bean -> {
+            Map<String, Object> map = (Map<String, Object>) bean;
+            String className = (String) map.get("class");
+            try {
+                Class<?> clazz = Class.forName(className, false, loader);
+                String fingerprint = fingerprint(clazz);
+                if (fingerprint == null || !fingerprint.equals(map.get("fingerprint"))) {
+                    log.warn("Snapshot is out of date and properties will be scanned for bean: " + className);
+                    return false;
+                }
+                BeanMetadata.of(clazz).preload(toMembers(clazz, (Map<String, Object>) map.get("setters")),
+                        toMembers(clazz, (Map<String, Object>) map.get("getters")));
+                return true;
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                log.warn("Cannot load metadata of bean: " + className, e);
+                return false;
+            }
+        }).count();
+    }
+
+    /**
+     * Write snapshot to file. Usage:
+     *
+     * <pre>
+     * java com.itranswarp.jsonstream.BeanMetadataSnapshot &lt;output-file&gt; &lt;class-name | package-name.*&gt;...
+     * </pre>
+     *
+     * @param args Output file and names of classes or packages.
+     * @throws Exception If failed.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BeanMetadataSnapshot <output-file> <class-name | package-name.*>...");
+            System.exit(1);
+        }
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        List<Class<?>> classes = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].endsWith(".*")) {
+                classes.addAll(PropertyUtils.findClasses(args[i].substring(0, args[i].length() - 2), loader));
+            } else {
+                classes.add(Class.forName(args[i], false, loader));
+            }
+        }
+        Path output = Paths.get(args[0]);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            write(writer, classes.toArray(new Class<?>[classes.size()]));
+        }
+    }
+
+    /**
+     * Convert members to names, e.g. "com.example.User#name" of field, and
+     * "com.example.User#setName(java.lang.String)" of method.
+     */
+    static Map<String, String> toMemberNames(Map<String, Member> members) {
+        Map<String, String> names = new TreeMap<>();
+        for (String propertyName : members.keySet()) {
+            Member member = members.get(propertyName);
+            String name = member.getDeclaringClass().getName() + "#" + member.getName();
+            if (member instanceof Method) {
+                Class<?>[] types = ((Method) member).getParameterTypes();
+                name = name + "(" + (types.length == 0 ? "" : types[0].getName()) + ")";
+            }
+            names.put(propertyName, name);
+        }
+        return names;
+    }
+
+    /**
+     * Hash of class files of the class and its superclasses, which changes if
+     * any of them is compiled with changes. Class files are read as resources,
+     * so it is checked without reflection of members.
+     *
+     * @return Hash as hex string, or null if a class file cannot be read.
+     */
+    static String fingerprint(Class<?> clazz) {
+        CRC32 crc = new CRC32();
+        // stop at classes of bootstrap ClassLoader, e.g. java.lang.Object:
+        for (Class<?> c = clazz; c != null && c.getClassLoader() != null; c = c.getSuperclass()) {
+            try (InputStream input = c.getClassLoader().getResourceAsStream(c.getName().replace('.', '/') + ".class")) {
+                if (input == null) {
+                    return null;
+                }
+                crc.update(input.readAllBytes());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Find members by names of snapshot. Declaring class is found in class
+     * hierarchy of bean, and parameter type of setter is matched by name, so no
+     * class is loaded by name.
+     */
+    static Map<String, Member> toMembers(Class<?> clazz, Map<String, Object> names) throws ReflectiveOperationException {
+        Map<String, Member> members = new HashMap<>();
+        for (String propertyName : names.keySet()) {
+            String name = (String) names.get(propertyName);
+            int n = name.indexOf('#');
+            Class<?> declaringClass = findDeclaringClass(clazz, name.substring(0, n));
+            String memberName = name.substring(n + 1);
+            Member member;
+            if (memberName.endsWith(")")) {
+                int start = memberName.indexOf('(');
+                member = findMethod(declaringClass, memberName.substring(0, start), memberName.substring(start + 1, memberName.length() - 1));
+            } else {
+                member = declaringClass.getDeclaredField(memberName);
+            }
+            members.put(propertyName, member);
+        }
+        return members;
+    }
+
+    static Class<?> findDeclaringClass(Class<?> clazz, String name) throws ClassNotFoundException {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            if (c.getName().equals(name)) {
+                return c;
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    static Method findMethod(Class<?> declaringClass, String name, String typeName) throws NoSuchMethodException {
+        if (typeName.isEmpty()) {
+            return declaringClass.getDeclaredMethod(name);
+        }
+        Class<?> type = PRIMITIVE_TYPES.get(typeName);
+        if (type != null) {
+            return declaringClass.getDeclaredMethod(name, type);
+        }
+        for (Method m : declaringClass.getDeclaredMethods()) {
+            if (m.getName().equals(name) && m.getParameterCount() == 1 && m.getParameterTypes()[0].getName().equals(typeName)) {
+                return m;
+            }
+        }
+        throw new NoSuchMethodException(declaringClass.getName() + "." + name + "(" + typeName + ")");
+    }
+}
@@ -1,19 +1,20 @@
 package com.itranswarp.jsonstream;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.itranswarp.jsonstream.validator.Validator;
+import com.itranswarp.jsonstream.validator.impl.IntegerValidator;
+import com.itranswarp.jsonstream.validator.impl.NumberValidator;
 
 /**
  * Convert JSON object {@code Map<String, Object>} to JavaBean object, and
@@ -26,9 +27,6 @@ public class BeanObjectMapper implements ObjectMapper {
     final Log log = LogFactory.getLog(getClass());
     final ObjectTypeFinder objectTypeFinder;
 
-    // cache for PropertySetters:
-    static Map<String, PropertySetters> cachedSetters = new ConcurrentHashMap<>();
-
     /**
      * Default constructor.
      */
@@ -53,12 +51,7 @@ public class BeanObjectMapper implements ObjectMapper {
         clazz = this.objectTypeFinder.find(clazz, jsonObjectMap);
         String beanClassName = clazz.getName();
         log.info("Convert JSON object to bean: " + beanClassName);
-        PropertySetters pss = cachedSetters.get(beanClassName);
-        if (pss == null) {
-            log.info("Load PropertySetters for class: " + beanClassName);
-            pss = new PropertySetters(clazz);
-            cachedSetters.put(beanClassName, pss);
-        }
+        PropertySetters pss = BeanMetadata.of(clazz).getSetters();
         try {
             // create new instance:
             Object target = newInstance(clazz, jsonObjectMap);
@@ -100,33 +93,12 @@ public class BeanObjectMapper implements ObjectMapper {
                                 resultList.add(ele);
                                 index++;
                             }
-                            if (propertyType.isArray()) {
-                                log.info("Convert to Java array: " + genericType.getName() + "[]...");
-                                // convert List<T> to T[]:
-                                Object array = Array.newInstance(genericType, resultList.size());
-                                index = 0;
-                                for (Object element : resultList) {
-                                    Array.set(array, index, element);
-                                    index++;
-                                }
-                                jsonValue = array;
-                            } else {
-                                jsonValue = resultList;
-                            }
+                            jsonValue = toListOrArray(propertyType, genericType, resultList);
                         } else {
                             throw new JsonBindException("Cannot set Json array to property: " + propertyName + "(type: " + propertyType.getName() + ")");
                         }
                     } else {
-                        Validator<?>[] validators = ps.getValidators();
-                        if (validators != null && validators.length > 0) {
-                            log.info("Validator simple value: " + jsonValue);
-                            for (@SuppressWarnings("rawtypes")
-                            Validator validator : validators) {
-                                validator.validate(jsonValue, path, propertyName);
-                            }
-                        }
-                        log.info("Set simple JSON value " + jsonValue + " to property: " + propertyName);
-                        jsonValue = toSimpleValue(propertyType, jsonValue, typeAdapters);
+                        jsonValue = toPropertyValue(ps, path, propertyName, jsonValue, typeAdapters);
                     }
                     ps.setProperty(target, jsonValue);
                 }
@@ -139,6 +111,75 @@ public class BeanObjectMapper implements ObjectMapper {
         }
     }
 
+    /**
+     * Validate a simple JSON value and convert it to property type.
+     */
+    @SuppressWarnings("unchecked")
+    Object toPropertyValue(PropertySetter ps, String path, String propertyName, Object jsonValue, TypeAdapters typeAdapters) {
+        if (jsonValue instanceof LazyNumber) {
+            jsonValue = ((LazyNumber) jsonValue).getValue();
+        }
+        Validator<?>[] validators = ps.getValidators();
+        if (validators != null && validators.length > 0) {
+            log.info("Validator simple value: " + jsonValue);
+            for (@SuppressWarnings("rawtypes")
+            Validator validator : validators) {
+                validator.validate(toValidateValue(validator, jsonValue), path, propertyName);
+            }
+        }
+        log.info("Set simple JSON value " + jsonValue + " to property: " + propertyName);
+        return toSimpleValue(ps.getPropertyType(), jsonValue, typeAdapters);
+    }
+
+    /**
+     * Convert a number to Long for IntegerValidator, or to Double for
+     * NumberValidator. An integer out of range of long is converted to
+     * Long.MIN_VALUE or Long.MAX_VALUE, so it fails any narrower limit.
+     */
+    static Object toValidateValue(Validator<?> validator, Object jsonValue) {
+        if (validator instanceof IntegerValidator && jsonValue instanceof JsonNumber) {
+            JsonNumber n = (JsonNumber) jsonValue;
+            if (n.isInteger()) {
+                BigInteger value = n.bigIntegerValue();
+                if (value.bitLength() > 63) {
+                    return value.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+                }
+                return value.longValue();
+            }
+        }
+        if (validator instanceof NumberValidator && (jsonValue instanceof JsonNumber || jsonValue instanceof Long)) {
+            return ((Number) jsonValue).doubleValue();
+        }
+        return jsonValue;
+    }
+
+    /**
+     * Return converted elements as List, or as array if property type is array.
+     */
+    Object toListOrArray(Class<?> propertyType, Class<?> genericType, List<Object> resultList) {
+        if (!propertyType.isArray()) {
+            return resultList;
+        }
+        log.info("Convert to Java array: " + genericType.getName() + "[]...");
+        // convert List<T> to T[]:
+        Object array = Array.newInstance(genericType, resultList.size());
+        int index = 0;
+        for (Object element : resultList) {
+            Array.set(array, index, element);
+            index++;
+        }
+        return array;
+    }
+
+    /**
+     * Is the class a JavaBean which is created by default constructor and set
+     * by PropertySetters?
+     */
+    static boolean isBeanClass(Class<?> clazz) {
+        return !clazz.isPrimitive() && !clazz.isArray() && !clazz.isInterface() && !clazz.isEnum()
+                && !Modifier.isAbstract(clazz.getModifiers()) && !clazz.getName().startsWith("java.");
+    }
+
     /**
      * Convert a simple value object to specific type. e.g. Long to int, String to
      * LocalDate.
@@ -151,6 +192,9 @@ public class BeanObjectMapper implements ObjectMapper {
         if (element == null) {
             return null;
         }
+        if (element instanceof LazyNumber) {
+            element = ((LazyNumber) element).getValue();
+        }
         log.info("Convert from " + element.getClass().getName() + " to " + genericType.getName());
         if (genericType.isEnum() && (element instanceof String)) {
             @SuppressWarnings({ "unchecked", "rawtypes" })
@@ -192,23 +236,48 @@ public class BeanObjectMapper implements ObjectMapper {
             }
             throw new NumberFormatException("Cannot convert double to byte.");
         };
+        Converter longConveter = (value) -> {
+            if (value instanceof JsonNumber && ((JsonNumber) value).isInteger()) {
+                try {
+                    return ((JsonNumber) value).bigIntegerValue().longValueExact();
+                } catch (ArithmeticException e) {
+                    throw new NumberFormatException("Cannot convert " + value + " to long.");
+                }
+            }
+            return value;
+        };
         Converter floatConveter = (value) -> {
-            if (value instanceof Double) {
-                return ((Double) value).floatValue();
+            if (value instanceof Double || value instanceof JsonNumber) {
+                return ((Number) value).floatValue();
             }
             throw new NumberFormatException("Cannot convert long to float.");
         };
+        Converter doubleConveter = (value) -> {
+            if (value instanceof JsonNumber) {
+                return ((JsonNumber) value).doubleValue();
+            }
+            return value;
+        };
         Converter bigIntegerConveter = (value) -> {
             if (value instanceof Long) {
-                return new BigInteger(value.toString());
+                return BigInteger.valueOf((Long) value);
+            }
+            if (value instanceof JsonNumber && ((JsonNumber) value).isInteger()) {
+                return ((JsonNumber) value).bigIntegerValue();
             }
             throw new NumberFormatException("Cannot convert double to BigInteger.");
         };
         Converter bigDecimalConveter = (value) -> {
+            if (value instanceof JsonNumber) {
+                return ((JsonNumber) value).bigDecimalValue();
+            }
             if (value instanceof Double) {
-                return new BigDecimal((Double) value);
+                return BigDecimal.valueOf((Double) value);
+            }
+            if (value instanceof Long) {
+                return BigDecimal.valueOf((Long) value);
             }
-            throw new NumberFormatException("Cannot convert long to BigDecimal.");
+            throw new NumberFormatException("Cannot convert " + value.getClass().getName() + " to BigDecimal.");
         };
         SIMPLE_VALUE_CONVERTERS.put(int.class.getName(), intConveter);
         SIMPLE_VALUE_CONVERTERS.put(Integer.class.getName(), intConveter);
@@ -216,15 +285,19 @@ public class BeanObjectMapper implements ObjectMapper {
         SIMPLE_VALUE_CONVERTERS.put(Short.class.getName(), shortConveter);
         SIMPLE_VALUE_CONVERTERS.put(byte.class.getName(), byteConveter);
         SIMPLE_VALUE_CONVERTERS.put(Byte.class.getName(), byteConveter);
+        SIMPLE_VALUE_CONVERTERS.put(long.class.getName(), longConveter);
+        SIMPLE_VALUE_CONVERTERS.put(Long.class.getName(), longConveter);
         SIMPLE_VALUE_CONVERTERS.put(float.class.getName(), floatConveter);
         SIMPLE_VALUE_CONVERTERS.put(Float.class.getName(), floatConveter);
+        SIMPLE_VALUE_CONVERTERS.put(double.class.getName(), doubleConveter);
+        SIMPLE_VALUE_CONVERTERS.put(Double.class.getName(), doubleConveter);
         SIMPLE_VALUE_CONVERTERS.put(BigInteger.class.getName(), bigIntegerConveter);
         SIMPLE_VALUE_CONVERTERS.put(BigDecimal.class.getName(), bigDecimalConveter);
     }
 
     /**
      * Is the JSON value a simple value? Return true if the JSON value is String,
-     * Long, Double, Boolean or null.
+     * Long, Double, JsonNumber, LazyNumber, Boolean or null.
      * 
      * @param jsonObj JSON object.
      * @return True if this JSON object is a simple value.
@@ -233,7 +306,8 @@ public class BeanObjectMapper implements ObjectMapper {
         if (jsonObj == null) {
             return true;
         }
-        return (jsonObj instanceof String) || (jsonObj instanceof Boolean) || (jsonObj instanceof Long) || (jsonObj instanceof Double);
+        return (jsonObj instanceof String) || (jsonObj instanceof Boolean) || (jsonObj instanceof Long) || (jsonObj instanceof Double)
+                || (jsonObj instanceof JsonNumber) || (jsonObj instanceof LazyNumber);
     }
 
     /**
@@ -245,17 +319,8 @@ public class BeanObjectMapper implements ObjectMapper {
      * @throws Exception If any exception occur.
      */
     protected Object newInstance(Class<?> clazz, Map<String, Object> jsonObject) throws Exception {
-        String key = clazz.getName();
-        Constructor<?> cons = constructors.get(key);
-        if (cons == null) {
-            cons = clazz.getDeclaredConstructor();
-            cons.setAccessible(true);
-            constructors.put(key, cons);
-        }
-        return cons.newInstance();
+        return BeanMetadata.of(clazz).newInstance();
     }
-
-    Map<String, Constructor<?>> constructors = new ConcurrentHashMap<>();
 }
 
 /**
@@ -0,0 +1,150 @@
+package com.itranswarp.jsonstream;
+
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Per-thread pool of read buffers, so that parsing many small documents does
+ * not allocate a new buffer for each document. Buffers are pooled by size
+ * class of power of two, one buffer per class, so a buffer grown by a large
+ * document does not replace the small one used by small documents. Buffers
+ * larger than MAX_POOLED_SIZE are not pooled. Buffers are soft referenced and
+ * can be collected under memory pressure.
+ *
+ * The size of recent documents read by the thread is kept as a hint, so the
+ * initial read buffer of next document is large enough to be filled without
+ * growing.
+ *
+ * Direct ByteBuffers used to write to channels are pooled as well, up to
+ * MAX_DIRECT_BUFFERS per thread.
+ *
+ * @author Michael Liao
+ */
+class BufferRecycler {
+
+    static final ThreadLocal<SoftReference<BufferRecycler>> recyclers = new ThreadLocal<>();
+
+    static final int MAX_DIRECT_BUFFERS = 16;
+
+    // max size of pooled char or byte buffer:
+    static final int MAX_POOLED_SIZE = 65536;
+
+    static final int SIZE_CLASSES = 17;
+
+    // pooled buffers indexed by floor(log2(length)):
+    final char[][] charBuffers = new char[SIZE_CLASSES][];
+    final byte[][] byteBuffers = new byte[SIZE_CLASSES][];
+    final ArrayDeque<ByteBuffer> directBuffers = new ArrayDeque<>();
+
+    // power of two size of recent documents, or 0 if none:
+    int sizeHint = 0;
+
+    /**
+     * Get BufferRecycler of current thread.
+     */
+    static BufferRecycler get() {
+        SoftReference<BufferRecycler> ref = recyclers.get();
+        BufferRecycler recycler = ref == null ? null : ref.get();
+        if (recycler == null) {
+            recycler = new BufferRecycler();
+            recyclers.set(new SoftReference<>(recycler));
+        }
+        return recycler;
+    }
+
+    /**
+     * Size class of a buffer with specified length.
+     */
+    static int sizeClass(int length) {
+        return 31 - Integer.numberOfLeadingZeros(length);
+    }
+
+    /**
+     * Initial size of read buffer, which is the size hint of recent documents
+     * if it is larger than bufferSize.
+     */
+    int readBufferSize(int bufferSize) {
+        return Math.max(bufferSize, this.sizeHint);
+    }
+
+    /**
+     * Record size of a document when its read buffer is released. The hint
+     * moves by one size class per document towards the size, so one document
+     * much larger or smaller than others does not change it much.
+     */
+    void recordSize(int size) {
+        int target = size <= 1 ? 1 : Math.min(MAX_POOLED_SIZE, Integer.highestOneBit(size - 1) << 1);
+        int hint = this.sizeHint;
+        if (target > hint) {
+            this.sizeHint = hint == 0 ? target : Math.min(target, hint * 2);
+        } else if (target < hint) {
+            this.sizeHint = Math.max(target, hint / 2);
+        }
+    }
+
+    char[] allocCharBuffer(int minSize) {
+        if (minSize > 0 && minSize <= MAX_POOLED_SIZE) {
+            // a buffer of the same class may be large enough, otherwise take one
+            // from next class which is always large enough:
+            int c = sizeClass(minSize);
+            char[] buf = this.charBuffers[c];
+            if (buf != null && buf.length >= minSize) {
+                this.charBuffers[c] = null;
+                return buf;
+            }
+            if (c + 1 < SIZE_CLASSES && (buf = this.charBuffers[c + 1]) != null) {
+                this.charBuffers[c + 1] = null;
+                return buf;
+            }
+        }
+        return new char[minSize];
+    }
+
+    void releaseCharBuffer(char[] buf) {
+        if (buf.length > 0 && buf.length <= MAX_POOLED_SIZE) {
+            this.charBuffers[sizeClass(buf.length)] = buf;
+        }
+    }
+
+    byte[] allocByteBuffer(int minSize) {
+        if (minSize > 0 && minSize <= MAX_POOLED_SIZE) {
+            int c = sizeClass(minSize);
+            byte[] buf = this.byteBuffers[c];
+            if (buf != null && buf.length >= minSize) {
+                this.byteBuffers[c] = null;
+                return buf;
+            }
+            if (c + 1 < SIZE_CLASSES && (buf = this.byteBuffers[c + 1]) != null) {
+                this.byteBuffers[c + 1] = null;
+                return buf;
+            }
+        }
+        return new byte[minSize];
+    }
+
+    void releaseByteBuffer(byte[] buf) {
+        if (buf.length > 0 && buf.length <= MAX_POOLED_SIZE) {
+            this.byteBuffers[sizeClass(buf.length)] = buf;
+        }
+    }
+
+    ByteBuffer allocDirectBuffer(int minSize) {
+        ByteBuffer buf = this.directBuffers.poll();
+        if (buf != null) {
+            if (buf.capacity() >= minSize) {
+                buf.clear();
+                return buf;
+            }
+            // keep undersized buffer at the tail for smaller request:
+            this.directBuffers.addLast(buf);
+        }
+        return ByteBuffer.allocateDirect(minSize);
+    }
+
+    void releaseDirectBuffer(ByteBuffer buf) {
+        if (this.directBuffers.size() < MAX_DIRECT_BUFFERS) {
+            this.directBuffers.push(buf);
+        }
+    }
+}
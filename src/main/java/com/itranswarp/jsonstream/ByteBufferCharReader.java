@@ -0,0 +1,183 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read UTF-8 encoded JSON from one or more ByteBuffers. Both heap and direct
+ * buffers are read in place by absolute get, and the position of the buffers
+ * are not changed. Multiple buffers are read as one continuous document, so a
+ * token or a multi-byte char can span two buffers.
+ *
+ * @author Michael Liao
+ */
+class ByteBufferCharReader extends Utf8CharReader {
+
+    static final ByteBuffer[] EMPTY_BUFFERS = new ByteBuffer[0];
+
+    final ByteBuffer[] buffers;
+
+    // index of next buffer:
+    int index = 0;
+
+    ByteBuffer current = null;
+
+    // current buffer position:
+    int cpos = 0;
+
+    // current buffer ends:
+    int climit = 0;
+
+    ByteBufferCharReader(ByteBuffer... buffers) {
+        this.buffers = buffers;
+    }
+
+    @Override
+    public char next() throws IOException {
+        // fast path for ASCII:
+        if (pending < 0 && cpos < climit) {
+            byte b = current.get(cpos);
+            if (b >= 0) {
+                cpos++;
+                return (char) b;
+            }
+        }
+        return super.next();
+    }
+
+    @Override
+    public char peek() throws IOException {
+        // fast path for ASCII:
+        if (pending < 0 && cpos < climit) {
+            byte b = current.get(cpos);
+            if (b >= 0) {
+                return (char) b;
+            }
+        }
+        return super.peek();
+    }
+
+    @Override
+    String readPlainString() {
+        if (pending >= 0 || cpos == climit) {
+            return null;
+        }
+        ByteBuffer bb = this.current;
+        int end;
+        if (bb.hasArray()) {
+            int offset = bb.arrayOffset();
+            end = indexOfClosingQuote(bb.array(), offset + cpos, offset + climit);
+            if (end < 0) {
+                return null;
+            }
+            String s = new String(bb.array(), offset + cpos, end - offset - cpos, StandardCharsets.UTF_8);
+            cpos = end - offset + 1;
+            return s;
+        }
+        // direct buffer:
+        end = -1;
+        for (int i = cpos; i < climit; i++) {
+            byte b = bb.get(i);
+            if (b == '\"') {
+                end = i;
+                break;
+            }
+            if (b == '\\' || b == '\r' || b == '\n') {
+                return null;
+            }
+        }
+        if (end < 0) {
+            return null;
+        }
+        byte[] data = new byte[end - cpos];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = bb.get(cpos + i);
+        }
+        cpos = end + 1;
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    void appendPlainChars(StringBuilder sb) {
+        if (pending >= 0) {
+            return;
+        }
+        ByteBuffer bb = this.current;
+        if (bb != null && bb.hasArray()) {
+            int offset = bb.arrayOffset();
+            cpos = appendAsciiChars(bb.array(), offset + cpos, offset + climit, sb) - offset;
+            return;
+        }
+        int i = cpos;
+        while (i < climit) {
+            byte b = bb.get(i);
+            if (b < 0 || b == '\"' || b == '\\' || b == '\r' || b == '\n') {
+                break;
+            }
+            sb.append((char) b);
+            i++;
+        }
+        cpos = i;
+    }
+
+    @Override
+    void skipPlainChars() {
+        if (pending >= 0) {
+            return;
+        }
+        ByteBuffer bb = this.current;
+        if (bb != null && bb.hasArray()) {
+            int offset = bb.arrayOffset();
+            cpos = skipPlainBytes(bb.array(), offset + cpos, offset + climit) - offset;
+            return;
+        }
+        int i = cpos;
+        while (i < climit) {
+            byte b = bb.get(i);
+            if (b == '\"' || b == '\\' || b == '\r' || b == '\n') {
+                break;
+            }
+            i++;
+        }
+        cpos = i;
+    }
+
+    @Override
+    int readByte() throws IOException {
+        if (cpos == climit && !nextBuffer()) {
+            return -1;
+        }
+        return current.get(cpos++) & 0xff;
+    }
+
+    @Override
+    int peekByte() throws IOException {
+        if (cpos == climit && !nextBuffer()) {
+            return -1;
+        }
+        return current.get(cpos) & 0xff;
+    }
+
+    /**
+     * Move to next non-empty buffer, or return false if no more buffers.
+     */
+    boolean nextBuffer() throws IOException {
+        while (index < buffers.length) {
+            ByteBuffer bb = buffers[index];
+            index++;
+            if (bb.hasRemaining()) {
+                setCurrent(bb, bb.position(), bb.limit());
+                this.readed += bb.remaining();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void setCurrent(ByteBuffer bb, int position, int limit) {
+        this.current = bb;
+        this.cpos = position;
+        this.climit = limit;
+    }
+}
@@ -0,0 +1,314 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Write JSON as UTF-8 encoded bytes to a WritableByteChannel. Bytes are
+ * encoded directly into a direct ByteBuffer pooled by BufferRecycler, and each
+ * full buffer becomes pending without copying. Pending buffers are written to
+ * the channel by one gathering write when MAX_GATHER buffers are pending, or
+ * when the JSON is done. The channel must be in blocking mode.
+ *
+ * @author Michael Liao
+ */
+class ByteBufferCharWriter extends CharWriter {
+
+    // max number of buffers written by one gathering write:
+    static final int MAX_GATHER = 16;
+
+    static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocateDirect(0);
+
+    final WritableByteChannel channel;
+
+    final ByteBuffer[] pending = new ByteBuffer[MAX_GATHER];
+
+    int pendingCount = 0;
+
+    // current direct buffer which is written by absolute put at pos:
+    ByteBuffer buf = EMPTY_BUFFER;
+
+    // capacity of current buffer:
+    int limit = 0;
+
+    // formatted number:
+    final char[] digits = new char[NumberFormatter.MAX_LENGTH];
+
+    ByteBufferCharWriter(WritableByteChannel channel, int bufferSize) {
+        super(null, true, bufferSize);
+        this.channel = channel;
+    }
+
+    @Override
+    void write(char ch) throws IOException {
+        if (ch < 0x80) {
+            if (pos == limit) {
+                require(1);
+            }
+            buf.put(pos++, (byte) ch);
+        } else {
+            writeChar(ch, '\0');
+        }
+    }
+
+    @Override
+    void write(char[] cs) throws IOException {
+        int i = 0;
+        while (i < cs.length) {
+            int end = i + Math.min(cs.length - i, require(4));
+            ByteBuffer b = buf;
+            int p = pos;
+            // copy ASCII chars:
+            while (i < end) {
+                char ch = cs[i];
+                if (ch >= 0x80) {
+                    break;
+                }
+                b.put(p++, (byte) ch);
+                i++;
+            }
+            pos = p;
+            if (i < end) {
+                i += writeChar(cs[i], i + 1 < cs.length ? cs[i + 1] : '\0');
+            }
+        }
+    }
+
+    @Override
+    void write(String s, int start, int end) throws IOException {
+        int i = start;
+        while (i < end) {
+            int n = i + Math.min(end - i, require(4));
+            ByteBuffer b = buf;
+            int p = pos;
+            // copy ASCII chars:
+            while (i < n) {
+                char ch = s.charAt(i);
+                if (ch >= 0x80) {
+                    break;
+                }
+                b.put(p++, (byte) ch);
+                i++;
+            }
+            pos = p;
+            if (i < n) {
+                i += writeChar(s.charAt(i), i + 1 < end ? s.charAt(i + 1) : '\0');
+            }
+        }
+    }
+
+    @Override
+    void writeLong(long n) throws IOException {
+        writeDigits(NumberFormatter.formatLong(n, digits, 0));
+    }
+
+    @Override
+    void writeDouble(double d) throws IOException {
+        writeDigits(NumberFormatter.formatDouble(d, digits, 0));
+    }
+
+    @Override
+    void writeFloat(float f) throws IOException {
+        writeDigits(NumberFormatter.formatFloat(f, digits, 0));
+    }
+
+    void writeDigits(int len) throws IOException {
+        require(len);
+        ByteBuffer b = buf;
+        int p = pos;
+        for (int i = 0; i < len; i++) {
+            b.put(p + i, (byte) digits[i]);
+        }
+        pos = p + len;
+    }
+
+    @Override
+    void writeString(String s) throws IOException {
+        write('\"');
+        int i = 0;
+        int len = s.length();
+        while (i < len) {
+            int end = i + Math.min(len - i, require(6));
+            ByteBuffer b = buf;
+            int p = pos;
+            // copy ASCII chars which need no escape:
+            while (i < end) {
+                char ch = s.charAt(i);
+                if (ch >= 0x80 || ESCAPES[ch] != 0) {
+                    break;
+                }
+                b.put(p++, (byte) ch);
+                i++;
+            }
+            pos = p;
+            if (i < end) {
+                char ch = s.charAt(i);
+                if (ch < 0x80) {
+                    writeEscape(ch);
+                    i++;
+                } else {
+                    i += writeChar(ch, i + 1 < len ? s.charAt(i + 1) : '\0');
+                }
+            }
+        }
+        write('\"');
+    }
+
+    @Override
+    void writeEscape(char ch) throws IOException {
+        char esc = ESCAPES[ch];
+        require(6);
+        ByteBuffer b = buf;
+        int p = pos;
+        b.put(p, (byte) '\\');
+        if (esc == 'u') {
+            b.put(p + 1, (byte) 'u');
+            b.put(p + 2, (byte) '0');
+            b.put(p + 3, (byte) '0');
+            b.put(p + 4, (byte) HEX[ch >> 4]);
+            b.put(p + 5, (byte) HEX[ch & 0xf]);
+            pos = p + 6;
+        } else {
+            b.put(p + 1, (byte) esc);
+            pos = p + 2;
+        }
+    }
+
+    /**
+     * Encode a non-ASCII char, or a surrogate pair of ch and next, as
+     * ByteCharWriter does. Unpaired surrogate is written as '?'.
+     *
+     * @return Number of chars consumed.
+     */
+    int writeChar(char ch, char next) throws IOException {
+        require(4);
+        ByteBuffer b = buf;
+        int p = pos;
+        int n = 1;
+        if (ch < 0x80) {
+            b.put(p++, (byte) ch);
+        } else if (ch < 0x800) {
+            b.put(p++, (byte) (0xc0 | (ch >> 6)));
+            b.put(p++, (byte) (0x80 | (ch & 0x3f)));
+        } else if (Character.isSurrogate(ch)) {
+            if (Character.isHighSurrogate(ch) && Character.isLowSurrogate(next)) {
+                int cp = Character.toCodePoint(ch, next);
+                b.put(p++, (byte) (0xf0 | (cp >> 18)));
+                b.put(p++, (byte) (0x80 | ((cp >> 12) & 0x3f)));
+                b.put(p++, (byte) (0x80 | ((cp >> 6) & 0x3f)));
+                b.put(p++, (byte) (0x80 | (cp & 0x3f)));
+                n = 2;
+            } else {
+                b.put(p++, (byte) '?');
+            }
+        } else {
+            b.put(p++, (byte) (0xe0 | (ch >> 12)));
+            b.put(p++, (byte) (0x80 | ((ch >> 6) & 0x3f)));
+            b.put(p++, (byte) (0x80 | (ch & 0x3f)));
+        }
+        pos = p;
+        return n;
+    }
+
+    /**
+     * Make room for at least min bytes, by making current buffer pending and
+     * taking another one from BufferRecycler.
+     *
+     * @return Number of available bytes.
+     */
+    @Override
+    int require(int min) throws IOException {
+        int available = limit - pos;
+        if (available >= min) {
+            return available;
+        }
+        if (pos > 0) {
+            flushBlock();
+        }
+        if (limit < min) {
+            if (buf != EMPTY_BUFFER) {
+                BufferRecycler.get().releaseDirectBuffer(buf);
+            }
+            buf = BufferRecycler.get().allocDirectBuffer(Math.max(bufferSize, min));
+            limit = buf.capacity();
+        }
+        return limit - pos;
+    }
+
+    /**
+     * Make current buffer pending, and write pending buffers if there are
+     * MAX_GATHER buffers.
+     */
+    @Override
+    void flushBlock() throws IOException {
+        if (pos > 0) {
+            buf.limit(pos).position(0);
+            pending[pendingCount++] = buf;
+            buf = EMPTY_BUFFER;
+            limit = 0;
+            pos = 0;
+        }
+        if (pendingCount == MAX_GATHER) {
+            writePending();
+        }
+    }
+
+    /**
+     * Write current buffer and all pending buffers to channel.
+     */
+    @Override
+    void flushBuffer() throws IOException {
+        flushBlock();
+        writePending();
+    }
+
+    @Override
+    void flush() throws IOException {
+        flushBuffer();
+    }
+
+    void writePending() throws IOException {
+        if (pendingCount == 0) {
+            return;
+        }
+        try {
+            if (channel instanceof GatheringByteChannel) {
+                GatheringByteChannel gathering = (GatheringByteChannel) channel;
+                ByteBuffer last = pending[pendingCount - 1];
+                while (last.hasRemaining()) {
+                    gathering.write(pending, 0, pendingCount);
+                }
+            } else {
+                for (int i = 0; i < pendingCount; i++) {
+                    while (pending[i].hasRemaining()) {
+                        channel.write(pending[i]);
+                    }
+                }
+            }
+        } finally {
+            releasePending();
+        }
+    }
+
+    void releasePending() {
+        BufferRecycler recycler = BufferRecycler.get();
+        for (int i = 0; i < pendingCount; i++) {
+            recycler.releaseDirectBuffer(pending[i]);
+            pending[i] = null;
+        }
+        pendingCount = 0;
+    }
+
+    @Override
+    void release() {
+        if (buf != EMPTY_BUFFER) {
+            BufferRecycler.get().releaseDirectBuffer(buf);
+            buf = EMPTY_BUFFER;
+            limit = 0;
+            pos = 0;
+        }
+        releasePending();
+    }
+}
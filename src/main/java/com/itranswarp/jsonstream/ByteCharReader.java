@@ -0,0 +1,162 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read UTF-8 encoded JSON from a byte array or an InputStream.
+ *
+ * @author Michael Liao
+ */
+class ByteCharReader extends Utf8CharReader {
+
+    final InputStream input;
+
+    // initial buffer size:
+    final int bufferSize;
+
+    byte[] bytes;
+
+    // byte buffer position:
+    int bpos;
+
+    // byte buffer ends:
+    int blimit;
+
+    /**
+     * Read from a byte array which contains the whole JSON document.
+     */
+    ByteCharReader(byte[] data, int offset, int length) {
+        this.input = null;
+        this.bufferSize = length;
+        this.bytes = data;
+        this.bpos = offset;
+        this.blimit = offset + length;
+        this.readed = length;
+    }
+
+    /**
+     * Read from an InputStream.
+     */
+    ByteCharReader(InputStream input) {
+        this(input, BUFFER_SIZE);
+    }
+
+    /**
+     * Read from an InputStream with initial buffer size.
+     */
+    ByteCharReader(InputStream input, int bufferSize) {
+        this.input = input;
+        this.bufferSize = bufferSize;
+        BufferRecycler recycler = BufferRecycler.get();
+        this.bytes = recycler.allocByteBuffer(recycler.readBufferSize(bufferSize));
+    }
+
+    @Override
+    public char next() throws IOException {
+        // fast path for ASCII:
+        if (pending < 0 && bpos < blimit) {
+            byte b = bytes[bpos];
+            if (b >= 0) {
+                bpos++;
+                return (char) b;
+            }
+        }
+        return super.next();
+    }
+
+    @Override
+    public char peek() throws IOException {
+        // fast path for ASCII:
+        if (pending < 0 && bpos < blimit) {
+            byte b = bytes[bpos];
+            if (b >= 0) {
+                return (char) b;
+            }
+        }
+        return super.peek();
+    }
+
+    @Override
+    String readPlainString() {
+        int end = pending < 0 ? indexOfClosingQuote(bytes, bpos, blimit) : -1;
+        if (end < 0) {
+            return null;
+        }
+        String s = new String(bytes, bpos, end - bpos, StandardCharsets.UTF_8);
+        bpos = end + 1;
+        return s;
+    }
+
+    @Override
+    void appendPlainChars(StringBuilder sb) {
+        if (pending < 0) {
+            bpos = appendAsciiChars(bytes, bpos, blimit, sb);
+        }
+    }
+
+    @Override
+    void skipPlainChars() {
+        if (pending < 0) {
+            bpos = skipPlainBytes(bytes, bpos, blimit);
+        }
+    }
+
+    @Override
+    int readByte() throws IOException {
+        if (bpos == blimit && !fillBytes()) {
+            return -1;
+        }
+        return bytes[bpos++] & 0xff;
+    }
+
+    @Override
+    int peekByte() throws IOException {
+        if (bpos == blimit && !fillBytes()) {
+            return -1;
+        }
+        return bytes[bpos] & 0xff;
+    }
+
+    boolean fillBytes() throws IOException {
+        if (input == null) {
+            return false;
+        }
+        if (bytes == null) {
+            // buffer was released:
+            BufferRecycler recycler = BufferRecycler.get();
+            bytes = recycler.allocByteBuffer(recycler.readBufferSize(bufferSize));
+        } else if (blimit == bytes.length && bytes.length < MAX_BUFFER_SIZE) {
+            // last read filled the whole buffer, so read more next time, and
+            // keep the smaller buffer in pool:
+            BufferRecycler recycler = BufferRecycler.get();
+            int length = bytes.length * 2;
+            recycler.releaseByteBuffer(bytes);
+            bytes = recycler.allocByteBuffer(length);
+        }
+        int n;
+        do {
+            n = input.read(bytes);
+        } while (n == 0);
+        if (n == (-1)) {
+            return false;
+        }
+        this.bpos = 0;
+        this.blimit = n;
+        this.readed += n;
+        return true;
+    }
+
+    @Override
+    void release() {
+        if (input != null && bytes != null) {
+            BufferRecycler recycler = BufferRecycler.get();
+            recycler.recordSize(readed);
+            recycler.releaseByteBuffer(bytes);
+            bytes = null;
+            bpos = 0;
+            blimit = 0;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Write JSON as UTF-8 encoded bytes into a byte array, which grows when
+ * writing to memory, or is written to an OutputStream in blocks when it is
+ * full. ASCII chars are copied without encoding.
+ *
+ * @author Michael Liao
+ */
+class ByteCharWriter extends CharWriter {
+
+    static final byte[] EMPTY_BYTES = new byte[0];
+
+    // null if write to memory or not an OutputStream:
+    final OutputStream output;
+
+    byte[] bytes;
+
+    // formatted number:
+    final char[] digits = new char[NumberFormatter.MAX_LENGTH];
+
+    /**
+     * Write to memory.
+     */
+    ByteCharWriter(int bufferSize) {
+        this(null, false, bufferSize);
+        this.bytes = new byte[bufferSize];
+    }
+
+    /**
+     * Write to an OutputStream. The buffer is allocated from BufferRecycler
+     * when writing, and released by release().
+     */
+    ByteCharWriter(OutputStream output, int bufferSize) {
+        this(output, true, bufferSize);
+    }
+
+    ByteCharWriter(OutputStream output, boolean external, int bufferSize) {
+        super(null, external, bufferSize);
+        this.output = output;
+        this.bytes = EMPTY_BYTES;
+    }
+
+    @Override
+    void write(char ch) throws IOException {
+        if (ch < 0x80) {
+            if (pos == bytes.length) {
+                require(1);
+            }
+            bytes[pos++] = (byte) ch;
+        } else {
+            writeChar(ch, '\0');
+        }
+    }
+
+    @Override
+    void write(char[] cs) throws IOException {
+        int i = 0;
+        while (i < cs.length) {
+            int limit = i + Math.min(cs.length - i, require(4));
+            byte[] buf = bytes;
+            int p = pos;
+            // copy ASCII chars:
+            while (i < limit) {
+                char ch = cs[i];
+                if (ch >= 0x80) {
+                    break;
+                }
+                buf[p++] = (byte) ch;
+                i++;
+            }
+            pos = p;
+            if (i < limit) {
+                i += writeChar(cs[i], i + 1 < cs.length ? cs[i + 1] : '\0');
+            }
+        }
+    }
+
+    @Override
+    void write(String s, int start, int end) throws IOException {
+        int i = start;
+        while (i < end) {
+            int limit = i + Math.min(end - i, require(4));
+            byte[] buf = bytes;
+            int p = pos;
+            // copy ASCII chars:
+            while (i < limit) {
+                char ch = s.charAt(i);
+                if (ch >= 0x80) {
+                    break;
+                }
+                buf[p++] = (byte) ch;
+                i++;
+            }
+            pos = p;
+            if (i < limit) {
+                i += writeChar(s.charAt(i), i + 1 < end ? s.charAt(i + 1) : '\0');
+            }
+        }
+    }
+
+    @Override
+    void writeLong(long n) throws IOException {
+        writeDigits(NumberFormatter.formatLong(n, digits, 0));
+    }
+
+    @Override
+    void writeDouble(double d) throws IOException {
+        writeDigits(NumberFormatter.formatDouble(d, digits, 0));
+    }
+
+    @Override
+    void writeFloat(float f) throws IOException {
+        writeDigits(NumberFormatter.formatFloat(f, digits, 0));
+    }
+
+    void writeDigits(int len) throws IOException {
+        require(len);
+        byte[] buf = bytes;
+        int p = pos;
+        for (int i = 0; i < len; i++) {
+            buf[p + i] = (byte) digits[i];
+        }
+        pos = p + len;
+    }
+
+    @Override
+    void writeString(String s) throws IOException {
+        write('\"');
+        int i = 0;
+        int len = s.length();
+        while (i < len) {
+            int limit = i + Math.min(len - i, require(6));
+            byte[] buf = bytes;
+            int p = pos;
+            // copy ASCII chars which need no escape:
+            while (i < limit) {
+                char ch = s.charAt(i);
+                if (ch >= 0x80 || ESCAPES[ch] != 0) {
+                    break;
+                }
+                buf[p++] = (byte) ch;
+                i++;
+            }
+            pos = p;
+            if (i < limit) {
+                char ch = s.charAt(i);
+                if (ch < 0x80) {
+                    writeEscape(ch);
+                    i++;
+                } else {
+                    i += writeChar(ch, i + 1 < len ? s.charAt(i + 1) : '\0');
+                }
+            }
+        }
+        write('\"');
+    }
+
+    @Override
+    void writeEscape(char ch) throws IOException {
+        char esc = ESCAPES[ch];
+        require(6);
+        byte[] buf = bytes;
+        int p = pos;
+        buf[p] = '\\';
+        if (esc == 'u') {
+            buf[p + 1] = 'u';
+            buf[p + 2] = '0';
+            buf[p + 3] = '0';
+            buf[p + 4] = (byte) HEX[ch >> 4];
+            buf[p + 5] = (byte) HEX[ch & 0xf];
+            pos = p + 6;
+        } else {
+            buf[p + 1] = (byte) esc;
+            pos = p + 2;
+        }
+    }
+
+    /**
+     * Encode a non-ASCII char, or a surrogate pair of ch and next. Unpaired
+     * surrogate is written as '?'.
+     *
+     * @return Number of chars consumed.
+     */
+    int writeChar(char ch, char next) throws IOException {
+        require(4);
+        byte[] buf = bytes;
+        int p = pos;
+        int n = 1;
+        if (ch < 0x80) {
+            buf[p++] = (byte) ch;
+        } else if (ch < 0x800) {
+            buf[p++] = (byte) (0xc0 | (ch >> 6));
+            buf[p++] = (byte) (0x80 | (ch & 0x3f));
+        } else if (Character.isSurrogate(ch)) {
+            if (Character.isHighSurrogate(ch) && Character.isLowSurrogate(next)) {
+                int cp = Character.toCodePoint(ch, next);
+                buf[p++] = (byte) (0xf0 | (cp >> 18));
+                buf[p++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buf[p++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buf[p++] = (byte) (0x80 | (cp & 0x3f));
+                n = 2;
+            } else {
+                buf[p++] = '?';
+            }
+        } else {
+            buf[p++] = (byte) (0xe0 | (ch >> 12));
+            buf[p++] = (byte) (0x80 | ((ch >> 6) & 0x3f));
+            buf[p++] = (byte) (0x80 | (ch & 0x3f));
+        }
+        pos = p;
+        return n;
+    }
+
+    /**
+     * Make room for at least min bytes.
+     *
+     * @return Number of available bytes.
+     */
+    @Override
+    int require(int min) throws IOException {
+        int available = bytes.length - pos;
+        if (available >= min) {
+            return available;
+        }
+        if (!external) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, pos + min));
+        } else {
+            if (pos > 0) {
+                flushBlock();
+            }
+            if (bytes.length < min) {
+                bytes = BufferRecycler.get().allocByteBuffer(Math.max(bufferSize, min));
+            }
+        }
+        return bytes.length - pos;
+    }
+
+    /**
+     * Write buffered bytes to OutputStream.
+     */
+    @Override
+    void flushBuffer() throws IOException {
+        if (output != null && pos > 0) {
+            output.write(bytes, 0, pos);
+            pos = 0;
+        }
+    }
+
+    @Override
+    void flush() throws IOException {
+        if (output != null) {
+            flushBuffer();
+            output.flush();
+        }
+    }
+
+    @Override
+    void release() {
+        if (external && bytes != EMPTY_BYTES) {
+            BufferRecycler.get().releaseByteBuffer(bytes);
+            bytes = EMPTY_BYTES;
+            pos = 0;
+        }
+    }
+
+    @Override
+    byte[] toBytes() {
+        return Arrays.copyOf(bytes, pos);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, pos, StandardCharsets.UTF_8);
+    }
+}
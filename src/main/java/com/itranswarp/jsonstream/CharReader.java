@@ -12,6 +12,8 @@ class CharReader {
 
 	static final int BUFFER_SIZE = 1024;
 
+	static final int MAX_BUFFER_SIZE = 65536;
+
 	// total readed chars:
 	int readed = 0;
 
@@ -21,14 +23,50 @@ class CharReader {
 	// buffer ends:
 	int size = 0;
 
-	final char[] buffer;
+	// initial buffer size:
+	final int bufferSize;
+
+	// buffer is allocated from BufferRecycler:
+	final boolean recyclable;
+
+	char[] buffer;
 	final Reader reader;
 
 	public CharReader(Reader reader) {
-		this.buffer = new char[BUFFER_SIZE];
+		this(reader, BUFFER_SIZE);
+	}
+
+	CharReader(Reader reader, int bufferSize) {
+		this.bufferSize = bufferSize;
+		this.recyclable = true;
+		BufferRecycler recycler = BufferRecycler.get();
+		this.buffer = recycler.allocCharBuffer(recycler.readBufferSize(bufferSize));
 		this.reader = reader;
 	}
 
+	/**
+	 * Read chars from an in-memory char array directly, without copy.
+	 */
+	CharReader(char[] buffer, int offset, int length) {
+		this.bufferSize = length;
+		this.recyclable = false;
+		this.buffer = buffer;
+		this.reader = null;
+		this.pos = offset;
+		this.size = offset + length;
+		this.readed = length;
+	}
+
+	/**
+	 * Used by subclasses which do not read chars from a Reader.
+	 */
+	CharReader() {
+		this.bufferSize = 0;
+		this.recyclable = false;
+		this.buffer = null;
+		this.reader = null;
+	}
+
 	public boolean hasMore() throws IOException {
 		if (pos < size) {
 			return true;
@@ -65,8 +103,85 @@ class CharReader {
 		return this.buffer[this.pos];
 	}
 
+	/**
+	 * Read a string value whose closing quote is in the current buffer, and
+	 * which has no backslash or line break before the quote. The chars are
+	 * scanned in one pass and the closing quote is consumed. Return null and
+	 * consume nothing if the string cannot be read this way.
+	 */
+	String readPlainString() {
+		char[] buf = this.buffer;
+		int start = this.pos;
+		for (int i = start; i < this.size; i++) {
+			char ch = buf[i];
+			if (ch == '\"') {
+				this.pos = i + 1;
+				return new String(buf, start, i - start);
+			}
+			if (ch == '\\' || ch == '\r' || ch == '\n') {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Append chars of a string value in the current buffer to sb, and stop
+	 * before a quote, a backslash, a line break or at the end of the buffer.
+	 */
+	void appendPlainChars(StringBuilder sb) {
+		char[] buf = this.buffer;
+		int start = this.pos;
+		int i = start;
+		while (i < this.size) {
+			char ch = buf[i];
+			if (ch == '\"' || ch == '\\' || ch == '\r' || ch == '\n') {
+				break;
+			}
+			i++;
+		}
+		if (i > start) {
+			sb.append(buf, start, i - start);
+			this.pos = i;
+		}
+	}
+
+	/**
+	 * Skip chars of a string value in the current buffer, and stop before a
+	 * quote, a backslash, a line break or at the end of the buffer.
+	 */
+	void skipPlainChars() {
+		char[] buf = this.buffer;
+		int i = this.pos;
+		while (i < this.size) {
+			char ch = buf[i];
+			if (ch == '\"' || ch == '\\' || ch == '\r' || ch == '\n') {
+				break;
+			}
+			i++;
+		}
+		this.pos = i;
+	}
+
 	void fillBuffer(String eofErrorMessage) throws IOException {
-		int n = reader.read(buffer);
+		int n = -1;
+		if (reader != null) {
+			if (buffer == null) {
+				// buffer was released:
+				BufferRecycler recycler = BufferRecycler.get();
+				buffer = recycler.allocCharBuffer(recycler.readBufferSize(bufferSize));
+			} else if (size == buffer.length && buffer.length < MAX_BUFFER_SIZE) {
+				// last read filled the whole buffer, so read more next time, and
+				// keep the smaller buffer in pool:
+				BufferRecycler recycler = BufferRecycler.get();
+				int length = buffer.length * 2;
+				if (recyclable) {
+					recycler.releaseCharBuffer(buffer);
+				}
+				buffer = recycler.allocCharBuffer(length);
+			}
+			n = reader.read(buffer);
+		}
 		if (n==(-1)) {
 			if (eofErrorMessage!=null) {
 				throw new JsonParseException(eofErrorMessage, this.readed);
@@ -77,4 +192,20 @@ class CharReader {
 		this.size = n;
 		this.readed += n;
 	}
+
+	/**
+	 * Return buffer to BufferRecycler of current thread, and record number of
+	 * chars read as size hint. The buffer is re-allocated if more chars are
+	 * read after released.
+	 */
+	void release() {
+		if (recyclable && buffer != null) {
+			BufferRecycler recycler = BufferRecycler.get();
+			recycler.recordSize(readed);
+			recycler.releaseCharBuffer(buffer);
+			buffer = null;
+			pos = 0;
+			size = 0;
+		}
+	}
 }
@@ -0,0 +1,252 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffered output of JsonWriter. Chars are written into a char array, which
+ * grows when writing to memory, or is written to the underlying Writer in
+ * blocks when it is full.
+ *
+ * @author Michael Liao
+ */
+class CharWriter {
+
+    // block size when writing to a Writer:
+    static final int BUFFER_SIZE = 8192;
+
+    static final char[] EMPTY = new char[0];
+
+    static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // char after '\' to escape a char below 128, 'u' for \\u00XX, or 0 if no
+    // need to escape:
+    static final char[] ESCAPES = new char[128];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            ESCAPES[i] = 'u';
+        }
+        ESCAPES['\"'] = '\"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['/'] = '/';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+    }
+
+    // null if write to memory or not a Writer:
+    final Writer writer;
+
+    // false if write to memory:
+    final boolean external;
+
+    // block size, or initial buffer size if write to memory:
+    final int bufferSize;
+
+    char[] buffer;
+
+    // buffer position:
+    int pos = 0;
+
+    /**
+     * Write to memory.
+     */
+    CharWriter(int bufferSize) {
+        this(null, false, bufferSize);
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Write to a Writer. The buffer is allocated from BufferRecycler when
+     * writing, and released by release().
+     */
+    CharWriter(Writer writer, int bufferSize) {
+        this(writer, true, bufferSize);
+    }
+
+    CharWriter(Writer writer, boolean external, int bufferSize) {
+        this.writer = writer;
+        this.external = external;
+        this.bufferSize = bufferSize;
+        this.buffer = EMPTY;
+    }
+
+    void write(char ch) throws IOException {
+        if (pos == buffer.length) {
+            require(1);
+        }
+        buffer[pos++] = ch;
+    }
+
+    void write(char[] cs) throws IOException {
+        if (cs.length <= buffer.length - pos) {
+            System.arraycopy(cs, 0, buffer, pos, cs.length);
+            pos += cs.length;
+        } else {
+            int start = 0;
+            while (start < cs.length) {
+                int n = Math.min(cs.length - start, require(1));
+                System.arraycopy(cs, start, buffer, pos, n);
+                pos += n;
+                start += n;
+            }
+        }
+    }
+
+    void write(String s) throws IOException {
+        write(s, 0, s.length());
+    }
+
+    void write(String s, int start, int end) throws IOException {
+        if (end - start <= buffer.length - pos) {
+            s.getChars(start, end, buffer, pos);
+            pos += end - start;
+        } else {
+            while (start < end) {
+                int n = Math.min(end - start, require(1));
+                s.getChars(start, start + n, buffer, pos);
+                pos += n;
+                start += n;
+            }
+        }
+    }
+
+    void writeLong(long n) throws IOException {
+        require(NumberFormatter.MAX_LENGTH);
+        pos = NumberFormatter.formatLong(n, buffer, pos);
+    }
+
+    void writeDouble(double d) throws IOException {
+        require(NumberFormatter.MAX_LENGTH);
+        pos = NumberFormatter.formatDouble(d, buffer, pos);
+    }
+
+    void writeFloat(float f) throws IOException {
+        require(NumberFormatter.MAX_LENGTH);
+        pos = NumberFormatter.formatFloat(f, buffer, pos);
+    }
+
+    /**
+     * Write a quoted and escaped string. Runs of chars which need no escape
+     * are copied in bulk.
+     */
+    void writeString(String s) throws IOException {
+        write('\"');
+        int start = 0;
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char ch = s.charAt(i);
+            if (ch < 128 && ESCAPES[ch] != 0) {
+                if (i > start) {
+                    write(s, start, i);
+                }
+                writeEscape(ch);
+                start = i + 1;
+            }
+        }
+        if (start < len) {
+            write(s, start, len);
+        }
+        write('\"');
+    }
+
+    void writeEscape(char ch) throws IOException {
+        char esc = ESCAPES[ch];
+        if (esc == 'u') {
+            require(6);
+            char[] buf = buffer;
+            int p = pos;
+            buf[p] = '\\';
+            buf[p + 1] = 'u';
+            buf[p + 2] = '0';
+            buf[p + 3] = '0';
+            buf[p + 4] = HEX[ch >> 4];
+            buf[p + 5] = HEX[ch & 0xf];
+            pos = p + 6;
+        } else {
+            require(2);
+            buffer[pos++] = '\\';
+            buffer[pos++] = esc;
+        }
+    }
+
+    /**
+     * Make room for at least min chars, by growing buffer when writing to
+     * memory, or writing buffered chars to Writer.
+     *
+     * @return Number of available chars.
+     */
+    int require(int min) throws IOException {
+        int available = buffer.length - pos;
+        if (available >= min) {
+            return available;
+        }
+        if (!external) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, pos + min));
+        } else {
+            if (pos > 0) {
+                flushBlock();
+            }
+            if (buffer.length < min) {
+                buffer = BufferRecycler.get().allocCharBuffer(Math.max(bufferSize, min));
+            }
+        }
+        return buffer.length - pos;
+    }
+
+    /**
+     * Write a full block when buffer is full. Default to flushBuffer().
+     */
+    void flushBlock() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Write buffered chars to Writer.
+     */
+    void flushBuffer() throws IOException {
+        if (writer != null && pos > 0) {
+            writer.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+
+    /**
+     * Write buffered chars to Writer and flush the Writer.
+     */
+    void flush() throws IOException {
+        if (writer != null) {
+            flushBuffer();
+            writer.flush();
+        }
+    }
+
+    /**
+     * Release buffer to BufferRecycler after writing to Writer. Chars not
+     * flushed are discarded.
+     */
+    void release() {
+        if (external && buffer != EMPTY) {
+            BufferRecycler.get().releaseCharBuffer(buffer);
+            buffer = EMPTY;
+            pos = 0;
+        }
+    }
+
+    /**
+     * Get UTF-8 encoded bytes written to memory.
+     */
+    byte[] toBytes() {
+        return toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, pos);
+    }
+}
@@ -0,0 +1,133 @@
+package com.itranswarp.jsonstream;
+
+import java.math.BigInteger;
+
+/**
+ * Convert a decimal number {@code mantissa * 10^exp10} to the nearest double
+ * without allocating objects. Exact small numbers take Clinger's fast path,
+ * and others use the Eisel-Lemire algorithm with 128-bit truncated powers of
+ * five, which is correctly rounded for any mantissa of 19 digits or less.
+ *
+ * @author Michael Liao
+ */
+class DoubleParser {
+
+    static final int SMALLEST_POWER_OF_TEN = -342;
+    static final int LARGEST_POWER_OF_TEN = 308;
+
+    // exactly representable powers of ten:
+    static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+            1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /**
+     * Return the nearest double of the decimal, or NaN if it cannot be decided
+     * and the caller should fall back to Double.parseDouble().
+     *
+     * @param mantissa Decimal digits as unsigned long.
+     * @param exp10 Exponent of ten.
+     * @param negative True if the number is negative.
+     */
+    static double toDouble(long mantissa, int exp10, boolean negative) {
+        // Clinger's fast path: both mantissa and power of ten are exact doubles:
+        if (exp10 >= -22 && exp10 <= 22 && mantissa >= 0 && mantissa <= (1L << 53)) {
+            double d = mantissa;
+            d = exp10 < 0 ? d / POWERS_OF_TEN[-exp10] : d * POWERS_OF_TEN[exp10];
+            return negative ? -d : d;
+        }
+        if (mantissa == 0 || exp10 < SMALLEST_POWER_OF_TEN) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (exp10 > LARGEST_POWER_OF_TEN) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return eiselLemire(mantissa, exp10, negative);
+    }
+
+    static double eiselLemire(long mantissa, int exp10, boolean negative) {
+        int index = (exp10 - SMALLEST_POWER_OF_TEN) << 1;
+        long exponent = (((152170L + 65536L) * exp10) >> 16) + 1024 + 63;
+        int lz = Long.numberOfLeadingZeros(mantissa);
+        long w = mantissa << lz;
+        long high = unsignedMultiplyHigh(w, PowersOfFive.TABLE[index]);
+        long low = w * PowersOfFive.TABLE[index];
+        if ((high & 0x1ff) == 0x1ff) {
+            // not enough precision, use lower 64 bits of power of five:
+            long secondHigh = unsignedMultiplyHigh(w, PowersOfFive.TABLE[index + 1]);
+            low += secondHigh;
+            if (Long.compareUnsigned(secondHigh, low) > 0) {
+                high++;
+            }
+        }
+        long upperBit = high >>> 63;
+        long m = high >>> (upperBit + 9);
+        lz += (int) (1 ^ upperBit);
+        long realExponent = exponent - lz;
+        if (realExponent <= 0) {
+            // subnormal:
+            if (-realExponent + 1 >= 64) {
+                return negative ? -0.0 : 0.0;
+            }
+            m >>>= -realExponent + 1;
+            m += m & 1;
+            m >>>= 1;
+            realExponent = m < (1L << 52) ? 0 : 1;
+            return bitsToDouble(m, realExponent, negative);
+        }
+        // exactly halfway between two doubles, round to even:
+        if (Long.compareUnsigned(low, 1) <= 0 && exp10 >= -4 && exp10 <= 23 && (m & 3) == 1) {
+            if ((m << (upperBit + 64 - 52 - 3)) == high) {
+                m &= ~1L;
+            }
+        }
+        m += m & 1;
+        m >>>= 1;
+        if (m >= (1L << 53)) {
+            m = 1L << 52;
+            realExponent++;
+        }
+        m &= ~(1L << 52);
+        if (realExponent > 2046) {
+            return Double.NaN;
+        }
+        return bitsToDouble(m, realExponent, negative);
+    }
+
+    static double bitsToDouble(long m, long realExponent, boolean negative) {
+        return Double.longBitsToDouble(m | (realExponent << 52) | (negative ? 1L << 63 : 0L));
+    }
+
+    static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * 128-bit truncated powers of five from 5^-342 to 5^308, stored as pairs of
+     * high and low 64 bits. Loaded only when the fast path is not taken.
+     */
+    static class PowersOfFive {
+
+        static final long[] TABLE = new long[(LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1) * 2];
+
+        static {
+            BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            for (int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; q++) {
+                BigInteger c;
+                if (q >= 0) {
+                    c = BigInteger.valueOf(5).pow(q);
+                    c = c.bitLength() > 128 ? c.shiftRight(c.bitLength() - 128) : c.shiftLeft(128 - c.bitLength());
+                } else {
+                    BigInteger power5 = BigInteger.valueOf(5).pow(-q);
+                    int z = power5.subtract(BigInteger.ONE).bitLength();
+                    int b = q >= -27 ? z + 127 : 2 * z + 128;
+                    c = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+                    if (c.bitLength() > 128) {
+                        c = c.shiftRight(c.bitLength() - 128);
+                    }
+                }
+                int index = (q - SMALLEST_POWER_OF_TEN) << 1;
+                TABLE[index] = c.shiftRight(64).longValue();
+                TABLE[index + 1] = c.and(mask).longValue();
+            }
+        }
+    }
+}
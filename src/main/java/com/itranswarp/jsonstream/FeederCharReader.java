@@ -0,0 +1,223 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read UTF-8 encoded JSON from bytes which are fed chunk by chunk. When fed
+ * bytes are used up before end of input, a NeedMoreInputException is thrown
+ * and the caller should reset to the mark, which is set at the beginning of
+ * the current token, and retry after more bytes are fed.
+ *
+ * @author Michael Liao
+ */
+class FeederCharReader extends Utf8CharReader {
+
+    byte[] bytes = new byte[BUFFER_SIZE];
+
+    // byte buffer position:
+    int bpos = 0;
+
+    // byte buffer ends:
+    int blimit = 0;
+
+    boolean endOfInput = false;
+
+    // state at the beginning of current token:
+    int markPos = 0;
+    int markPending = -1;
+    int markPendingNext = -1;
+
+    // position of scanning an incomplete string, or -1 if not scanning:
+    int scanPos = -1;
+    boolean scanEscaped = false;
+
+    void feed(byte[] data, int offset, int length) {
+        if (endOfInput) {
+            throw new IllegalStateException("Cannot feed after end of input.");
+        }
+        ensureCapacity(length);
+        System.arraycopy(data, offset, bytes, blimit, length);
+        blimit += length;
+        readed += length;
+    }
+
+    void feed(ByteBuffer buffer) {
+        if (endOfInput) {
+            throw new IllegalStateException("Cannot feed after end of input.");
+        }
+        int length = buffer.remaining();
+        ensureCapacity(length);
+        buffer.get(bytes, blimit, length);
+        blimit += length;
+        readed += length;
+    }
+
+    void endOfInput() {
+        endOfInput = true;
+    }
+
+    /**
+     * Make room for fed bytes by discarding bytes before mark, or grow the
+     * buffer.
+     */
+    void ensureCapacity(int length) {
+        if (blimit + length <= bytes.length) {
+            return;
+        }
+        int shift = markPos;
+        int remaining = blimit - markPos;
+        byte[] dest = remaining + length <= bytes.length ? bytes : new byte[Math.max(bytes.length * 2, remaining + length)];
+        System.arraycopy(bytes, markPos, dest, 0, remaining);
+        bytes = dest;
+        bpos -= shift;
+        blimit = remaining;
+        markPos = 0;
+        if (scanPos >= 0) {
+            scanPos -= shift;
+        }
+    }
+
+    void mark() {
+        markPos = bpos;
+        markPending = pending;
+        markPendingNext = pendingNext;
+    }
+
+    void reset() {
+        bpos = markPos;
+        pending = markPending;
+        pendingNext = markPendingNext;
+    }
+
+    /**
+     * Check if the current token may be completed by fed bytes. Return false if
+     * the token is a string without closing quote yet, so that a long string
+     * which arrives in many chunks is scanned only once instead of being parsed
+     * again after every feed.
+     */
+    boolean mayCompleteToken() {
+        if (endOfInput) {
+            return true;
+        }
+        int p = markPos;
+        while (p < blimit && isWhiteSpace(bytes[p])) {
+            p++;
+        }
+        if (p == blimit) {
+            return false;
+        }
+        if (bytes[p] != '\"') {
+            return true;
+        }
+        if (scanPos <= p) {
+            scanPos = p + 1;
+            scanEscaped = false;
+        }
+        while (scanPos < blimit) {
+            byte b = bytes[scanPos];
+            scanPos++;
+            if (scanEscaped) {
+                scanEscaped = false;
+            } else if (b == '\\') {
+                scanEscaped = true;
+            } else if (b == '\"') {
+                scanPos = -1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isWhiteSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    @Override
+    public char next() throws IOException {
+        // fast path for ASCII:
+        if (pending < 0 && bpos < blimit) {
+            byte b = bytes[bpos];
+            if (b >= 0) {
+                bpos++;
+                return (char) b;
+            }
+        }
+        return super.next();
+    }
+
+    @Override
+    public char peek() throws IOException {
+        // fast path for ASCII:
+        if (pending < 0 && bpos < blimit) {
+            byte b = bytes[bpos];
+            if (b >= 0) {
+                return (char) b;
+            }
+        }
+        return super.peek();
+    }
+
+    @Override
+    String readPlainString() {
+        int end = pending < 0 ? indexOfClosingQuote(bytes, bpos, blimit) : -1;
+        if (end < 0) {
+            return null;
+        }
+        String s = new String(bytes, bpos, end - bpos, StandardCharsets.UTF_8);
+        bpos = end + 1;
+        return s;
+    }
+
+    @Override
+    void appendPlainChars(StringBuilder sb) {
+        if (pending < 0) {
+            bpos = appendAsciiChars(bytes, bpos, blimit, sb);
+        }
+    }
+
+    @Override
+    void skipPlainChars() {
+        if (pending < 0) {
+            bpos = skipPlainBytes(bytes, bpos, blimit);
+        }
+    }
+
+    @Override
+    int readByte() throws IOException {
+        if (bpos == blimit) {
+            if (endOfInput) {
+                return -1;
+            }
+            throw NeedMoreInputException.INSTANCE;
+        }
+        return bytes[bpos++] & 0xff;
+    }
+
+    @Override
+    int peekByte() throws IOException {
+        if (bpos == blimit) {
+            if (endOfInput) {
+                return -1;
+            }
+            throw NeedMoreInputException.INSTANCE;
+        }
+        return bytes[bpos] & 0xff;
+    }
+
+    /**
+     * Thrown when fed bytes are used up before end of input. It is a shared
+     * instance without stack trace.
+     */
+    static class NeedMoreInputException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final NeedMoreInputException INSTANCE = new NeedMoreInputException();
+
+        private NeedMoreInputException() {
+            super("Need more input.", null, false, false);
+        }
+    }
+}
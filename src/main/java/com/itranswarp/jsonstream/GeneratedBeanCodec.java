@@ -0,0 +1,264 @@
+package com.itranswarp.jsonstream;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.AnnotatedElement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+
+import org.apache.commons.logging.LogFactory;
+
+import com.itranswarp.jsonstream.annotation.JsonCodec;
+
+/**
+ * Base class of bean codecs generated at compile time by JsonCodecProcessor for
+ * classes annotated with @JsonCodec. The generated codec holds the properties
+ * which PropertyUtils finds by reflection, and is registered in
+ * META-INF/services to be found by ServiceLoader. This class is public only to
+ * be extended by generated classes, and should not be used by application.
+ *
+ * @author Michael Liao
+ */
+public abstract class GeneratedBeanCodec {
+
+    /**
+     * Element without annotations for property without validation.
+     */
+    protected static final AnnotatedElement NO_ANNOTATIONS = new AnnotatedElement() {
+        public <T extends Annotation> T getAnnotation(Class<T> annotationClass) {
+            return null;
+        }
+
+        public Annotation[] getAnnotations() {
+            return new Annotation[0];
+        }
+
+        public Annotation[] getDeclaredAnnotations() {
+            return new Annotation[0];
+        }
+    };
+
+    static final ClassValue<GeneratedBeanCodec> CODECS = new ClassValue<GeneratedBeanCodec>() {
+        @Override
+        protected GeneratedBeanCodec computeValue(Class<?> beanClass) {
+            return load(beanClass);
+        }
+    };
+
+    static final Map<ClassLoader, SoftReference<Map<String, ServiceLoader.Provider<GeneratedBeanCodec>>>> PROVIDERS = new WeakHashMap<>();
+
+    final Class<?> beanClass;
+    final String[] names;
+    final Class<?>[] propertyTypes;
+    final Class<?>[] genericTypes;
+    final boolean[] readable;
+    final boolean[] writable;
+
+    /**
+     * Constructor called by generated subclass.
+     *
+     * @param beanClass     The bean class.
+     * @param names         Property names.
+     * @param propertyTypes Property types, which are types of setter if writable.
+     * @param genericTypes  Element type of List or array, otherwise Object.
+     * @param readable      Is property readable by getter or field?
+     * @param writable      Is property writable by setter or field?
+     */
+    protected GeneratedBeanCodec(Class<?> beanClass, String[] names, Class<?>[] propertyTypes, Class<?>[] genericTypes, boolean[] readable,
+            boolean[] writable) {
+        this.beanClass = beanClass;
+        this.names = names;
+        this.propertyTypes = propertyTypes;
+        this.genericTypes = genericTypes;
+        this.readable = readable;
+        this.writable = writable;
+    }
+
+    /**
+     * Create a new bean instance by default constructor.
+     *
+     * @return New bean instance, or null if the constructor is not accessible.
+     */
+    public abstract Object newInstance();
+
+    /**
+     * Find index of property by name.
+     *
+     * @param name Property name.
+     * @return Index of property, or -1 if not found.
+     */
+    public abstract int indexOf(String name);
+
+    /**
+     * Get property value. Primitive value is boxed.
+     *
+     * @param bean  The bean.
+     * @param index Index of property.
+     * @return Property value.
+     */
+    public abstract Object get(Object bean, int index);
+
+    /**
+     * Set property value. Boxed value is unboxed for primitive property.
+     *
+     * @param bean  The bean.
+     * @param index Index of property.
+     * @param value Property value.
+     */
+    public abstract void set(Object bean, int index, Object value);
+
+    /**
+     * Set long value to property of type long.
+     *
+     * @param bean  The bean.
+     * @param index Index of property.
+     * @param value Property value.
+     */
+    public abstract void setLong(Object bean, int index, long value);
+
+    /**
+     * Set int value to property of type int.
+     *
+     * @param bean  The bean.
+     * @param index Index of property.
+     * @param value Property value.
+     */
+    public abstract void setInt(Object bean, int index, int value);
+
+    /**
+     * Set double value to property of type double.
+     *
+     * @param bean  The bean.
+     * @param index Index of property.
+     * @param value Property value.
+     */
+    public abstract void setDouble(Object bean, int index, double value);
+
+    /**
+     * Set boolean value to property of type boolean.
+     *
+     * @param bean  The bean.
+     * @param index Index of property.
+     * @param value Property value.
+     */
+    public abstract void setBoolean(Object bean, int index, boolean value);
+
+    /**
+     * Get annotated setter or field of writable property, which is used to create
+     * validators.
+     *
+     * @param index Index of property.
+     * @return The setter or field, or NO_ANNOTATIONS if not annotated.
+     */
+    public abstract AnnotatedElement getAnnotatedElement(int index);
+
+    /**
+     * Find declared field to get annotations.
+     *
+     * @param clazz Declaring class.
+     * @param name  Field name.
+     * @return Field object.
+     */
+    protected static AnnotatedElement field(Class<?> clazz, String name) {
+        try {
+            return clazz.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            throw new JsonBindException("Field not found: " + name, e);
+        }
+    }
+
+    /**
+     * Find declared method to get annotations.
+     *
+     * @param clazz          Declaring class.
+     * @param name           Method name.
+     * @param parameterTypes Parameter types.
+     * @return Method object.
+     */
+    protected static AnnotatedElement method(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        try {
+            return clazz.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new JsonBindException("Method not found: " + name, e);
+        }
+    }
+
+    /**
+     * Throw checked exception of getter or setter without wrapping it.
+     *
+     * @param t The exception.
+     * @return Never returns.
+     */
+    protected static RuntimeException rethrow(Throwable t) {
+        return GeneratedBeanCodec.<RuntimeException>throwUnchecked(t);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T extends Throwable> RuntimeException throwUnchecked(Throwable t) throws T {
+        throw (T) t;
+    }
+
+    /**
+     * Get generated codec of bean class, or null if not found.
+     */
+    static GeneratedBeanCodec of(Class<?> beanClass) {
+        return CODECS.get(beanClass);
+    }
+
+    static GeneratedBeanCodec load(Class<?> beanClass) {
+        if (!beanClass.isAnnotationPresent(JsonCodec.class)) {
+            return null;
+        }
+        try {
+            ServiceLoader.Provider<GeneratedBeanCodec> provider = providers(beanClass.getClassLoader()).get(codecClassName(beanClass.getName()));
+            if (provider != null) {
+                GeneratedBeanCodec codec = provider.get();
+                if (codec.beanClass == beanClass) {
+                    return codec;
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            // get log here since this class is also used by JsonCodecProcessor without logging:
+            LogFactory.getLog(GeneratedBeanCodec.class).warn("Cannot load generated codec for bean: " + beanClass.getName(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Get providers of generated codecs by class name, which are found by
+     * ServiceLoader once for each ClassLoader without instantiating codecs.
+     * The map is softly referenced since providers refer to classes of the
+     * ClassLoader, which would never be unloaded if strongly referenced.
+     */
+    static Map<String, ServiceLoader.Provider<GeneratedBeanCodec>> providers(ClassLoader loader) {
+        synchronized (PROVIDERS) {
+            SoftReference<Map<String, ServiceLoader.Provider<GeneratedBeanCodec>>> ref = PROVIDERS.get(loader);
+            Map<String, ServiceLoader.Provider<GeneratedBeanCodec>> map = ref == null ? null : ref.get();
+            if (map == null) {
+                Map<String, ServiceLoader.Provider<GeneratedBeanCodec>> found = new HashMap<>();
+                ServiceLoader.load(GeneratedBeanCodec.class, loader).stream().forEach(provider -> found.putIfAbsent(provider.type().getName(), provider));
+                PROVIDERS.put(loader, new SoftReference<>(found));
+                map = found;
+            }
+            return map;
+        }
+    }
+
+    /**
+     * Get name of generated codec class in the same package of bean class.
+     * "$" of nested class is escaped as "$$", so that different beans never
+     * have the same codec name, e.g. "com.example.Order$Item" ->
+     * "com.example.Order$$Item_JsonCodec", and "com.example.Order_Item" ->
+     * "com.example.Order_Item_JsonCodec".
+     *
+     * @param beanClassName Binary name of bean class.
+     * @return Name of codec class.
+     */
+    public static String codecClassName(String beanClassName) {
+        int n = beanClassName.lastIndexOf('.');
+        return beanClassName.substring(0, n + 1) + beanClassName.substring(n + 1).replace("$", "$$") + "_JsonCodec";
+    }
+}
@@ -0,0 +1,201 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stage 2 of the two-stage parser, which walks positions found by
+ * StructuralIndexer and builds the same values as JsonReader does. Strings,
+ * numbers and literals are read by the TokenReader of JsonReader from their
+ * positions, and only white spaces are allowed between a value and the next
+ * structural char.
+ *
+ * @author Michael Liao
+ */
+class IndexedJsonParser {
+
+    final JsonReader jsonReader;
+    final TokenReader reader;
+    final ByteCharReader charReader;
+    final byte[] data;
+
+    int[] positions;
+    int count;
+    int index;
+
+    // containers and keys of current path:
+    Object[] containers = new Object[16];
+    String[] keys = new String[16];
+    int depth;
+
+    IndexedJsonParser(JsonReader jsonReader, ByteCharReader charReader) {
+        this.jsonReader = jsonReader;
+        this.reader = jsonReader.reader;
+        this.charReader = charReader;
+        this.data = charReader.bytes;
+    }
+
+    Object parse(StructuralIndexer indexer) throws IOException {
+        int start = charReader.bpos;
+        int end = charReader.blimit;
+        StructuralIndexer.Positions found = new StructuralIndexer.Positions(initialCapacity(end - start));
+        indexer.index(data, start, end, found);
+        this.positions = found.array;
+        this.count = found.count;
+        this.index = 0;
+        this.depth = 0;
+        Object value = parseValue();
+        if (index < count) {
+            throw unexpected(positions[index]);
+        }
+        charReader.bpos = end;
+        return value;
+    }
+
+    /**
+     * Estimate number of positions, which is about one per 8 bytes for typical
+     * JSON, and grows if there are more.
+     */
+    static int initialCapacity(int length) {
+        return (length >> 3) + 64;
+    }
+
+    @SuppressWarnings("unchecked")
+    Object parseValue() throws IOException {
+        int pos = nextPosition();
+        for (;;) {
+            Object value;
+            // read a value which starts at pos:
+            switch (data[pos]) {
+            case '{':
+                Map<String, Object> map = jsonReader.jsonObjectFactory.createJsonObject();
+                pos = nextPosition();
+                if (data[pos] == '}') {
+                    value = map;
+                    break;
+                }
+                push(map, readKey(pos));
+                pos = nextPosition();
+                continue;
+            case '[':
+                List<Object> list = jsonReader.jsonArrayFactory.createJsonArray();
+                pos = nextPosition();
+                if (data[pos] == ']') {
+                    value = list;
+                    break;
+                }
+                push(list, null);
+                continue;
+            default:
+                value = readScalar(pos);
+            }
+            // add completed value to its container, and close containers if possible:
+            for (;;) {
+                if (depth == 0) {
+                    return value;
+                }
+                Object container = containers[depth - 1];
+                pos = nextPosition();
+                byte b = data[pos];
+                if (container instanceof Map) {
+                    ((Map<String, Object>) container).put(keys[depth - 1], value);
+                    if (b == ',') {
+                        keys[depth - 1] = readKey(nextPosition());
+                        pos = nextPosition();
+                        break;
+                    }
+                    if (b != '}') {
+                        throw unexpected(pos);
+                    }
+                } else {
+                    ((List<Object>) container).add(value);
+                    if (b == ',') {
+                        pos = nextPosition();
+                        break;
+                    }
+                    if (b != ']') {
+                        throw unexpected(pos);
+                    }
+                }
+                value = container;
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Read a key and the following ':'.
+     */
+    String readKey(int pos) throws IOException {
+        if (data[pos] != '\"') {
+            throw unexpected(pos);
+        }
+        String key = (String) readScalar(pos);
+        int colon = nextPosition();
+        if (data[colon] != ':') {
+            throw unexpected(colon);
+        }
+        return key;
+    }
+
+    Object readScalar(int pos) throws IOException {
+        charReader.bpos = pos;
+        charReader.pending = -1;
+        Object value;
+        switch (data[pos]) {
+        case '\"':
+            value = reader.readString();
+            break;
+        case 't':
+        case 'f':
+            value = reader.readBoolean();
+            break;
+        case 'n':
+            reader.readNull();
+            value = null;
+            break;
+        default:
+            byte b = data[pos];
+            if (b != '-' && (b < '0' || b > '9')) {
+                throw unexpected(pos);
+            }
+            value = reader.readNumber();
+        }
+        // only white spaces are allowed before next structural char:
+        int next = index < count ? positions[index] : charReader.blimit;
+        for (int i = charReader.bpos; i < next; i++) {
+            byte b = data[i];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                throw unexpected(i);
+            }
+        }
+        return value;
+    }
+
+    int nextPosition() {
+        if (index == count) {
+            throw new JsonParseException("Unexpected EOF.", charReader.blimit);
+        }
+        return positions[index++];
+    }
+
+    void push(Object container, String key) {
+        // same maximum depth as Stack of the default parser:
+        if (depth == Stack.MAX_DEPTH) {
+            throw new StackOverflowError("Maximum depth reached when parse JSON string.");
+        }
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            keys = Arrays.copyOf(keys, depth * 2);
+        }
+        containers[depth] = container;
+        keys[depth] = key;
+        depth++;
+    }
+
+    JsonParseException unexpected(int pos) {
+        return new JsonParseException("Unexpected char: \'" + (char) (data[pos] & 0xff) + "\'.", pos);
+    }
+}
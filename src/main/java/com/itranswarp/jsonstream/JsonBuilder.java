@@ -1,13 +1,20 @@
 package com.itranswarp.jsonstream;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Builder for create JsonReader and JsonWriter much easier.
@@ -20,6 +27,12 @@ public class JsonBuilder {
     JsonArrayFactory jsonArrayFactory = null;
     ObjectMapper objectMapper = null;
     TypeAdapters typeAdapters = new TypeAdapters();
+    int bufferSize = CharReader.BUFFER_SIZE;
+    boolean losslessNumbers = false;
+    boolean lazyNumbers = false;
+    boolean structuralIndex = false;
+    boolean streamingBinding = false;
+    boolean skipUnknownProperties = false;
 
     /**
      * Create a JsonBuilder with default options.
@@ -73,6 +86,165 @@ public class JsonBuilder {
         return this;
     }
 
+    /**
+     * Set initial size of read buffer when read JSON from a Reader or an
+     * InputStream. The buffer grows automatically when reading large document,
+     * and is recycled per thread after parse completed. The initial size is
+     * larger if recent documents read by the same thread are larger. Default
+     * to 1024.
+     * 
+     * It is also the initial size of write buffer of createWriter() and
+     * createUtf8Writer(), and the block size of JsonWriter that writes to a
+     * stream or channel if larger than 8192.
+     * 
+     * @param bufferSize Initial buffer size.
+     * @return JsonBuilder itself.
+     */
+    public JsonBuilder useBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Keep all digits of numbers when parse JSON. Integers in range of long are
+     * still parsed as Long, and other numbers are parsed as JsonNumber, which
+     * can be converted to BigInteger or BigDecimal without losing precision.
+     * Default to false, and numbers are parsed as Long or Double.
+     * 
+     * @param losslessNumbers True if keep all digits of numbers.
+     * @return JsonBuilder itself.
+     */
+    public JsonBuilder useLosslessNumbers(boolean losslessNumbers) {
+        this.losslessNumbers = losslessNumbers;
+        return this;
+    }
+
+    /**
+     * Parse numbers on first use when parse JSON. Numbers are returned as
+     * LazyNumber, and only the syntax is checked when parsing, which saves CPU
+     * time if most numbers are never used. Default to false.
+     * 
+     * @param lazyNumbers True if parse numbers on first use.
+     * @return JsonBuilder itself.
+     */
+    public JsonBuilder useLazyNumbers(boolean lazyNumbers) {
+        this.lazyNumbers = lazyNumbers;
+        return this;
+    }
+
+    /**
+     * Parse UTF-8 encoded JSON in byte array by a two-stage parser, which finds
+     * all structural chars by SIMD instructions first, and then builds values
+     * from them. It requires Java 17+ with incubator module added by JVM option
+     * "--add-modules jdk.incubator.vector", and is ignored if not available, or
+     * JSON is not read from a byte array by parse(). It is faster for
+     * pretty-printed JSON with many white spaces. Default to false.
+     * 
+     * @param structuralIndex True if use the two-stage parser when available.
+     * @return JsonBuilder itself.
+     */
+    public JsonBuilder useStructuralIndex(boolean structuralIndex) {
+        this.structuralIndex = structuralIndex;
+        return this;
+    }
+
+    /**
+     * Skip values of keys which are not properties of the bean without
+     * building them, when parse(Class) converts JSON object to JavaBean by the
+     * default ObjectMapper. Nested bean and {@code List<T>} or {@code T[]}
+     * properties are skipped in the same way. It is ignored if an ObjectMapper
+     * is used, which may depend on any key. Default to false.
+     * 
+     * @param skipUnknownProperties True if skip values of unknown properties.
+     * @return JsonBuilder itself.
+     */
+    public JsonBuilder useSkipUnknownProperties(boolean skipUnknownProperties) {
+        this.skipUnknownProperties = skipUnknownProperties;
+        return this;
+    }
+
+    /**
+     * Bind JSON object to JavaBean directly from tokens when parse(Class) is
+     * called, without building the intermediate Map. Properties are validated
+     * and converted as BeanObjectMapper does, and numbers are set to primitive
+     * properties without boxing. It is ignored if an ObjectMapper is used.
+     * Default to false.
+     * 
+     * @param streamingBinding True if bind JSON object to bean directly.
+     * @return JsonBuilder itself.
+     */
+    public JsonBuilder useStreamingBinding(boolean streamingBinding) {
+        this.streamingBinding = streamingBinding;
+        return this;
+    }
+
+    /**
+     * Resolve metadata of bean classes and their nested bean classes in
+     * parallel, including setters, getters and validators, so the first read or
+     * write of each bean class does not pay for it. Metadata is shared by all
+     * JsonBuilders.
+     * 
+     * @param classes Bean classes.
+     * @return JsonBuilder itself.
+     */
+    public JsonBuilder warmUp(Class<?>... classes) {
+        BeanMetadata.warmUp(Arrays.asList(classes));
+        return this;
+    }
+
+    /**
+     * Resolve metadata of bean classes in the package and its sub-packages, and
+     * their nested bean classes in parallel.
+     * 
+     * @param packageName Package name, e.g. "com.example.model".
+     * @return JsonBuilder itself.
+     * @throws IOException If classes cannot be listed.
+     */
+    public JsonBuilder warmUp(String packageName) throws IOException {
+        BeanMetadata.warmUp(PropertyUtils.findClasses(packageName, getClassLoader()));
+        return this;
+    }
+
+    /**
+     * Load metadata of bean classes from all resources of
+     * META-INF/jsonstream/metadata.json written by BeanMetadataSnapshot at build
+     * time, which finds setters, getters and fields without scanning classes.
+     * 
+     * @return JsonBuilder itself.
+     * @throws IOException If read failed.
+     */
+    public JsonBuilder loadMetadata() throws IOException {
+        ClassLoader loader = getClassLoader();
+        Enumeration<URL> urls = loader.getResources(BeanMetadataSnapshot.RESOURCE);
+        while (urls.hasMoreElements()) {
+            try (Reader reader = new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8)) {
+                BeanMetadataSnapshot.load(reader, loader);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Load metadata of bean classes from snapshot written by
+     * BeanMetadataSnapshot.
+     * 
+     * @param reader The reader of snapshot.
+     * @return JsonBuilder itself.
+     * @throws IOException If read failed.
+     */
+    public JsonBuilder loadMetadata(Reader reader) throws IOException {
+        BeanMetadataSnapshot.load(reader, getClassLoader());
+        return this;
+    }
+
+    ClassLoader getClassLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : JsonBuilder.class.getClassLoader();
+    }
+
     /**
      * Create a JsonReader by providing a JSON string.
      * 
@@ -80,7 +252,42 @@ public class JsonBuilder {
      * @return JsonReader object.
      */
     public JsonReader createReader(String str) {
-        return createReader(new StringReader(str));
+        return createReader(new StringCharReader(str));
+    }
+
+    /**
+     * Create a JsonReader by providing a JSON CharSequence. The chars are read
+     * in place and must not be changed until parse completed.
+     * 
+     * @param cs The JSON CharSequence.
+     * @return JsonReader object.
+     */
+    public JsonReader createReader(CharSequence cs) {
+        return createReader(new StringCharReader(cs));
+    }
+
+    /**
+     * Create a JsonReader by providing a JSON char array. The chars are read in
+     * place and must not be changed until parse completed.
+     * 
+     * @param chars The JSON chars.
+     * @return JsonReader object.
+     */
+    public JsonReader createReader(char[] chars) {
+        return createReader(chars, 0, chars.length);
+    }
+
+    /**
+     * Create a JsonReader by providing a JSON char array. The chars are read in
+     * place and must not be changed until parse completed.
+     * 
+     * @param chars The char array.
+     * @param offset The start offset of the JSON chars.
+     * @param length The length of the JSON chars.
+     * @return JsonReader object.
+     */
+    public JsonReader createReader(char[] chars, int offset, int length) {
+        return createReader(new CharReader(chars, offset, length));
     }
 
     /**
@@ -90,22 +297,208 @@ public class JsonBuilder {
      * @return JsonReader object.
      */
     public JsonReader createReader(Reader reader) {
-        return new JsonReader(reader, jsonObjectFactory, jsonArrayFactory, objectMapper, typeAdapters);
+        return createReader(new CharReader(reader, bufferSize));
     }
 
     /**
-     * Create a JsonReader by providing an InputStream.
+     * Create a JsonReader by providing an InputStream. The input must be encoded
+     * as UTF-8.
      * 
      * @param input The InputStream object.
      * @return JsonReader object.
      */
     public JsonReader createReader(InputStream input) {
-        try {
-            return createReader(new InputStreamReader(input, "UTF-8"));
-        }
-        catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        return createReader(new ByteCharReader(input, bufferSize));
+    }
+
+    /**
+     * Create a JsonReader by providing UTF-8 encoded bytes.
+     * 
+     * @param data The UTF-8 encoded JSON.
+     * @return JsonReader object.
+     */
+    public JsonReader createReader(byte[] data) {
+        return createReader(data, 0, data.length);
+    }
+
+    /**
+     * Create a JsonReader by providing UTF-8 encoded bytes.
+     * 
+     * @param data The byte array.
+     * @param offset The start offset of the UTF-8 encoded JSON.
+     * @param length The length of the UTF-8 encoded JSON.
+     * @return JsonReader object.
+     */
+    public JsonReader createReader(byte[] data, int offset, int length) {
+        return createReader(new ByteCharReader(data, offset, length));
+    }
+
+    /**
+     * Create a JsonReader by providing a ByteBuffer which contains UTF-8 encoded
+     * JSON between its position and limit. Both heap and direct buffers are read
+     * in place, and the position of the buffer is not changed.
+     * 
+     * @param buffer The ByteBuffer object.
+     * @return JsonReader object.
+     */
+    public JsonReader createReader(ByteBuffer buffer) {
+        return createReader(new ByteBufferCharReader(buffer));
+    }
+
+    /**
+     * Create a JsonReader by providing multiple ByteBuffers which are read as
+     * one continuous UTF-8 encoded JSON document, so a token can span two
+     * buffers. The buffers are read in place, and their positions are not
+     * changed.
+     * 
+     * @param buffers The ByteBuffer objects.
+     * @return JsonReader object.
+     */
+    public JsonReader createReader(ByteBuffer... buffers) {
+        return createReader(new ByteBufferCharReader(buffers));
+    }
+
+    /**
+     * Create a JsonReader by providing a UTF-8 encoded JSON file. The file is
+     * memory-mapped and parsed without copying it onto the heap, so it is the
+     * preferred way to parse large files.
+     * 
+     * @param path The path of the JSON file.
+     * @return JsonReader object.
+     * @throws IOException If open file failed.
+     */
+    public JsonReader createReader(Path path) throws IOException {
+        return createReader(new MappedFileCharReader(path));
+    }
+
+    /**
+     * Create a parallel stream which parses a newline-delimited JSON file, with
+     * one JSON value per line. The file is split at line breaks and parts are
+     * memory-mapped and parsed concurrently in the common fork-join pool. Values
+     * are in order of the file.
+     * 
+     * @param <T> Expected type.
+     * @param path The path of the UTF-8 encoded JSON file.
+     * @param clazz Expected class of each value.
+     * @return Parallel stream of parsed values.
+     * @throws IOException If open file failed.
+     */
+    public <T> Stream<T> createParallelStream(Path path, Class<T> clazz) throws IOException {
+        return createParallelStream(path, clazz, true);
+    }
+
+    /**
+     * Create a parallel stream which parses a newline-delimited JSON file, with
+     * one JSON value per line. Set ordered to false if the order of values is not
+     * required, which makes operations like limit() and findFirst() cheaper.
+     * 
+     * @param <T> Expected type.
+     * @param path The path of the UTF-8 encoded JSON file.
+     * @param clazz Expected class of each value.
+     * @param ordered Keep values in order of the file.
+     * @return Parallel stream of parsed values.
+     * @throws IOException If open file failed.
+     */
+    public <T> Stream<T> createParallelStream(Path path, Class<T> clazz, boolean ordered) throws IOException {
+        return createParallelStream(path, clazz, ordered, JsonLinesSpliterator.MIN_SPLIT_SIZE);
+    }
+
+    <T> Stream<T> createParallelStream(Path path, Class<T> clazz, boolean ordered, long minSplitSize) throws IOException {
+        long size = MappedFileCharReader.size(path);
+        Stream<T> stream = StreamSupport.stream(new JsonLinesSpliterator<>(this, path, clazz, 0, size, ordered, minSplitSize), true);
+        return ordered ? stream : stream.unordered();
+    }
+
+    /**
+     * Create a non-blocking JsonFeeder which parses UTF-8 encoded bytes fed chunk
+     * by chunk.
+     * 
+     * @return JsonFeeder object.
+     */
+    public JsonFeeder createFeeder() {
+        FeederCharReader charReader = new FeederCharReader();
+        return new JsonFeeder(createReader(charReader), charReader);
+    }
+
+    /**
+     * Create a pull JsonParser by providing a JSON string.
+     * 
+     * @param str The JSON string.
+     * @return JsonParser object.
+     */
+    public JsonParser createParser(String str) {
+        return createParser(new StringCharReader(str));
+    }
+
+    /**
+     * Create a pull JsonParser by providing a Reader.
+     * 
+     * @param reader The Reader object.
+     * @return JsonParser object.
+     */
+    public JsonParser createParser(Reader reader) {
+        return createParser(new CharReader(reader, bufferSize));
+    }
+
+    /**
+     * Create a pull JsonParser by providing an InputStream. The input must be
+     * encoded as UTF-8.
+     * 
+     * @param input The InputStream object.
+     * @return JsonParser object.
+     */
+    public JsonParser createParser(InputStream input) {
+        return createParser(new ByteCharReader(input, bufferSize));
+    }
+
+    /**
+     * Create a pull JsonParser by providing UTF-8 encoded bytes.
+     * 
+     * @param data The UTF-8 encoded JSON.
+     * @return JsonParser object.
+     */
+    public JsonParser createParser(byte[] data) {
+        return createParser(new ByteCharReader(data, 0, data.length));
+    }
+
+    /**
+     * Create a pull JsonParser by providing a ByteBuffer which contains UTF-8
+     * encoded JSON between its position and limit.
+     * 
+     * @param buffer The ByteBuffer object.
+     * @return JsonParser object.
+     */
+    public JsonParser createParser(ByteBuffer buffer) {
+        return createParser(new ByteBufferCharReader(buffer));
+    }
+
+    /**
+     * Create a pull JsonParser by providing a UTF-8 encoded JSON file, which is
+     * memory-mapped.
+     * 
+     * @param path The path of the JSON file.
+     * @return JsonParser object.
+     * @throws IOException If open file failed.
+     */
+    public JsonParser createParser(Path path) throws IOException {
+        return createParser(new MappedFileCharReader(path));
+    }
+
+    JsonParser createParser(CharReader charReader) {
+        TokenReader reader = new TokenReader(charReader);
+        reader.losslessNumbers = losslessNumbers;
+        reader.lazyNumbers = lazyNumbers;
+        return new JsonParser(reader);
+    }
+
+    JsonReader createReader(CharReader charReader) {
+        JsonReader jsonReader = new JsonReader(charReader, jsonObjectFactory, jsonArrayFactory, objectMapper, typeAdapters);
+        jsonReader.reader.losslessNumbers = losslessNumbers;
+        jsonReader.reader.lazyNumbers = lazyNumbers;
+        jsonReader.structuralIndex = structuralIndex;
+        jsonReader.streamingBinding = streamingBinding;
+        jsonReader.skipUnknownProperties = skipUnknownProperties;
+        return jsonReader;
     }
 
     /**
@@ -114,7 +507,7 @@ public class JsonBuilder {
      * @return JsonWriter object.
      */
     public JsonWriter createWriter() {
-        return new JsonWriter(typeAdapters);
+        return new JsonWriter(new CharWriter(bufferSize), typeAdapters);
     }
 
     /**
@@ -124,23 +517,41 @@ public class JsonBuilder {
      * @return JsonWriter object.
      */
     public JsonWriter createWriter(Writer writer) {
-        return new JsonWriter(writer, typeAdapters);
+        return new JsonWriter(new CharWriter(writer, Math.max(bufferSize, CharWriter.BUFFER_SIZE)), typeAdapters);
     }
 
     /**
-     * Create a JsonWriter that write JSON to specified OutputStream.
+     * Create a JsonWriter that write UTF-8 encoded JSON to specified
+     * OutputStream. Chars are encoded to bytes directly without a charset
+     * encoder, and bytes are written to the OutputStream in blocks.
      * 
      * @param output The OutputStream object.
      * @return JsonWriter object.
      */
     public JsonWriter createWriter(OutputStream output) {
-        Writer writer = null;
-        try {
-            writer = new OutputStreamWriter(output, "UTF-8");
-        }
-        catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
-        return new JsonWriter(writer, typeAdapters);
+        return new JsonWriter(new ByteCharWriter(output, Math.max(bufferSize, CharWriter.BUFFER_SIZE)), typeAdapters);
+    }
+
+    /**
+     * Create a JsonWriter that write UTF-8 encoded JSON to specified
+     * WritableByteChannel in blocking mode. Bytes are encoded into pooled
+     * direct ByteBuffers, which are written to the channel by gathering
+     * writes.
+     * 
+     * @param channel The WritableByteChannel object.
+     * @return JsonWriter object.
+     */
+    public JsonWriter createWriter(WritableByteChannel channel) {
+        return new JsonWriter(new ByteBufferCharWriter(channel, Math.max(bufferSize, CharWriter.BUFFER_SIZE)), typeAdapters);
+    }
+
+    /**
+     * Create a JsonWriter that write UTF-8 encoded JSON into memory, which can
+     * be get by JsonWriter.toBytes().
+     * 
+     * @return JsonWriter object.
+     */
+    public JsonWriter createUtf8Writer() {
+        return new JsonWriter(new ByteCharWriter(bufferSize), typeAdapters);
     }
 }
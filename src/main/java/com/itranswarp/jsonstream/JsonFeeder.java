@@ -0,0 +1,156 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Non-blocking JSON parser for async I/O. UTF-8 encoded bytes are fed chunk by
+ * chunk as they arrive, and each completed root value can be fetched without
+ * blocking:
+ *
+ * <pre>
+ * // when a chunk arrived:
+ * feeder.feed(buffer);
+ * while (feeder.hasNext()) {
+ *     process(feeder.next());
+ * }
+ * // when the connection is closed:
+ * feeder.endOfInput();
+ * while (feeder.hasNext()) {
+ *     process(feeder.next());
+ * }
+ * </pre>
+ *
+ * The parse state is kept across feeds, and multiple root values separated by
+ * white spaces can be fed. A JsonFeeder is not thread-safe.
+ *
+ * @author Michael Liao
+ */
+public class JsonFeeder {
+
+    final JsonReader jsonReader;
+    final FeederCharReader charReader;
+
+    // a root value is being parsed:
+    boolean started = false;
+
+    // last parse stopped because fed bytes were used up:
+    boolean needMoreInput = false;
+
+    boolean hasValue = false;
+    Object value = null;
+
+    JsonFeeder(JsonReader jsonReader, FeederCharReader charReader) {
+        this.jsonReader = jsonReader;
+        this.charReader = charReader;
+    }
+
+    /**
+     * Feed all remaining bytes of the ByteBuffer. The buffer is consumed and
+     * can be reused after feed.
+     *
+     * @param buffer The ByteBuffer contains UTF-8 encoded bytes.
+     */
+    public void feed(ByteBuffer buffer) {
+        charReader.feed(buffer);
+    }
+
+    /**
+     * Feed bytes.
+     *
+     * @param data The UTF-8 encoded bytes.
+     */
+    public void feed(byte[] data) {
+        charReader.feed(data, 0, data.length);
+    }
+
+    /**
+     * Feed bytes.
+     *
+     * @param data The byte array.
+     * @param offset The start offset of UTF-8 encoded bytes.
+     * @param length The length of UTF-8 encoded bytes.
+     */
+    public void feed(byte[] data, int offset, int length) {
+        charReader.feed(data, offset, length);
+    }
+
+    /**
+     * Notify that no more bytes will be fed.
+     */
+    public void endOfInput() {
+        charReader.endOfInput();
+    }
+
+    /**
+     * Parse fed bytes and return true if a root value is completed. Return false
+     * if more input is needed, or all values are parsed after end of input.
+     *
+     * @return True if a completed value can be fetched by next().
+     * @throws IOException If parse failed.
+     */
+    public boolean hasNext() throws IOException {
+        if (hasValue) {
+            return true;
+        }
+        if (needMoreInput && !charReader.mayCompleteToken()) {
+            return false;
+        }
+        needMoreInput = false;
+        try {
+            for (;;) {
+                charReader.mark();
+                if (!started) {
+                    if (!jsonReader.reader.skipWhiteSpaces()) {
+                        // end of input:
+                        return false;
+                    }
+                    charReader.mark();
+                    jsonReader.startValue();
+                    started = true;
+                }
+                if (jsonReader.parseNextToken()) {
+                    value = jsonReader.stack.pop().value;
+                    hasValue = true;
+                    started = false;
+                    charReader.mark();
+                    return true;
+                }
+            }
+        } catch (FeederCharReader.NeedMoreInputException e) {
+            // try again from beginning of current token after more input:
+            charReader.reset();
+            needMoreInput = true;
+            return false;
+        }
+    }
+
+    /**
+     * Get next completed value.
+     *
+     * @return The parsed value.
+     * @throws IOException If parse failed.
+     */
+    public Object next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object obj = value;
+        value = null;
+        hasValue = false;
+        return obj;
+    }
+
+    /**
+     * Get next completed value as expected type.
+     *
+     * @param <T> Expected type.
+     * @param clazz Expected class.
+     * @return The parsed value.
+     * @throws IOException If parse failed.
+     */
+    public <T> T next(Class<T> clazz) throws IOException {
+        return jsonReader.convert(next(), clazz);
+    }
+}
@@ -0,0 +1,91 @@
+package com.itranswarp.jsonstream;
+
+/**
+ * Callback interface to receive JSON events by JsonReader.parse(JsonHandler),
+ * without building any Map or List. All methods do nothing by default, so
+ * only events of interest need to be implemented.
+ *
+ * @author Michael Liao
+ */
+public interface JsonHandler {
+
+    /**
+     * Called when "{" is read.
+     */
+    default void startObject() {
+    }
+
+    /**
+     * Called when "}" is read.
+     */
+    default void endObject() {
+    }
+
+    /**
+     * Called when "[" is read.
+     */
+    default void startArray() {
+    }
+
+    /**
+     * Called when "]" is read.
+     */
+    default void endArray() {
+    }
+
+    /**
+     * Called when a key of object is read.
+     *
+     * @param key The key.
+     */
+    default void key(String key) {
+    }
+
+    /**
+     * Called when a string value is read.
+     *
+     * @param value The string value.
+     */
+    default void stringValue(String value) {
+    }
+
+    /**
+     * Called when an integer in range of long is read.
+     *
+     * @param value The long value.
+     */
+    default void longValue(long value) {
+    }
+
+    /**
+     * Called when a number with fraction part or exponent part is read.
+     *
+     * @param value The double value.
+     */
+    default void doubleValue(double value) {
+    }
+
+    /**
+     * Called when a number is read as JsonNumber because lossless numbers are
+     * enabled. Default to call doubleValue().
+     *
+     * @param value The JsonNumber value.
+     */
+    default void numberValue(JsonNumber value) {
+        doubleValue(value.doubleValue());
+    }
+
+    /**
+     * Called when true or false is read.
+     *
+     * @param value The boolean value.
+     */
+    default void booleanValue(boolean value) {
+    }
+
+    /**
+     * Called when null is read.
+     */
+    default void nullValue() {
+    }
+}
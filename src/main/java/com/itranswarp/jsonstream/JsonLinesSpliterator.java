@@ -0,0 +1,122 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over newline-delimited JSON values of a byte range of file. The
+ * range is split at a line break near the middle, so each part contains whole
+ * lines and can be parsed independently on its own memory-mapped reader.
+ *
+ * @author Michael Liao
+ */
+class JsonLinesSpliterator<T> implements Spliterator<T> {
+
+    static final long MIN_SPLIT_SIZE = 1 << 20; // 1 MB
+
+    static final int SCAN_SIZE = 4096;
+
+    final JsonBuilder builder;
+    final Path path;
+    final Class<T> clazz;
+    final boolean ordered;
+    final long minSplitSize;
+    final long end;
+
+    long start;
+
+    // created when traversal started:
+    Iterator<T> iterator = null;
+
+    JsonLinesSpliterator(JsonBuilder builder, Path path, Class<T> clazz, long start, long end, boolean ordered, long minSplitSize) {
+        this.builder = builder;
+        this.path = path;
+        this.clazz = clazz;
+        this.start = start;
+        this.end = end;
+        this.ordered = ordered;
+        this.minSplitSize = minSplitSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (iterator == null) {
+            MappedFileCharReader charReader = new MappedFileCharReader(path, start, end, MappedFileCharReader.WINDOW_SIZE);
+            iterator = builder.createReader(charReader).iterator(clazz);
+        }
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        action.accept(iterator.next());
+        return true;
+    }
+
+    /**
+     * Split off the first half of lines. Return null if traversal is started or
+     * the range is too small to split.
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        if (iterator != null || end - start < minSplitSize * 2) {
+            return null;
+        }
+        long split;
+        try {
+            split = nextLine(start + (end - start) / 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (split >= end) {
+            return null;
+        }
+        JsonLinesSpliterator<T> prefix = new JsonLinesSpliterator<>(builder, path, clazz, start, split, ordered, minSplitSize);
+        this.start = split;
+        return prefix;
+    }
+
+    /**
+     * Find the offset after the first '\n' at or after offset, or end if no more
+     * line break. A '\n' byte can only be white space between values because a
+     * JSON string cannot contain raw control characters, and UTF-8 never uses it
+     * inside a multi-byte sequence.
+     */
+    long nextLine(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (offset < end) {
+                buffer.clear();
+                int n = channel.read(buffer, offset);
+                if (n < 0) {
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return offset + i + 1;
+                    }
+                }
+                offset += n;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Return size in bytes, which is proportional to the number of values.
+     */
+    @Override
+    public long estimateSize() {
+        return end - start;
+    }
+
+    @Override
+    public int characteristics() {
+        return ordered ? ORDERED : 0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.itranswarp.jsonstream;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A JSON number which keeps all its digits, returned when lossless numbers are
+ * enabled by JsonBuilder. The nearest double is computed when parsing, and
+ * BigInteger or BigDecimal is created only when it is required.
+ *
+ * @author Michael Liao
+ */
+public final class JsonNumber extends Number {
+
+    private static final long serialVersionUID = 1L;
+
+    // original text, or null if the number is unscaled * 10^-scale:
+    final String text;
+    final long unscaled;
+    final int scale;
+
+    final boolean integer;
+    final double value;
+
+    JsonNumber(String text, boolean integer, double value) {
+        this.text = text;
+        this.unscaled = 0L;
+        this.scale = 0;
+        this.integer = integer;
+        this.value = value;
+    }
+
+    JsonNumber(long unscaled, int scale, double value) {
+        this.text = null;
+        this.unscaled = unscaled;
+        this.scale = scale;
+        this.integer = false;
+        this.value = value;
+    }
+
+    /**
+     * Is the number an integer without fraction and exponent part in JSON?
+     *
+     * @return True if the number is an integer.
+     */
+    public boolean isInteger() {
+        return integer;
+    }
+
+    /**
+     * Convert to BigInteger.
+     *
+     * @return The BigInteger value.
+     * @throws ArithmeticException If number has a non-zero fractional part.
+     */
+    public BigInteger bigIntegerValue() {
+        return integer ? new BigInteger(text) : bigDecimalValue().toBigIntegerExact();
+    }
+
+    /**
+     * Convert to BigDecimal with all digits and the scale in JSON.
+     *
+     * @return The BigDecimal value.
+     */
+    public BigDecimal bigDecimalValue() {
+        return text == null ? BigDecimal.valueOf(unscaled, scale) : new BigDecimal(text);
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        return integer ? bigIntegerValue().longValue() : (long) value;
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof JsonNumber) {
+            return bigDecimalValue().equals(((JsonNumber) o).bigDecimalValue());
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return bigDecimalValue().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text == null ? bigDecimalValue().toString() : text;
+    }
+}
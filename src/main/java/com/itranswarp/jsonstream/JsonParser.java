@@ -0,0 +1,490 @@
+package com.itranswarp.jsonstream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pull parser which reads JSON token by token without building values:
+ *
+ * <pre>
+ * try (JsonParser parser = new JsonBuilder().createParser(json)) {
+ *     parser.nextToken(); // BEGIN_OBJECT
+ *     while (parser.nextToken() == JsonToken.KEY) {
+ *         switch (parser.getString()) {
+ *         case "id":
+ *             parser.nextToken();
+ *             id = parser.getLong();
+ *             break;
+ *         default:
+ *             parser.skipValue();
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * Numbers are scanned without boxing and can be read by getLong() or
+ * getDouble(), and string values are only read when getString() is called. A
+ * JsonParser is not thread-safe.
+ *
+ * @author Michael Liao
+ */
+public class JsonParser implements Closeable {
+
+    final TokenReader reader;
+
+    int status = JsonReader.STATUS_EXPECT_SINGLE_VALUE;
+    JsonToken currentToken = null;
+
+    // string value is not read yet:
+    boolean stringPending = false;
+    String stringValue = null;
+    boolean booleanValue = false;
+
+    // containers of current path:
+    int depth = 0;
+    boolean[] objects = new boolean[16];
+    String[] keys = new String[16];
+    int[] indexes = new int[16];
+
+    JsonParser(TokenReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read next token. Separators ':' and ',' are checked but not returned.
+     *
+     * @return Next token, or END_DOCUMENT if the root value is completed.
+     * @throws IOException If read failed.
+     * @throws JsonParseException If JSON is invalid.
+     */
+    public JsonToken nextToken() throws IOException {
+        if (currentToken == JsonToken.END_DOCUMENT) {
+            return currentToken;
+        }
+        skipPendingString();
+        for (;;) {
+            switch (reader.readNextToken()) {
+            case SEP_COLON:
+                if (status != JsonReader.STATUS_EXPECT_COLON) {
+                    throw new JsonParseException("Unexpected char \':\'.", reader.reader.readed);
+                }
+                status = JsonReader.STATUS_EXPECT_OBJECT_VALUE;
+                continue;
+            case SEP_COMMA:
+                if (!hasStatus(JsonReader.STATUS_EXPECT_COMMA)) {
+                    throw new JsonParseException("Unexpected char \',\'.", reader.reader.readed);
+                }
+                status = objects[depth - 1] ? JsonReader.STATUS_EXPECT_OBJECT_KEY : JsonReader.STATUS_EXPECT_ARRAY_VALUE;
+                continue;
+            case BEGIN_OBJECT:
+                startValue("char: \'{\'");
+                push(true);
+                status = JsonReader.STATUS_EXPECT_OBJECT_KEY | JsonReader.STATUS_EXPECT_END_OBJECT;
+                return currentToken = JsonToken.BEGIN_OBJECT;
+            case BEGIN_ARRAY:
+                startValue("char: \'[\'");
+                push(false);
+                status = JsonReader.STATUS_EXPECT_ARRAY_VALUE | JsonReader.STATUS_EXPECT_END_ARRAY;
+                return currentToken = JsonToken.BEGIN_ARRAY;
+            case END_OBJECT:
+                if (!hasStatus(JsonReader.STATUS_EXPECT_END_OBJECT)) {
+                    throw new JsonParseException("Unexpected char: \'}\'.", reader.reader.readed);
+                }
+                depth--;
+                endValue();
+                return currentToken = JsonToken.END_OBJECT;
+            case END_ARRAY:
+                if (!hasStatus(JsonReader.STATUS_EXPECT_END_ARRAY)) {
+                    throw new JsonParseException("Unexpected char: \']\'.", reader.reader.readed);
+                }
+                depth--;
+                endValue();
+                return currentToken = JsonToken.END_ARRAY;
+            case STRING:
+                if (hasStatus(JsonReader.STATUS_EXPECT_OBJECT_KEY)) {
+                    String key = reader.readString();
+                    keys[depth - 1] = key;
+                    stringValue = key;
+                    status = JsonReader.STATUS_EXPECT_COLON;
+                    return currentToken = JsonToken.KEY;
+                }
+                startValue("char \'\"\'");
+                stringPending = true;
+                endValue();
+                return currentToken = JsonToken.STRING;
+            case NUMBER:
+                startValue("number");
+                reader.scanNumber();
+                endValue();
+                return currentToken = JsonToken.NUMBER;
+            case BOOLEAN:
+                startValue("boolean");
+                booleanValue = reader.readBoolean();
+                endValue();
+                return currentToken = JsonToken.BOOLEAN;
+            case NULL:
+                startValue("null");
+                reader.readNull();
+                endValue();
+                return currentToken = JsonToken.NULL;
+            case END_DOCUMENT:
+                if (!hasStatus(JsonReader.STATUS_EXPECT_END_DOCUMENT)) {
+                    throw new JsonParseException("Unexpected EOF.", reader.reader.readed);
+                }
+                reader.reader.release();
+                return currentToken = JsonToken.END_DOCUMENT;
+            default:
+                throw new RuntimeException("Unexpected switch case.");
+            }
+        }
+    }
+
+    /**
+     * Get current token.
+     *
+     * @return Current token, or null if nextToken() is never called.
+     */
+    public JsonToken currentToken() {
+        return currentToken;
+    }
+
+    /**
+     * Get string value of current token, which must be KEY or STRING.
+     *
+     * @return The string value.
+     * @throws IOException If read failed.
+     */
+    public String getString() throws IOException {
+        if (currentToken != JsonToken.STRING && currentToken != JsonToken.KEY) {
+            throw new IllegalStateException("Current token is not a string: " + currentToken);
+        }
+        if (stringPending) {
+            stringPending = false;
+            stringValue = reader.readString();
+        }
+        return stringValue;
+    }
+
+    /**
+     * Get long value of current token, which must be NUMBER. A number with
+     * fraction part or exponent part is truncated.
+     *
+     * @return The long value.
+     * @throws JsonParseException If number is out of range of long.
+     */
+    public long getLong() {
+        checkCurrentToken(JsonToken.NUMBER);
+        return reader.numberLongValue();
+    }
+
+    /**
+     * Get double value of current token, which must be NUMBER.
+     *
+     * @return The double value.
+     * @throws JsonParseException If number is out of range of double.
+     */
+    public double getDouble() {
+        checkCurrentToken(JsonToken.NUMBER);
+        return reader.numberDoubleValue();
+    }
+
+    /**
+     * Get number value of current token, which must be NUMBER. The number is
+     * returned as JsonReader does, according to options of JsonBuilder.
+     *
+     * @return The number as Long, Double, JsonNumber or LazyNumber.
+     */
+    public Number getNumber() {
+        checkCurrentToken(JsonToken.NUMBER);
+        return reader.lazyNumbers ? reader.newLazyNumber() : reader.numberValue();
+    }
+
+    /**
+     * Get boolean value of current token, which must be BOOLEAN.
+     *
+     * @return The boolean value.
+     */
+    public boolean getBoolean() {
+        checkCurrentToken(JsonToken.BOOLEAN);
+        return booleanValue;
+    }
+
+    /**
+     * Skip a value without creating any object. If current token is KEY, the
+     * value of the key is skipped, and the next token is read from the one
+     * after the value. If current token is BEGIN_OBJECT or BEGIN_ARRAY, the
+     * rest of the object or array is skipped, and current token becomes
+     * END_OBJECT or END_ARRAY. Otherwise nothing is skipped.
+     *
+     * @throws IOException If read failed.
+     */
+    public void skipValue() throws IOException {
+        if (currentToken == JsonToken.KEY && status == JsonReader.STATUS_EXPECT_COLON) {
+            if (reader.readNextToken() != Token.SEP_COLON) {
+                throw new JsonParseException("Expected \':\'.", reader.reader.readed);
+            }
+            reader.skipValue();
+            endValue();
+        } else if (currentToken == JsonToken.BEGIN_OBJECT || currentToken == JsonToken.BEGIN_ARRAY) {
+            reader.skipContainer(1);
+            depth--;
+            endValue();
+            currentToken = currentToken == JsonToken.BEGIN_OBJECT ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+        }
+    }
+
+    /**
+     * Move to the value at path, e.g. $.store.book[0].title, and skip all
+     * values before it without creating any object.
+     *
+     * @param path JSONPath with keys and indexes only.
+     * @return True if found and current token is the first token of the value,
+     *         or false if not found.
+     * @throws IOException If read failed.
+     */
+    public boolean seek(String path) throws IOException {
+        List<Object> segments = parsePath(path);
+        JsonToken token = nextToken();
+        for (Object segment : segments) {
+            if (segment instanceof String) {
+                if (token != JsonToken.BEGIN_OBJECT) {
+                    return false;
+                }
+                for (;;) {
+                    if (nextToken() != JsonToken.KEY) {
+                        return false;
+                    }
+                    if (segment.equals(stringValue)) {
+                        token = nextToken();
+                        break;
+                    }
+                    skipValue();
+                }
+            } else {
+                if (token != JsonToken.BEGIN_ARRAY) {
+                    return false;
+                }
+                int index = (Integer) segment;
+                for (int i = 0;; i++) {
+                    token = nextToken();
+                    if (token == JsonToken.END_ARRAY) {
+                        return false;
+                    }
+                    if (i == index) {
+                        break;
+                    }
+                    skipValue();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get path of current token as JSONPath, e.g. $.store.book[0].title.
+     *
+     * @return The path of current token.
+     */
+    public String currentPath() {
+        StringBuilder sb = new StringBuilder(32);
+        sb.append('$');
+        for (int i = 0; i < depth; i++) {
+            if (objects[i]) {
+                String key = keys[i];
+                if (key != null) {
+                    appendKey(sb, key);
+                }
+            } else if (indexes[i] >= 0) {
+                sb.append('[').append(indexes[i]).append(']');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Read all tokens until END_DOCUMENT and send them to JsonHandler.
+     */
+    void parse(JsonHandler handler) throws IOException {
+        for (;;) {
+            switch (nextToken()) {
+            case BEGIN_OBJECT:
+                handler.startObject();
+                break;
+            case END_OBJECT:
+                handler.endObject();
+                break;
+            case BEGIN_ARRAY:
+                handler.startArray();
+                break;
+            case END_ARRAY:
+                handler.endArray();
+                break;
+            case KEY:
+                handler.key(stringValue);
+                break;
+            case STRING:
+                handler.stringValue(getString());
+                break;
+            case NUMBER:
+                if (reader.numberFitsLong()) {
+                    handler.longValue(reader.numberLongValue());
+                } else if (reader.losslessNumbers || reader.numberIsInteger) {
+                    // JsonNumber, or integer out of range of long which throws JsonParseException:
+                    handler.numberValue((JsonNumber) reader.numberValue());
+                } else {
+                    handler.doubleValue(reader.numberDoubleValue());
+                }
+                break;
+            case BOOLEAN:
+                handler.booleanValue(booleanValue);
+                break;
+            case NULL:
+                handler.nullValue();
+                break;
+            case END_DOCUMENT:
+                return;
+            }
+        }
+    }
+
+    /**
+     * Release buffer. It is also released when END_DOCUMENT is read.
+     */
+    @Override
+    public void close() {
+        reader.reader.release();
+    }
+
+    boolean hasStatus(int expectedStatus) {
+        return (status & expectedStatus) > 0;
+    }
+
+    void checkCurrentToken(JsonToken expected) {
+        if (currentToken != expected) {
+            throw new IllegalStateException("Current token is not " + expected + ": " + currentToken);
+        }
+    }
+
+    void skipPendingString() throws IOException {
+        if (stringPending) {
+            stringPending = false;
+            // skip the opening quote and chars:
+            reader.reader.next();
+            reader.skipStringChars();
+        }
+    }
+
+    void startValue(String what) {
+        if (!hasStatus(JsonReader.STATUS_EXPECT_SINGLE_VALUE | JsonReader.STATUS_EXPECT_OBJECT_VALUE | JsonReader.STATUS_EXPECT_ARRAY_VALUE)) {
+            throw new JsonParseException("Unexpected " + what + ".", reader.reader.readed);
+        }
+        if (depth > 0 && !objects[depth - 1]) {
+            indexes[depth - 1]++;
+        }
+    }
+
+    void endValue() {
+        if (depth == 0) {
+            status = JsonReader.STATUS_EXPECT_END_DOCUMENT;
+        } else if (objects[depth - 1]) {
+            status = JsonReader.STATUS_EXPECT_COMMA | JsonReader.STATUS_EXPECT_END_OBJECT;
+        } else {
+            status = JsonReader.STATUS_EXPECT_COMMA | JsonReader.STATUS_EXPECT_END_ARRAY;
+        }
+    }
+
+    void push(boolean object) {
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+            keys = Arrays.copyOf(keys, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+        }
+        objects[depth] = object;
+        keys[depth] = null;
+        indexes[depth] = -1;
+        depth++;
+    }
+
+    /**
+     * Parse path like $.a['b'][0] as keys and indexes.
+     */
+    static List<Object> parsePath(String path) {
+        if (!path.startsWith("$")) {
+            throw new IllegalArgumentException("Invalid path: " + path);
+        }
+        List<Object> segments = new ArrayList<>();
+        int i = 1;
+        int n = path.length();
+        while (i < n) {
+            char ch = path.charAt(i);
+            if (ch == '.') {
+                int start = ++i;
+                while (i < n && path.charAt(i) != '.' && path.charAt(i) != '[') {
+                    i++;
+                }
+                if (i == start) {
+                    throw new IllegalArgumentException("Invalid path: " + path);
+                }
+                segments.add(path.substring(start, i));
+            } else if (ch == '[' && i + 1 < n && path.charAt(i + 1) == '\'') {
+                StringBuilder sb = new StringBuilder();
+                i += 2;
+                for (;;) {
+                    if (i >= n) {
+                        throw new IllegalArgumentException("Invalid path: " + path);
+                    }
+                    char c = path.charAt(i++);
+                    if (c == '\'') {
+                        break;
+                    }
+                    if (c == '\\' && i < n) {
+                        c = path.charAt(i++);
+                    }
+                    sb.append(c);
+                }
+                if (i >= n || path.charAt(i) != ']') {
+                    throw new IllegalArgumentException("Invalid path: " + path);
+                }
+                i++;
+                segments.add(sb.toString());
+            } else if (ch == '[') {
+                int end = path.indexOf(']', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Invalid path: " + path);
+                }
+                try {
+                    segments.add(Integer.valueOf(Integer.parseUnsignedInt(path.substring(i + 1, end))));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid path: " + path);
+                }
+                i = end + 1;
+            } else {
+                throw new IllegalArgumentException("Invalid path: " + path);
+            }
+        }
+        return segments;
+    }
+
+    static void appendKey(StringBuilder sb, String key) {
+        boolean identifier = !key.isEmpty() && Character.isJavaIdentifierStart(key.charAt(0));
+        for (int i = 1; identifier && i < key.length(); i++) {
+            identifier = Character.isJavaIdentifierPart(key.charAt(i));
+        }
+        if (identifier) {
+            sb.append('.').append(key);
+            return;
+        }
+        sb.append("[\'");
+        for (int i = 0; i < key.length(); i++) {
+            char ch = key.charAt(i);
+            if (ch == '\'' || ch == '\\') {
+                sb.append('\\');
+            }
+            sb.append(ch);
+        }
+        sb.append("\']");
+    }
+}
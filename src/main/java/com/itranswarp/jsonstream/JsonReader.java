@@ -2,9 +2,17 @@ package com.itranswarp.jsonstream;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Parse JSON as stream and return parsed object.
@@ -13,15 +21,32 @@ import java.util.Map;
  */
 public class JsonReader {
 
+    // stateless and thread-safe, shared by all readers without ObjectMapper:
+    static final BeanObjectMapper DEFAULT_OBJECT_MAPPER = new BeanObjectMapper();
+
     final TokenReader reader;
     final JsonObjectFactory jsonObjectFactory;
     final JsonArrayFactory jsonArrayFactory;
     final ObjectMapper objectHook;
     final TypeAdapters typeAdapters;
 
+    // parse UTF-8 bytes by IndexedJsonParser if StructuralIndexer is available:
+    boolean structuralIndex = false;
+
+    // bind JSON object to bean by BeanBinder without building Map:
+    boolean streamingBinding = false;
+
+    // skip values of unknown properties when build Map for bean:
+    boolean skipUnknownProperties = false;
+
     public JsonReader(Reader reader, JsonObjectFactory jsonObjectFactory, JsonArrayFactory jsonArrayFactory, ObjectMapper objectHook,
             TypeAdapters typeAdapters) {
-        this.reader = new TokenReader(new CharReader(reader));
+        this(new CharReader(reader), jsonObjectFactory, jsonArrayFactory, objectHook, typeAdapters);
+    }
+
+    JsonReader(CharReader charReader, JsonObjectFactory jsonObjectFactory, JsonArrayFactory jsonArrayFactory, ObjectMapper objectHook,
+            TypeAdapters typeAdapters) {
+        this.reader = new TokenReader(charReader);
         this.jsonObjectFactory = jsonObjectFactory != null ? jsonObjectFactory : () -> {
             return new HashMap<>();
         };
@@ -46,13 +71,128 @@ public class JsonReader {
         throw new ClassCastException("Cannot case parsed result from: " + obj.getClass().getName() + " to expected type: " + clazz.getName());
     }
 
-    @SuppressWarnings("unchecked")
     public <T> T parse(Class<T> clazz) throws IOException {
-        Object obj = parse();
+        if (this.objectHook == null && (skipUnknownProperties || streamingBinding) && BeanObjectMapper.isBeanClass(clazz)
+                && !(structuralIndex && StructuralIndexer.isAvailable())) {
+            // bind to bean from tokens, and skip values of unknown properties:
+            try {
+                JsonParser parser = new JsonParser(reader);
+                parser.nextToken();
+                Object obj = bind(parser, clazz);
+                // root value is completed and then expect EOF:
+                parser.nextToken();
+                return convert(obj, clazz);
+            } finally {
+                reader.reader.release();
+            }
+        }
+        return convert(parse(), clazz);
+    }
+
+    /**
+     * Parse only the value at path, e.g. $.store.book[0].title. All values
+     * before it are skipped without creating any object, and JSON after it is
+     * not read.
+     * 
+     * @param path JSONPath with keys and indexes only.
+     * @return Parsed value, or null if not found.
+     * @throws IOException If read failed.
+     */
+    public Object parseAt(String path) throws IOException {
+        return parseAt(path, Object.class);
+    }
+
+    /**
+     * Parse only the value at path, e.g. $.store.book[0].title, and convert it
+     * to expected type. All values before it are skipped without creating any
+     * object, and JSON after it is not read.
+     * 
+     * @param <T> Expected type.
+     * @param path JSONPath with keys and indexes only.
+     * @param clazz Expected class.
+     * @return Parsed value, or null if not found.
+     * @throws IOException If read failed.
+     */
+    public <T> T parseAt(String path, Class<T> clazz) throws IOException {
+        try {
+            JsonParser parser = new JsonParser(reader);
+            if (!parser.seek(path)) {
+                return null;
+            }
+            return convert(this.objectHook == null ? bind(parser, clazz) : readTree(parser, null), clazz);
+        } finally {
+            reader.reader.release();
+        }
+    }
+
+    /**
+     * Read value from current token of JsonParser for expected type. JSON
+     * object is bound to bean directly if streaming binding is enabled.
+     */
+    Object bind(JsonParser parser, Class<?> clazz) throws IOException {
+        if (streamingBinding && parser.currentToken() == JsonToken.BEGIN_OBJECT && BeanObjectMapper.isBeanClass(clazz)) {
+            return new BeanBinder(this, parser).readObject(clazz, clazz.getSimpleName());
+        }
+        return readTree(parser, clazz);
+    }
+
+    /**
+     * Build value from current token of JsonParser. If type is a bean class,
+     * values of keys which are not properties of the bean are skipped.
+     */
+    Object readTree(JsonParser parser, Class<?> type) throws IOException {
+        switch (parser.currentToken()) {
+        case BEGIN_OBJECT:
+            Map<String, Object> map = this.jsonObjectFactory.createJsonObject();
+            PropertySetters pss = type != null && BeanObjectMapper.isBeanClass(type) ? BeanMetadata.of(type).getSetters() : null;
+            while (parser.nextToken() == JsonToken.KEY) {
+                String key = parser.getString();
+                Class<?> valueType = null;
+                if (pss != null) {
+                    PropertySetter ps = pss.getPropertySetter(key);
+                    if (ps == null) {
+                        parser.skipValue();
+                        continue;
+                    }
+                    Class<?> propertyType = ps.getPropertyType();
+                    // element type of List<T> or T[]:
+                    valueType = propertyType.isArray() || propertyType.isAssignableFrom(List.class) ? ps.getGenericType() : propertyType;
+                }
+                parser.nextToken();
+                map.put(key, readTree(parser, valueType));
+            }
+            return map;
+        case BEGIN_ARRAY:
+            List<Object> list = this.jsonArrayFactory.createJsonArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                list.add(readTree(parser, type));
+            }
+            return list;
+        case STRING:
+            return parser.getString();
+        case NUMBER:
+            return parser.getNumber();
+        case BOOLEAN:
+            return parser.getBoolean();
+        case NULL:
+            return null;
+        default:
+            throw new JsonParseException("Unexpected token: " + parser.currentToken(), reader.reader.readed);
+        }
+    }
+
+    /**
+     * Convert parsed value to expected type, using ObjectMapper if necessary.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T convert(Object obj, Class<T> clazz) {
         if (obj instanceof Map && !clazz.isAssignableFrom(Map.class)) {
-            ObjectMapper objectHook = this.objectHook == null ? new BeanObjectMapper() : this.objectHook;
+            ObjectMapper objectHook = this.objectHook == null ? DEFAULT_OBJECT_MAPPER : this.objectHook;
             obj = objectHook.toObject(clazz.getSimpleName(), (Map<String, Object>) obj, clazz, typeAdapters);
         }
+        if (obj instanceof LazyNumber && !clazz.isInstance(obj)) {
+            obj = ((LazyNumber) obj).getValue();
+        }
         return (T) checkExpectedType(obj, clazz);
     }
 
@@ -60,206 +200,342 @@ public class JsonReader {
     int status;
 
     public Object parse() throws IOException {
-        stack = new Stack();
-        status = STATUS_EXPECT_SINGLE_VALUE | STATUS_EXPECT_BEGIN_OBJECT | STATUS_EXPECT_BEGIN_ARRAY;
-        for (;;) {
-            Token currentToken = reader.readNextToken();
-            switch (currentToken) {
-            case BOOLEAN:
-                if (hasStatus(STATUS_EXPECT_SINGLE_VALUE)) {
-                    // single boolean:
-                    Boolean bool = reader.readBoolean();
-                    stack.push(StackValue.newJsonSingle(bool));
-                    status = STATUS_EXPECT_END_DOCUMENT;
-                    continue;
+        try {
+            if (structuralIndex && StructuralIndexer.isAvailable() && reader.reader instanceof ByteCharReader) {
+                ByteCharReader charReader = (ByteCharReader) reader.reader;
+                // only a whole document in byte array can be indexed:
+                if (charReader.input == null) {
+                    return new IndexedJsonParser(this, charReader).parse(StructuralIndexer.INSTANCE);
                 }
-                if (hasStatus(STATUS_EXPECT_OBJECT_VALUE)) {
-                    Boolean bool = reader.readBoolean();
-                    String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
-                    stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, bool);
-                    status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
-                    continue;
-                }
-                if (hasStatus(STATUS_EXPECT_ARRAY_VALUE)) {
-                    Boolean bool = reader.readBoolean();
-                    stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(bool);
-                    status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
-                    continue;
+            }
+            return parseValue();
+        } finally {
+            // the document is fully consumed or broken:
+            reader.reader.release();
+        }
+    }
+
+    /**
+     * Parse JSON and send events to JsonHandler, without building any Map or
+     * List. Numbers are sent as primitive long or double without boxing.
+     * 
+     * @param handler The JsonHandler to receive events.
+     * @throws IOException If read failed.
+     */
+    public void parse(JsonHandler handler) throws IOException {
+        try {
+            new JsonParser(reader).parse(handler);
+        } finally {
+            reader.reader.release();
+        }
+    }
+
+    Object parseValue() throws IOException {
+        Object value = readValue();
+        // root value is completed and then expect EOF:
+        parseNextToken();
+        return value;
+    }
+
+    /**
+     * Return an iterator which parses white-space separated values one by one,
+     * e.g. JSON Lines (NDJSON). Each value is parsed when it is pulled, and the
+     * buffer and stack are reused between values.
+     * 
+     * @return Iterator of parsed values.
+     */
+    public Iterator<Object> iterator() {
+        return iterator(Object.class);
+    }
+
+    /**
+     * Return an iterator which parses white-space separated values one by one,
+     * e.g. JSON Lines (NDJSON), and convert each value to expected type.
+     * 
+     * @param <T> Expected type.
+     * @param clazz Expected class.
+     * @return Iterator of parsed values.
+     */
+    public <T> Iterator<T> iterator(Class<T> clazz) {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    if (reader.skipWhiteSpaces()) {
+                        return true;
+                    }
+                    reader.reader.release();
+                    return false;
+                } catch (IOException e) {
+                    reader.reader.release();
+                    throw new UncheckedIOException(e);
                 }
-                throw new JsonParseException("Unexpected boolean.", reader.reader.readed);
+            }
 
-            case NULL:
-                if (hasStatus(STATUS_EXPECT_SINGLE_VALUE)) {
-                    // single null:
-                    reader.readNull();
-                    stack.push(StackValue.newJsonSingle(null));
-                    status = STATUS_EXPECT_END_DOCUMENT;
-                    continue;
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
                 }
-                if (hasStatus(STATUS_EXPECT_OBJECT_VALUE)) {
-                    reader.readNull();
-                    String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
-                    stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, null);
-                    status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
-                    continue;
+                try {
+                    return convert(readValue(), clazz);
+                } catch (IOException e) {
+                    reader.reader.release();
+                    throw new UncheckedIOException(e);
+                } catch (RuntimeException e) {
+                    reader.reader.release();
+                    throw e;
                 }
-                if (hasStatus(STATUS_EXPECT_ARRAY_VALUE)) {
-                    reader.readNull();
-                    stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(null);
-                    status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
-                    continue;
+            }
+        };
+    }
+
+    /**
+     * Return a sequential stream which parses white-space separated values
+     * lazily, e.g. JSON Lines (NDJSON).
+     * 
+     * @return Stream of parsed values.
+     */
+    public Stream<Object> stream() {
+        return stream(Object.class);
+    }
+
+    /**
+     * Return a sequential stream which parses white-space separated values
+     * lazily, e.g. JSON Lines (NDJSON), and convert each value to expected type.
+     * 
+     * @param <T> Expected type.
+     * @param clazz Expected class.
+     * @return Stream of parsed values.
+     */
+    public <T> Stream<T> stream(Class<T> clazz) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(clazz), Spliterator.ORDERED), false).onClose(() -> {
+            reader.reader.release();
+        });
+    }
+
+    /**
+     * Read a root value without checking EOF.
+     */
+    Object readValue() throws IOException {
+        startValue();
+        while (!parseNextToken()) {
+        }
+        return stack.pop().value;
+    }
+
+    /**
+     * Reset stack and status to parse a new root value.
+     */
+    void startValue() {
+        if (stack == null) {
+            stack = new Stack();
+        } else {
+            stack.clear();
+        }
+        status = STATUS_EXPECT_SINGLE_VALUE | STATUS_EXPECT_BEGIN_OBJECT | STATUS_EXPECT_BEGIN_ARRAY;
+    }
+
+    /**
+     * Read next token and update stack and status. Stack and status are only
+     * updated after the token is read completely.
+     * 
+     * @return True if root value is completed and is on the top of stack.
+     */
+    boolean parseNextToken() throws IOException {
+        Token currentToken = reader.readNextToken();
+        switch (currentToken) {
+        case BOOLEAN:
+            if (hasStatus(STATUS_EXPECT_SINGLE_VALUE)) {
+                // single boolean:
+                Boolean bool = reader.readBoolean();
+                stack.push(StackValue.newJsonSingle(bool));
+                status = STATUS_EXPECT_END_DOCUMENT;
+                return true;
+            }
+            if (hasStatus(STATUS_EXPECT_OBJECT_VALUE)) {
+                Boolean bool = reader.readBoolean();
+                String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
+                stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, bool);
+                status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
+                return false;
+            }
+            if (hasStatus(STATUS_EXPECT_ARRAY_VALUE)) {
+                Boolean bool = reader.readBoolean();
+                stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(bool);
+                status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
+                return false;
+            }
+            throw new JsonParseException("Unexpected boolean.", reader.reader.readed);
+
+        case NULL:
+            if (hasStatus(STATUS_EXPECT_SINGLE_VALUE)) {
+                // single null:
+                reader.readNull();
+                stack.push(StackValue.newJsonSingle(null));
+                status = STATUS_EXPECT_END_DOCUMENT;
+                return true;
+            }
+            if (hasStatus(STATUS_EXPECT_OBJECT_VALUE)) {
+                reader.readNull();
+                String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
+                stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, null);
+                status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
+                return false;
+            }
+            if (hasStatus(STATUS_EXPECT_ARRAY_VALUE)) {
+                reader.readNull();
+                stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(null);
+                status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
+                return false;
+            }
+            throw new JsonParseException("Unexpected null.", reader.reader.readed);
+
+        case NUMBER:
+            if (hasStatus(STATUS_EXPECT_SINGLE_VALUE)) {
+                // single number:
+                Number number = reader.readNumber();
+                stack.push(StackValue.newJsonSingle(number));
+                status = STATUS_EXPECT_END_DOCUMENT;
+                return true;
+            }
+            if (hasStatus(STATUS_EXPECT_OBJECT_VALUE)) {
+                Number number = reader.readNumber();
+                String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
+                stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, number);
+                status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
+                return false;
+            }
+            if (hasStatus(STATUS_EXPECT_ARRAY_VALUE)) {
+                Number number = reader.readNumber();
+                stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(number);
+                status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
+                return false;
+            }
+            throw new JsonParseException("Unexpected number.", reader.reader.readed);
+
+        case STRING:
+            if (hasStatus(STATUS_EXPECT_SINGLE_VALUE)) {
+                // single string:
+                String str = reader.readString();
+                stack.push(StackValue.newJsonSingle(str));
+                status = STATUS_EXPECT_END_DOCUMENT;
+                return true;
+            }
+            if (hasStatus(STATUS_EXPECT_OBJECT_KEY)) {
+                String str = reader.readString();
+                stack.push(StackValue.newJsonObjectKey(str));
+                status = STATUS_EXPECT_COLON;
+                return false;
+            }
+            if (hasStatus(STATUS_EXPECT_OBJECT_VALUE)) {
+                String str = reader.readString();
+                String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
+                stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, str);
+                status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
+                return false;
+            }
+            if (hasStatus(STATUS_EXPECT_ARRAY_VALUE)) {
+                String str = reader.readString();
+                stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(str);
+                status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
+                return false;
+            }
+            throw new JsonParseException("Unexpected char \'\"\'.", reader.reader.readed);
+
+        case SEP_COLON: // :
+            if (status == STATUS_EXPECT_COLON) {
+                status = STATUS_EXPECT_OBJECT_VALUE | STATUS_EXPECT_BEGIN_OBJECT | STATUS_EXPECT_BEGIN_ARRAY;
+                return false;
+            }
+            throw new JsonParseException("Unexpected char \':\'.", reader.reader.readed);
+
+        case SEP_COMMA: // ,
+            if (hasStatus(STATUS_EXPECT_COMMA)) {
+                if (hasStatus(STATUS_EXPECT_END_OBJECT)) {
+                    status = STATUS_EXPECT_OBJECT_KEY;
+                    return false;
+                }
+                if (hasStatus(STATUS_EXPECT_END_ARRAY)) {
+                    status = STATUS_EXPECT_ARRAY_VALUE | STATUS_EXPECT_BEGIN_ARRAY | STATUS_EXPECT_BEGIN_OBJECT;
+                    return false;
                 }
-                throw new JsonParseException("Unexpected null.", reader.reader.readed);
+            }
+            throw new JsonParseException("Unexpected char \',\'.", reader.reader.readed);
 
-            case NUMBER:
-                if (hasStatus(STATUS_EXPECT_SINGLE_VALUE)) {
-                    // single number:
-                    Number number = reader.readNumber();
-                    stack.push(StackValue.newJsonSingle(number));
+        case END_ARRAY:
+            if (hasStatus(STATUS_EXPECT_END_ARRAY)) {
+                StackValue array = stack.pop(StackValue.TYPE_ARRAY);
+                if (stack.isEmpty()) {
+                    stack.push(array);
                     status = STATUS_EXPECT_END_DOCUMENT;
-                    continue;
+                    return true;
                 }
-                if (hasStatus(STATUS_EXPECT_OBJECT_VALUE)) {
-                    Number number = reader.readNumber();
+                int type = stack.getTopValueType();
+                if (type == StackValue.TYPE_OBJECT_KEY) {
+                    // key: [ CURRENT ] ,}
                     String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
-                    stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, number);
+                    stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, array.value);
                     status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
-                    continue;
+                    return false;
                 }
-                if (hasStatus(STATUS_EXPECT_ARRAY_VALUE)) {
-                    Number number = reader.readNumber();
-                    stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(number);
+                if (type == StackValue.TYPE_ARRAY) {
+                    // xx, xx, [CURRENT] ,]
+                    stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(array.value);
                     status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
-                    continue;
+                    return false;
                 }
-                throw new JsonParseException("Unexpected number.", reader.reader.readed);
-
-            case STRING:
-                if (hasStatus(STATUS_EXPECT_SINGLE_VALUE)) {
-                    // single string:
-                    String str = reader.readString();
-                    stack.push(StackValue.newJsonSingle(str));
+            }
+            throw new JsonParseException("Unexpected char: \']\'.", reader.reader.readed);
+
+        case END_OBJECT:
+            if (hasStatus(STATUS_EXPECT_END_OBJECT)) {
+                StackValue object = stack.pop(StackValue.TYPE_OBJECT);
+                if (stack.isEmpty()) {
+                    // root object:
+                    stack.push(object);
                     status = STATUS_EXPECT_END_DOCUMENT;
-                    continue;
-                }
-                if (hasStatus(STATUS_EXPECT_OBJECT_KEY)) {
-                    String str = reader.readString();
-                    stack.push(StackValue.newJsonObjectKey(str));
-                    status = STATUS_EXPECT_COLON;
-                    continue;
+                    return true;
                 }
-                if (hasStatus(STATUS_EXPECT_OBJECT_VALUE)) {
-                    String str = reader.readString();
+                int type = stack.getTopValueType();
+                if (type == StackValue.TYPE_OBJECT_KEY) {
                     String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
-                    stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, str);
+                    stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, object.value);
                     status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
-                    continue;
+                    return false;
                 }
-                if (hasStatus(STATUS_EXPECT_ARRAY_VALUE)) {
-                    String str = reader.readString();
-                    stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(str);
+                if (type == StackValue.TYPE_ARRAY) {
+                    stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(object.value);
                     status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
-                    continue;
-                }
-                throw new JsonParseException("Unexpected char \'\"\'.", reader.reader.readed);
-
-            case SEP_COLON: // :
-                if (status == STATUS_EXPECT_COLON) {
-                    status = STATUS_EXPECT_OBJECT_VALUE | STATUS_EXPECT_BEGIN_OBJECT | STATUS_EXPECT_BEGIN_ARRAY;
-                    continue;
-                }
-                throw new JsonParseException("Unexpected char \':\'.", reader.reader.readed);
-
-            case SEP_COMMA: // ,
-                if (hasStatus(STATUS_EXPECT_COMMA)) {
-                    if (hasStatus(STATUS_EXPECT_END_OBJECT)) {
-                        status = STATUS_EXPECT_OBJECT_KEY;
-                        continue;
-                    }
-                    if (hasStatus(STATUS_EXPECT_END_ARRAY)) {
-                        status = STATUS_EXPECT_ARRAY_VALUE | STATUS_EXPECT_BEGIN_ARRAY | STATUS_EXPECT_BEGIN_OBJECT;
-                        continue;
-                    }
-                }
-                throw new JsonParseException("Unexpected char \',\'.", reader.reader.readed);
-
-            case END_ARRAY:
-                if (hasStatus(STATUS_EXPECT_END_ARRAY)) {
-                    StackValue array = stack.pop(StackValue.TYPE_ARRAY);
-                    if (stack.isEmpty()) {
-                        stack.push(array);
-                        status = STATUS_EXPECT_END_DOCUMENT;
-                        continue;
-                    }
-                    int type = stack.getTopValueType();
-                    if (type == StackValue.TYPE_OBJECT_KEY) {
-                        // key: [ CURRENT ] ,}
-                        String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
-                        stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, array.value);
-                        status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
-                        continue;
-                    }
-                    if (type == StackValue.TYPE_ARRAY) {
-                        // xx, xx, [CURRENT] ,]
-                        stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(array.value);
-                        status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
-                        continue;
-                    }
-                }
-                throw new JsonParseException("Unexpected char: \']\'.", reader.reader.readed);
-
-            case END_OBJECT:
-                if (hasStatus(STATUS_EXPECT_END_OBJECT)) {
-                    StackValue object = stack.pop(StackValue.TYPE_OBJECT);
-                    if (stack.isEmpty()) {
-                        // root object:
-                        stack.push(object);
-                        status = STATUS_EXPECT_END_DOCUMENT;
-                        continue;
-                    }
-                    int type = stack.getTopValueType();
-                    if (type == StackValue.TYPE_OBJECT_KEY) {
-                        String key = stack.pop(StackValue.TYPE_OBJECT_KEY).valueAsKey();
-                        stack.peek(StackValue.TYPE_OBJECT).valueAsObject().put(key, object.value);
-                        status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_OBJECT;
-                        continue;
-                    }
-                    if (type == StackValue.TYPE_ARRAY) {
-                        stack.peek(StackValue.TYPE_ARRAY).valueAsArray().add(object.value);
-                        status = STATUS_EXPECT_COMMA | STATUS_EXPECT_END_ARRAY;
-                        continue;
-                    }
+                    return false;
                 }
-                throw new JsonParseException("Unexpected char: \'}\'.", reader.reader.readed);
-
-            case END_DOCUMENT:
-                if (hasStatus(STATUS_EXPECT_END_DOCUMENT)) {
-                    StackValue v = stack.pop();
-                    if (stack.isEmpty()) {
-                        return v.value;
-                    }
-                }
-                throw new JsonParseException("Unexpected EOF.", reader.reader.readed);
+            }
+            throw new JsonParseException("Unexpected char: \'}\'.", reader.reader.readed);
 
-            case BEGIN_ARRAY:
-                if (hasStatus(STATUS_EXPECT_BEGIN_ARRAY)) {
-                    stack.push(StackValue.newJsonArray(this.jsonArrayFactory.createJsonArray()));
-                    status = STATUS_EXPECT_ARRAY_VALUE | STATUS_EXPECT_BEGIN_OBJECT | STATUS_EXPECT_BEGIN_ARRAY | STATUS_EXPECT_END_ARRAY;
-                    continue;
-                }
-                throw new JsonParseException("Unexpected char: \'[\'.", reader.reader.readed);
+        case END_DOCUMENT:
+            if (hasStatus(STATUS_EXPECT_END_DOCUMENT)) {
+                return true;
+            }
+            throw new JsonParseException("Unexpected EOF.", reader.reader.readed);
 
-            case BEGIN_OBJECT:
-                if (hasStatus(STATUS_EXPECT_BEGIN_OBJECT)) {
-                    stack.push(StackValue.newJsonObject(this.jsonObjectFactory.createJsonObject()));
-                    status = STATUS_EXPECT_OBJECT_KEY | STATUS_EXPECT_BEGIN_OBJECT | STATUS_EXPECT_END_OBJECT;
-                    continue;
-                }
-                throw new JsonParseException("Unexpected char: \'{\'.", reader.reader.readed);
+        case BEGIN_ARRAY:
+            if (hasStatus(STATUS_EXPECT_BEGIN_ARRAY)) {
+                stack.push(StackValue.newJsonArray(this.jsonArrayFactory.createJsonArray()));
+                status = STATUS_EXPECT_ARRAY_VALUE | STATUS_EXPECT_BEGIN_OBJECT | STATUS_EXPECT_BEGIN_ARRAY | STATUS_EXPECT_END_ARRAY;
+                return false;
+            }
+            throw new JsonParseException("Unexpected char: \'[\'.", reader.reader.readed);
 
-            default:
-                throw new RuntimeException("Unexpected switch case.");
+        case BEGIN_OBJECT:
+            if (hasStatus(STATUS_EXPECT_BEGIN_OBJECT)) {
+                stack.push(StackValue.newJsonObject(this.jsonObjectFactory.createJsonObject()));
+                status = STATUS_EXPECT_OBJECT_KEY | STATUS_EXPECT_BEGIN_OBJECT | STATUS_EXPECT_END_OBJECT;
+                return false;
             }
+            throw new JsonParseException("Unexpected char: \'{\'.", reader.reader.readed);
+
+        default:
+            throw new RuntimeException("Unexpected switch case.");
         }
     }
 
@@ -15,4 +15,14 @@ public class JsonSerializeException extends JsonException {
     public JsonSerializeException(String message) {
         super(message);
     }
+
+    /**
+     * Construct a JsonSerializeException with message and nested exception.
+     * 
+     * @param message The exception message.
+     * @param t The nested exception.
+     */
+    public JsonSerializeException(String message, Throwable t) {
+        super(message, t);
+    }
 }
@@ -0,0 +1,60 @@
+package com.itranswarp.jsonstream;
+
+/**
+ * All types of token returned by JsonParser.
+ *
+ * @author Michael Liao
+ */
+public enum JsonToken {
+
+    /**
+     * EOF of JSON document.
+     */
+    END_DOCUMENT,
+
+    /**
+     * Beginning of object: {
+     */
+    BEGIN_OBJECT,
+
+    /**
+     * End of object: }
+     */
+    END_OBJECT,
+
+    /**
+     * Beginning of array: [
+     */
+    BEGIN_ARRAY,
+
+    /**
+     * End of array: ]
+     */
+    END_ARRAY,
+
+    /**
+     * Key of object: "key" before ':'
+     */
+    KEY,
+
+    /**
+     * String value: "xxx"
+     */
+    STRING,
+
+    /**
+     * Boolean value: true or false.
+     */
+    BOOLEAN,
+
+    /**
+     * Number value: 123.456
+     */
+    NUMBER,
+
+    /**
+     * Null value: null.
+     */
+    NULL
+
+}
@@ -1,32 +1,32 @@
 package com.itranswarp.jsonstream;
 
 import java.io.IOException;
-import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-import com.itranswarp.jsonstream.PropertyGetters.PropertyGetter;
 
 public class JsonWriter {
 
     static final int MAX_DEPTH = 100;
 
+    // separator of primitive array elements, same as Arrays.toString():
+    static final char[] ARRAY_SEPARATOR = { ',', ' ' };
+
     final boolean canToString;
-    final Writer writer;
-    final Map<String, PropertyGetters> cachedGetters = new ConcurrentHashMap<>();
+    final CharWriter writer;
     final TypeAdapters typeAdapters;
 
     public JsonWriter(TypeAdapters typeAdapters) {
-        this.canToString = true;
-        this.writer = new StringWriter(1024);
-        this.typeAdapters = typeAdapters;
+        this(new CharWriter(CharReader.BUFFER_SIZE), typeAdapters);
     }
 
     public JsonWriter(Writer writer, TypeAdapters typeAdapters) {
-        this.canToString = false;
+        this(new CharWriter(writer, CharWriter.BUFFER_SIZE), typeAdapters);
+    }
+
+    JsonWriter(CharWriter writer, TypeAdapters typeAdapters) {
+        this.canToString = !writer.external;
         this.writer = writer;
         this.typeAdapters = typeAdapters;
     }
@@ -40,8 +40,30 @@ public class JsonWriter {
         }
     }
 
+    /**
+     * Get UTF-8 encoded bytes of JSON.
+     * 
+     * @return UTF-8 encoded bytes.
+     */
+    public byte[] toBytes() {
+        if (this.canToString) {
+            return writer.toBytes();
+        } else {
+            throw new RuntimeException("Cannot get bytes since this JsonWriter write to an external stream.");
+        }
+    }
+
     void writeNumber(Number n) throws IOException {
-        writer.write(n.toString());
+        Class<?> clazz = n.getClass();
+        if (clazz == Integer.class || clazz == Long.class || clazz == Short.class || clazz == Byte.class) {
+            writer.writeLong(n.longValue());
+        } else if (clazz == Double.class) {
+            writer.writeDouble(n.doubleValue());
+        } else if (clazz == Float.class) {
+            writer.writeFloat(n.floatValue());
+        } else {
+            writer.write(n.toString());
+        }
     }
 
     void writeBoolean(Boolean b) throws IOException {
@@ -61,39 +83,7 @@ public class JsonWriter {
             writeNull();
             return;
         }
-        writer.write('\"');
-        for (int i = 0; i < s.length(); i++) {
-            char ch = s.charAt(i);
-            switch (ch) {
-            case '\"':
-                writer.write("\\\"");
-                break;
-            case '\\':
-                writer.write("\\\\");
-                break;
-            case '/':
-                writer.write("\\/");
-                break;
-            case '\b':
-                writer.write("\\b");
-                break;
-            case '\f':
-                writer.write("\\f");
-                break;
-            case '\n':
-                writer.write("\\n");
-                break;
-            case '\r':
-                writer.write("\\r");
-                break;
-            case '\t':
-                writer.write("\\t");
-                break;
-            default:
-                writer.write(ch);
-            }
-        }
-        writer.write('\"');
+        writer.writeString(s);
     }
 
     void writeList(List<Object> list, TypeAdapters typeAdapters, int depth) throws IOException {
@@ -146,19 +136,75 @@ public class JsonWriter {
             throw new JsonSerializeException("Maximum depth of nested object.");
         }
         if (array instanceof boolean[]) {
-            writer.write(Arrays.toString((boolean[]) array));
+            boolean[] a = (boolean[]) array;
+            writer.write('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) {
+                    writer.write(ARRAY_SEPARATOR);
+                }
+                writer.write(a[i] ? "true" : "false");
+            }
+            writer.write(']');
         } else if (array instanceof int[]) {
-            writer.write(Arrays.toString((int[]) array));
+            int[] a = (int[]) array;
+            writer.write('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) {
+                    writer.write(ARRAY_SEPARATOR);
+                }
+                writer.writeLong(a[i]);
+            }
+            writer.write(']');
         } else if (array instanceof long[]) {
-            writer.write(Arrays.toString((long[]) array));
+            long[] a = (long[]) array;
+            writer.write('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) {
+                    writer.write(ARRAY_SEPARATOR);
+                }
+                writer.writeLong(a[i]);
+            }
+            writer.write(']');
         } else if (array instanceof float[]) {
-            writer.write(Arrays.toString((float[]) array));
+            float[] a = (float[]) array;
+            writer.write('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) {
+                    writer.write(ARRAY_SEPARATOR);
+                }
+                writer.writeFloat(a[i]);
+            }
+            writer.write(']');
         } else if (array instanceof double[]) {
-            writer.write(Arrays.toString((double[]) array));
+            double[] a = (double[]) array;
+            writer.write('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) {
+                    writer.write(ARRAY_SEPARATOR);
+                }
+                writer.writeDouble(a[i]);
+            }
+            writer.write(']');
         } else if (array instanceof short[]) {
-            writer.write(Arrays.toString((short[]) array));
+            short[] a = (short[]) array;
+            writer.write('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) {
+                    writer.write(ARRAY_SEPARATOR);
+                }
+                writer.writeLong(a[i]);
+            }
+            writer.write(']');
         } else if (array instanceof byte[]) {
-            writer.write(Arrays.toString((byte[]) array));
+            byte[] a = (byte[]) array;
+            writer.write('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) {
+                    writer.write(ARRAY_SEPARATOR);
+                }
+                writer.writeLong(a[i]);
+            }
+            writer.write(']');
         } else {
             writeList(Arrays.asList((Object[]) array), typeAdapters, depth);
         }
@@ -212,31 +258,21 @@ public class JsonWriter {
                 return;
             }
         }
-        String className = beanClass.getName();
-        PropertyGetters pgs = cachedGetters.get(className);
-        if (pgs == null) {
-            pgs = new PropertyGetters(bean.getClass());
-            cachedGetters.put(className, pgs);
-        }
-        Map<String, PropertyGetter> getters = pgs.map;
-        if (getters.isEmpty()) {
+        PropertyGetters pgs = BeanMetadata.of(beanClass).getGetters();
+        PropertyGetter[] getters = pgs.getters;
+        if (getters.length == 0) {
             writer.write("{}");
             return;
         }
         try {
             writer.write('{');
-            boolean isFirst = true;
-            for (String propertyName : getters.keySet()) {
-                if (isFirst) {
-                    isFirst = false;
-                } else {
+            char[][] prefixes = pgs.prefixes;
+            for (int i = 0; i < getters.length; i++) {
+                if (i > 0) {
                     writer.write(',');
                 }
-                PropertyGetter pg = getters.get(propertyName);
-                Object obj = pg.getProperty(bean);
-                writer.write('\"');
-                writer.write(propertyName);
-                writer.write("\":");
+                Object obj = getters[i].getProperty(bean);
+                writer.write(prefixes[i]);
                 write(obj, depth);
             }
             writer.write('}');
@@ -247,11 +283,33 @@ public class JsonWriter {
         }
     }
 
+    /**
+     * Write any type of data. When writing to an external stream, the output is
+     * written to the stream when done, but the stream is not flushed.
+     * 
+     * @param obj The object.
+     * @return This JsonWriter.
+     * @throws IOException If write failed.
+     */
     public JsonWriter write(Object obj) throws IOException {
-        write(obj, 0);
+        try {
+            write(obj, 0);
+            writer.flushBuffer();
+        } finally {
+            writer.release();
+        }
         return this;
     }
 
+    /**
+     * Flush the external stream.
+     * 
+     * @throws IOException If flush failed.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
     /**
      * Write any type of data with depth.
      * 
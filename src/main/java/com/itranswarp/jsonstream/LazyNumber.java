@@ -0,0 +1,205 @@
+package com.itranswarp.jsonstream;
+
+/**
+ * A JSON number which is parsed on first use, returned when lazy numbers are
+ * enabled by JsonBuilder. Only the syntax is checked when reading. It refers
+ * to the chars of the number in the source string, or in a chunk of chars
+ * shared by lazy numbers of the same document if the source is not a String.
+ * The number ends at the first char which is not part of a number, so only
+ * the start is kept. The parsed value is cached, which is a Long or Double,
+ * or JsonNumber if lossless numbers are also enabled.
+ *
+ * @author Michael Liao
+ */
+public final class LazyNumber extends Number {
+
+    private static final long serialVersionUID = 1L;
+
+    // initial value of a number which is parsed as lossless:
+    static final Object LOSSLESS = new Object();
+
+    final CharSequence source;
+    final int start;
+
+    // parsed value, or null or LOSSLESS if not parsed yet:
+    Object value;
+
+    LazyNumber(CharSequence source, int start, boolean losslessNumbers) {
+        this.source = source;
+        this.start = start;
+        this.value = losslessNumbers ? LOSSLESS : null;
+    }
+
+    /**
+     * Parse the number if it is not parsed yet.
+     *
+     * @return The parsed value as Long, Double or JsonNumber.
+     * @throws JsonParseException If number is out of range.
+     */
+    public Number getValue() {
+        Object v = this.value;
+        if (v == null || v == LOSSLESS) {
+            Number n = parse(v == LOSSLESS);
+            this.value = n;
+            return n;
+        }
+        return (Number) v;
+    }
+
+    /**
+     * Parse chars of the number, whose syntax was checked when reading, in the
+     * same way as TokenReader does.
+     */
+    Number parse(boolean lossless) {
+        CharSequence s = this.source;
+        int len = s.length();
+        int i = this.start;
+        boolean minusSign = s.charAt(i) == '-';
+        if (minusSign) {
+            i++;
+        }
+        long mantissa = 0L;
+        int mantissaDigits = 0;
+        int exp10 = 0;
+        boolean dropped = false;
+        boolean truncated = false;
+        boolean fraPart = false;
+        boolean integer = true;
+        for (; i < len; i++) {
+            char ch = s.charAt(i);
+            if (ch == '.') {
+                fraPart = true;
+                integer = false;
+                continue;
+            }
+            if (ch < '0' || ch > '9') {
+                break;
+            }
+            int n = ch - '0';
+            if (mantissaDigits == 0 && n == 0) {
+                // leading zero:
+                if (fraPart) {
+                    exp10--;
+                }
+            } else if (mantissaDigits < TokenReader.MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + n;
+                mantissaDigits++;
+                if (fraPart) {
+                    exp10--;
+                }
+            } else {
+                dropped = true;
+                truncated = truncated || n != 0;
+                if (!fraPart) {
+                    exp10++;
+                }
+            }
+        }
+        int exponent = 0;
+        if (i < len && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            integer = false;
+            i++;
+            char signChar = s.charAt(i);
+            boolean expMinusSign = signChar == '-';
+            if (expMinusSign || signChar == '+') {
+                i++;
+            }
+            for (; i < len; i++) {
+                char ch = s.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    break;
+                }
+                // large enough to be overflow or underflow without int overflow:
+                if (exponent < 100000) {
+                    exponent = exponent * 10 + (ch - '0');
+                }
+            }
+            exp10 += expMinusSign ? -exponent : exponent;
+        }
+        int end = i;
+        if (integer) {
+            if (TokenReader.fitsLong(mantissa, exp10, minusSign)) {
+                return Long.valueOf(minusSign ? -mantissa : mantissa);
+            }
+            if (lossless) {
+                String text = s.subSequence(start, end).toString();
+                return new JsonNumber(text, true, Double.parseDouble(text));
+            }
+            throw new JsonParseException("Exceeded maximum value: " + (minusSign ? Long.MIN_VALUE : Long.MAX_VALUE), start);
+        }
+        double number = DoubleParser.toDouble(mantissa, exp10, minusSign);
+        if (truncated && number != DoubleParser.toDouble(mantissa + 1, exp10, minusSign)) {
+            // dropped digits may affect rounding:
+            number = Double.NaN;
+        }
+        if (Double.isNaN(number)) {
+            number = Double.parseDouble(s.subSequence(start, end).toString());
+        }
+        if (lossless) {
+            if (!dropped && mantissa >= 0 && exponent < 100000) {
+                return new JsonNumber(minusSign ? -mantissa : mantissa, -exp10, number);
+            }
+            return new JsonNumber(s.subSequence(start, end).toString(), false, number);
+        }
+        if (Double.isInfinite(number)) {
+            throw new JsonParseException("Exceeded maximum value: " + TokenReader.MAX_SAFE_DOUBLE, start);
+        }
+        return Double.valueOf(number);
+    }
+
+    @Override
+    public int intValue() {
+        return getValue().intValue();
+    }
+
+    @Override
+    public long longValue() {
+        return getValue().longValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return getValue().floatValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return getValue().doubleValue();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof LazyNumber) {
+            return getValue().equals(((LazyNumber) o).getValue());
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return getValue().hashCode();
+    }
+
+    /**
+     * Return the number as it is in JSON, without parsing.
+     */
+    @Override
+    public String toString() {
+        CharSequence s = this.source;
+        int len = s.length();
+        int end = this.start;
+        while (end < len && isNumberChar(s.charAt(end))) {
+            end++;
+        }
+        return s.subSequence(this.start, end).toString();
+    }
+
+    static boolean isNumberChar(char ch) {
+        return (ch >= '0' && ch <= '9') || ch == '-' || ch == '+' || ch == '.' || ch == 'e' || ch == 'E';
+    }
+
+    // serialized as the parsed value, since the source is not kept:
+    private Object writeReplace() {
+        return getValue();
+    }
+}
@@ -0,0 +1,71 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read UTF-8 encoded JSON from a file by memory-mapping it window by window.
+ * Bytes are read straight out of the mapped buffer and the document is never
+ * copied onto the heap. Files larger than 2 GB are mapped as multiple windows.
+ *
+ * @author Michael Liao
+ */
+class MappedFileCharReader extends ByteBufferCharReader {
+
+    static final int WINDOW_SIZE = 1 << 28; // 256 MB
+
+    final Path path;
+    final long endOffset;
+    final int windowSize;
+
+    // file offset of next window:
+    long nextOffset;
+
+    MappedFileCharReader(Path path) throws IOException {
+        this(path, WINDOW_SIZE);
+    }
+
+    MappedFileCharReader(Path path, int windowSize) throws IOException {
+        this(path, 0, size(path), windowSize);
+    }
+
+    /**
+     * Read bytes of file from startOffset (inclusive) to endOffset (exclusive).
+     */
+    MappedFileCharReader(Path path, long startOffset, long endOffset, int windowSize) {
+        super(EMPTY_BUFFERS);
+        this.path = path;
+        this.nextOffset = startOffset;
+        this.endOffset = endOffset;
+        this.windowSize = windowSize;
+    }
+
+    static long size(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.size();
+        }
+    }
+
+    /**
+     * Map next window of the file. The previous window is unmapped when it is
+     * garbage collected.
+     */
+    @Override
+    boolean nextBuffer() throws IOException {
+        long offset = this.nextOffset;
+        if (offset >= this.endOffset) {
+            return false;
+        }
+        int size = (int) Math.min(this.windowSize, this.endOffset - offset);
+        // a mapping remains valid after the channel is closed:
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            setCurrent(channel.map(MapMode.READ_ONLY, offset, size), 0, size);
+        }
+        this.nextOffset = offset + size;
+        this.readed = (int) Math.min(Integer.MAX_VALUE, this.nextOffset);
+        return true;
+    }
+}
@@ -0,0 +1,462 @@
+package com.itranswarp.jsonstream;
+
+import java.math.BigInteger;
+
+/**
+ * Format long, double and float into a char array without allocating
+ * objects. Double and float are formatted by the Schubfach algorithm as the
+ * shortest decimal that rounds to the same value, in the same layout as
+ * Double.toString() and Float.toString(): plain for 10^-3 &lt;= |v| &lt; 10^7,
+ * otherwise computerized scientific notation like 1.2E56.
+ *
+ * See Raffaello Giulietti, "The Schubfach way to render doubles", 2020.
+ *
+ * @author Michael Liao
+ */
+class NumberFormatter {
+
+    // max chars of formatted long, double or float:
+    static final int MAX_LENGTH = 24;
+
+    // "00" to "99":
+    static final char[] DIGITS = new char[200];
+
+    static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGITS[i << 1] = (char) ('0' + i / 10);
+            DIGITS[(i << 1) + 1] = (char) ('0' + i % 10);
+        }
+        long p = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = p;
+            p *= 10;
+        }
+    }
+
+    // double:
+    static final int P = 53;
+    static final int Q_MIN = -1074;
+    static final long C_MIN = 1L << (P - 1);
+    static final long T_MASK = C_MIN - 1;
+    static final int BQ_MASK = 0x7ff;
+    static final int C_TINY = 3;
+    static final int H = 17;
+
+    // float:
+    static final int P_FLOAT = 24;
+    static final int Q_MIN_FLOAT = -149;
+    static final int C_MIN_FLOAT = 1 << (P_FLOAT - 1);
+    static final int T_MASK_FLOAT = C_MIN_FLOAT - 1;
+    static final int BQ_MASK_FLOAT = 0xff;
+    static final int C_TINY_FLOAT = 8;
+    static final int H_FLOAT = 9;
+
+    static final int MASK_28 = (1 << 28) - 1;
+    static final long MASK_32 = (1L << 32) - 1;
+    static final long MASK_63 = (1L << 63) - 1;
+
+    /**
+     * Write long and return the new position.
+     */
+    static int formatLong(long v, char[] buf, int pos) {
+        if (v < 0) {
+            if (v == Long.MIN_VALUE) {
+                "-9223372036854775808".getChars(0, 20, buf, pos);
+                return pos + 20;
+            }
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int end = pos + digitsOf(v);
+        int p = end;
+        while (v >= 100) {
+            long q = v / 100;
+            int r = (int) (v - q * 100) << 1;
+            v = q;
+            buf[--p] = DIGITS[r + 1];
+            buf[--p] = DIGITS[r];
+        }
+        int r = (int) v;
+        if (r >= 10) {
+            buf[--p] = DIGITS[(r << 1) + 1];
+            buf[--p] = DIGITS[r << 1];
+        } else {
+            buf[--p] = (char) ('0' + r);
+        }
+        return end;
+    }
+
+    static int digitsOf(long v) {
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            if (v < POWERS_OF_TEN[i]) {
+                return i;
+            }
+        }
+        return 19;
+    }
+
+    /**
+     * Write double and return the new position.
+     */
+    static int formatDouble(double v, char[] buf, int pos) {
+        long bits = Double.doubleToRawLongBits(v);
+        long t = bits & T_MASK;
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        if (bq == BQ_MASK) {
+            return special(t != 0, bits < 0, buf, pos);
+        }
+        if (bits < 0) {
+            buf[pos++] = '-';
+        }
+        if (bq != 0) {
+            // normal value:
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            // fast path for integer:
+            if (0 < mq & mq < P) {
+                long f = c >> mq;
+                if (f << mq == c) {
+                    return toChars(f, 0, buf, pos);
+                }
+            }
+            return toDecimal(-mq, c, 0, buf, pos);
+        }
+        if (t != 0) {
+            // subnormal value:
+            return t < C_TINY ? toDecimal(Q_MIN, 10 * t, -1, buf, pos) : toDecimal(Q_MIN, t, 0, buf, pos);
+        }
+        return zero(buf, pos);
+    }
+
+    /**
+     * Write float and return the new position.
+     */
+    static int formatFloat(float v, char[] buf, int pos) {
+        int bits = Float.floatToRawIntBits(v);
+        int t = bits & T_MASK_FLOAT;
+        int bq = (bits >>> (P_FLOAT - 1)) & BQ_MASK_FLOAT;
+        if (bq == BQ_MASK_FLOAT) {
+            return special(t != 0, bits < 0, buf, pos);
+        }
+        if (bits < 0) {
+            buf[pos++] = '-';
+        }
+        if (bq != 0) {
+            // normal value:
+            int mq = -Q_MIN_FLOAT + 1 - bq;
+            int c = C_MIN_FLOAT | t;
+            // fast path for integer:
+            if (0 < mq & mq < P_FLOAT) {
+                int f = c >> mq;
+                if (f << mq == c) {
+                    return toCharsFloat(f, 0, buf, pos);
+                }
+            }
+            return toDecimalFloat(-mq, c, 0, buf, pos);
+        }
+        if (t != 0) {
+            // subnormal value:
+            return t < C_TINY_FLOAT ? toDecimalFloat(Q_MIN_FLOAT, 10 * t, -1, buf, pos) : toDecimalFloat(Q_MIN_FLOAT, t, 0, buf, pos);
+        }
+        return zero(buf, pos);
+    }
+
+    static int special(boolean nan, boolean negative, char[] buf, int pos) {
+        String s = nan ? "NaN" : negative ? "-Infinity" : "Infinity";
+        s.getChars(0, s.length(), buf, pos);
+        return pos + s.length();
+    }
+
+    static int zero(char[] buf, int pos) {
+        buf[pos] = '0';
+        buf[pos + 1] = '.';
+        buf[pos + 2] = '0';
+        return pos + 3;
+    }
+
+    /**
+     * Find the shortest decimal in the rounding interval of c * 2^q, and write
+     * it as f * 10^(k + dk).
+     */
+    static int toDecimal(int q, long c, int dk, char[] buf, int pos) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN | q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // the interval is asymmetric at powers of two:
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+        long g1 = G.g1(k);
+        long g0 = G.g0(k);
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+        long s = vb >> 2;
+        if (s >= 100) {
+            // try a shorter decimal of one digit less:
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return toChars(upin ? sp10 : tp10, k, buf, pos);
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return toChars(uin ? s : t, k + dk, buf, pos);
+        }
+        // both in the interval, pick the closest, or the even one:
+        long cmp = vb - (s + t << 1);
+        return toChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buf, pos);
+    }
+
+    static int toDecimalFloat(int q, int c, int dk, char[] buf, int pos) {
+        int out = c & 0x1;
+        long cb = (long) c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN_FLOAT | q == Q_MIN_FLOAT) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 33;
+        long g = G.g1(k) + 1;
+        int vb = rop(g, cb << h);
+        int vbl = rop(g, cbl << h);
+        int vbr = rop(g, cbr << h);
+        int s = vb >> 2;
+        if (s >= 100) {
+            int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+            int tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return toCharsFloat(upin ? sp10 : tp10, k, buf, pos);
+            }
+        }
+        int t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return toCharsFloat(uin ? s : t, k + dk, buf, pos);
+        }
+        int cmp = vb - (s + t << 1);
+        return toCharsFloat(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buf, pos);
+    }
+
+    /**
+     * Round-to-odd of the 128-bit product g * cp, scaled down by 2^127.
+     */
+    static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    static int rop(long g, long cp) {
+        long x1 = Math.multiplyHigh(g, cp);
+        long vbp = x1 >>> 31;
+        return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+    }
+
+    /**
+     * Write f * 10^e, where f has at most 17 digits.
+     */
+    static int toChars(long f, int e, char[] buf, int pos) {
+        int len = flog10pow2(Long.SIZE - Long.numberOfLeadingZeros(f));
+        if (f >= POWERS_OF_TEN[len]) {
+            len++;
+        }
+        // scale f to exactly H digits, so the value is 0.f * 10^e:
+        f *= POWERS_OF_TEN[H - len];
+        e += len;
+        // split f into 1 + 8 + 8 digits:
+        long hm = Math.multiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+        int l = (int) (f - 100_000_000L * hm);
+        int h = (int) (hm * 1_441_151_881L >>> 57);
+        int m = (int) (hm - 100_000_000 * h);
+        return toChars(h, m, l, e, buf, pos);
+    }
+
+    /**
+     * Write f * 10^e, where f has at most 9 digits.
+     */
+    static int toCharsFloat(int f, int e, char[] buf, int pos) {
+        int len = flog10pow2(Integer.SIZE - Integer.numberOfLeadingZeros(f));
+        if (f >= POWERS_OF_TEN[len]) {
+            len++;
+        }
+        f *= (int) POWERS_OF_TEN[H_FLOAT - len];
+        e += len;
+        // split f into 1 + 8 digits:
+        int h = (int) (f * 1_441_151_881L >>> 57);
+        int m = f - 100_000_000 * h;
+        return toChars(h, m, 0, e, buf, pos);
+    }
+
+    /**
+     * Write 0.hml * 10^e, where h is one digit, and m, l are 8 digits.
+     */
+    static int toChars(int h, int m, int l, int e, char[] buf, int pos) {
+        if (0 < e && e <= 7) {
+            // plain format without leading zeros:
+            buf[pos++] = (char) ('0' + h);
+            int y = y(m);
+            int i = 1;
+            for (; i < e; i++) {
+                int t = 10 * y;
+                buf[pos++] = (char) ('0' + (t >>> 28));
+                y = t & MASK_28;
+            }
+            buf[pos++] = '.';
+            for (; i <= 8; i++) {
+                int t = 10 * y;
+                buf[pos++] = (char) ('0' + (t >>> 28));
+                y = t & MASK_28;
+            }
+            return lowDigits(l, buf, pos);
+        }
+        if (-3 < e && e <= 0) {
+            // plain format with leading zeros:
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            for (; e < 0; e++) {
+                buf[pos++] = '0';
+            }
+            buf[pos++] = (char) ('0' + h);
+            pos = append8Digits(m, buf, pos);
+            return lowDigits(l, buf, pos);
+        }
+        // computerized scientific notation:
+        buf[pos++] = (char) ('0' + h);
+        buf[pos++] = '.';
+        pos = append8Digits(m, buf, pos);
+        pos = lowDigits(l, buf, pos);
+        return exponent(e - 1, buf, pos);
+    }
+
+    static int lowDigits(int l, char[] buf, int pos) {
+        if (l != 0) {
+            pos = append8Digits(l, buf, pos);
+        }
+        // remove trailing zeros, but keep one after '.':
+        while (buf[pos - 1] == '0') {
+            pos--;
+        }
+        if (buf[pos - 1] == '.') {
+            pos++;
+        }
+        return pos;
+    }
+
+    static int append8Digits(int m, char[] buf, int pos) {
+        int y = y(m);
+        for (int i = 0; i < 8; i++) {
+            int t = 10 * y;
+            buf[pos++] = (char) ('0' + (t >>> 28));
+            y = t & MASK_28;
+        }
+        return pos;
+    }
+
+    /**
+     * Fixed-point fraction of a / 10^8 with 28 bits, for left-to-right digit
+     * extraction by multiplying 10.
+     */
+    static int y(int a) {
+        return (int) (Math.multiplyHigh((long) (a + 1) << 28, 193_428_131_138_340_668L) >>> 20) - 1;
+    }
+
+    static int exponent(int e, char[] buf, int pos) {
+        buf[pos++] = 'E';
+        if (e < 0) {
+            buf[pos++] = '-';
+            e = -e;
+        }
+        if (e < 10) {
+            buf[pos++] = (char) ('0' + e);
+            return pos;
+        }
+        if (e >= 100) {
+            int d = e * 1_311 >>> 17;
+            buf[pos++] = (char) ('0' + d);
+            e -= 100 * d;
+        }
+        buf[pos++] = DIGITS[e << 1];
+        buf[pos++] = DIGITS[(e << 1) + 1];
+        return pos;
+    }
+
+    // floor(q * log10(2)):
+    static int flog10pow2(int q) {
+        return (int) (q * 661_971_961_083L >> 41);
+    }
+
+    // floor(log10(3/4 * 2^q)):
+    static int flog10threeQuartersPow2(int q) {
+        return (int) (q * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    // floor(e * log2(10)):
+    static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /**
+     * 126-bit approximations of 10^-k from k = -324 to 292, stored as pairs of
+     * higher and lower 63 bits. Loaded only when formatting double or float.
+     */
+    static class G {
+
+        static final int K_MIN = -324;
+        static final int K_MAX = 292;
+
+        static final long[] TABLE = new long[(K_MAX - K_MIN + 1) * 2];
+
+        static {
+            for (int k = K_MIN; k <= K_MAX; k++) {
+                // g = floor(10^-k * 2^-r) + 1, where 2^125 <= 10^-k * 2^-r < 2^126:
+                BigInteger g;
+                if (k <= 0) {
+                    BigInteger n = BigInteger.TEN.pow(-k);
+                    int r = n.bitLength() - 126;
+                    g = r >= 0 ? n.shiftRight(r) : n.shiftLeft(-r);
+                } else {
+                    BigInteger d = BigInteger.TEN.pow(k);
+                    g = BigInteger.ONE.shiftLeft(125 + d.bitLength()).divide(d);
+                }
+                g = g.add(BigInteger.ONE);
+                int index = (k - K_MIN) << 1;
+                TABLE[index] = g.shiftRight(63).longValue();
+                TABLE[index + 1] = g.longValue() & MASK_63;
+            }
+        }
+
+        static long g1(int k) {
+            return TABLE[(k - K_MIN) << 1];
+        }
+
+        static long g0(int k) {
+            return TABLE[((k - K_MIN) << 1) + 1];
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.itranswarp.jsonstream;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Create accessors of bean properties once per property, instead of calling
+ * Method.invoke() or Field.set() for each value. Getter and setter methods are
+ * called by functional interfaces generated by LambdaMetafactory, and fields
+ * are accessed by MethodHandles. MethodHandle is also used if the lambda
+ * cannot be generated, e.g. the bean class is loaded by another ClassLoader.
+ *
+ * @author Michael Liao
+ */
+class PropertyAccessors {
+
+    static final Log log = LogFactory.getLog(PropertyAccessors.class);
+
+    static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    static final MethodType GENERIC_GETTER = MethodType.methodType(Object.class, Object.class);
+    static final MethodType GENERIC_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Create getter of the accessible getter method. Primitive value is boxed
+     * by the generated lambda.
+     */
+    static PropertyGetter newGetter(Method m) throws IllegalAccessException {
+        @SuppressWarnings("unchecked")
+        Function<Object, Object> fn = (Function<Object, Object>) newLambda(m, Function.class, "apply", GENERIC_GETTER,
+                MethodType.methodType(wrap(m.getReturnType()), m.getDeclaringClass()));
+        if (fn != null) {
+            return new LambdaGetter(fn);
+        }
+        return new HandleGetter(LOOKUP.unreflect(m).asType(GENERIC_GETTER));
+    }
+
+    /**
+     * Create getter of the accessible field.
+     */
+    static PropertyGetter newGetter(Field f) throws IllegalAccessException {
+        return new HandleGetter(LOOKUP.unreflectGetter(f).asType(GENERIC_GETTER));
+    }
+
+    /**
+     * Create setter of the accessible setter method. The lambda accepts boxed
+     * value, and primitive value of int, long and double is also accepted
+     * without boxing.
+     */
+    static Setter newSetter(Method m) throws IllegalAccessException {
+        MethodHandle mh = LOOKUP.unreflect(m);
+        Class<?> type = m.getParameterTypes()[0];
+        Class<?> beanClass = m.getDeclaringClass();
+        @SuppressWarnings("unchecked")
+        BiConsumer<Object, Object> fn = (BiConsumer<Object, Object>) newLambda(m, BiConsumer.class, "accept", GENERIC_SETTER,
+                MethodType.methodType(void.class, beanClass, wrap(type)));
+        if (fn == null) {
+            return new HandleSetter(mh, type);
+        }
+        if (type == int.class) {
+            @SuppressWarnings("unchecked")
+            ObjIntConsumer<Object> intFn = (ObjIntConsumer<Object>) newLambda(m, ObjIntConsumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class, int.class), MethodType.methodType(void.class, beanClass, int.class));
+            if (intFn != null) {
+                return new LambdaSetter(mh, type, fn) {
+                    @Override
+                    void setInt(Object bean, int value) {
+                        intFn.accept(bean, value);
+                    }
+                };
+            }
+        } else if (type == long.class) {
+            @SuppressWarnings("unchecked")
+            ObjLongConsumer<Object> longFn = (ObjLongConsumer<Object>) newLambda(m, ObjLongConsumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class, long.class), MethodType.methodType(void.class, beanClass, long.class));
+            if (longFn != null) {
+                return new LambdaSetter(mh, type, fn) {
+                    @Override
+                    void setLong(Object bean, long value) {
+                        longFn.accept(bean, value);
+                    }
+                };
+            }
+        } else if (type == double.class) {
+            @SuppressWarnings("unchecked")
+            ObjDoubleConsumer<Object> doubleFn = (ObjDoubleConsumer<Object>) newLambda(m, ObjDoubleConsumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class, double.class), MethodType.methodType(void.class, beanClass, double.class));
+            if (doubleFn != null) {
+                return new LambdaSetter(mh, type, fn) {
+                    @Override
+                    void setDouble(Object bean, double value) {
+                        doubleFn.accept(bean, value);
+                    }
+                };
+            }
+        }
+        return new LambdaSetter(mh, type, fn);
+    }
+
+    /**
+     * Create setter of the accessible field. Lambda cannot be generated for
+     * field, so MethodHandle is always used.
+     */
+    static Setter newSetter(Field f) throws IllegalAccessException {
+        return new HandleSetter(LOOKUP.unreflectSetter(f), f.getType());
+    }
+
+    static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    /**
+     * Generate lambda which implements the functional interface by calling
+     * method. Return null if failed.
+     */
+    static Object newLambda(Method m, Class<?> functionalInterface, String name, MethodType erasedType, MethodType instantiatedType) {
+        try {
+            // lambda class is defined in the same package as declaring class:
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(m.getDeclaringClass(), LOOKUP);
+            CallSite site = LambdaMetafactory.metafactory(lookup, name, MethodType.methodType(functionalInterface), erasedType, lookup.unreflect(m),
+                    instantiatedType);
+            return site.getTarget().invoke();
+        } catch (Throwable t) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cannot generate lambda for method: " + m, t);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Set value to property. Primitive values are set without boxing if
+     * overridden.
+     */
+    abstract static class Setter {
+
+        abstract void set(Object bean, Object value) throws Throwable;
+
+        void setLong(Object bean, long value) throws Throwable {
+            set(bean, value);
+        }
+
+        void setInt(Object bean, int value) throws Throwable {
+            set(bean, value);
+        }
+
+        void setShort(Object bean, short value) throws Throwable {
+            set(bean, value);
+        }
+
+        void setByte(Object bean, byte value) throws Throwable {
+            set(bean, value);
+        }
+
+        void setDouble(Object bean, double value) throws Throwable {
+            set(bean, value);
+        }
+
+        void setFloat(Object bean, float value) throws Throwable {
+            set(bean, value);
+        }
+
+        void setBoolean(Object bean, boolean value) throws Throwable {
+            set(bean, value);
+        }
+    }
+
+    /**
+     * Setter by MethodHandle of setter method or field.
+     */
+    static class HandleSetter extends Setter {
+
+        final Class<?> type;
+        final MethodHandle generic;
+        final MethodHandle typed;
+
+        HandleSetter(MethodHandle mh, Class<?> type) {
+            this.type = type;
+            this.generic = mh.asType(GENERIC_SETTER);
+            this.typed = type.isPrimitive() ? mh.asType(MethodType.methodType(void.class, Object.class, type)) : null;
+        }
+
+        @Override
+        void set(Object bean, Object value) throws Throwable {
+            if (value == null && type.isPrimitive()) {
+                throw new IllegalArgumentException("Cannot set null to property of type: " + type.getName());
+            }
+            generic.invokeExact(bean, value);
+        }
+
+        @Override
+        void setLong(Object bean, long value) throws Throwable {
+            if (type == long.class) {
+                typed.invokeExact(bean, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setInt(Object bean, int value) throws Throwable {
+            if (type == int.class) {
+                typed.invokeExact(bean, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setShort(Object bean, short value) throws Throwable {
+            if (type == short.class) {
+                typed.invokeExact(bean, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setByte(Object bean, byte value) throws Throwable {
+            if (type == byte.class) {
+                typed.invokeExact(bean, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setDouble(Object bean, double value) throws Throwable {
+            if (type == double.class) {
+                typed.invokeExact(bean, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setFloat(Object bean, float value) throws Throwable {
+            if (type == float.class) {
+                typed.invokeExact(bean, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setBoolean(Object bean, boolean value) throws Throwable {
+            if (type == boolean.class) {
+                typed.invokeExact(bean, value);
+            } else {
+                set(bean, value);
+            }
+        }
+    }
+
+    /**
+     * Setter by lambda generated for setter method. Boxed value of a primitive
+     * property is passed to lambda if it is the exact wrapper type, otherwise
+     * it is set by MethodHandle which supports widening, e.g. Long to double.
+     */
+    static class LambdaSetter extends HandleSetter {
+
+        final BiConsumer<Object, Object> fn;
+        final Class<?> boxedType;
+
+        LambdaSetter(MethodHandle mh, Class<?> type, BiConsumer<Object, Object> fn) {
+            super(mh, type);
+            this.fn = fn;
+            this.boxedType = wrap(type);
+        }
+
+        @Override
+        void set(Object bean, Object value) throws Throwable {
+            if (type.isPrimitive() && (value == null || value.getClass() != boxedType)) {
+                super.set(bean, value);
+            } else {
+                fn.accept(bean, value);
+            }
+        }
+
+        // primitive types without functional interface in JDK are boxed:
+
+        @Override
+        void setShort(Object bean, short value) throws Throwable {
+            set(bean, value);
+        }
+
+        @Override
+        void setByte(Object bean, byte value) throws Throwable {
+            set(bean, value);
+        }
+
+        @Override
+        void setFloat(Object bean, float value) throws Throwable {
+            set(bean, value);
+        }
+
+        @Override
+        void setBoolean(Object bean, boolean value) throws Throwable {
+            set(bean, value);
+        }
+    }
+
+    /**
+     * Getter by lambda generated for getter method.
+     */
+    static class LambdaGetter implements PropertyGetter {
+
+        final Function<Object, Object> fn;
+
+        LambdaGetter(Function<Object, Object> fn) {
+            this.fn = fn;
+        }
+
+        @Override
+        public Object getProperty(Object bean) {
+            return fn.apply(bean);
+        }
+    }
+
+    /**
+     * Getter by MethodHandle of getter method or field.
+     */
+    static class HandleGetter implements PropertyGetter {
+
+        final MethodHandle getter;
+
+        HandleGetter(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        public Object getProperty(Object bean) throws Exception {
+            try {
+                return (Object) getter.invokeExact(bean);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+    }
+
+    /**
+     * Setter by index of GeneratedBeanCodec.
+     */
+    static class CodecSetter extends Setter {
+
+        final GeneratedBeanCodec codec;
+        final int index;
+        final Class<?> type;
+
+        CodecSetter(GeneratedBeanCodec codec, int index, Class<?> type) {
+            this.codec = codec;
+            this.index = index;
+            this.type = type;
+        }
+
+        @Override
+        void set(Object bean, Object value) {
+            if (value == null && type.isPrimitive()) {
+                throw new IllegalArgumentException("Cannot set null to property of type: " + type.getName());
+            }
+            codec.set(bean, index, value);
+        }
+
+        @Override
+        void setLong(Object bean, long value) {
+            if (type == long.class) {
+                codec.setLong(bean, index, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setInt(Object bean, int value) {
+            if (type == int.class) {
+                codec.setInt(bean, index, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setDouble(Object bean, double value) {
+            if (type == double.class) {
+                codec.setDouble(bean, index, value);
+            } else {
+                set(bean, value);
+            }
+        }
+
+        @Override
+        void setBoolean(Object bean, boolean value) {
+            if (type == boolean.class) {
+                codec.setBoolean(bean, index, value);
+            } else {
+                set(bean, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.itranswarp.jsonstream;
+
+/**
+ * Get a property of JavaBean.
+ * 
+ * @author Michael Liao
+ */
+interface PropertyGetter {
+
+    Object getProperty(Object obj) throws Exception;
+
+}
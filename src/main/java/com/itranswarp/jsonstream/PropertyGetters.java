@@ -1,6 +1,7 @@
 package com.itranswarp.jsonstream;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -11,10 +12,77 @@ class PropertyGetters {
 
     final Class<?> clazz;
     final Map<String, PropertyGetter> map;
+    final Map<String, Member> members = new HashMap<>();
+
+    // names as "name": and getters in the same order to write JSON:
+    final char[][] prefixes;
+    final PropertyGetter[] getters;
 
     PropertyGetters(Class<?> clazz) {
+        this(clazz, null);
+    }
+
+    /**
+     * Create PropertyGetters by getters and fields already found, e.g. loaded
+     * from BeanMetadataSnapshot, or find them by PropertyUtils if null.
+     */
+    PropertyGetters(Class<?> clazz, Map<String, Member> found) {
         this.clazz = clazz;
         Map<String, PropertyGetter> map = new HashMap<>();
+        GeneratedBeanCodec generated = GeneratedBeanCodec.of(clazz);
+        if (generated != null) {
+            // use codec generated at compile time without scanning properties:
+            for (int i = 0; i < generated.names.length; i++) {
+                if (generated.readable[i]) {
+                    int index = i;
+                    map.put(generated.names[i], (bean) -> {
+                        return generated.get(bean, index);
+                    });
+                }
+            }
+        } else {
+            Map<String, Member> getters = found != null ? found : findGetters(clazz);
+            for (String propertyName : getters.keySet()) {
+                Member member = getters.get(propertyName);
+                if (member instanceof Method) {
+                    Method m = (Method) member;
+                    m.setAccessible(true);
+                    try {
+                        map.put(propertyName, PropertyAccessors.newGetter(m));
+                    } catch (IllegalAccessException e) {
+                        throw new JsonSerializeException("Cannot access getter: " + m, e);
+                    }
+                } else {
+                    Field f = (Field) member;
+                    f.setAccessible(true);
+                    try {
+                        map.put(propertyName, PropertyAccessors.newGetter(f));
+                    } catch (IllegalAccessException e) {
+                        throw new JsonSerializeException("Cannot access field: " + f, e);
+                    }
+                }
+                members.put(propertyName, member);
+            }
+        }
+        this.map = map;
+        int n = map.size();
+        char[][] prefixes = new char[n][];
+        PropertyGetter[] indexed = new PropertyGetter[n];
+        int i = 0;
+        for (String propertyName : map.keySet()) {
+            prefixes[i] = ("\"" + propertyName + "\":").toCharArray();
+            indexed[i] = map.get(propertyName);
+            i++;
+        }
+        this.prefixes = prefixes;
+        this.getters = indexed;
+    }
+
+    /**
+     * Find getter methods, and fields of properties without getter.
+     */
+    static Map<String, Member> findGetters(Class<?> clazz) {
+        Map<String, Member> found = new HashMap<>();
         Set<String> ignoredProperties = new HashSet<>();
         Map<String, Method> getters = PropertyUtils.getAllGetters(clazz);
         for (String propertyName : getters.keySet()) {
@@ -22,36 +90,19 @@ class PropertyGetters {
             if (m == null) {
                 ignoredProperties.add(propertyName);
             } else {
-                m.setAccessible(true);
-                map.put(propertyName, new PropertyGetter() {
-                    public Object getProperty(Object obj) throws Exception {
-                        return m.invoke(obj);
-                    }
-                });
+                found.put(propertyName, m);
             }
         }
         Map<String, Field> fields = PropertyUtils.getAllFields(clazz);
         for (String propertyName : fields.keySet()) {
-            if (!map.containsKey(propertyName) && !ignoredProperties.contains(propertyName)) {
-                Field f = fields.get(propertyName);
-                f.setAccessible(true);
-                map.put(propertyName, new PropertyGetter() {
-                    public Object getProperty(Object obj) throws Exception {
-                        return f.get(obj);
-                    }
-                });
+            if (!found.containsKey(propertyName) && !ignoredProperties.contains(propertyName)) {
+                found.put(propertyName, fields.get(propertyName));
             }
         }
-        this.map = map;
+        return found;
     }
 
     PropertyGetter getPropertyGetter(String name) {
         return this.map.get(name);
     }
-
-    interface PropertyGetter {
-
-        Object getProperty(Object obj) throws Exception;
-
-    }
 }
@@ -0,0 +1,56 @@
+package com.itranswarp.jsonstream;
+
+import com.itranswarp.jsonstream.validator.Validator;
+
+/**
+ * Set a property of JavaBean, with validators of the property.
+ * 
+ * @author Michael Liao
+ */
+interface PropertySetter {
+
+    boolean isRequired();
+
+    /**
+     * Return true if non-null value must be validated.
+     */
+    boolean hasConstraints();
+
+    Validator<?>[] getValidators();
+
+    Class<?> getGenericType();
+
+    Class<?> getPropertyType();
+
+    void setProperty(Object obj, Object value) throws Exception;
+
+    // set primitive value, which is boxed unless overridden:
+
+    default void setLong(Object obj, long value) throws Exception {
+        setProperty(obj, value);
+    }
+
+    default void setInt(Object obj, int value) throws Exception {
+        setProperty(obj, value);
+    }
+
+    default void setShort(Object obj, short value) throws Exception {
+        setProperty(obj, value);
+    }
+
+    default void setByte(Object obj, byte value) throws Exception {
+        setProperty(obj, value);
+    }
+
+    default void setDouble(Object obj, double value) throws Exception {
+        setProperty(obj, value);
+    }
+
+    default void setFloat(Object obj, float value) throws Exception {
+        setProperty(obj, value);
+    }
+
+    default void setBoolean(Object obj, boolean value) throws Exception {
+        setProperty(obj, value);
+    }
+}
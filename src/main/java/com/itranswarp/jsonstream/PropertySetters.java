@@ -1,7 +1,9 @@
 package com.itranswarp.jsonstream;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -29,10 +31,67 @@ class PropertySetters {
 
     final Class<?> clazz;
     final Map<String, PropertySetter> map;
+    final Map<String, Member> members = new HashMap<>();
+    final boolean hasRequired;
+
+    // codec with setters indexed by codec, or null if not used:
+    GeneratedBeanCodec codec = null;
+    PropertySetter[] indexedSetters = null;
 
     PropertySetters(Class<?> clazz) {
+        this(clazz, null);
+    }
+
+    /**
+     * Create PropertySetters by setters and fields already found, e.g. loaded
+     * from BeanMetadataSnapshot, or find them by PropertyUtils if null.
+     */
+    PropertySetters(Class<?> clazz, Map<String, Member> found) {
         this.clazz = clazz;
         Map<String, PropertySetter> map = new HashMap<>();
+        GeneratedBeanCodec generated = GeneratedBeanCodec.of(clazz);
+        if (generated != null) {
+            // use codec generated at compile time without scanning properties:
+            String[] names = generated.names;
+            PropertySetter[] indexedSetters = new PropertySetter[names.length];
+            for (int i = 0; i < names.length; i++) {
+                if (generated.writable[i]) {
+                    Class<?> propertyType = generated.propertyTypes[i];
+                    PropertySetter ps = newPropertySetter(generated.getAnnotatedElement(i), propertyType, generated.genericTypes[i],
+                            new PropertyAccessors.CodecSetter(generated, i, propertyType));
+                    map.put(names[i], ps);
+                    indexedSetters[i] = ps;
+                }
+            }
+            this.codec = generated;
+            this.indexedSetters = indexedSetters;
+        } else {
+            Map<String, Member> setters = found != null ? found : findSetters(clazz);
+            for (String propertyName : setters.keySet()) {
+                Member member = setters.get(propertyName);
+                if (member instanceof Method) {
+                    Method m = (Method) member;
+                    m.setAccessible(true);
+                    Type type = m.getGenericParameterTypes()[0];
+                    map.put(propertyName, newPropertySetter(m, getRawType(type), getGenericType(type), newSetter(m)));
+                } else {
+                    Field f = (Field) member;
+                    f.setAccessible(true);
+                    Type type = f.getGenericType();
+                    map.put(propertyName, newPropertySetter(f, getRawType(type), getGenericType(type), newSetter(f)));
+                }
+                members.put(propertyName, member);
+            }
+        }
+        this.map = map;
+        this.hasRequired = map.values().stream().anyMatch(PropertySetter::isRequired);
+    }
+
+    /**
+     * Find setter methods, and fields of properties without setter.
+     */
+    static Map<String, Member> findSetters(Class<?> clazz) {
+        Map<String, Member> found = new HashMap<>();
         Set<String> ignoredProperties = new HashSet<>();
         Map<String, Method> setters = PropertyUtils.getAllSetters(clazz);
         for (String propertyName : setters.keySet()) {
@@ -40,75 +99,155 @@ class PropertySetters {
             if (m == null) {
                 ignoredProperties.add(propertyName);
             } else {
-                m.setAccessible(true);
-                Type type = m.getGenericParameterTypes()[0];
-                Class<?> propertyType = getRawType(type);
-                Class<?> genericType = getGenericType(type);
-                boolean isRequired = isRequired(m);
-                Validator<?>[] validators = getValidators(m, propertyType);
-                map.put(propertyName, new PropertySetter() {
-                    public boolean isRequired() {
-                        return isRequired;
-                    }
-
-                    public Class<?> getPropertyType() {
-                        return propertyType;
-                    }
-
-                    public Class<?> getGenericType() {
-                        return genericType;
-                    }
-
-                    public void setProperty(Object bean, Object value) throws Exception {
-                        m.invoke(bean, value);
-                    }
-
-                    public Validator<?>[] getValidators() {
-                        return validators;
-                    }
-                });
+                found.put(propertyName, m);
             }
         }
         Map<String, Field> fields = PropertyUtils.getAllFields(clazz);
         for (String propertyName : fields.keySet()) {
-            if (!map.containsKey(propertyName) && !ignoredProperties.contains(propertyName)) {
-                Field f = fields.get(propertyName);
-                f.setAccessible(true);
-                Type type = f.getGenericType();
-                Class<?> propertyType = getRawType(type);
-                Class<?> genericType = getGenericType(type);
-                boolean isRequired = isRequired(f);
-                Validator<?>[] validators = getValidators(f, propertyType);
-                map.put(propertyName, new PropertySetter() {
-                    public boolean isRequired() {
-                        return isRequired;
-                    }
-
-                    public Class<?> getPropertyType() {
-                        return propertyType;
-                    }
-
-                    public Class<?> getGenericType() {
-                        return genericType;
-                    }
-
-                    public void setProperty(Object bean, Object value) throws Exception {
-                        f.set(bean, value);
-                    }
-
-                    public Validator<?>[] getValidators() {
-                        return validators;
-                    }
-                });
+            if (!found.containsKey(propertyName) && !ignoredProperties.contains(propertyName)) {
+                found.put(propertyName, fields.get(propertyName));
             }
         }
-        this.map = map;
+        return found;
+    }
+
+    PropertyAccessors.Setter newSetter(Method m) {
+        try {
+            return PropertyAccessors.newSetter(m);
+        } catch (IllegalAccessException e) {
+            throw new JsonBindException("Cannot access setter: " + m, e);
+        }
+    }
+
+    PropertyAccessors.Setter newSetter(Field f) {
+        try {
+            return PropertyAccessors.newSetter(f);
+        } catch (IllegalAccessException e) {
+            throw new JsonBindException("Cannot access field: " + f, e);
+        }
+    }
+
+    PropertySetter newPropertySetter(AnnotatedElement ae, Class<?> propertyType, Class<?> genericType, PropertyAccessors.Setter setter) {
+        boolean isRequired = isRequired(ae);
+        boolean hasConstraints = hasConstraints(ae);
+        Validator<?>[] validators = getValidators(ae, propertyType);
+        return new PropertySetter() {
+            public boolean isRequired() {
+                return isRequired;
+            }
+
+            public boolean hasConstraints() {
+                return hasConstraints;
+            }
+
+            public Class<?> getPropertyType() {
+                return propertyType;
+            }
+
+            public Class<?> getGenericType() {
+                return genericType;
+            }
+
+            public void setProperty(Object bean, Object value) throws Exception {
+                try {
+                    setter.set(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+
+            public void setLong(Object bean, long value) throws Exception {
+                try {
+                    setter.setLong(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+
+            public void setInt(Object bean, int value) throws Exception {
+                try {
+                    setter.setInt(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+
+            public void setShort(Object bean, short value) throws Exception {
+                try {
+                    setter.setShort(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+
+            public void setByte(Object bean, byte value) throws Exception {
+                try {
+                    setter.setByte(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+
+            public void setDouble(Object bean, double value) throws Exception {
+                try {
+                    setter.setDouble(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+
+            public void setFloat(Object bean, float value) throws Exception {
+                try {
+                    setter.setFloat(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+
+            public void setBoolean(Object bean, boolean value) throws Exception {
+                try {
+                    setter.setBoolean(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+
+            public Validator<?>[] getValidators() {
+                return validators;
+            }
+        };
+    }
+
+    /**
+     * Return Exception to be thrown, or throw Error directly.
+     */
+    static Exception rethrow(Throwable t) {
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        return new RuntimeException(t);
     }
 
     boolean isRequired(AnnotatedElement ae) {
         return ae.isAnnotationPresent(Required.class);
     }
 
+    /**
+     * Has any validation annotation except @Required, which only checks null?
+     */
+    boolean hasConstraints(AnnotatedElement ae) {
+        for (Annotation a : ae.getAnnotations()) {
+            Class<?> type = a.annotationType();
+            if (type != Required.class && type.getPackage() == Required.class.getPackage()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     Validator<?>[] getValidators(AnnotatedElement ae, Class<?> propertyType) {
         String className = propertyType.getName();
         switch (className) {
@@ -168,21 +307,11 @@ class PropertySetters {
     }
 
     PropertySetter getPropertySetter(String name) {
+        if (codec != null) {
+            int index = codec.indexOf(name);
+            return index < 0 ? null : indexedSetters[index];
+        }
         return this.map.get(name);
     }
 
 }
-
-interface PropertySetter {
-
-    boolean isRequired();
-
-    Validator<?>[] getValidators();
-
-    Class<?> getGenericType();
-
-    Class<?> getPropertyType();
-
-    void setProperty(Object obj, Object value) throws Exception;
-
-}
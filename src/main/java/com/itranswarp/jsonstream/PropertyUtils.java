@@ -1,10 +1,26 @@
 package com.itranswarp.jsonstream;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 import com.itranswarp.jsonstream.annotation.JsonIgnore;
 
@@ -112,6 +128,63 @@ class PropertyUtils {
         return fields;
     }
 
+    /**
+     * Find classes of package and its sub-packages from directories and jars
+     * of ClassLoader. Anonymous, local and synthetic classes are excluded.
+     * 
+     * @param packageName Package name, e.g. "com.example.model".
+     * @param loader      The ClassLoader.
+     * @return Classes found.
+     */
+    static List<Class<?>> findClasses(String packageName, ClassLoader loader) throws IOException {
+        String path = packageName.replace('.', '/');
+        Set<String> classNames = new TreeSet<>();
+        Enumeration<URL> urls = loader.getResources(path);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("file".equals(url.getProtocol())) {
+                Path dir;
+                try {
+                    dir = Paths.get(url.toURI());
+                } catch (URISyntaxException e) {
+                    throw new IOException(e);
+                }
+                try (Stream<Path> files = Files.walk(dir)) {
+                    files.map(file -> dir.relativize(file).toString().replace(File.separatorChar, '/')).filter(name -> name.endsWith(".class"))
+                            .forEach(name -> classNames.add(path + "/" + name));
+                }
+            } else if ("jar".equals(url.getProtocol())) {
+                JarURLConnection conn = (JarURLConnection) url.openConnection();
+                conn.setUseCaches(false);
+                try (JarFile jar = conn.getJarFile()) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.startsWith(path + "/") && name.endsWith(".class")) {
+                            classNames.add(name);
+                        }
+                    }
+                }
+            }
+        }
+        List<Class<?>> classes = new ArrayList<>();
+        for (String name : classNames) {
+            String className = name.substring(0, name.length() - 6).replace('/', '.');
+            if (className.endsWith("package-info") || className.endsWith("module-info")) {
+                continue;
+            }
+            try {
+                Class<?> clazz = Class.forName(className, false, loader);
+                if (!clazz.isAnonymousClass() && !clazz.isLocalClass() && !clazz.isSynthetic()) {
+                    classes.add(clazz);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                // skip class which cannot be loaded
+            }
+        }
+        return classes;
+    }
+
     static boolean shouldIgnore(Method m) {
         return m.isAnnotationPresent(JsonIgnore.class);
     }
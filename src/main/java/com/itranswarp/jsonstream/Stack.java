@@ -9,12 +9,15 @@ import java.util.EmptyStackException;
  */
 class Stack {
 
+	// maximum depth of nested objects and arrays:
+	static final int MAX_DEPTH = 100;
+
 	final int SIZE;
 	final StackValue[] array;
 	int pos = 0;
 
 	public Stack() {
-		this.SIZE = 100;
+		this.SIZE = MAX_DEPTH;
 		this.array = new StackValue[this.SIZE];
 	}
 
@@ -22,6 +25,13 @@ class Stack {
 		return pos==0;
 	}
 
+	void clear() {
+		while (pos > 0) {
+			pos --;
+			array[pos] = null;
+		}
+	}
+
 	void push(StackValue obj) {
 		if (pos == SIZE) {
 			throw new StackOverflowError("Maximum depth reached when parse JSON string.");
@@ -0,0 +1,109 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+
+/**
+ * Read chars from an in-memory String or CharSequence by index, without
+ * copying them into a buffer.
+ *
+ * @author Michael Liao
+ */
+class StringCharReader extends CharReader {
+
+    final CharSequence str;
+    final int end;
+
+    StringCharReader(CharSequence str) {
+        this(str, 0, str.length());
+    }
+
+    /**
+     * Read chars from start (inclusive) to end (exclusive).
+     */
+    StringCharReader(CharSequence str, int start, int end) {
+        this.str = str;
+        this.pos = start;
+        this.end = end;
+        this.readed = end;
+    }
+
+    @Override
+    public boolean hasMore() {
+        return this.pos < this.end;
+    }
+
+    @Override
+    public char next() throws IOException {
+        if (this.pos == this.end) {
+            throw new JsonParseException("EOF", this.readed);
+        }
+        return this.str.charAt(this.pos++);
+    }
+
+    @Override
+    public char peek() throws IOException {
+        if (this.pos == this.end) {
+            throw new JsonParseException("EOF", this.readed);
+        }
+        return this.str.charAt(this.pos);
+    }
+
+    @Override
+    String readPlainString() {
+        CharSequence cs = this.str;
+        int start = this.pos;
+        for (int i = start; i < this.end; i++) {
+            char ch = cs.charAt(i);
+            if (ch == '\"') {
+                this.pos = i + 1;
+                return cs instanceof String ? ((String) cs).substring(start, i) : cs.subSequence(start, i).toString();
+            }
+            if (ch == '\\' || ch == '\r' || ch == '\n') {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    void appendPlainChars(StringBuilder sb) {
+        CharSequence cs = this.str;
+        int start = this.pos;
+        int i = start;
+        while (i < this.end) {
+            char ch = cs.charAt(i);
+            if (ch == '\"' || ch == '\\' || ch == '\r' || ch == '\n') {
+                break;
+            }
+            i++;
+        }
+        if (i > start) {
+            sb.append(cs, start, i);
+            this.pos = i;
+        }
+    }
+
+    @Override
+    void skipPlainChars() {
+        CharSequence cs = this.str;
+        int i = this.pos;
+        while (i < this.end) {
+            char ch = cs.charAt(i);
+            if (ch == '\"' || ch == '\\' || ch == '\r' || ch == '\n') {
+                break;
+            }
+            i++;
+        }
+        this.pos = i;
+    }
+
+    @Override
+    public String next(int size) throws IOException {
+        if (this.pos + size > this.end) {
+            throw new JsonParseException("EOF", this.readed);
+        }
+        String s = this.str.subSequence(this.pos, this.pos + size).toString();
+        this.pos += size;
+        return s;
+    }
+}
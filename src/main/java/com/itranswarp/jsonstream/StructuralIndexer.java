@@ -0,0 +1,73 @@
+package com.itranswarp.jsonstream;
+
+import java.util.Arrays;
+
+/**
+ * Stage 1 of the two-stage parser, which finds positions of all structural
+ * chars of UTF-8 encoded JSON in one pass: {@code { } [ ] : ,} outside strings,
+ * opening quotes of strings, and first chars of numbers and literals.
+ *
+ * The implementation uses the Vector API, which is an incubator module of
+ * Java 17+, and is packaged in META-INF/versions/17 of the multi-release jar.
+ * It is available only when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}, otherwise JSON is parsed by
+ * TokenReader.
+ *
+ * @author Michael Liao
+ */
+abstract class StructuralIndexer {
+
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    static final String VECTOR_INDEXER = "com.itranswarp.jsonstream.VectorStructuralIndexer";
+
+    // null if not available:
+    static final StructuralIndexer INSTANCE = load();
+
+    static StructuralIndexer load() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (StructuralIndexer) Class.forName(VECTOR_INDEXER).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // running on Java 11 ~ 16, or not packaged as multi-release jar:
+            return null;
+        }
+    }
+
+    static boolean isAvailable() {
+        return INSTANCE != null;
+    }
+
+    /**
+     * Find structural positions of data[start, end) and append them to
+     * positions in ascending order.
+     */
+    abstract void index(byte[] data, int start, int end, Positions positions);
+
+    /**
+     * Positions found by index(), stored in an array which grows when full.
+     */
+    static final class Positions {
+
+        int[] array;
+        int count = 0;
+
+        Positions(int capacity) {
+            this.array = new int[capacity];
+        }
+
+        /**
+         * Make room for at least n more positions.
+         *
+         * @return The array to store positions.
+         */
+        int[] require(int n) {
+            if (count + n > array.length) {
+                array = Arrays.copyOf(array, Math.max(array.length * 2, count + n));
+            }
+            return array;
+        }
+    }
+}
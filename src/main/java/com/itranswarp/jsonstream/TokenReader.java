@@ -1,6 +1,8 @@
 package com.itranswarp.jsonstream;
 
 import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 
 /**
  * Make a character stream as a Token stream.
@@ -19,19 +21,25 @@ class TokenReader {
         return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r';
     }
 
-    Token readNextToken() throws IOException {
-        char ch = '?';
+    // skip white spaces and return false if EOF:
+    boolean skipWhiteSpaces() throws IOException {
         for (;;) {
             if (!reader.hasMore()) {
-                // EOF:
-                return Token.END_DOCUMENT;
+                return false;
             }
-            ch = reader.peek();
-            if (!isWhiteSpace(ch)) {
-                break;
+            if (!isWhiteSpace(reader.peek())) {
+                return true;
             }
             reader.next(); // skip white space
         }
+    }
+
+    Token readNextToken() throws IOException {
+        if (!skipWhiteSpaces()) {
+            // EOF:
+            return Token.END_DOCUMENT;
+        }
+        char ch = reader.peek();
         switch (ch) {
         case '{':
             reader.next(); // skip
@@ -71,13 +79,19 @@ class TokenReader {
 
     // read string like "a encoded \u0098 \" str"
     String readString() throws IOException {
-        StringBuilder sb = new StringBuilder(50);
         // first char must be ":
         char ch = reader.next();
         if (ch != '\"') {
             throw new JsonParseException("Expected \" but actual is: " + ch, reader.readed);
         }
+        // fast path for string without escape in buffer:
+        String str = reader.readPlainString();
+        if (str != null) {
+            return str;
+        }
+        StringBuilder sb = new StringBuilder(50);
         for (;;) {
+            reader.appendPlainChars(sb);
             ch = reader.next();
             if (ch == '\\') {
                 // escape: \" \\ \/ \b \f \n \r \t
@@ -170,23 +184,233 @@ class TokenReader {
         }
     }
 
+    /**
+     * Skip a value without creating any object. Strings, objects and arrays
+     * are skipped by tracking only depth of containers and quote / escape state
+     * of strings, so the skipped JSON is checked only for balanced brackets and
+     * terminated strings. Numbers and literals are checked as usual.
+     */
+    void skipValue() throws IOException {
+        if (!skipWhiteSpaces()) {
+            throw new JsonParseException("Unexpected EOF.", reader.readed);
+        }
+        char ch = reader.peek();
+        switch (ch) {
+        case '\"':
+            reader.next();
+            skipStringChars();
+            break;
+        case '{':
+        case '[':
+            reader.next();
+            skipContainer(1);
+            break;
+        case 't':
+        case 'f':
+            readBoolean();
+            break;
+        case 'n':
+            readNull();
+            break;
+        default:
+            if (ch != '-' && (ch < '0' || ch > '9')) {
+                throw new JsonParseException("Unexpected char: " + ch, reader.readed);
+            }
+            scanNumber();
+        }
+    }
+
+    // skip chars until depth of containers becomes 0:
+    void skipContainer(int depth) throws IOException {
+        while (depth > 0) {
+            char ch = reader.next();
+            switch (ch) {
+            case '{':
+            case '[':
+                depth++;
+                break;
+            case '}':
+            case ']':
+                depth--;
+                break;
+            case '\"':
+                skipStringChars();
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    // skip chars of string after the opening quote:
+    void skipStringChars() throws IOException {
+        for (;;) {
+            reader.skipPlainChars();
+            char ch = reader.next();
+            if (ch == '\"') {
+                return;
+            }
+            if (ch == '\\') {
+                // skip escaped char:
+                reader.next();
+            } else if (ch == '\r' || ch == '\n') {
+                throw new JsonParseException("Unexpected char: " + ch, reader.readed);
+            }
+        }
+    }
+
     static final int READ_NUMBER_INT_PART = 0;
     static final int READ_NUMBER_FRA_PART = 1;
     static final int READ_NUMBER_EXP_PART = 2;
     static final int READ_NUMBER_END = 3;
 
-    // read number and return Long or Double:
+    // max significant digits can be held by an unsigned long:
+    static final int MAX_MANTISSA_DIGITS = 19;
+
+    // return JsonNumber for numbers which cannot be held by Long exactly:
+    boolean losslessNumbers = false;
+
+    // return LazyNumber which is parsed on first use:
+    boolean lazyNumbers = false;
+
+    // chars of the number being read, used when fall back to slow path:
+    char[] numberChars = new char[32];
+    int numberLength = 0;
+
+    // chars of lazy numbers which are not read from a String, shared by lazy
+    // numbers of the document and replaced by a new chunk when full:
+    static final int LAZY_CHUNK_SIZE = 1024;
+    char[] lazyChars = null;
+    CharSequence lazyText = null;
+    int lazyLength = 0;
+
+    // read number and return Long or Double, or JsonNumber if lossless, or LazyNumber if lazy:
     Number readNumber() throws IOException {
-        StringBuilder intPart = null; // ###.xxxExxx
-        StringBuilder fraPart = null; // xxx.###Exxx
-        StringBuilder expPart = null; // xxx.xxxE###
+        if (lazyNumbers) {
+            skipNumber();
+            return newLazyNumber();
+        }
+        scanNumber();
+        return numberValue();
+    }
+
+    // read number without boxing, and return the long value:
+    long readLong() throws IOException {
+        scanNumber();
+        return numberLongValue();
+    }
+
+    // read number without boxing, and return the double value:
+    double readDouble() throws IOException {
+        scanNumber();
+        return numberDoubleValue();
+    }
+
+    // result of last scanNumber(), which is (-)mantissa * 10^exp10:
+    long numberMantissa;
+    int numberExp10;
+    boolean numberMinusSign;
+    // no fraction part and exponent part:
+    boolean numberIsInteger;
+    boolean numberDropped;
+    boolean numberTruncated;
+    boolean numberExponentOverflow;
+    // position of number chars when read from StringCharReader:
+    int numberStart;
+
+    /**
+     * Return last scanned number as Long or Double, or JsonNumber if lossless.
+     */
+    Number numberValue() {
+        if (numberIsInteger) {
+            if (fitsLong(numberMantissa, numberExp10, numberMinusSign)) {
+                return Long.valueOf(numberMinusSign ? -numberMantissa : numberMantissa);
+            }
+            if (losslessNumbers) {
+                String text = new String(numberChars, 0, numberLength);
+                return new JsonNumber(text, true, Double.parseDouble(text));
+            }
+            throw new JsonParseException("Exceeded maximum value: " + (numberMinusSign ? Long.MIN_VALUE : Long.MAX_VALUE), reader.readed);
+        }
+        double number = toDouble();
+        if (losslessNumbers) {
+            if (!numberDropped && numberMantissa >= 0 && !numberExponentOverflow) {
+                return new JsonNumber(numberMinusSign ? -numberMantissa : numberMantissa, -numberExp10, number);
+            }
+            return new JsonNumber(new String(numberChars, 0, numberLength), false, number);
+        }
+        if (Double.isInfinite(number)) {
+            throw new JsonParseException("Exceeded maximum value: " + MAX_SAFE_DOUBLE, reader.readed);
+        }
+        return Double.valueOf(number);
+    }
+
+    /**
+     * Return true if last scanned number is an integer in range of long.
+     */
+    boolean numberFitsLong() {
+        return numberIsInteger && fitsLong(numberMantissa, numberExp10, numberMinusSign);
+    }
+
+    /**
+     * Return last scanned number as long. A number with fraction part or
+     * exponent part is truncated as Double.longValue() does.
+     */
+    long numberLongValue() {
+        if (numberIsInteger) {
+            if (numberFitsLong()) {
+                return numberMinusSign ? -numberMantissa : numberMantissa;
+            }
+            throw new JsonParseException("Exceeded maximum value: " + (numberMinusSign ? Long.MIN_VALUE : Long.MAX_VALUE), reader.readed);
+        }
+        return (long) numberDoubleValue();
+    }
+
+    /**
+     * Return last scanned number as double.
+     */
+    double numberDoubleValue() {
+        double number = toDouble();
+        if (Double.isInfinite(number)) {
+            throw new JsonParseException("Exceeded maximum value: " + MAX_SAFE_DOUBLE, reader.readed);
+        }
+        return number;
+    }
+
+    double toDouble() {
+        double number = DoubleParser.toDouble(numberMantissa, numberExp10, numberMinusSign);
+        if (numberTruncated && number != DoubleParser.toDouble(numberMantissa + 1, numberExp10, numberMinusSign)) {
+            // dropped digits may affect rounding:
+            number = Double.NaN;
+        }
+        if (Double.isNaN(number)) {
+            number = Double.parseDouble(new String(numberChars, 0, numberLength));
+        }
+        return number;
+    }
+
+    // scan number and keep the result in number fields without boxing:
+    void scanNumber() throws IOException {
+        // significant digits as unsigned long, and the number is mantissa * 10^exp10:
+        long mantissa = 0L;
+        int mantissaDigits = 0;
+        int exp10 = 0;
+        // digits are dropped after MAX_MANTISSA_DIGITS, and some are non-zero:
+        boolean dropped = false;
+        boolean truncated = false;
+        int intDigits = 0;
+        int fraDigits = 0;
+        int expDigits = 0;
+        int exponent = 0;
         boolean hasFraPart = false;
         boolean hasExpPart = false;
+        numberLength = 0;
+        int start = reader.pos;
         char ch = reader.peek();
         boolean minusSign = ch == '-';
         boolean expMinusSign = false;
         if (minusSign) {
-            reader.next();
+            appendNumberChar(reader.next());
         }
         int status = READ_NUMBER_INT_PART;
         for (;;) {
@@ -197,54 +421,55 @@ class TokenReader {
             }
             switch (status) {
             case READ_NUMBER_INT_PART:
+            case READ_NUMBER_FRA_PART:
                 if (ch >= '0' && ch <= '9') {
-                    if (intPart == null) {
-                        intPart = new StringBuilder(10);
+                    appendNumberChar(reader.next());
+                    int n = ch - '0';
+                    if (status == READ_NUMBER_INT_PART) {
+                        intDigits++;
+                    } else {
+                        fraDigits++;
+                    }
+                    if (mantissaDigits == 0 && n == 0) {
+                        // leading zero:
+                        if (status == READ_NUMBER_FRA_PART) {
+                            exp10--;
+                        }
+                    } else if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                        mantissa = mantissa * 10 + n;
+                        mantissaDigits++;
+                        if (status == READ_NUMBER_FRA_PART) {
+                            exp10--;
+                        }
+                    } else {
+                        dropped = true;
+                        truncated = truncated || n != 0;
+                        if (status == READ_NUMBER_INT_PART) {
+                            exp10++;
+                        }
                     }
-                    intPart.append(reader.next());
-                } else if (ch == '.') {
-                    if (intPart == null) {
+                } else if (ch == '.' && status == READ_NUMBER_INT_PART) {
+                    if (intDigits == 0) {
                         throw new JsonParseException("Unexpected char: " + ch, reader.readed);
                     }
-                    reader.next();
+                    appendNumberChar(reader.next());
                     hasFraPart = true;
                     status = READ_NUMBER_FRA_PART;
                 } else if (ch == 'e' || ch == 'E') {
-                    reader.next();
-                    hasExpPart = true;
-                    // try to determin exp part's sign:
-                    char signChar = reader.peek();
-                    if (signChar == '-' || signChar == '+') {
-                        expMinusSign = signChar == '-';
-                        reader.next();
-                    }
-                    status = READ_NUMBER_EXP_PART;
-                } else {
-                    if (intPart == null) {
+                    if (status == READ_NUMBER_FRA_PART && fraDigits == 0) {
                         throw new JsonParseException("Unexpected char: " + reader.next(), reader.readed);
                     }
-                    // end of number:
-                    status = READ_NUMBER_END;
-                }
-                continue;
-            case READ_NUMBER_FRA_PART:
-                if (ch >= '0' && ch <= '9') {
-                    if (fraPart == null) {
-                        fraPart = new StringBuilder(10);
-                    }
-                    fraPart.append(reader.next());
-                } else if (ch == 'e' || ch == 'E') {
-                    reader.next();
+                    appendNumberChar(reader.next());
                     hasExpPart = true;
                     // try to determin exp part's sign:
                     char signChar = reader.peek();
                     if (signChar == '-' || signChar == '+') {
                         expMinusSign = signChar == '-';
-                        reader.next();
+                        appendNumberChar(reader.next());
                     }
                     status = READ_NUMBER_EXP_PART;
                 } else {
-                    if (fraPart == null) {
+                    if (status == READ_NUMBER_INT_PART ? intDigits == 0 : fraDigits == 0) {
                         throw new JsonParseException("Unexpected char: " + reader.next(), reader.readed);
                     }
                     // end of number:
@@ -253,12 +478,14 @@ class TokenReader {
                 continue;
             case READ_NUMBER_EXP_PART:
                 if (ch >= '0' && ch <= '9') {
-                    if (expPart == null) {
-                        expPart = new StringBuilder(10);
+                    appendNumberChar(reader.next());
+                    expDigits++;
+                    // large enough to be overflow or underflow without int overflow:
+                    if (exponent < 100000) {
+                        exponent = exponent * 10 + (ch - '0');
                     }
-                    expPart.append(reader.next());
                 } else {
-                    if (expPart == null) {
+                    if (expDigits == 0) {
                         throw new JsonParseException("Unexpected char: " + reader.next(), reader.readed);
                     }
                     // end of number:
@@ -268,58 +495,115 @@ class TokenReader {
             case READ_NUMBER_END:
                 // build parsed number:
                 int readed = reader.readed;
-                if (intPart == null) {
+                if (intDigits == 0) {
                     throw new JsonParseException("Missing integer part of number.", readed);
                 }
-                long lInt = minusSign ? -string2Long(intPart, readed) : string2Long(intPart, readed);
-                if (!hasFraPart && !hasExpPart) {
-                    return Long.valueOf(lInt);
-                }
-                if (hasFraPart && fraPart == null) {
+                if (hasFraPart && fraDigits == 0) {
                     throw new JsonParseException("Missing fraction part of number.", readed);
                 }
-                double dFraPart = hasFraPart ? (minusSign ? -string2Fraction(fraPart, readed) : string2Fraction(fraPart, readed)) : 0.0;
-                double number = hasExpPart ? (lInt + dFraPart) * Math.pow(10, expMinusSign ? -string2Long(expPart, readed) : string2Long(expPart, readed))
-                        : (lInt + dFraPart);
-                if (number > MAX_SAFE_DOUBLE) {
-                    throw new NumberFormatException("Exceeded maximum value: 1.7976931348623157e+308");
+                if (hasExpPart && expDigits == 0) {
+                    throw new JsonParseException("Missing exponent part of number.", readed);
                 }
-                return Double.valueOf(number);
+                numberMantissa = mantissa;
+                numberExp10 = exp10 + (expMinusSign ? -exponent : exponent);
+                numberMinusSign = minusSign;
+                numberIsInteger = !hasFraPart && !hasExpPart;
+                numberDropped = dropped;
+                numberTruncated = truncated;
+                numberExponentOverflow = exponent >= 100000;
+                numberStart = start;
+                return;
             default:
                 continue;
             }
         }
     }
 
-    static final long MAX_SAFE_INTEGER = 9007199254740991L;
-
-    // parse "0123" as 123:
-    long string2Long(CharSequence cs, int readed) {
-        if (cs.length() > 16) {
-            throw new JsonParseException("Number string is too long.", readed);
+    // check syntax of number and keep its chars, without computing its value:
+    void skipNumber() throws IOException {
+        numberLength = 0;
+        numberStart = reader.pos;
+        if (reader.peek() == '-') {
+            appendNumberChar(reader.next());
+        }
+        if (skipDigits() == 0) {
+            throw numberPartError("Missing integer part of number.");
+        }
+        if (reader.hasMore() && reader.peek() == '.') {
+            appendNumberChar(reader.next());
+            if (skipDigits() == 0) {
+                throw numberPartError("Missing fraction part of number.");
+            }
+        }
+        if (reader.hasMore() && (reader.peek() == 'e' || reader.peek() == 'E')) {
+            appendNumberChar(reader.next());
+            char signChar = reader.peek();
+            if (signChar == '-' || signChar == '+') {
+                appendNumberChar(reader.next());
+            }
+            if (skipDigits() == 0) {
+                throw numberPartError("Missing exponent part of number.");
+            }
         }
-        long n = 0;
-        for (int i = 0; i < cs.length(); i++) {
-            n = n * 10 + (cs.charAt(i) - '0');
-            if (n > MAX_SAFE_INTEGER) {
-                throw new JsonParseException("Exceeded maximum value: " + MAX_SAFE_INTEGER, readed);
+    }
+
+    // skip digits and return number of digits:
+    int skipDigits() throws IOException {
+        int n = 0;
+        while (reader.hasMore()) {
+            char ch = reader.peek();
+            if (ch < '0' || ch > '9') {
+                break;
             }
+            appendNumberChar(reader.next());
+            n++;
         }
         return n;
     }
 
-    static final double MAX_SAFE_DOUBLE = 1.7976931348623157e+308;
+    // error of a number part without digits:
+    JsonParseException numberPartError(String message) throws IOException {
+        if (reader.hasMore()) {
+            return new JsonParseException("Unexpected char: " + reader.next(), reader.readed);
+        }
+        return new JsonParseException(message, reader.readed);
+    }
 
-    // parse "0123" as 0.0123
-    double string2Fraction(CharSequence cs, int readed) {
-        if (cs.length() > 16) {
-            throw new JsonParseException("Number string is too long.", readed);
+    /**
+     * Return last scanned number as LazyNumber, which refers to chars of an
+     * immutable String directly, or to a copy in the chunk shared by lazy
+     * numbers of the document. A '\0' is kept after the copied chars as the
+     * end of number.
+     */
+    LazyNumber newLazyNumber() {
+        if (reader instanceof StringCharReader) {
+            StringCharReader stringReader = (StringCharReader) reader;
+            if (stringReader.str instanceof String && stringReader.end == stringReader.str.length()) {
+                return new LazyNumber(stringReader.str, numberStart, losslessNumbers);
+            }
         }
-        double d = 0.0;
-        for (int i = 0; i < cs.length(); i++) {
-            int n = cs.charAt(i) - '0';
-            d = d + (n == 0 ? 0 : n / Math.pow(10, i + 1));
+        if (lazyChars == null || lazyLength + numberLength >= lazyChars.length) {
+            lazyChars = new char[Math.max(LAZY_CHUNK_SIZE, numberLength + 1)];
+            lazyText = CharBuffer.wrap(lazyChars);
+            lazyLength = 0;
         }
-        return d;
+        System.arraycopy(numberChars, 0, lazyChars, lazyLength, numberLength);
+        LazyNumber number = new LazyNumber(lazyText, lazyLength, losslessNumbers);
+        lazyLength += numberLength + 1;
+        return number;
     }
+
+    void appendNumberChar(char ch) {
+        if (numberLength == numberChars.length) {
+            numberChars = Arrays.copyOf(numberChars, numberLength * 2);
+        }
+        numberChars[numberLength++] = ch;
+    }
+
+    // check if the unsigned mantissa with sign is in range of long:
+    static boolean fitsLong(long mantissa, int exp10, boolean minusSign) {
+        return exp10 == 0 && (mantissa >= 0 || (minusSign && mantissa == Long.MIN_VALUE));
+    }
+
+    static final double MAX_SAFE_DOUBLE = 1.7976931348623157e+308;
 }
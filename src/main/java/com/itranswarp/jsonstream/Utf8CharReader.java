@@ -0,0 +1,191 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+
+/**
+ * A CharReader which reads UTF-8 encoded bytes and decodes them without a
+ * CharsetDecoder. ASCII bytes (all structural chars, numbers, literals and
+ * most string contents) are returned as chars directly, and only multi-byte
+ * sequences, which are only valid inside string values, are decoded.
+ *
+ * Malformed sequences are replaced by U+FFFD, the same as InputStreamReader
+ * does.
+ *
+ * @author Michael Liao
+ */
+abstract class Utf8CharReader extends CharReader {
+
+    static final char REPLACEMENT_CHAR = '\uFFFD';
+
+    // decoded chars not yet consumed, or -1 if none:
+    int pending = -1;
+    int pendingNext = -1;
+
+    /**
+     * Read next byte as 0 ~ 255, or -1 if EOF.
+     */
+    abstract int readByte() throws IOException;
+
+    /**
+     * Peek next byte as 0 ~ 255 without consuming it, or -1 if EOF.
+     */
+    abstract int peekByte() throws IOException;
+
+    @Override
+    public boolean hasMore() throws IOException {
+        return pending >= 0 || peekByte() >= 0;
+    }
+
+    @Override
+    public char next() throws IOException {
+        if (pending >= 0) {
+            char ch = (char) pending;
+            pending = pendingNext;
+            pendingNext = -1;
+            return ch;
+        }
+        int b = readByte();
+        if (b < 0) {
+            throw new JsonParseException("EOF", this.readed);
+        }
+        if (b < 0x80) {
+            return (char) b;
+        }
+        return decode(b);
+    }
+
+    @Override
+    public char peek() throws IOException {
+        if (pending >= 0) {
+            return (char) pending;
+        }
+        int b = peekByte();
+        if (b < 0) {
+            throw new JsonParseException("EOF", this.readed);
+        }
+        if (b < 0x80) {
+            return (char) b;
+        }
+        // decode and keep it as pending char:
+        readByte();
+        char ch = decode(b);
+        pendingNext = pending;
+        pending = ch;
+        return ch;
+    }
+
+    /**
+     * Decode a multi-byte sequence which starts with b0. If the sequence is a
+     * supplementary code point, the high surrogate is returned and the low
+     * surrogate is kept as pending char.
+     */
+    char decode(int b0) throws IOException {
+        if (b0 >= 0xc2 && b0 <= 0xdf) {
+            // 2 bytes: 110xxxxx 10xxxxxx
+            int b1 = peekByte();
+            if (!isContinuation(b1)) {
+                return REPLACEMENT_CHAR;
+            }
+            readByte();
+            return (char) (((b0 & 0x1f) << 6) | (b1 & 0x3f));
+        }
+        if (b0 >= 0xe0 && b0 <= 0xef) {
+            // 3 bytes: 1110xxxx 10xxxxxx 10xxxxxx
+            int b1 = peekByte();
+            if (!isContinuation(b1) || (b0 == 0xe0 && b1 < 0xa0)) {
+                // malformed or overlong:
+                return REPLACEMENT_CHAR;
+            }
+            readByte();
+            int b2 = peekByte();
+            if (!isContinuation(b2)) {
+                return REPLACEMENT_CHAR;
+            }
+            readByte();
+            char ch = (char) (((b0 & 0x0f) << 12) | ((b1 & 0x3f) << 6) | (b2 & 0x3f));
+            // encoded surrogate is malformed:
+            return Character.isSurrogate(ch) ? REPLACEMENT_CHAR : ch;
+        }
+        if (b0 >= 0xf0 && b0 <= 0xf4) {
+            // 4 bytes: 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx
+            int b1 = peekByte();
+            if (!isContinuation(b1) || (b0 == 0xf0 && b1 < 0x90) || (b0 == 0xf4 && b1 > 0x8f)) {
+                // malformed, overlong or out of range:
+                return REPLACEMENT_CHAR;
+            }
+            readByte();
+            int b2 = peekByte();
+            if (!isContinuation(b2)) {
+                return REPLACEMENT_CHAR;
+            }
+            readByte();
+            int b3 = peekByte();
+            if (!isContinuation(b3)) {
+                return REPLACEMENT_CHAR;
+            }
+            readByte();
+            int cp = ((b0 & 0x07) << 18) | ((b1 & 0x3f) << 12) | ((b2 & 0x3f) << 6) | (b3 & 0x3f);
+            pending = Character.lowSurrogate(cp);
+            return Character.highSurrogate(cp);
+        }
+        // invalid leading byte:
+        return REPLACEMENT_CHAR;
+    }
+
+    /**
+     * Return index of the closing quote of a plain string in bytes[start, end),
+     * or -1 if a backslash or line break is found first, or no quote is found.
+     * A quote, backslash or line break byte is always an ASCII char because
+     * every byte of a UTF-8 multi-byte sequence is 0x80 or above.
+     */
+    static int indexOfClosingQuote(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '\"') {
+                return i;
+            }
+            if (b == '\\' || b == '\r' || b == '\n') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Append ASCII chars of bytes[start, end) to sb, and return the position of
+     * the first byte which is not appended.
+     */
+    static int appendAsciiChars(byte[] bytes, int start, int end, StringBuilder sb) {
+        int i = start;
+        while (i < end) {
+            byte b = bytes[i];
+            if (b < 0 || b == '\"' || b == '\\' || b == '\r' || b == '\n') {
+                break;
+            }
+            sb.append((char) b);
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Return the position of the first quote, backslash or line break in
+     * bytes[start, end), or end if not found. Bytes of multi-byte chars are
+     * skipped without decoding, because they never equal to ASCII chars.
+     */
+    static int skipPlainBytes(byte[] bytes, int start, int end) {
+        int i = start;
+        while (i < end) {
+            byte b = bytes[i];
+            if (b == '\"' || b == '\\' || b == '\r' || b == '\n') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    static boolean isContinuation(int b) {
+        return (b & 0xc0) == 0x80;
+    }
+}
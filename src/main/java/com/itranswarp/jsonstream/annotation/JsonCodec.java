@@ -0,0 +1,20 @@
+package com.itranswarp.jsonstream.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generate codec of this JavaBean at compile time by JsonCodecProcessor, which
+ * is enabled by adding "-processor
+ * com.itranswarp.jsonstream.processor.JsonCodecProcessor" to javac. The
+ * generated codec is used instead of scanning properties by reflection.
+ * 
+ * @author Michael Liao
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonCodec {
+
+}
@@ -0,0 +1,610 @@
+package com.itranswarp.jsonstream.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.itranswarp.jsonstream.GeneratedBeanCodec;
+
+/**
+ * Generate a GeneratedBeanCodec subclass for each class annotated with
+ * {@code @JsonCodec}, which finds properties by the same rules of
+ * PropertyUtils, and accesses them directly without reflection. Generated
+ * codecs are registered in META-INF/services. This processor is optional and
+ * not registered automatically. Enable it by:
+ *
+ * <pre>
+ * javac -processor com.itranswarp.jsonstream.processor.JsonCodecProcessor ...
+ * </pre>
+ *
+ * @author Michael Liao
+ */
+@SupportedAnnotationTypes(JsonCodecProcessor.JSON_CODEC)
+public class JsonCodecProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION_PACKAGE = "com.itranswarp.jsonstream.annotation";
+    static final String JSON_CODEC = ANNOTATION_PACKAGE + ".JsonCodec";
+    static final String JSON_IGNORE = ANNOTATION_PACKAGE + ".JsonIgnore";
+    static final String SERVICE_FILE = "META-INF/services/" + "com.itranswarp.jsonstream.GeneratedBeanCodec";
+
+    final Set<String> codecClassNames = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement jsonCodec = processingEnv.getElementUtils().getTypeElement(JSON_CODEC);
+        if (jsonCodec != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(jsonCodec)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@JsonCodec must be used on class.");
+                    continue;
+                }
+                new BeanModel((TypeElement) element).generate();
+            }
+        }
+        if (roundEnv.processingOver() && !codecClassNames.isEmpty()) {
+            writeServiceFile();
+        }
+        return false;
+    }
+
+    /**
+     * Write names of generated codecs to META-INF/services, and keep existing
+     * names of incremental compilation.
+     */
+    void writeServiceFile() {
+        Set<String> names = new TreeSet<>(codecClassNames);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        names.add(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // no existing service file
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = file.openWriter()) {
+                for (String name : names) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            error(null, "Cannot write " + SERVICE_FILE + ": " + e);
+        }
+    }
+
+    void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+    }
+
+    void warning(Element element, String message) {
+        processingEnv.getMessager().printMessage(Kind.WARNING, message, element);
+    }
+
+    /**
+     * Properties of bean found by the rules of PropertyUtils.
+     */
+    class BeanModel {
+
+        final TypeElement bean;
+        final String beanType;
+        final String packageName;
+        final List<Property> properties = new ArrayList<>();
+        boolean hasError = false;
+
+        BeanModel(TypeElement bean) {
+            this.bean = bean;
+            this.beanType = bean.getQualifiedName().toString();
+            this.packageName = processingEnv.getElementUtils().getPackageOf(bean).getQualifiedName().toString();
+        }
+
+        void generate() {
+            for (Element e = bean; e instanceof TypeElement; e = e.getEnclosingElement()) {
+                if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                    error(bean, "@JsonCodec class must not be private: " + e.getSimpleName());
+                    return;
+                }
+            }
+            findProperties();
+            if (hasError) {
+                return;
+            }
+            String codecClassName = GeneratedBeanCodec.codecClassName(processingEnv.getElementUtils().getBinaryName(bean).toString());
+            try {
+                Writer writer = processingEnv.getFiler().createSourceFile(codecClassName, bean).openWriter();
+                try (PrintWriter pw = new PrintWriter(writer)) {
+                    writeCodec(pw, codecClassName.substring(codecClassName.lastIndexOf('.') + 1));
+                }
+                codecClassNames.add(codecClassName);
+            } catch (IOException e) {
+                error(bean, "Cannot write codec " + codecClassName + ": " + e);
+            }
+        }
+
+        /**
+         * Find properties as PropertySetters and PropertyGetters do: setter or
+         * getter first, then field, and the member of subclass overrides the one
+         * of superclass.
+         */
+        void findProperties() {
+            Map<String, ExecutableElement> getters = new LinkedHashMap<>();
+            Map<String, ExecutableElement> setters = new LinkedHashMap<>();
+            Map<String, VariableElement> fields = new LinkedHashMap<>();
+            for (TypeElement type = bean; type != null && !type.getQualifiedName().contentEquals("java.lang.Object"); type = superclassOf(type)) {
+                for (ExecutableElement m : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                    if (m.getModifiers().contains(Modifier.STATIC)) {
+                        continue;
+                    }
+                    putIfAbsent(getters, getterName(m), m);
+                    putIfAbsent(setters, setterName(m), m);
+                }
+                for (VariableElement f : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                    if (f.getModifiers().contains(Modifier.STATIC) || isIgnored(f)) {
+                        continue;
+                    }
+                    fields.putIfAbsent(f.getSimpleName().toString(), f);
+                }
+            }
+            Set<String> names = new LinkedHashSet<>();
+            names.addAll(setters.keySet());
+            names.addAll(getters.keySet());
+            names.addAll(fields.keySet());
+            for (String name : names) {
+                Element setter = setters.containsKey(name) ? setters.get(name) : fields.get(name);
+                Element getter = getters.containsKey(name) ? getters.get(name) : fields.get(name);
+                if (setter == null && getter == null) {
+                    continue;
+                }
+                if (setter instanceof VariableElement && setter.getModifiers().contains(Modifier.FINAL)) {
+                    warning(setter, "Final field is read only in generated codec: " + name);
+                    setter = null;
+                }
+                Property p = new Property(name, getter, setter);
+                if (getter != null) {
+                    checkAccessible(getter);
+                }
+                if (setter != null) {
+                    checkAccessible(setter);
+                    checkWritableType(setter, p.type);
+                }
+                properties.add(p);
+            }
+        }
+
+        /**
+         * Put getter or setter, or null if ignored, as PropertyUtils does. An
+         * ignored method of subclass is kept as null, which is present.
+         */
+        void putIfAbsent(Map<String, ExecutableElement> map, String name, ExecutableElement m) {
+            if (name == null) {
+                return;
+            }
+            if (isIgnored(m)) {
+                map.put(name, null);
+            } else if (!map.containsKey(name)) {
+                map.put(name, m);
+            }
+        }
+
+        TypeElement superclassOf(TypeElement type) {
+            TypeMirror superclass = type.getSuperclass();
+            if (superclass.getKind() != TypeKind.DECLARED) {
+                return null;
+            }
+            return (TypeElement) ((DeclaredType) superclass).asElement();
+        }
+
+        void checkAccessible(Element member) {
+            Set<Modifier> modifiers = member.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                error(member, "Property of @JsonCodec class must not be private, or add non-private getter and setter: " + member.getSimpleName());
+                hasError = true;
+                return;
+            }
+            TypeElement owner = (TypeElement) member.getEnclosingElement();
+            PackageElement ownerPackage = processingEnv.getElementUtils().getPackageOf(owner);
+            if (!ownerPackage.getQualifiedName().contentEquals(packageName) && !modifiers.contains(Modifier.PUBLIC)) {
+                error(member, "Inherited property of @JsonCodec class must be public: " + member.getSimpleName());
+                hasError = true;
+            }
+        }
+
+        /**
+         * Reflection cannot set property of type variable or nested generic
+         * type, neither can generated codec.
+         */
+        void checkWritableType(Element setter, TypeMirror type) {
+            if (type.getKind() == TypeKind.TYPEVAR || type.getKind() == TypeKind.WILDCARD) {
+                error(setter, "Property of type variable is not supported: " + setter.getSimpleName());
+                hasError = true;
+            } else if (type.getKind() == TypeKind.DECLARED) {
+                List<? extends TypeMirror> args = ((DeclaredType) type).getTypeArguments();
+                if (args.size() == 1 && !isClass(args.get(0))) {
+                    error(setter, "Generic type of property must be a class: " + setter.getSimpleName());
+                    hasError = true;
+                }
+            }
+        }
+
+        /**
+         * Is the type a Class but not a parameterized type, type variable or
+         * wildcard?
+         */
+        boolean isClass(TypeMirror type) {
+            switch (type.getKind()) {
+            case ARRAY:
+                return isClass(((ArrayType) type).getComponentType());
+            case DECLARED:
+                return ((DeclaredType) type).getTypeArguments().isEmpty();
+            case TYPEVAR:
+            case WILDCARD:
+                return false;
+            default:
+                return type.getKind().isPrimitive();
+            }
+        }
+
+        boolean hasDefaultConstructor() {
+            if (bean.getModifiers().contains(Modifier.ABSTRACT)) {
+                return false;
+            }
+            if (bean.getNestingKind() == NestingKind.MEMBER && !bean.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            for (ExecutableElement c : ElementFilter.constructorsIn(bean.getEnclosedElements())) {
+                if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void writeCodec(PrintWriter pw, String simpleName) {
+            // raw type of generic bean, e.g. Box<T> is Box:
+            String rawBeanType = beanType;
+            if (!packageName.isEmpty()) {
+                pw.println("package " + packageName + ";");
+                pw.println();
+            }
+            pw.println("/**");
+            pw.println(" * Generated by JsonCodecProcessor for " + beanType + ". Do not edit.");
+            pw.println(" */");
+            pw.println("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+            pw.println("public final class " + simpleName + " extends com.itranswarp.jsonstream.GeneratedBeanCodec {");
+            pw.println();
+            // constructor with metadata:
+            pw.println("    public " + simpleName + "() {");
+            pw.println("        super(" + rawBeanType + ".class,");
+            pw.println("                new String[] { " + join(properties, p -> quote(p.name)) + " },");
+            pw.println("                new Class<?>[] { " + join(properties, p -> typeLiteral(p.type) + ".class") + " },");
+            pw.println("                new Class<?>[] { " + join(properties, p -> typeLiteral(p.genericType()) + ".class") + " },");
+            pw.println("                new boolean[] { " + join(properties, p -> String.valueOf(p.getter != null)) + " },");
+            pw.println("                new boolean[] { " + join(properties, p -> String.valueOf(p.setter != null)) + " });");
+            pw.println("    }");
+            pw.println();
+            // newInstance:
+            pw.println("    @Override");
+            pw.println("    public Object newInstance() {");
+            pw.println(hasDefaultConstructor() ? "        return new " + rawBeanType + "();" : "        return null;");
+            pw.println("    }");
+            pw.println();
+            // indexOf:
+            pw.println("    @Override");
+            pw.println("    public int indexOf(String name) {");
+            pw.println("        switch (name) {");
+            for (int i = 0; i < properties.size(); i++) {
+                pw.println("        case " + quote(properties.get(i).name) + ":");
+                pw.println("            return " + i + ";");
+            }
+            pw.println("        default:");
+            pw.println("            return -1;");
+            pw.println("        }");
+            pw.println("    }");
+            pw.println();
+            // getAnnotatedElement:
+            pw.println("    @Override");
+            pw.println("    public java.lang.reflect.AnnotatedElement getAnnotatedElement(int index) {");
+            pw.println("        switch (index) {");
+            for (int i = 0; i < properties.size(); i++) {
+                Property p = properties.get(i);
+                if (p.setter != null && hasValidation(p.setter)) {
+                    pw.println("        case " + i + ":");
+                    pw.println("            return " + annotatedElement(p.setter) + ";");
+                }
+            }
+            pw.println("        default:");
+            pw.println("            return NO_ANNOTATIONS;");
+            pw.println("        }");
+            pw.println("    }");
+            pw.println();
+            // get:
+            pw.println("    @Override");
+            pw.println("    public Object get(Object bean, int index) {");
+            pw.println("        " + rawBeanType + " b = (" + rawBeanType + ") bean;");
+            pw.println("        switch (index) {");
+            for (int i = 0; i < properties.size(); i++) {
+                Property p = properties.get(i);
+                if (p.getter != null) {
+                    pw.println("        case " + i + ":");
+                    writeStatement(pw, p.getter, "return " + access(p.getter, null) + ";");
+                }
+            }
+            pw.println("        default:");
+            pw.println("            throw new IllegalArgumentException(\"Property is not readable: \" + index);");
+            pw.println("        }");
+            pw.println("    }");
+            pw.println();
+            // set:
+            pw.println("    @Override");
+            pw.println("    public void set(Object bean, int index, Object value) {");
+            pw.println("        " + rawBeanType + " b = (" + rawBeanType + ") bean;");
+            pw.println("        switch (index) {");
+            for (int i = 0; i < properties.size(); i++) {
+                Property p = properties.get(i);
+                if (p.setter != null) {
+                    pw.println("        case " + i + ":");
+                    writeStatement(pw, p.setter, access(p.setter, unbox(p.type, "value")) + ";");
+                    pw.println("            return;");
+                }
+            }
+            pw.println("        default:");
+            pw.println("            throw new IllegalArgumentException(\"Property is not writable: \" + index);");
+            pw.println("        }");
+            pw.println("    }");
+            // typed setters:
+            writeTypedSetter(pw, "setLong", TypeKind.LONG, "long", rawBeanType);
+            writeTypedSetter(pw, "setInt", TypeKind.INT, "int", rawBeanType);
+            writeTypedSetter(pw, "setDouble", TypeKind.DOUBLE, "double", rawBeanType);
+            writeTypedSetter(pw, "setBoolean", TypeKind.BOOLEAN, "boolean", rawBeanType);
+            pw.println("}");
+        }
+
+        void writeTypedSetter(PrintWriter pw, String methodName, TypeKind kind, String valueType, String rawBeanType) {
+            pw.println();
+            pw.println("    @Override");
+            pw.println("    public void " + methodName + "(Object bean, int index, " + valueType + " value) {");
+            pw.println("        " + rawBeanType + " b = (" + rawBeanType + ") bean;");
+            pw.println("        switch (index) {");
+            for (int i = 0; i < properties.size(); i++) {
+                Property p = properties.get(i);
+                if (p.setter != null && p.type.getKind() == kind) {
+                    pw.println("        case " + i + ":");
+                    writeStatement(pw, p.setter, access(p.setter, "value") + ";");
+                    pw.println("            return;");
+                }
+            }
+            pw.println("        default:");
+            pw.println("            set(bean, index, value);");
+            pw.println("        }");
+            pw.println("    }");
+        }
+
+        /**
+         * Write statement, and rethrow checked exceptions declared by getter or
+         * setter.
+         */
+        void writeStatement(PrintWriter pw, Element member, String statement) {
+            if (member instanceof ExecutableElement && !((ExecutableElement) member).getThrownTypes().isEmpty()) {
+                pw.println("            try {");
+                pw.println("                " + statement);
+                pw.println("            } catch (Exception e) {");
+                pw.println("                throw rethrow(e);");
+                pw.println("            }");
+            } else {
+                pw.println("            " + statement);
+            }
+        }
+
+        /**
+         * Get value of getter or field if value is null, otherwise set value to
+         * setter or field.
+         */
+        String access(Element member, String value) {
+            String name = member.getSimpleName().toString();
+            if (member instanceof VariableElement) {
+                return value == null ? "b." + name : "b." + name + " = " + value;
+            }
+            return value == null ? "b." + name + "()" : "b." + name + "(" + value + ")";
+        }
+
+        String annotatedElement(Element member) {
+            String owner = ((TypeElement) member.getEnclosingElement()).getQualifiedName() + ".class";
+            String name = quote(member.getSimpleName().toString());
+            if (member instanceof VariableElement) {
+                return "field(" + owner + ", " + name + ")";
+            }
+            TypeMirror type = ((ExecutableElement) member).getParameters().get(0).asType();
+            return "method(" + owner + ", " + name + ", " + typeLiteral(type) + ".class)";
+        }
+
+        /**
+         * Has any annotation for validation?
+         */
+        boolean hasValidation(Element member) {
+            for (AnnotationMirror am : member.getAnnotationMirrors()) {
+                TypeElement annotationType = (TypeElement) am.getAnnotationType().asElement();
+                if (processingEnv.getElementUtils().getPackageOf(annotationType).getQualifiedName().contentEquals(ANNOTATION_PACKAGE)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Property with getter and setter, which is method or field.
+     */
+    class Property {
+
+        final String name;
+        final Element getter;
+        final Element setter;
+        final TypeMirror type;
+
+        Property(String name, Element getter, Element setter) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+            // property type is type of setter if writable:
+            Element member = setter != null ? setter : getter;
+            if (member instanceof ExecutableElement) {
+                ExecutableElement m = (ExecutableElement) member;
+                this.type = m == setter ? m.getParameters().get(0).asType() : m.getReturnType();
+            } else {
+                this.type = member.asType();
+            }
+        }
+
+        /**
+         * Generic type as PropertySetters.getGenericType() returns.
+         */
+        TypeMirror genericType() {
+            if (type.getKind() == TypeKind.DECLARED) {
+                List<? extends TypeMirror> args = ((DeclaredType) type).getTypeArguments();
+                if (args.size() == 1) {
+                    return args.get(0);
+                }
+            } else if (type.getKind() == TypeKind.ARRAY) {
+                return ((ArrayType) type).getComponentType();
+            }
+            return processingEnv.getElementUtils().getTypeElement("java.lang.Object").asType();
+        }
+    }
+
+    boolean isIgnored(Element element) {
+        for (AnnotationMirror am : element.getAnnotationMirrors()) {
+            if (((TypeElement) am.getAnnotationType().asElement()).getQualifiedName().contentEquals(JSON_IGNORE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get property name of getter. "getName" -> "name", "isMale" -> "male".
+     */
+    String getterName(ExecutableElement m) {
+        String name = m.getSimpleName().toString();
+        TypeMirror returnType = m.getReturnType();
+        if (name.startsWith("get") && name.length() >= 4 && returnType.getKind() != TypeKind.VOID && m.getParameters().isEmpty()) {
+            return Character.toLowerCase(name.charAt(3)) + name.substring(4);
+        }
+        if (name.startsWith("is") && name.length() >= 3 && (returnType.getKind() == TypeKind.BOOLEAN || returnType.toString().equals("java.lang.Boolean"))
+                && m.getParameters().isEmpty()) {
+            return Character.toLowerCase(name.charAt(2)) + name.substring(3);
+        }
+        return null;
+    }
+
+    /**
+     * Get property name of setter. "setName" -> "name".
+     */
+    String setterName(ExecutableElement m) {
+        String name = m.getSimpleName().toString();
+        if (name.startsWith("set") && name.length() >= 4 && m.getReturnType().getKind() == TypeKind.VOID && m.getParameters().size() == 1) {
+            return Character.toLowerCase(name.charAt(3)) + name.substring(4);
+        }
+        return null;
+    }
+
+    /**
+     * Get erased type as source, e.g. "int", "java.util.List", "java.lang.String[]".
+     */
+    String typeLiteral(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return typeLiteral(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+        }
+        return erased.toString();
+    }
+
+    /**
+     * Convert Object value to property type. Primitive number is converted from
+     * any Number.
+     */
+    String unbox(TypeMirror type, String value) {
+        switch (type.getKind()) {
+        case BOOLEAN:
+            return "(Boolean) " + value;
+        case CHAR:
+            return "(Character) " + value;
+        case BYTE:
+        case SHORT:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+            return "((Number) " + value + ")." + type.getKind().name().toLowerCase() + "Value()";
+        default:
+            String literal = typeLiteral(type);
+            return literal.equals("java.lang.Object") ? value : "(" + literal + ") " + value;
+        }
+    }
+
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                sb.append('\\');
+            }
+            sb.append(ch);
+        }
+        return sb.append('"').toString();
+    }
+
+    static String join(List<Property> properties, java.util.function.Function<Property, String> fn) {
+        List<String> list = new ArrayList<>(properties.size());
+        for (Property p : properties) {
+            list.add(fn.apply(p));
+        }
+        return String.join(", ", list);
+    }
+}
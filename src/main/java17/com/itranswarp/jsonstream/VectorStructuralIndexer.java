@@ -0,0 +1,159 @@
+package com.itranswarp.jsonstream;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Find structural chars by the Vector API, which classifies 64 bytes per
+ * block as two 256-bit vectors, and keeps each class as a bitmap of long.
+ * Bitmaps of quotes, backslashes and in-string ranges are carried across
+ * blocks, so a string can span any number of blocks.
+ *
+ * @author Michael Liao
+ */
+class VectorStructuralIndexer extends StructuralIndexer {
+
+    static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_256;
+
+    static final int BLOCK_SIZE = 64;
+
+    // class bits of a byte:
+    static final byte QUOTE = 0x01;
+    static final byte BACKSLASH = 0x02;
+    static final byte OP = 0x04;
+    static final byte WS = 0x08;
+
+    static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    @Override
+    void index(byte[] data, int start, int end, Positions positions) {
+        // states carried across blocks:
+        long prevEscaped = 0L;
+        long prevInString = 0L;
+        long prevScalar = 0L;
+        int count = positions.count;
+        int offset = start;
+        byte[] tail = null;
+        byte[] classes = new byte[BLOCK_SIZE];
+        while (offset < end) {
+            byte[] block = data;
+            int blockStart = offset;
+            if (end - offset < BLOCK_SIZE) {
+                // pad the last block with white spaces:
+                tail = new byte[BLOCK_SIZE];
+                Arrays.fill(tail, (byte) ' ');
+                System.arraycopy(data, offset, tail, 0, end - offset);
+                block = tail;
+                blockStart = 0;
+            }
+            classify(ByteVector.fromArray(SPECIES, block, blockStart), classes, 0);
+            classify(ByteVector.fromArray(SPECIES, block, blockStart + 32), classes, 32);
+            long quote = 0L;
+            long backslash = 0L;
+            long op = 0L;
+            long ws = 0L;
+            for (int i = 0; i < BLOCK_SIZE; i += 8) {
+                long x = (long) LONGS.get(classes, i);
+                quote |= movemask(x) << i;
+                backslash |= movemask(x >>> 1) << i;
+                op |= movemask(x >>> 2) << i;
+                ws |= movemask(x >>> 3) << i;
+            }
+
+            // unescaped quotes:
+            long escaped = escapedBits(backslash, prevEscaped);
+            prevEscaped = nextEscaped(backslash, escaped);
+            quote &= ~escaped;
+
+            // chars between an opening quote (inclusive) and a closing quote (exclusive):
+            long inString = prefixXor(quote) ^ prevInString;
+            prevInString = inString >> 63;
+
+            // first chars of numbers and literals:
+            long scalar = ~(op | ws | quote | inString);
+            long scalarStart = scalar & ~((scalar << 1) | prevScalar);
+            prevScalar = scalar >>> 63;
+
+            long structurals = (op & ~inString) | (quote & inString) | scalarStart;
+            if (tail != null) {
+                structurals &= (1L << (end - offset)) - 1L;
+            }
+            if (structurals != 0L) {
+                positions.count = count;
+                int[] array = positions.require(Long.bitCount(structurals));
+                do {
+                    array[count++] = offset + Long.numberOfTrailingZeros(structurals);
+                    structurals &= structurals - 1L;
+                } while (structurals != 0L);
+            }
+            offset += BLOCK_SIZE;
+        }
+        positions.count = count;
+    }
+
+    /**
+     * Store class bits of 32 bytes to classes[offset, offset + 32).
+     */
+    static void classify(ByteVector v, byte[] classes, int offset) {
+        ByteVector.zero(SPECIES) //
+                .blend(QUOTE, v.eq((byte) '\"')) //
+                .blend(BACKSLASH, v.eq((byte) '\\')) //
+                .blend(OP, v.eq((byte) '{').or(v.eq((byte) '}')).or(v.eq((byte) '[')).or(v.eq((byte) ']')).or(v.eq((byte) ':'))
+                        .or(v.eq((byte) ','))) //
+                .blend(WS, v.eq((byte) ' ').or(v.eq((byte) '\t')).or(v.eq((byte) '\n')).or(v.eq((byte) '\r'))) //
+                .intoArray(classes, offset);
+    }
+
+    /**
+     * Gather the lowest bit of 8 bytes into 8 bits, which is faster than
+     * VectorMask.toLong() on Java 17.
+     */
+    static long movemask(long x) {
+        return ((x & 0x0101010101010101L) * 0x0102040810204080L) >>> 56;
+    }
+
+    /**
+     * Return bits of chars escaped by a backslash. An odd-length run of
+     * backslashes escapes the next char, and an even-length run does not.
+     */
+    static long escapedBits(long backslash, long prevEscaped) {
+        // first char is escaped by the last backslash of previous block:
+        long escaped = prevEscaped;
+        long bs = backslash & ~prevEscaped;
+        while (bs != 0L) {
+            long b = bs & -bs;
+            // the next char is escaped and cannot start an escape:
+            long next = b << 1;
+            escaped |= next;
+            bs &= ~(b | next);
+        }
+        return escaped;
+    }
+
+    /**
+     * Return 1 if the last char of block is a backslash which escapes the
+     * first char of next block.
+     */
+    static long nextEscaped(long backslash, long escaped) {
+        return (backslash & ~escaped) >>> 63;
+    }
+
+    /**
+     * Bit i of result is the xor of bit 0 ~ i, which turns quote bits into
+     * in-string bits.
+     */
+    static long prefixXor(long bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        bits ^= bits << 8;
+        bits ^= bits << 16;
+        bits ^= bits << 32;
+        return bits;
+    }
+}
@@ -0,0 +1,278 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of setting and getting bean properties by generated accessors,
+ * compared with Field.set() and Field.get(), and of reading and writing a
+ * bean-heavy JSON array.
+ *
+ * Properties of Trade are fields, which are accessed by MethodHandle, and
+ * properties of TradeBean have getters and setters, which are called by
+ * lambda generated by LambdaMetafactory, as PropertyAccessorsTest asserts.
+ *
+ * Run main() with the test classpath after mvn test-compile.
+ *
+ * @author Michael Liao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanAccessBenchmark {
+
+    static final int COUNT = 1000;
+
+    @Param({ "field", "method" })
+    String access;
+
+    Class<?> beanClass;
+    Supplier<Object> factory;
+    Class<?> listClass;
+    String json;
+    List<Object> trades;
+    String[] names;
+    Object[] values;
+    Field[] fields;
+    PropertyAccessors.Setter[] setters;
+    PropertyGetter[] getters;
+
+    @Setup
+    public void setUp() throws Throwable {
+        beanClass = access.equals("field") ? Trade.class : TradeBean.class;
+        factory = access.equals("field") ? Trade::new : TradeBean::new;
+        listClass = access.equals("field") ? TradeList.class : TradeBeanList.class;
+        names = new String[] { "id", "quantity", "price", "symbol", "buy", "venue", "fee", "lot" };
+        values = new Object[] { 123L, 45, 6.5, "ABC", true, "XNYS", 0.5, 7 };
+        fields = new Field[names.length];
+        setters = new PropertyAccessors.Setter[names.length];
+        getters = new PropertyGetter[names.length];
+        PropertyGetters pgs = new PropertyGetters(beanClass);
+        for (int i = 0; i < names.length; i++) {
+            fields[i] = beanClass.getDeclaredField(names[i]);
+            fields[i].setAccessible(true);
+            Member member = access.equals("field") ? fields[i]
+                    : beanClass.getMethod("set" + Character.toUpperCase(names[i].charAt(0)) + names[i].substring(1), fields[i].getType());
+            setters[i] = member instanceof Method ? PropertyAccessors.newSetter((Method) member) : PropertyAccessors.newSetter((Field) member);
+            getters[i] = pgs.getPropertyGetter(names[i]);
+        }
+        trades = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            Object t = factory.get();
+            setters[0].setLong(t, 100000L + i);
+            setters[1].setInt(t, i % 100);
+            setters[2].setDouble(t, 10.25 + i);
+            setters[3].set(t, "SYM" + (i % 50));
+            setters[4].setBoolean(t, i % 2 == 0);
+            setters[5].set(t, "XNAS");
+            setters[6].setDouble(t, i * 0.01);
+            setters[7].setInt(t, i % 10);
+            trades.add(t);
+        }
+        json = "{\"trades\":" + new JsonBuilder().createWriter().write(trades).toString() + "}";
+    }
+
+    @Benchmark
+    public Object setByAccessor() throws Throwable {
+        Object t = factory.get();
+        for (int i = 0; i < setters.length; i++) {
+            setters[i].set(t, values[i]);
+        }
+        return t;
+    }
+
+    @Benchmark
+    public Object setPrimitivesByAccessor() throws Throwable {
+        Object t = factory.get();
+        setters[0].setLong(t, 123L);
+        setters[1].setInt(t, 45);
+        setters[2].setDouble(t, 6.5);
+        setters[3].set(t, "ABC");
+        setters[4].setBoolean(t, true);
+        setters[5].set(t, "XNYS");
+        setters[6].setDouble(t, 0.5);
+        setters[7].setInt(t, 7);
+        return t;
+    }
+
+    @Benchmark
+    public Object setByReflection() throws Exception {
+        Object t = factory.get();
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].set(t, values[i]);
+        }
+        return t;
+    }
+
+    @Benchmark
+    public void getByAccessor(Blackhole bh) throws Exception {
+        Object t = trades.get(0);
+        for (int i = 0; i < getters.length; i++) {
+            bh.consume(getters[i].getProperty(t));
+        }
+    }
+
+    @Benchmark
+    public void getByReflection(Blackhole bh) throws Exception {
+        Object t = trades.get(0);
+        for (int i = 0; i < fields.length; i++) {
+            bh.consume(fields[i].get(t));
+        }
+    }
+
+    @Benchmark
+    public Object readBeans() throws IOException {
+        return new JsonBuilder().useStreamingBinding(true).createReader(json).parse(listClass);
+    }
+
+    @Benchmark
+    public Object readBeansByMap() throws IOException {
+        return new JsonBuilder().createReader(json).parse(listClass);
+    }
+
+    @Benchmark
+    public Object writeBeans() throws IOException {
+        StringWriter writer = new StringWriter(json.length());
+        new JsonBuilder().createWriter(writer).write(trades);
+        return writer;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BeanAccessBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    public static class Trade {
+        long id;
+        int quantity;
+        double price;
+        String symbol;
+        boolean buy;
+        String venue;
+        double fee;
+        int lot;
+    }
+
+    /**
+     * Root bean holding the array, since parse(Class) binds JSON object only.
+     */
+    public static class TradeList {
+        List<Trade> trades;
+
+        void setTrades(List<Trade> trades) {
+            this.trades = trades;
+        }
+    }
+
+    public static class TradeBean {
+        long id;
+        int quantity;
+        double price;
+        String symbol;
+        boolean buy;
+        String venue;
+        double fee;
+        int lot;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public void setSymbol(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public boolean isBuy() {
+            return buy;
+        }
+
+        public void setBuy(boolean buy) {
+            this.buy = buy;
+        }
+
+        public String getVenue() {
+            return venue;
+        }
+
+        public void setVenue(String venue) {
+            this.venue = venue;
+        }
+
+        public double getFee() {
+            return fee;
+        }
+
+        public void setFee(double fee) {
+            this.fee = fee;
+        }
+
+        public int getLot() {
+            return lot;
+        }
+
+        public void setLot(int lot) {
+            this.lot = lot;
+        }
+    }
+
+    public static class TradeBeanList {
+        List<TradeBean> trades;
+
+        public List<TradeBean> getTrades() {
+            return trades;
+        }
+
+        public void setTrades(List<TradeBean> trades) {
+            this.trades = trades;
+        }
+    }
+}
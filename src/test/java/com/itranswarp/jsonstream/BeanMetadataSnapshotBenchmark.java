@@ -0,0 +1,122 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of startup, which resolves metadata of bean classes by warmUp, or
+ * loads setters and getters from a snapshot, which creates accessors when
+ * first used, or does both. Bean classes are loaded by a new ClassLoader for
+ * each invocation, so metadata is never resolved before.
+ *
+ * Run main() with the test classpath after mvn test-compile.
+ *
+ * @author Michael Liao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 100)
+@Fork(1)
+public class BeanMetadataSnapshotBenchmark {
+
+    static final Set<String> BEAN_CLASSES = Set.of(AccessorBean.class.getName(), AllTypes.class.getName(), Bean.class.getName(),
+            Nested.class.getName(), Order.class.getName(), Item.class.getName(), Person.class.getName(), ProductOrder.class.getName(),
+            ShipAddress.class.getName(), Payment.class.getName(), AbstractUser.class.getName(), User.class.getName(), Address.class.getName(),
+            Friend.class.getName(), BeanAccessBenchmark.Trade.class.getName(), BeanAccessBenchmark.TradeBean.class.getName());
+
+    String snapshot;
+    ClassLoader loader;
+    List<Class<?>> classes;
+
+    @Setup(Level.Trial)
+    public void writeSnapshot() throws Exception {
+        List<Class<?>> list = new ArrayList<>();
+        for (String name : BEAN_CLASSES) {
+            list.add(Class.forName(name));
+        }
+        StringWriter writer = new StringWriter();
+        BeanMetadataSnapshot.write(writer, list.toArray(new Class<?>[list.size()]));
+        snapshot = writer.toString();
+    }
+
+    @Setup(Level.Invocation)
+    public void loadClasses() throws Exception {
+        loader = new BeansClassLoader();
+        classes = new ArrayList<>();
+        for (String name : BEAN_CLASSES) {
+            classes.add(loader.loadClass(name));
+        }
+    }
+
+    @Benchmark
+    public Object warmUp() {
+        return BeanMetadata.warmUp(classes);
+    }
+
+    @Benchmark
+    public int loadSnapshot() throws IOException {
+        return BeanMetadataSnapshot.load(new StringReader(snapshot), loader);
+    }
+
+    @Benchmark
+    public Object loadSnapshotAndWarmUp() throws IOException {
+        BeanMetadataSnapshot.load(new StringReader(snapshot), loader);
+        return BeanMetadata.warmUp(classes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BeanMetadataSnapshotBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Define bean classes again from class files of parent ClassLoader.
+     */
+    static class BeansClassLoader extends ClassLoader {
+
+        BeansClassLoader() {
+            super(BeanMetadataSnapshotBenchmark.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!BEAN_CLASSES.contains(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    try (InputStream input = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = input.readAllBytes();
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return clazz;
+            }
+        }
+    }
+}
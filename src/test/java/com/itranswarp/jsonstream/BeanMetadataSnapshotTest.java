@@ -0,0 +1,112 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.itranswarp.jsonstream.BeanMetadataTest.IsolatedClassLoader;
+import com.itranswarp.jsonstream.bean.NonPublicBean;
+
+public class BeanMetadataSnapshotTest {
+
+    @Test
+    public void testWarmUpNestedClasses() throws Exception {
+        Set<Class<?>> resolved = BeanMetadata.warmUp(List.of(Order.class));
+        // Item and Person are found from List<Item> and Person:
+        assertEquals(Set.of(Order.class, Item.class, Person.class), resolved);
+        new JsonBuilder().warmUp(Order.class);
+    }
+
+    @Test
+    public void testWarmUpPackage() throws Exception {
+        assertEquals(List.of(NonPublicBean.class), PropertyUtils.findClasses("com.itranswarp.jsonstream.bean", getClass().getClassLoader()));
+        new JsonBuilder().warmUp("com.itranswarp.jsonstream.bean");
+        assertNotNull(BeanMetadata.of(NonPublicBean.class).getSetters().getPropertySetter("id"));
+    }
+
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        StringWriter writer = new StringWriter();
+        BeanMetadataSnapshot.write(writer, AccessorBean.class);
+        String snapshot = writer.toString();
+        assertTrue(snapshot.contains("\"com.itranswarp.jsonstream.AccessorBean#setAge(int)\""));
+        assertTrue(snapshot.contains("\"com.itranswarp.jsonstream.AccessorBean#getId()\""));
+        assertTrue(snapshot.contains("\"com.itranswarp.jsonstream.AccessorBean#weight\""));
+
+        // load by another ClassLoader which has not resolved AccessorBean:
+        ClassLoader loader = new IsolatedClassLoader();
+        assertEquals(1, BeanMetadataSnapshot.load(new StringReader(snapshot), loader));
+        Class<?> clazz = loader.loadClass(AccessorBean.class.getName());
+        assertNotSame(AccessorBean.class, clazz);
+        PropertySetters pss = BeanMetadata.of(clazz).getSetters();
+        PropertyGetters pgs = BeanMetadata.of(clazz).getGetters();
+        assertEquals(PropertySetters.findSetters(clazz), pss.members);
+        assertEquals(PropertyGetters.findGetters(clazz), pgs.members);
+        Object bean = new JsonBuilder().createReader("{\"age\": 20, \"id\": 1, \"name\": \"Bob\"}").parse(clazz);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) new JsonBuilder().createReader(new JsonBuilder().createWriter().write(bean).toString())
+                .parse();
+        assertEquals(20L, map.get("age"));
+        assertEquals(1L, map.get("id"));
+        assertEquals("Bob!", map.get("name"));
+    }
+
+    @Test
+    public void testLoadOutOfDateSnapshot() throws Exception {
+        String snapshot = "{\"beans\": [{\"class\": \"com.itranswarp.jsonstream.AccessorBean\","
+                + " \"setters\": {\"age\": \"com.itranswarp.jsonstream.AccessorBean#setAge(long)\"}, \"getters\": {}},"
+                + " {\"class\": \"com.example.NotFound\", \"setters\": {}, \"getters\": {}}]}";
+        ClassLoader loader = new IsolatedClassLoader();
+        assertEquals(0, BeanMetadataSnapshot.load(new StringReader(snapshot), loader));
+        // scanned when used:
+        Class<?> clazz = loader.loadClass(AccessorBean.class.getName());
+        assertEquals(PropertySetters.findSetters(clazz), BeanMetadata.of(clazz).getSetters().members);
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        String fingerprint = BeanMetadataSnapshot.fingerprint(AccessorBean.class);
+        assertNotNull(fingerprint);
+        // same class file loaded by another ClassLoader:
+        assertEquals(fingerprint, BeanMetadataSnapshot.fingerprint(new IsolatedClassLoader().loadClass(AccessorBean.class.getName())));
+        // class generated at runtime has no class file:
+        Runnable r = () -> {
+        };
+        assertNull(BeanMetadataSnapshot.fingerprint(r.getClass()));
+    }
+
+    @Test
+    public void testLoadSnapshotOfChangedClass() throws Exception {
+        StringWriter writer = new StringWriter();
+        BeanMetadataSnapshot.write(writer, SnapshotBean.class);
+        assertTrue(writer.toString().contains("\"fingerprint\":\"" + BeanMetadataSnapshot.fingerprint(SnapshotBean.class) + "\""));
+        // same members except property "email" added after snapshot is written:
+        String snapshot = writer.toString().replace("SnapshotBean", "ChangedSnapshotBean");
+        assertNotEquals(BeanMetadataSnapshot.fingerprint(SnapshotBean.class), BeanMetadataSnapshot.fingerprint(ChangedSnapshotBean.class));
+        assertEquals(0, BeanMetadataSnapshot.load(new StringReader(snapshot), getClass().getClassLoader()));
+        String fingerprint = BeanMetadataSnapshot.fingerprint(SnapshotBean.class);
+        assertEquals(0, BeanMetadataSnapshot.load(new StringReader(writer.toString().replace(fingerprint, "0")), new IsolatedClassLoader()));
+        // scanned when used:
+        assertEquals(Set.of("id", "name", "email"), BeanMetadata.of(ChangedSnapshotBean.class).getSetters().map.keySet());
+        ChangedSnapshotBean bean = new JsonBuilder().createReader("{\"id\": 1, \"name\": \"Bob\", \"email\": \"bob@example.com\"}")
+                .parse(ChangedSnapshotBean.class);
+        assertEquals("bob@example.com", bean.email);
+    }
+
+    public static class SnapshotBean {
+        public long id;
+        public String name;
+    }
+
+    public static class ChangedSnapshotBean {
+        public long id;
+        public String name;
+        public String email;
+    }
+}
@@ -0,0 +1,111 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class BeanMetadataTest {
+
+    @Test
+    public void testSharedByReadersAndWriters() throws Exception {
+        BeanMetadata metadata = BeanMetadata.of(AccessorBean.class);
+        assertSame(metadata, BeanMetadata.of(AccessorBean.class));
+        PropertyGetters pgs = metadata.getGetters();
+        new JsonBuilder().createWriter().write(new AccessorBean());
+        new JsonBuilder().createWriter().write(new AccessorBean());
+        assertSame(pgs, metadata.getGetters());
+        PropertySetters pss = metadata.getSetters();
+        new JsonBuilder().createReader("{\"age\": 1}").parse(AccessorBean.class);
+        new JsonBuilder().useStreamingBinding(true).createReader("{\"age\": 2}").parse(AccessorBean.class);
+        assertSame(pss, metadata.getSetters());
+        assertSame(metadata.getConstructor(), metadata.getConstructor());
+        assertTrue(metadata.newInstance() instanceof AccessorBean);
+    }
+
+    @Test
+    public void testConcurrentFirstAccess() throws Exception {
+        Class<?> clazz = new IsolatedClassLoader().loadClass(AccessorBean.class.getName());
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Object[]>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    BeanMetadata metadata = BeanMetadata.of(clazz);
+                    return new Object[] { metadata, metadata.getSetters(), metadata.getGetters() };
+                }));
+            }
+            start.countDown();
+            Object[] first = futures.get(0).get();
+            for (Future<Object[]> future : futures) {
+                Object[] result = future.get();
+                for (int i = 0; i < first.length; i++) {
+                    assertSame(first[i], result[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCollectedWithClassLoader() throws Exception {
+        WeakReference<ClassLoader> ref = loadAndWrite();
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull("ClassLoader is not collected.", ref.get());
+    }
+
+    WeakReference<ClassLoader> loadAndWrite() throws Exception {
+        ClassLoader loader = new IsolatedClassLoader();
+        Class<?> clazz = loader.loadClass(AccessorBean.class.getName());
+        Object bean = BeanMetadata.of(clazz).newInstance();
+        BeanMetadata.of(clazz).getSetters().getPropertySetter("age").setInt(bean, 20);
+        assertTrue(new JsonBuilder().createWriter().write(bean).toString().contains("\"age\":20"));
+        return new WeakReference<>(loader);
+    }
+
+    /**
+     * Load AccessorBean by itself as a class different from the one of
+     * application ClassLoader.
+     */
+    static class IsolatedClassLoader extends ClassLoader {
+
+        IsolatedClassLoader() {
+            super(BeanMetadataTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(AccessorBean.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    try (InputStream input = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = input.readAllBytes();
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return clazz;
+            }
+        }
+    }
+}
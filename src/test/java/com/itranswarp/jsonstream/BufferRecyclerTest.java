@@ -0,0 +1,153 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class BufferRecyclerTest {
+
+    String createJsonArray(int size) {
+        StringBuilder sb = new StringBuilder(size * 10);
+        sb.append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('\"').append(i).append("中\"");
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    @Test
+    public void testRecycleCharBuffer() throws Exception {
+        assertSame(BufferRecycler.get(), BufferRecycler.get());
+        BufferRecycler recycler = new BufferRecycler();
+        char[] buf = recycler.allocCharBuffer(100);
+        recycler.releaseCharBuffer(buf);
+        assertSame(buf, recycler.allocCharBuffer(50));
+        // pool is empty now:
+        assertNotSame(buf, recycler.allocCharBuffer(50));
+        // pooled by size class:
+        char[] larger = new char[buf.length * 4];
+        recycler.releaseCharBuffer(larger);
+        recycler.releaseCharBuffer(buf);
+        assertSame(buf, recycler.allocCharBuffer(100));
+        assertSame(larger, recycler.allocCharBuffer(400));
+        // too large to pool:
+        char[] huge = new char[BufferRecycler.MAX_POOLED_SIZE * 2];
+        recycler.releaseCharBuffer(huge);
+        assertNotSame(huge, recycler.allocCharBuffer(huge.length));
+    }
+
+    @Test
+    public void testAllocFromNextSizeClass() throws Exception {
+        BufferRecycler recycler = new BufferRecycler();
+        byte[] buf = new byte[1024];
+        recycler.releaseByteBuffer(buf);
+        // 1000 is in class of 512, so take 1024 from next class:
+        assertSame(buf, recycler.allocByteBuffer(1000));
+        byte[] odd = new byte[1000];
+        recycler.releaseByteBuffer(odd);
+        assertNotSame(odd, recycler.allocByteBuffer(1020));
+        assertSame(odd, recycler.allocByteBuffer(1000));
+    }
+
+    @Test
+    public void testRecyclerPerThread() throws Exception {
+        BufferRecycler recycler = BufferRecycler.get();
+        AtomicReference<BufferRecycler> other = new AtomicReference<>();
+        Thread t = new Thread(() -> {
+            other.set(BufferRecycler.get());
+        });
+        t.start();
+        t.join();
+        assertNotNull(other.get());
+        assertNotSame(recycler, other.get());
+    }
+
+    @Test
+    public void testBufferGrowsAndIsReused() throws Exception {
+        BufferRecycler.recyclers.remove();
+        String json = createJsonArray(10000);
+        JsonReader reader = new JsonBuilder().createReader(new StringReader(json));
+        List<?> list = (List<?>) reader.parse();
+        assertEquals(10000, list.size());
+        // grown buffer is released after parse:
+        assertNull(reader.reader.reader.buffer);
+        // small buffer is still pooled for small documents:
+        char[] small = BufferRecycler.get().allocCharBuffer(CharReader.BUFFER_SIZE);
+        assertEquals(CharReader.BUFFER_SIZE, small.length);
+        BufferRecycler.get().releaseCharBuffer(small);
+        // size hint is the first document:
+        assertEquals(CharReader.MAX_BUFFER_SIZE, BufferRecycler.get().sizeHint);
+        BufferRecycler.get().sizeHint = 0;
+        CharReader next = new CharReader(new StringReader("[]"));
+        assertSame(small, next.buffer);
+        // and grown buffer is pooled in its own size class:
+        char[] grown = BufferRecycler.get().charBuffers[BufferRecycler.sizeClass(CharReader.MAX_BUFFER_SIZE)];
+        assertNotNull(grown);
+        assertEquals(CharReader.MAX_BUFFER_SIZE, grown.length);
+    }
+
+    @Test
+    public void testSizeHint() throws Exception {
+        BufferRecycler recycler = new BufferRecycler();
+        assertEquals(CharReader.BUFFER_SIZE, recycler.readBufferSize(CharReader.BUFFER_SIZE));
+        recycler.recordSize(3000);
+        assertEquals(4096, recycler.sizeHint);
+        // one size class per document:
+        recycler.recordSize(60000);
+        assertEquals(8192, recycler.sizeHint);
+        recycler.recordSize(60000);
+        recycler.recordSize(60000);
+        recycler.recordSize(60000);
+        assertEquals(65536, recycler.sizeHint);
+        recycler.recordSize(BufferRecycler.MAX_POOLED_SIZE * 10);
+        assertEquals(65536, recycler.sizeHint);
+        recycler.recordSize(100);
+        assertEquals(32768, recycler.sizeHint);
+        assertEquals(32768, recycler.readBufferSize(CharReader.BUFFER_SIZE));
+        for (int i = 0; i < 10; i++) {
+            recycler.recordSize(100);
+        }
+        assertEquals(CharReader.BUFFER_SIZE, recycler.readBufferSize(CharReader.BUFFER_SIZE));
+    }
+
+    @Test
+    public void testAllocBySizeHint() throws Exception {
+        BufferRecycler.recyclers.remove();
+        String json = createJsonArray(500);
+        byte[] data = json.getBytes(StandardCharsets.UTF_8);
+        JsonBuilder builder = new JsonBuilder();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(500, ((List<?>) builder.createReader(new StringReader(json)).parse()).size());
+            assertEquals(500, ((List<?>) builder.createReader(new ByteArrayInputStream(data)).parse()).size());
+        }
+        // document is read into one buffer without growing:
+        int expected = Integer.highestOneBit(data.length) << 1;
+        assertEquals(expected, BufferRecycler.get().sizeHint);
+        assertEquals(expected, new CharReader(new StringReader(json)).buffer.length);
+        assertEquals(expected, new ByteCharReader(new ByteArrayInputStream(data)).bytes.length);
+    }
+
+    @Test
+    public void testParseWithSmallBufferSize() throws Exception {
+        String json = createJsonArray(1000);
+        JsonBuilder builder = new JsonBuilder().useBufferSize(7);
+        assertEquals(1000, ((List<?>) builder.createReader(new StringReader(json)).parse()).size());
+        assertEquals(1000, ((List<?>) builder.createReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))).parse()).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBufferSize() throws Exception {
+        new JsonBuilder().useBufferSize(0);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class ByteBufferCharReaderTest {
+
+    static final String JSON = "{\"name\":\"English中文\", \"emoji\": \"😀\\u4E2d\", \"list\": [12345, -2.5e-3, true, null, \"é\"], \"nested\": {\"a\": [[]]}}";
+
+    ByteBuffer[] split(byte[] data, int chunkSize, boolean direct) {
+        int n = (data.length + chunkSize - 1) / chunkSize;
+        ByteBuffer[] buffers = new ByteBuffer[n + 1];
+        for (int i = 0; i < n; i++) {
+            int offset = i * chunkSize;
+            int length = Math.min(chunkSize, data.length - offset);
+            ByteBuffer bb = direct ? ByteBuffer.allocateDirect(length + 2) : ByteBuffer.allocate(length + 2);
+            // content between position and limit:
+            bb.put((byte) '#').put(data, offset, length).put((byte) '#');
+            bb.position(1).limit(1 + length);
+            buffers[i] = bb;
+        }
+        // an empty buffer at the end:
+        buffers[n] = ByteBuffer.allocate(0);
+        return buffers;
+    }
+
+    @Test
+    public void testParseSingleBuffer() throws Exception {
+        Object expected = new JsonReader(new StringReader(JSON), null, null, null, null).parse();
+        byte[] data = JSON.getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected, new JsonBuilder().createReader(ByteBuffer.wrap(data)).parse());
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).flip();
+        assertEquals(expected, new JsonBuilder().createReader(direct).parse());
+        // position is not changed:
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void testParseScatterBuffers() throws Exception {
+        Object expected = new JsonReader(new StringReader(JSON), null, null, null, null).parse();
+        byte[] data = JSON.getBytes(StandardCharsets.UTF_8);
+        // tokens and multi-byte chars span chunks:
+        for (int chunkSize = 1; chunkSize <= 16; chunkSize++) {
+            assertEquals(expected, new JsonBuilder().createReader(split(data, chunkSize, false)).parse());
+            assertEquals(expected, new JsonBuilder().createReader(split(data, chunkSize, true)).parse());
+        }
+    }
+
+    @Test
+    public void testReadEmptyBuffers() throws Exception {
+        ByteBufferCharReader reader = new ByteBufferCharReader(ByteBuffer.allocate(0), ByteBuffer.allocateDirect(0));
+        assertFalse(reader.hasMore());
+        try {
+            reader.next();
+            fail("Not caught ParseException!");
+        } catch (JsonParseException e) {
+            assertEquals("EOF", e.getMessage());
+        }
+    }
+
+}
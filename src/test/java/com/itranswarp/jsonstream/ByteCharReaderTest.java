@@ -0,0 +1,93 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ByteCharReaderTest {
+
+    String createString(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        String block = "abc中文def😀.";
+        while (sb.length() < length) {
+            sb.append(block);
+        }
+        sb.setLength(length);
+        if (length > 0 && Character.isHighSurrogate(sb.charAt(length - 1))) {
+            // do not break a surrogate pair:
+            sb.setCharAt(length - 1, 'x');
+        }
+        return sb.toString();
+    }
+
+    String readAll(CharReader reader) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        while (reader.hasMore()) {
+            char ch = reader.peek();
+            assertEquals(ch, reader.next());
+            sb.append(ch);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testReadFromBytes() throws Exception {
+        String input = createString(2000);
+        byte[] data = input.getBytes(StandardCharsets.UTF_8);
+        assertEquals(input, readAll(new ByteCharReader(data, 0, data.length)));
+    }
+
+    @Test
+    public void testReadFromInputStream() throws Exception {
+        List<Integer> lengths = Arrays.asList(0, 1, CharReader.BUFFER_SIZE - 1, CharReader.BUFFER_SIZE, CharReader.BUFFER_SIZE + 1,
+                10 * CharReader.BUFFER_SIZE + 7);
+        for (int length : lengths) {
+            // multi-byte chars may cross the buffer boundary:
+            String input = createString(length);
+            byte[] data = input.getBytes(StandardCharsets.UTF_8);
+            ByteCharReader reader = new ByteCharReader(new ByteArrayInputStream(data));
+            assertEquals(input, readAll(reader));
+            try {
+                reader.next();
+                fail("Not caught ParseException!");
+            } catch (JsonParseException e) {
+                assertEquals("EOF", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedBytesSameAsInputStreamReader() throws Exception {
+        byte[][] tests = { { 'a', (byte) 0x80, 'b' }, { 'a', (byte) 0xc3 }, { (byte) 0xc3, 'b' }, { (byte) 0xe4, (byte) 0xb8, 'c' },
+                { (byte) 0xe0, (byte) 0x80, (byte) 0x80 }, { (byte) 0xed, (byte) 0xa0, (byte) 0x80 }, { (byte) 0xf0, (byte) 0x9f, (byte) 0x98 },
+                { (byte) 0xf5, 'x' }, { (byte) 0xff } };
+        for (byte[] data : tests) {
+            StringBuilder expected = new StringBuilder();
+            InputStreamReader isr = new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8);
+            int n;
+            while ((n = isr.read()) != (-1)) {
+                expected.append((char) n);
+            }
+            assertEquals(expected.toString(), readAll(new ByteCharReader(data, 0, data.length)));
+        }
+    }
+
+    @Test
+    public void testParseSameAsCharReader() throws Exception {
+        String[] tests = { "{\"name\":\"English中文\", \"emoji\": \"😀\\u4E2d\", \"list\": [1, 2.5, true, null, \"é\"]}", "\"¢€𐍈\"",
+                " [ -1.5e3, {} ] " };
+        for (String s : tests) {
+            Object expected = new JsonReader(new StringReader(s), null, null, null, null).parse();
+            assertEquals(expected, new JsonBuilder().createReader(s.getBytes(StandardCharsets.UTF_8)).parse());
+            assertEquals(expected, new JsonBuilder().createReader(new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8))).parse());
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ByteCharWriterTest {
+
+    static final String UNICODE = "Aé中文😀Z";
+
+    List<Object> createMessages(int count) {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", i);
+            map.put("名字", "Name\t" + i + " 中文😀");
+            list.add(map);
+        }
+        return list;
+    }
+
+    @Test
+    public void testWriteAscii() throws Exception {
+        ByteCharWriter bw = new ByteCharWriter(4);
+        bw.write('{');
+        bw.write("abcdefghij");
+        bw.write(new char[] { 'x', 'y', 'z' });
+        bw.write('}');
+        assertEquals("{abcdefghijxyz}", bw.toString());
+    }
+
+    @Test
+    public void testWriteUnicode() throws Exception {
+        ByteCharWriter bw = new ByteCharWriter(4);
+        bw.write(UNICODE);
+        bw.write(UNICODE.toCharArray());
+        bw.write('中');
+        assertArrayEquals((UNICODE + UNICODE + "中").getBytes(StandardCharsets.UTF_8), bw.toBytes());
+    }
+
+    @Test
+    public void testWriteUnpairedSurrogate() throws Exception {
+        ByteCharWriter bw = new ByteCharWriter(4);
+        bw.write("a\ud83db\ude00");
+        assertEquals("a?b?", bw.toString());
+    }
+
+    @Test
+    public void testWriteString() throws Exception {
+        ByteCharWriter bw = new ByteCharWriter(4);
+        bw.writeString("A\"B\\C/D\b\f\n\r\t\u0001" + UNICODE);
+        assertEquals("\"A\\\"B\\\\C\\/D\\b\\f\\n\\r\\t\\u0001" + UNICODE + "\"", bw.toString());
+    }
+
+    @Test
+    public void testSameAsCharWriter() throws Exception {
+        List<Object> list = createMessages(100);
+        String expected = new JsonBuilder().createWriter().write(list).toString();
+        JsonWriter jw = new JsonBuilder().createUtf8Writer().write(list);
+        assertEquals(expected, jw.toString());
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), jw.toBytes());
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), new JsonBuilder().createWriter().write(list).toBytes());
+    }
+
+    @Test
+    public void testWriteToOutputStream() throws Exception {
+        List<Object> list = createMessages(1000);
+        String expected = new JsonBuilder().createWriter().write(list).toString();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonWriter jw = new JsonBuilder().createWriter(output);
+        jw.write(list);
+        assertSame(ByteCharWriter.EMPTY_BYTES, ((ByteCharWriter) jw.writer).bytes);
+        assertTrue(output.size() > CharWriter.BUFFER_SIZE);
+        assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+        try {
+            jw.toBytes();
+            fail("Should not get bytes");
+        } catch (RuntimeException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testWriteToChannel() throws Exception {
+        BufferRecycler.recyclers.remove();
+        List<Object> list = createMessages(5000);
+        String expected = new JsonBuilder().createWriter().write(list).toString();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CountingChannel channel = new CountingChannel(output);
+        JsonWriter jw = new JsonBuilder().createWriter(channel);
+        jw.write(list);
+        assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+        // full blocks are written by gathering writes:
+        int blocks = (output.size() + CharWriter.BUFFER_SIZE - 1) / CharWriter.BUFFER_SIZE;
+        assertTrue(blocks > ByteBufferCharWriter.MAX_GATHER);
+        assertTrue(channel.gatheringWrites < blocks);
+        assertEquals(0, ((ByteBufferCharWriter) jw.writer).pendingCount);
+        assertFalse(BufferRecycler.get().directBuffers.isEmpty());
+        assertTrue(BufferRecycler.get().directBuffers.peek().isDirect());
+    }
+
+    @Test
+    public void testEncodeToDirectBuffer() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteBufferCharWriter bw = new ByteBufferCharWriter(Channels.newChannel(output), 4);
+        bw.write('{');
+        bw.write("abcdefghij");
+        bw.write(UNICODE.toCharArray());
+        bw.writeString("A\"B\n\u0001" + UNICODE);
+        bw.write("a\ud83db", 0, 3);
+        bw.writeLong(Long.MIN_VALUE);
+        bw.write('}');
+        bw.flush();
+        bw.release();
+        String expected = "{abcdefghij" + UNICODE + "\"A\\\"B\\n\\u0001" + UNICODE + "\"a?b" + Long.MIN_VALUE + "}";
+        assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testKeepUndersizedDirectBuffer() throws Exception {
+        BufferRecycler.recyclers.remove();
+        BufferRecycler recycler = BufferRecycler.get();
+        ByteBuffer small = ByteBuffer.allocateDirect(16);
+        recycler.releaseDirectBuffer(small);
+        ByteBuffer large = recycler.allocDirectBuffer(1024);
+        assertNotSame(small, large);
+        assertEquals(1024, large.capacity());
+        assertSame(small, recycler.allocDirectBuffer(16));
+    }
+
+    @Test
+    public void testWriteToNonGatheringChannel() throws Exception {
+        List<Object> list = createMessages(500);
+        String expected = new JsonBuilder().createWriter().write(list).toString();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonWriter jw = new JsonBuilder().createWriter(Channels.newChannel(output));
+        jw.write(list);
+        jw.write(null);
+        assertEquals(expected + "null", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteNumbers() throws Exception {
+        Object[] values = new Object[] { 123, -45L, (short) 6, (byte) -7, 1.5, 0.1f, Double.NaN, 1.2e56, Long.MIN_VALUE,
+                new int[] { 1, -2 }, new long[] { Long.MAX_VALUE }, new double[] { 0.0, -2.5e-10 }, new float[] { 1e7f },
+                new short[] { 8 }, new byte[] { -1, 0 }, new boolean[] { true, false } };
+        String expected = "[123,-45,6,-7,1.5,0.1,NaN,1.2E56,-9223372036854775808,[1, -2],[9223372036854775807],[0.0, -2.5E-10],[1.0E7],[8],[-1, 0],[true, false]]";
+        assertEquals(expected, new JsonBuilder().createWriter().write(values).toString());
+        assertEquals(expected, new JsonBuilder().createUtf8Writer().write(values).toString());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new JsonBuilder().createWriter(output).write(values);
+        assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteNumbersInSmallBlocks() throws Exception {
+        BufferRecycler.recyclers.remove();
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = -Double.MIN_NORMAL * i;
+        }
+        String expected = new JsonBuilder().createWriter().write(values).toString();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonWriter jw = new JsonWriter(new ByteCharWriter(output, 10), null);
+        jw.write(values);
+        assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    static class CountingChannel implements GatheringByteChannel {
+
+        final ByteArrayOutputStream output;
+        int gatheringWrites = 0;
+
+        CountingChannel(ByteArrayOutputStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            byte[] b = new byte[n];
+            src.get(b);
+            output.write(b, 0, n);
+            return n;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            gatheringWrites++;
+            long n = 0;
+            // write at most 3 buffers each time:
+            int written = 0;
+            for (int i = offset; i < offset + length && written < 3; i++) {
+                if (srcs[i].hasRemaining()) {
+                    n += write(srcs[i]);
+                    written++;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
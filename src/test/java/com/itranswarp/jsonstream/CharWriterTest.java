@@ -0,0 +1,133 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CharWriterTest {
+
+    @Test
+    public void testWriteToMemoryGrows() throws Exception {
+        CharWriter cw = new CharWriter(4);
+        cw.write('[');
+        cw.write("abcdefghij");
+        cw.write(new char[] { 'x', 'y', 'z' });
+        cw.write(']');
+        assertEquals("[abcdefghijxyz]", cw.toString());
+        assertTrue(cw.buffer.length >= 15);
+    }
+
+    @Test
+    public void testWriteString() throws Exception {
+        CharWriter cw = new CharWriter(4);
+        cw.writeString("A\"B\\C/D\b\f\n\r\tE");
+        assertEquals("\"A\\\"B\\\\C\\/D\\b\\f\\n\\r\\tE\"", cw.toString());
+    }
+
+    @Test
+    public void testWriteStringWithControlChars() throws Exception {
+        CharWriter cw = new CharWriter(16);
+        cw.writeString("\u0000-\u001f-\u007f");
+        assertEquals("\"\\u0000-\\u001f-\u007f\"", cw.toString());
+    }
+
+    @Test
+    public void testWriteStringWithUnicode() throws Exception {
+        CharWriter cw = new CharWriter(16);
+        cw.writeString("\u4e2d\u6587\ud83d\ude00/");
+        assertEquals("\"\u4e2d\u6587\ud83d\ude00\\/\"", cw.toString());
+    }
+
+    @Test
+    public void testWriteToWriterInBlocks() throws Exception {
+        BufferRecycler.recyclers.remove();
+        CountingWriter writer = new CountingWriter();
+        CharWriter cw = new CharWriter(writer, 16);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String s = "s" + i + "\n";
+            cw.writeString(s);
+            expected.append('\"').append("s").append(i).append("\\n\"");
+        }
+        cw.flushBuffer();
+        cw.release();
+        assertEquals(expected.toString(), writer.toString());
+        // each write is a full block except the last one:
+        assertEquals((expected.length() + 15) / 16, writer.count);
+    }
+
+    @Test
+    public void testWriteLongStringToWriter() throws Exception {
+        StringWriter writer = new StringWriter();
+        CharWriter cw = new CharWriter(writer, 16);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        cw.writeString(sb.toString());
+        cw.flushBuffer();
+        cw.release();
+        assertEquals("\"" + sb + "\"", writer.toString());
+    }
+
+    @Test
+    public void testReleaseBufferAfterWrite() throws Exception {
+        StringWriter writer = new StringWriter();
+        JsonWriter jw = new JsonBuilder().createWriter(writer);
+        jw.write("hello");
+        assertSame(CharWriter.EMPTY, jw.writer.buffer);
+        jw.write(123);
+        assertEquals("\"hello\"123", writer.toString());
+    }
+
+    @Test
+    public void testWriteToWriterSameAsToString() throws Exception {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", i);
+            map.put("name", "Name\t" + i);
+            list.add(map);
+        }
+        StringWriter writer = new StringWriter();
+        new JsonBuilder().createWriter(writer).write(list);
+        assertEquals(new JsonBuilder().createWriter().write(list).toString(), writer.toString());
+        assertTrue(writer.toString().length() > CharWriter.BUFFER_SIZE);
+    }
+
+    static class CountingWriter extends StringWriter {
+
+        int count = 0;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count++;
+            super.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(int c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(String str) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DoubleParserTest {
+
+    void assertSameAsJdk(long mantissa, int exp10) {
+        String s = Long.toUnsignedString(mantissa) + "e" + exp10;
+        double expected = Double.parseDouble(s);
+        double actual = DoubleParser.toDouble(mantissa, exp10, false);
+        if (Double.isNaN(actual)) {
+            // fall back is required only for overflow:
+            assertTrue(s, Double.isInfinite(expected));
+        } else {
+            assertEquals(s, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+            assertEquals(s, Double.doubleToRawLongBits(-expected), Double.doubleToRawLongBits(DoubleParser.toDouble(mantissa, exp10, true)));
+        }
+    }
+
+    @Test
+    public void testRandomDecimals() {
+        Random random = new Random(20221018L);
+        for (int i = 0; i < 100000; i++) {
+            long mantissa;
+            switch (i % 4) {
+            case 0:
+                mantissa = random.nextLong() >>> random.nextInt(64);
+                break;
+            case 1:
+                mantissa = random.nextInt(1000000);
+                break;
+            case 2:
+                mantissa = Long.remainderUnsigned(random.nextLong(), Long.parseUnsignedLong("10000000000000000000"));
+                break;
+            default:
+                mantissa = random.nextLong();
+                break;
+            }
+            assertSameAsJdk(mantissa, random.nextInt(700) - 350);
+        }
+    }
+
+    @Test
+    public void testRandomDoubles() {
+        Random random = new Random(20221018L);
+        for (int i = 0; i < 100000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong() & 0x7fffffffffffffffL);
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                continue;
+            }
+            // shortest repr which has 17 digits at most:
+            String s = Double.toString(d);
+            int e = s.indexOf('E');
+            String digits = e < 0 ? s : s.substring(0, e);
+            int exp10 = e < 0 ? 0 : Integer.parseInt(s.substring(e + 1));
+            int dot = digits.indexOf('.');
+            exp10 -= digits.length() - dot - 1;
+            long mantissa = Long.parseLong(digits.substring(0, dot) + digits.substring(dot + 1));
+            assertEquals(s, d, DoubleParser.toDouble(mantissa, exp10, false), 0.0);
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+        assertSameAsJdk(0, 0);
+        assertSameAsJdk(0, 400);
+        assertSameAsJdk(1, -343);
+        assertSameAsJdk(1, 309);
+        assertSameAsJdk(1, -324);
+        assertSameAsJdk(25, -325);
+        assertSameAsJdk(22250738585072014L, -324);
+        assertSameAsJdk(17976931348623157L, 292);
+        assertSameAsJdk(17976931348623159L, 292);
+        assertSameAsJdk(9007199254740993L, 0);
+        assertSameAsJdk(-1L, 0);
+        assertSameAsJdk(-1L, -20);
+        assertSameAsJdk(1L << 53, 22);
+        assertSameAsJdk((1L << 53) + 1, 22);
+    }
+}
@@ -0,0 +1,214 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+import com.itranswarp.jsonstream.processor.JsonCodecProcessor;
+
+public class JsonCodecProcessorTest {
+
+    static final String ORDER = "package com.example;\n" //
+            + "import java.util.List;\n" //
+            + "import com.itranswarp.jsonstream.annotation.*;\n" //
+            + "@JsonCodec\n" //
+            + "public class Order extends Base {\n" //
+            + "    long id;\n" //
+            + "    @MaximumInteger(10) int quantity;\n" //
+            + "    double price;\n" //
+            + "    boolean paid;\n" //
+            + "    @Required String customer;\n" //
+            + "    List<Item> items;\n" //
+            + "    String[] tags;\n" //
+            + "    @JsonIgnore String ignored;\n" //
+            + "    final String fixed = \"F\";\n" //
+            + "    private String note;\n" //
+            + "    public String getNote() { return note; }\n" //
+            + "    public void setNote(String note) throws java.io.IOException {\n" //
+            + "        if (note.isEmpty()) { throw new java.io.IOException(\"empty note\"); }\n" //
+            + "        this.note = note;\n" //
+            + "    }\n" //
+            + "    @JsonCodec\n" //
+            + "    public static class Item {\n" //
+            + "        public String sku;\n" //
+            + "        public int qty;\n" //
+            + "    }\n" //
+            + "}\n";
+
+    static final String BASE = "package com.example;\n" //
+            + "public class Base {\n" //
+            + "    String createdBy;\n" //
+            + "    public boolean isDeleted() { return false; }\n" //
+            + "}\n";
+
+    // codec name must not be the same as codec of nested class Order.Item:
+    static final String ORDER_ITEM = "package com.example;\n" //
+            + "@com.itranswarp.jsonstream.annotation.JsonCodec\n" //
+            + "public class Order_Item {\n" //
+            + "    public String code;\n" //
+            + "}\n";
+
+    @Test
+    public void testCodecClassName() {
+        assertEquals("com.example.Order_JsonCodec", GeneratedBeanCodec.codecClassName("com.example.Order"));
+        assertEquals("com.example.Order$$Item_JsonCodec", GeneratedBeanCodec.codecClassName("com.example.Order$Item"));
+        assertEquals("com.example.Order_Item_JsonCodec", GeneratedBeanCodec.codecClassName("com.example.Order_Item"));
+        assertEquals("com.example.Order$$$$Item_JsonCodec", GeneratedBeanCodec.codecClassName("com.example.Order$$Item"));
+        assertEquals("Order$$Item_JsonCodec", GeneratedBeanCodec.codecClassName("Order$Item"));
+    }
+
+    @Test
+    public void testGeneratedCodec() throws Exception {
+        Path output = Files.createTempDirectory("codec");
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(output, source("com/example/Order.java", ORDER),
+                source("com/example/Base.java", BASE), source("com/example/Order_Item.java", ORDER_ITEM));
+        assertTrue(diagnostics.toString(), diagnostics.stream().noneMatch(d -> d.getKind() == Diagnostic.Kind.ERROR));
+        // final field is read only:
+        assertTrue(diagnostics.stream().anyMatch(d -> d.getMessage(null).contains("fixed")));
+        String services = Files.readString(output.resolve("META-INF/services/com.itranswarp.jsonstream.GeneratedBeanCodec"));
+        assertEquals("com.example.Order$$Item_JsonCodec\ncom.example.Order_Item_JsonCodec\ncom.example.Order_JsonCodec\n", services);
+        try (URLClassLoader loader = new URLClassLoader(new java.net.URL[] { output.toUri().toURL() }, getClass().getClassLoader())) {
+            // providers are found once for each ClassLoader:
+            assertSame(GeneratedBeanCodec.providers(loader), GeneratedBeanCodec.providers(loader));
+            assertEquals(3, GeneratedBeanCodec.providers(loader).size());
+            Class<?> itemClass = loader.loadClass("com.example.Order$Item");
+            Class<?> orderItemClass = loader.loadClass("com.example.Order_Item");
+            assertSame(itemClass, GeneratedBeanCodec.of(itemClass).beanClass);
+            assertSame(orderItemClass, GeneratedBeanCodec.of(orderItemClass).beanClass);
+            Class<?> orderClass = loader.loadClass("com.example.Order");
+            // same properties as reflection:
+            PropertySetters pss = new PropertySetters(orderClass);
+            PropertyGetters pgs = new PropertyGetters(orderClass);
+            assertTrue(pss.codec instanceof GeneratedBeanCodec);
+            assertTrue(pss.members.isEmpty());
+            assertTrue(pgs.members.isEmpty());
+            assertEquals(Set.of("id", "quantity", "price", "paid", "customer", "items", "tags", "note", "createdBy"), pss.map.keySet());
+            assertEquals(Set.of("id", "quantity", "price", "paid", "customer", "items", "tags", "note", "createdBy", "fixed", "deleted"),
+                    pgs.map.keySet());
+            assertTrue(pss.getPropertySetter("quantity").hasConstraints());
+            assertTrue(pss.getPropertySetter("customer").isRequired());
+            assertFalse(pss.getPropertySetter("price").hasConstraints());
+            assertEquals(loader.loadClass("com.example.Order$Item"), pss.getPropertySetter("items").getGenericType());
+            assertEquals(String.class, pss.getPropertySetter("tags").getGenericType());
+
+            for (boolean streaming : new boolean[] { false, true }) {
+                String json = "{\"id\": 12345678901, \"quantity\": 3, \"price\": 2, \"paid\": true, \"customer\": \"Bob\", \"note\": \"n\","
+                        + " \"createdBy\": \"admin\", \"items\": [{\"sku\": \"A\", \"qty\": 2}], \"tags\": [\"x\"], \"ignored\": \"i\"}";
+                Object order = new JsonBuilder().useStreamingBinding(streaming).createReader(json).parse(orderClass);
+                @SuppressWarnings("unchecked")
+                Map<String, Object> map = (Map<String, Object>) new JsonBuilder().createReader(new JsonBuilder().createWriter().write(order).toString())
+                        .parse();
+                assertEquals(12345678901L, map.get("id"));
+                assertEquals(3L, map.get("quantity"));
+                assertEquals(2.0, map.get("price"));
+                assertEquals(Boolean.TRUE, map.get("paid"));
+                assertEquals("Bob", map.get("customer"));
+                assertEquals("n", map.get("note"));
+                assertEquals("admin", map.get("createdBy"));
+                assertEquals("F", map.get("fixed"));
+                assertEquals(Boolean.FALSE, map.get("deleted"));
+                assertNull(map.get("ignored"));
+                assertEquals(List.of(Map.of("sku", "A", "qty", 2L)), map.get("items"));
+                assertEquals(List.of("x"), map.get("tags"));
+                try {
+                    new JsonBuilder().useStreamingBinding(streaming).createReader("{\"quantity\": 11, \"customer\": \"Bob\"}").parse(orderClass);
+                    fail("Not caught JsonValidateException!");
+                } catch (JsonValidateException e) {
+                    // ok
+                }
+                try {
+                    new JsonBuilder().useStreamingBinding(streaming).createReader("{\"quantity\": 1}").parse(orderClass);
+                    fail("Not caught JsonValidateException!");
+                } catch (JsonValidateException e) {
+                    assertEquals("Order.customer", e.getPath());
+                }
+            }
+            // checked exception of setter is not wrapped:
+            try {
+                pss.getPropertySetter("note").setProperty(pss.codec.newInstance(), "");
+                fail("Not caught IOException!");
+            } catch (java.io.IOException e) {
+                assertEquals("empty note", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testIgnoredOverride() throws Exception {
+        String parent = "package com.example;\n" //
+                + "public class Parent {\n" //
+                + "    String secret;\n" //
+                + "    public String getSecret() { return secret; }\n" //
+                + "    public void setSecret(String secret) { this.secret = secret; }\n" //
+                + "}\n";
+        String child = "package com.example;\n" //
+                + "import com.itranswarp.jsonstream.annotation.*;\n" //
+                + "@JsonCodec\n" //
+                + "public class Child extends Parent {\n" //
+                + "    public String name;\n" //
+                + "    @JsonIgnore @Override public void setSecret(String secret) { this.secret = secret; }\n" //
+                + "}\n";
+        Path output = Files.createTempDirectory("codec");
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(output, source("com/example/Parent.java", parent),
+                source("com/example/Child.java", child));
+        assertTrue(diagnostics.toString(), diagnostics.stream().noneMatch(d -> d.getKind() == Diagnostic.Kind.ERROR));
+        try (URLClassLoader loader = new URLClassLoader(new java.net.URL[] { output.toUri().toURL() }, getClass().getClassLoader())) {
+            Class<?> childClass = loader.loadClass("com.example.Child");
+            PropertySetters pss = new PropertySetters(childClass);
+            assertTrue(pss.codec instanceof GeneratedBeanCodec);
+            // same as reflection, which ignores setter of superclass overridden by ignored setter:
+            assertEquals(PropertySetters.findSetters(childClass).keySet(), pss.map.keySet());
+            assertEquals(Set.of("name"), pss.map.keySet());
+            Object bean = new JsonBuilder().createReader("{\"name\": \"n\", \"secret\": \"x\"}").parse(childClass);
+            assertNull(childClass.getMethod("getSecret").invoke(bean));
+            assertEquals("n", childClass.getField("name").get(bean));
+        }
+    }
+
+    @Test
+    public void testPrivatePropertyWithoutAccessor() throws Exception {
+        String source = "package com.example;\n" //
+                + "@com.itranswarp.jsonstream.annotation.JsonCodec\n" //
+                + "public class Secret {\n" //
+                + "    private String token;\n" //
+                + "}\n";
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(Files.createTempDirectory("codec"), source("com/example/Secret.java", source));
+        assertTrue(diagnostics.stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR && d.getMessage(null).contains("token")));
+    }
+
+    List<Diagnostic<? extends JavaFileObject>> compile(Path output, JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        String classpath = new File(GeneratedBeanCodec.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath();
+        List<String> options = Arrays.asList("-d", output.toString(), "-classpath", classpath, "-processor", JsonCodecProcessor.class.getName());
+        compiler.getTask(new StringWriter(), null, collector, options, null, Arrays.asList(sources)).call();
+        return collector.getDiagnostics();
+    }
+
+    JavaFileObject source(String path, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + path), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
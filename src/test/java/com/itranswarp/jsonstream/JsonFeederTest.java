@@ -0,0 +1,148 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+public class JsonFeederTest {
+
+    static final String JSON = "{\"name\":\"English中文\", \"emoji\": \"😀\\u4E2d\\\"\", \"list\": [12345, -2.5e-3, true, false, null, \"é\"], \"nested\": {\"a\": [[]]}}";
+
+    Object parse(String s) throws Exception {
+        return new JsonReader(new StringReader(s), null, null, null, null).parse();
+    }
+
+    List<Object> feedInChunks(String s, int chunkSize) throws Exception {
+        byte[] data = s.getBytes(StandardCharsets.UTF_8);
+        JsonFeeder feeder = new JsonBuilder().createFeeder();
+        List<Object> results = new ArrayList<>();
+        for (int offset = 0; offset < data.length; offset += chunkSize) {
+            feeder.feed(ByteBuffer.wrap(data, offset, Math.min(chunkSize, data.length - offset)));
+            while (feeder.hasNext()) {
+                results.add(feeder.next());
+            }
+        }
+        feeder.endOfInput();
+        while (feeder.hasNext()) {
+            results.add(feeder.next());
+        }
+        return results;
+    }
+
+    @Test
+    public void testFeedInChunks() throws Exception {
+        Object expected = parse(JSON);
+        for (int chunkSize = 1; chunkSize <= 20; chunkSize++) {
+            List<Object> results = feedInChunks(JSON, chunkSize);
+            assertEquals(1, results.size());
+            assertEquals(expected, results.get(0));
+        }
+    }
+
+    @Test
+    public void testFeedMultipleValues() throws Exception {
+        String s = JSON + "\n" + JSON + " 123 \"str\" true\nnull [1,2]{}";
+        Object expected = parse(JSON);
+        for (int chunkSize = 1; chunkSize <= 10; chunkSize++) {
+            List<Object> results = feedInChunks(s, chunkSize);
+            assertEquals(8, results.size());
+            assertEquals(expected, results.get(0));
+            assertEquals(expected, results.get(1));
+            assertEquals(123L, results.get(2));
+            assertEquals("str", results.get(3));
+            assertEquals(Boolean.TRUE, results.get(4));
+            assertNull(results.get(5));
+            assertEquals(parse("[1,2]"), results.get(6));
+            assertTrue(((Map<?, ?>) results.get(7)).isEmpty());
+        }
+    }
+
+    @Test
+    public void testValueCompletedBeforeEndOfInput() throws Exception {
+        JsonFeeder feeder = new JsonBuilder().createFeeder();
+        feeder.feed("{\"a\": [1, \"lo".getBytes(StandardCharsets.UTF_8));
+        assertFalse(feeder.hasNext());
+        feeder.feed("ng string\"]".getBytes(StandardCharsets.UTF_8));
+        assertFalse(feeder.hasNext());
+        feeder.feed("} 12".getBytes(StandardCharsets.UTF_8));
+        assertTrue(feeder.hasNext());
+        assertEquals(parse("{\"a\": [1, \"long string\"]}"), feeder.next());
+        // number is not completed until delimiter or end of input:
+        assertFalse(feeder.hasNext());
+        feeder.feed("3".getBytes(StandardCharsets.UTF_8));
+        assertFalse(feeder.hasNext());
+        feeder.endOfInput();
+        assertEquals(123L, feeder.next());
+        assertFalse(feeder.hasNext());
+    }
+
+    @Test
+    public void testLongStringInManyChunks() throws Exception {
+        JsonFeeder feeder = new JsonBuilder().createFeeder();
+        StringBuilder sb = new StringBuilder();
+        feeder.feed("[\"".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 10000; i++) {
+            String part = "x\\\"中";
+            sb.append("x\"中");
+            feeder.feed(part.getBytes(StandardCharsets.UTF_8));
+            assertFalse(feeder.hasNext());
+        }
+        feeder.feed("\"]".getBytes(StandardCharsets.UTF_8));
+        assertTrue(feeder.hasNext());
+        assertEquals(sb.toString(), ((List<?>) feeder.next()).get(0));
+    }
+
+    @Test
+    public void testNextAsBean() throws Exception {
+        JsonFeeder feeder = new JsonBuilder().createFeeder();
+        feeder.feed("{\"name\":\"Java\", \"version\": 1.8}".getBytes(StandardCharsets.UTF_8));
+        User user = feeder.next(User.class);
+        assertEquals("Java", user.name);
+        assertEquals(1.8, user.version, 0.000001);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextWithoutValue() throws Exception {
+        JsonFeeder feeder = new JsonBuilder().createFeeder();
+        feeder.feed("[1, 2".getBytes(StandardCharsets.UTF_8));
+        feeder.next();
+    }
+
+    @Test
+    public void testInvalidJson() throws Exception {
+        String[] tests = { "[1, 2,]", "{\"a\" 1}", "[1 2]", "{]" };
+        for (String s : tests) {
+            JsonFeeder feeder = new JsonBuilder().createFeeder();
+            feeder.feed(s.getBytes(StandardCharsets.UTF_8));
+            try {
+                feeder.hasNext();
+                fail("Not caught JsonParseException when parse: " + s);
+            } catch (JsonParseException e) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testIncompleteJsonAtEndOfInput() throws Exception {
+        JsonFeeder feeder = new JsonBuilder().createFeeder();
+        feeder.feed("[1, 2".getBytes(StandardCharsets.UTF_8));
+        assertFalse(feeder.hasNext());
+        feeder.endOfInput();
+        try {
+            feeder.hasNext();
+            fail("Not caught JsonParseException!");
+        } catch (JsonParseException e) {
+            // ok
+        }
+    }
+
+}
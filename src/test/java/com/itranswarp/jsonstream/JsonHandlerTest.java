@@ -0,0 +1,137 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class JsonHandlerTest {
+
+    @Test
+    public void testEvents() throws Exception {
+        String json = "{\"id\": 123, \"name\": \"Bob\", \"score\": 9.5, \"tags\": [\"a\", {\"x\": null}, [true]]}";
+        StringBuilder sb = new StringBuilder();
+        new JsonBuilder().createReader(json).parse(new JsonHandler() {
+            @Override
+            public void startObject() {
+                sb.append('{');
+            }
+
+            @Override
+            public void endObject() {
+                sb.append('}');
+            }
+
+            @Override
+            public void startArray() {
+                sb.append('[');
+            }
+
+            @Override
+            public void endArray() {
+                sb.append(']');
+            }
+
+            @Override
+            public void key(String key) {
+                sb.append("key:").append(key).append(' ');
+            }
+
+            @Override
+            public void stringValue(String value) {
+                sb.append("str:").append(value).append(' ');
+            }
+
+            @Override
+            public void longValue(long value) {
+                sb.append("long:").append(value).append(' ');
+            }
+
+            @Override
+            public void doubleValue(double value) {
+                sb.append("double:").append(value).append(' ');
+            }
+
+            @Override
+            public void booleanValue(boolean value) {
+                sb.append("bool:").append(value).append(' ');
+            }
+
+            @Override
+            public void nullValue() {
+                sb.append("null ");
+            }
+        });
+        assertEquals("{key:id long:123 key:name str:Bob key:score double:9.5 key:tags [str:a {key:x null }[bool:true ]]}", sb.toString());
+    }
+
+    @Test
+    public void testSumAndCount() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        long expectedSum = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"amount\":").append(i).append(",\"note\":\"n").append(i).append("\"}");
+            expectedSum += i;
+        }
+        sb.append(']');
+        long[] sumAndCount = new long[2];
+        new JsonBuilder().createReader(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8))).parse(new JsonHandler() {
+            @Override
+            public void longValue(long value) {
+                sumAndCount[0] += value;
+                sumAndCount[1]++;
+            }
+        });
+        assertEquals(expectedSum, sumAndCount[0]);
+        assertEquals(10000, sumAndCount[1]);
+    }
+
+    @Test
+    public void testLosslessNumbers() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        new JsonBuilder().useLosslessNumbers(true).createReader("[1, 123456789012345678901234567890, 0.10]").parse(new JsonHandler() {
+            @Override
+            public void longValue(long value) {
+                sb.append("long:").append(value).append(' ');
+            }
+
+            @Override
+            public void numberValue(JsonNumber value) {
+                sb.append("number:").append(value.bigDecimalValue()).append(' ');
+            }
+        });
+        assertEquals("long:1 number:123456789012345678901234567890 number:0.10 ", sb.toString());
+    }
+
+    @Test
+    public void testDefaultNumberValue() throws Exception {
+        double[] sum = new double[1];
+        new JsonBuilder().useLosslessNumbers(true).createReader("[1.5, 2.25]").parse(new JsonHandler() {
+            @Override
+            public void doubleValue(double value) {
+                sum[0] += value;
+            }
+        });
+        assertEquals(new BigDecimal("3.75"), BigDecimal.valueOf(sum[0]));
+    }
+
+    @Test
+    public void testInvalid() throws Exception {
+        String[] tests = { "", "{", "[1,]", "{\"a\":}", "[1] 2", "[123456789012345678901234567890]" };
+        for (String s : tests) {
+            try {
+                new JsonBuilder().createReader(s).parse(new JsonHandler() {
+                });
+                fail("Not caught JsonParseException when parse: " + s);
+            } catch (JsonParseException e) {
+                // ok
+            }
+        }
+    }
+}
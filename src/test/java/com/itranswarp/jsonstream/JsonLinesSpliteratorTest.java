@@ -0,0 +1,91 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsonLinesSpliteratorTest {
+
+    Path file = null;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("jsonstream-", ".ndjson");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    Path writeLines(int count) throws Exception {
+        StringBuilder sb = new StringBuilder(count * 40);
+        for (int i = 0; i < count; i++) {
+            sb.append("{\"name\": \"用户-").append(i).append("\", \"version\": ").append(i).append(".5}\n");
+        }
+        Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testSplitAtLineBreak() throws Exception {
+        writeLines(100);
+        long size = Files.size(file);
+        JsonLinesSpliterator<Object> right = new JsonLinesSpliterator<>(new JsonBuilder(), file, Object.class, 0, size, true, 64);
+        Spliterator<Object> left = right.trySplit();
+        assertNotNull(left);
+        assertTrue(right.start > 0 && right.start < size);
+        byte[] data = Files.readAllBytes(file);
+        assertEquals('\n', data[(int) right.start - 1]);
+        int[] count = { 0 };
+        left.forEachRemaining(obj -> count[0]++);
+        right.forEachRemaining(obj -> count[0]++);
+        assertEquals(100, count[0]);
+        // cannot split after traversal started:
+        assertNull(right.trySplit());
+    }
+
+    @Test
+    public void testNotSplitSmallRange() throws Exception {
+        writeLines(10);
+        JsonLinesSpliterator<Object> spliterator = new JsonLinesSpliterator<>(new JsonBuilder(), file, Object.class, 0, Files.size(file), true, JsonLinesSpliterator.MIN_SPLIT_SIZE);
+        assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    public void testOrderedParallelStream() throws Exception {
+        writeLines(5000);
+        List<User> users = new JsonBuilder().createParallelStream(file, User.class, true, 256).collect(Collectors.toList());
+        assertEquals(5000, users.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals("用户-" + i, users.get(i).name);
+            assertEquals(i + 0.5, users.get(i).version, 0.000001);
+        }
+    }
+
+    @Test
+    public void testUnorderedParallelStream() throws Exception {
+        writeLines(5000);
+        long sum = new JsonBuilder().createParallelStream(file, Map.class, false, 256).mapToLong(map -> {
+            return (long) (((Number) map.get("version")).doubleValue() - 0.5);
+        }).sum();
+        assertEquals(4999L * 5000 / 2, sum);
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        writeLines(0);
+        assertEquals(0, new JsonBuilder().createParallelStream(file, Object.class).count());
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class JsonParserTest {
+
+    static final String JSON = "{\"id\": 123, \"name\": \"Bob\", \"score\": 9.5, \"tags\": [\"a\", {\"x\": null}, [true]], \"my key\": false}";
+
+    @Test
+    public void testTokens() throws Exception {
+        JsonParser parser = new JsonBuilder().createParser(JSON);
+        List<String> list = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_DOCUMENT) {
+            list.add(token + " " + parser.currentPath());
+        }
+        assertEquals(String.join("\n", "BEGIN_OBJECT $", "KEY $.id", "NUMBER $.id", "KEY $.name", "STRING $.name", "KEY $.score",
+                "NUMBER $.score", "KEY $.tags", "BEGIN_ARRAY $.tags", "STRING $.tags[0]", "BEGIN_OBJECT $.tags[1]", "KEY $.tags[1].x",
+                "NULL $.tags[1].x", "END_OBJECT $.tags[1]", "BEGIN_ARRAY $.tags[2]", "BOOLEAN $.tags[2][0]", "END_ARRAY $.tags[2]",
+                "END_ARRAY $.tags", "KEY $['my key']", "BOOLEAN $['my key']", "END_OBJECT $"), String.join("\n", list));
+        assertEquals(JsonToken.END_DOCUMENT, parser.nextToken());
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        JsonParser parser = new JsonBuilder().createParser(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(JsonToken.BEGIN_OBJECT, parser.nextToken());
+        assertEquals(JsonToken.KEY, parser.nextToken());
+        assertEquals("id", parser.getString());
+        assertEquals(JsonToken.NUMBER, parser.nextToken());
+        assertEquals(123L, parser.getLong());
+        assertEquals(123.0, parser.getDouble(), 0.0);
+        assertEquals(Long.valueOf(123), parser.getNumber());
+        parser.nextToken();
+        assertEquals(JsonToken.STRING, parser.nextToken());
+        assertEquals("Bob", parser.getString());
+        assertEquals("Bob", parser.getString());
+        parser.nextToken();
+        assertEquals(JsonToken.NUMBER, parser.nextToken());
+        assertEquals(9.5, parser.getDouble(), 0.0);
+        assertEquals(9L, parser.getLong());
+        assertEquals(Double.valueOf(9.5), parser.getNumber());
+        try {
+            parser.getBoolean();
+            fail("Not caught IllegalStateException!");
+        } catch (IllegalStateException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testSkipValue() throws Exception {
+        JsonParser parser = new JsonBuilder().createParser(JSON);
+        parser.nextToken();
+        long id = 0;
+        boolean flag = true;
+        while (parser.nextToken() == JsonToken.KEY) {
+            switch (parser.getString()) {
+            case "id":
+                parser.nextToken();
+                id = parser.getLong();
+                break;
+            case "my key":
+                parser.nextToken();
+                flag = parser.getBoolean();
+                break;
+            default:
+                parser.skipValue();
+            }
+        }
+        assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+        assertEquals(123, id);
+        assertFalse(flag);
+        assertEquals(JsonToken.END_DOCUMENT, parser.nextToken());
+    }
+
+    @Test
+    public void testSkipRestOfContainer() throws Exception {
+        JsonParser parser = new JsonBuilder().createParser("[[1, [2, 3], {\"a\": [4]}], 5]");
+        parser.nextToken();
+        assertEquals(JsonToken.BEGIN_ARRAY, parser.nextToken());
+        parser.skipValue();
+        assertEquals(JsonToken.END_ARRAY, parser.currentToken());
+        assertEquals("$[0]", parser.currentPath());
+        assertEquals(JsonToken.NUMBER, parser.nextToken());
+        assertEquals(5, parser.getLong());
+        assertEquals("$[1]", parser.currentPath());
+    }
+
+    @Test
+    public void testSingleValue() throws Exception {
+        JsonParser parser = new JsonBuilder().createParser("  \"hello\" ");
+        assertEquals(JsonToken.STRING, parser.nextToken());
+        assertEquals("$", parser.currentPath());
+        assertEquals("hello", parser.getString());
+        assertEquals(JsonToken.END_DOCUMENT, parser.nextToken());
+    }
+
+    @Test
+    public void testNumberOptions() throws Exception {
+        JsonParser parser = new JsonBuilder().useLosslessNumbers(true).createParser("[123456789012345678901234567890, 0.10]");
+        parser.nextToken();
+        parser.nextToken();
+        assertTrue(parser.getNumber() instanceof JsonNumber);
+        try {
+            parser.getLong();
+            fail("Not caught JsonParseException!");
+        } catch (JsonParseException e) {
+            // ok
+        }
+        parser.nextToken();
+        assertEquals("0.10", parser.getNumber().toString());
+        parser = new JsonBuilder().useLazyNumbers(true).createParser("[1.50]");
+        parser.nextToken();
+        parser.nextToken();
+        assertEquals("1.50", ((LazyNumber) parser.getNumber()).toString());
+    }
+
+    @Test
+    public void testInvalid() throws Exception {
+        String[] tests = { "", "{", "[1,]", "[,1]", "[1 2]", "{\"a\" 1}", "{\"a\":}", "{\"a\":1,}", "{1:2}", "[1}", "{\"a\":1]", "[tru]",
+                "[1] 2", "{\"a\":1 \"b\":2}", ":", "]" };
+        for (String s : tests) {
+            try (JsonParser parser = new JsonBuilder().createParser(s)) {
+                while (parser.nextToken() != JsonToken.END_DOCUMENT) {
+                }
+                fail("Not caught JsonParseException when parse: " + s);
+            } catch (JsonParseException e) {
+                // ok
+            }
+        }
+    }
+}
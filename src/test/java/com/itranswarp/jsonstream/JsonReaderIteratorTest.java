@@ -0,0 +1,88 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class JsonReaderIteratorTest {
+
+    String createJsonLines(int lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"Name-").append(i).append("\", \"street\": \"Road中").append(i).append("\"}\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testIterateJsonLines() throws Exception {
+        String s = createJsonLines(1000);
+        Iterator<Object> it = new JsonBuilder().createReader(new StringReader(s)).iterator();
+        int n = 0;
+        while (it.hasNext()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) it.next();
+            assertEquals(Long.valueOf(n), map.get("id"));
+            assertEquals("Name-" + n, map.get("name"));
+            n++;
+        }
+        assertEquals(1000, n);
+        assertFalse(it.hasNext());
+        try {
+            it.next();
+            fail("Not caught NoSuchElementException!");
+        } catch (NoSuchElementException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testIterateMixedValues() throws Exception {
+        String s = "\n  1 \"str\"\r\n\n true null [1, 2] {} \n";
+        List<Object> list = new JsonBuilder().createReader(s).stream().collect(Collectors.toList());
+        assertEquals(6, list.size());
+        assertEquals(1L, list.get(0));
+        assertEquals("str", list.get(1));
+        assertEquals(Boolean.TRUE, list.get(2));
+        assertNull(list.get(3));
+        assertEquals(2, ((List<?>) list.get(4)).size());
+        assertTrue(((Map<?, ?>) list.get(5)).isEmpty());
+    }
+
+    @Test
+    public void testIterateEmpty() throws Exception {
+        assertFalse(new JsonBuilder().createReader("").iterator().hasNext());
+        assertFalse(new JsonBuilder().createReader(" \n\n ").iterator().hasNext());
+    }
+
+    @Test
+    public void testStreamAsBeans() throws Exception {
+        String s = createJsonLines(100);
+        List<Address> list = new JsonBuilder().createReader(new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8))).stream(Address.class)
+                .collect(Collectors.toList());
+        assertEquals(100, list.size());
+        assertEquals("Road中99", list.get(99).street);
+    }
+
+    @Test
+    public void testIterateInvalidLine() throws Exception {
+        Iterator<Object> it = new JsonBuilder().createReader("{\"a\": 1}\n{\"b\": }\n").iterator();
+        assertNotNull(it.next());
+        try {
+            it.next();
+            fail("Not caught JsonParseException!");
+        } catch (JsonParseException e) {
+            // ok
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.itranswarp.jsonstream.annotation.MaximumInteger;
+import com.itranswarp.jsonstream.annotation.MaximumNumber;
+
+public class JsonReaderLosslessNumberTest {
+
+    static final String JSON = "{\"id\": 123456789012345678901234567890, \"amount\": 12345678901234567890.123456789012345678,"
+            + " \"price\": 19.90, \"count\": 9223372036854775807, \"rate\": 0.1, \"history\": [1, 2.50, 1e3, -0.000123456789012345678901]}";
+
+    JsonBuilder builder() {
+        return new JsonBuilder().useLosslessNumbers(true);
+    }
+
+    @Test
+    public void testParseAsMap() throws Exception {
+        Map<?, ?> map = builder().createReader(JSON).parse(Map.class);
+        assertEquals(Long.MAX_VALUE, map.get("count"));
+        JsonNumber id = (JsonNumber) map.get("id");
+        assertTrue(id.isInteger());
+        assertEquals(new BigInteger("123456789012345678901234567890"), id.bigIntegerValue());
+        assertEquals(1.2345678901234568E29, id.doubleValue(), 0.0);
+        JsonNumber amount = (JsonNumber) map.get("amount");
+        assertFalse(amount.isInteger());
+        assertEquals("12345678901234567890.123456789012345678", amount.toString());
+        assertEquals(new BigDecimal("12345678901234567890.123456789012345678"), amount.bigDecimalValue());
+        JsonNumber price = (JsonNumber) map.get("price");
+        assertEquals(new BigDecimal("19.90"), price.bigDecimalValue());
+        assertEquals("19.90", price.toString());
+        assertEquals(19.9, price.doubleValue(), 0.0);
+        assertEquals(0.1, ((Number) map.get("rate")).doubleValue(), 0.0);
+    }
+
+    @Test
+    public void testParseAsBean() throws Exception {
+        Payment payment = builder().createReader(JSON).parse(Payment.class);
+        assertEquals(new BigInteger("123456789012345678901234567890"), payment.id);
+        assertEquals(new BigDecimal("12345678901234567890.123456789012345678"), payment.amount);
+        assertEquals(new BigDecimal("19.90"), payment.price);
+        assertEquals(Long.MAX_VALUE, payment.count);
+        assertEquals(0.1, payment.rate, 0.0);
+        assertEquals(4, payment.history.size());
+        assertEquals(new BigDecimal("1"), payment.history.get(0));
+        assertEquals(new BigDecimal("2.50"), payment.history.get(1));
+        assertEquals(new BigDecimal("1e3"), payment.history.get(2));
+        assertEquals(new BigDecimal("-0.000123456789012345678901"), payment.history.get(3));
+    }
+
+    @Test
+    public void testBigDecimalWithoutLosslessNumbers() throws Exception {
+        Payment payment = new JsonBuilder().createReader("{\"amount\": 100, \"price\": 0.1}").parse(Payment.class);
+        assertEquals(new BigDecimal("100"), payment.amount);
+        assertEquals(new BigDecimal("0.1"), payment.price);
+    }
+
+    @Test
+    public void testIntegerOutOfRangeWithoutLosslessNumbers() throws Exception {
+        try {
+            new JsonBuilder().createReader("[123456789012345678901234567890]").parse();
+            fail("Not caught JsonParseException!");
+        } catch (JsonParseException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testIntegerOutOfRangeOfLongProperty() throws Exception {
+        try {
+            builder().createReader("{\"count\": 9223372036854775808}").parse(Payment.class);
+            fail("Not caught NumberFormatException!");
+        } catch (NumberFormatException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testValidateIntegerOutOfRangeOfLong() throws Exception {
+        try {
+            builder().createReader("{\"id\": 123456789012345678901234567890}").parse(LimitedPayment.class);
+            fail("Not caught JsonValidateException!");
+        } catch (JsonValidateException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testValidateDecimal() throws Exception {
+        LimitedPayment payment = builder().createReader("{\"id\": 100, \"amount\": 99.990000000000000000001}").parse(LimitedPayment.class);
+        assertEquals(new BigDecimal("99.990000000000000000001"), payment.amount);
+        try {
+            builder().createReader("{\"amount\": 100.000001}").parse(LimitedPayment.class);
+            fail("Not caught JsonValidateException!");
+        } catch (JsonValidateException e) {
+            // ok
+        }
+    }
+}
+
+class Payment {
+    BigInteger id;
+    BigDecimal amount;
+    BigDecimal price;
+    long count;
+    double rate;
+    List<BigDecimal> history;
+}
+
+class LimitedPayment {
+    @MaximumInteger(1000000)
+    BigInteger id;
+
+    @MaximumNumber(100)
+    BigDecimal amount;
+}
@@ -0,0 +1,128 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class JsonReaderSkipTest {
+
+    static final String JSON = "{\"id\": 1, \"meta\": {\"a\": {\"b\": [1, 2, {\"c\": \"}]\"}]}}, \"name\": \"Order\", \"ignored\": [{}, {}, \"x\\\"\"],"
+            + " \"items\": [{\"sku\": \"A\", \"extra\": {\"x\": 1}, \"qty\": 2}, {\"sku\": \"B\", \"qty\": 3, \"tags\": [{}]}],"
+            + " \"owner\": {\"name\": \"Bob\", \"address\": {\"city\": \"X\"}}, \"any\": {\"k\": {}}}";
+
+    int objects = 0;
+
+    JsonBuilder builder() {
+        return new JsonBuilder().useJsonObjectFactory(() -> {
+            objects++;
+            return new HashMap<>();
+        });
+    }
+
+    @Test
+    public void testSkipUnknownProperties() throws Exception {
+        Order order = builder().useSkipUnknownProperties(true).createReader(JSON).parse(Order.class);
+        assertEquals(1, order.id);
+        assertEquals("Order", order.name);
+        assertEquals(2, order.items.size());
+        assertEquals("A", order.items.get(0).sku);
+        assertEquals(2, order.items.get(0).qty);
+        assertEquals("B", order.items.get(1).sku);
+        assertEquals(3, order.items.get(1).qty);
+        assertEquals("Bob", order.owner.name);
+        // root, 2 items and owner:
+        assertEquals(4, objects);
+    }
+
+    @Test
+    public void testBuildAllPropertiesByDefault() throws Exception {
+        Order order = builder().createReader(JSON).parse(Order.class);
+        assertEquals("Order", order.name);
+        assertEquals("B", order.items.get(1).sku);
+        assertEquals("Bob", order.owner.name);
+        // all 14 objects are built:
+        assertEquals(14, objects);
+    }
+
+    @Test
+    public void testParseAsMapKeepsAll() throws Exception {
+        Map<?, ?> map = builder().createReader(JSON).parse(Map.class);
+        assertTrue(map.containsKey("meta"));
+        assertTrue(map.containsKey("ignored"));
+    }
+
+    @Test
+    public void testInvalidJsonInBean() throws Exception {
+        String[] tests = { "{\"id\": 1, \"meta\": [}", "{\"id\": 1, \"meta\": \"abc}", "{\"id\": 1} 2", "{\"id\": 1, \"meta\": tru}" };
+        for (String s : tests) {
+            for (boolean skip : new boolean[] { false, true }) {
+                try {
+                    builder().useSkipUnknownProperties(skip).createReader(s).parse(Order.class);
+                    fail("Not caught JsonParseException when parse: " + s);
+                } catch (JsonParseException e) {
+                    // ok
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParseAt() throws Exception {
+        assertEquals("Order", builder().createReader(JSON).parseAt("$.name"));
+        assertEquals(Long.valueOf(3), builder().createReader(JSON).parseAt("$.items[1].qty"));
+        assertEquals("x\"", builder().createReader(JSON).parseAt("$['ignored'][2]"));
+        assertEquals("}]", builder().createReader(JSON).parseAt("$.meta.a.b[2].c"));
+        assertNull(builder().createReader(JSON).parseAt("$.items[2]"));
+        assertNull(builder().createReader(JSON).parseAt("$.name.first"));
+        assertNull(builder().createReader(JSON).parseAt("$.missing"));
+        Item item = builder().createReader(JSON).parseAt("$.items[0]", Item.class);
+        assertEquals("A", item.sku);
+        assertEquals(1, objects);
+    }
+
+    @Test
+    public void testInvalidPath() throws Exception {
+        String[] tests = { "", "a", "$.", "$[", "$[a]", "$['a'", "$x" };
+        for (String s : tests) {
+            try {
+                builder().createReader(JSON).parseAt(s);
+                fail("Not caught IllegalArgumentException when parse path: " + s);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testParserSeek() throws Exception {
+        JsonParser parser = new JsonBuilder().createParser(JSON);
+        assertTrue(parser.seek("$.owner.address"));
+        assertEquals(JsonToken.BEGIN_OBJECT, parser.currentToken());
+        assertEquals("$.owner.address", parser.currentPath());
+        parser.skipValue();
+        assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+        assertEquals(JsonToken.END_OBJECT, parser.nextToken());
+        assertEquals(JsonToken.KEY, parser.nextToken());
+        assertEquals("any", parser.getString());
+    }
+}
+
+class Order {
+    long id;
+    String name;
+    List<Item> items;
+    Person owner;
+}
+
+class Item {
+    String sku;
+    int qty;
+}
+
+class Person {
+    String name;
+}
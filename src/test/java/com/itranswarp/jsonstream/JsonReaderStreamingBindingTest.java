@@ -0,0 +1,212 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.itranswarp.jsonstream.adapter.DateTypeAdapter;
+import com.itranswarp.jsonstream.adapter.TimeTypeAdapter;
+import com.itranswarp.jsonstream.annotation.MaximumInteger;
+import com.itranswarp.jsonstream.annotation.Required;
+
+public class JsonReaderStreamingBindingTest {
+
+    static final String JSON = "{\"id\": 12345678901, \"count\": 7, \"small\": -3, \"tiny\": 8, \"price\": 9.5, \"ratio\": 2, \"rate\": 0.25,"
+            + " \"active\": true, \"boxed\": 99, \"amount\": 12.50, \"level\": \"HIGH\", \"unknown\": {\"a\": [1, {\"b\": \"}\"}]},"
+            + " \"name\": \"Primitive\", \"scores\": [1, 2, 3], \"names\": [\"x\", null], \"nested\": [[1], \"a\"],"
+            + " \"items\": [{\"sku\": \"A\", \"qty\": 2, \"extra\": [1]}, {\"sku\": \"B\", \"qty\": 3}], \"owner\": {\"name\": \"Bob\"},"
+            + " \"itemArray\": [{\"sku\": \"C\", \"qty\": 4}], \"max\": 5, \"label\": \"L\"}";
+
+    int objects = 0;
+
+    JsonBuilder builder(boolean streamingBinding) {
+        return new JsonBuilder().useStreamingBinding(streamingBinding).useJsonObjectFactory(() -> {
+            objects++;
+            return new HashMap<>();
+        });
+    }
+
+    @Test
+    public void testBindSameAsObjectMapper() throws Exception {
+        for (boolean streaming : new boolean[] { false, true }) {
+            objects = 0;
+            AllTypes bean = builder(streaming).createReader(JSON).parse(AllTypes.class);
+            assertEquals(12345678901L, bean.id);
+            assertEquals(7, bean.count);
+            assertEquals(-3, bean.small);
+            assertEquals(8, bean.tiny);
+            assertEquals(9.5f, bean.price, 0.0f);
+            assertEquals(2.0, bean.ratio, 0.0);
+            assertEquals(0.25, bean.rate, 0.0);
+            assertTrue(bean.active);
+            assertEquals(Integer.valueOf(99), bean.boxed);
+            assertEquals(new BigDecimal("12.5"), bean.amount);
+            assertEquals(Level.HIGH, bean.level);
+            assertEquals("Primitive", bean.name);
+            assertArrayEquals(new int[] { 1, 2, 3 }, bean.scores);
+            assertArrayEquals(new String[] { "x", null }, bean.names);
+            assertEquals(2, bean.nested.size());
+            assertEquals(List.of(1L), bean.nested.get(0));
+            assertEquals("a", bean.nested.get(1));
+            assertEquals(2, bean.items.size());
+            assertEquals("B", bean.items.get(1).sku);
+            assertEquals(3, bean.items.get(1).qty);
+            assertEquals("Bob", bean.owner.name);
+            assertEquals(1, bean.itemArray.length);
+            assertEquals(4, bean.itemArray[0].qty);
+            assertEquals(5, bean.max);
+            assertEquals("L", bean.label);
+            // no Map is created by streaming binding, otherwise all 7 are built:
+            assertEquals(streaming ? 0 : 7, objects);
+        }
+    }
+
+    @Test
+    public void testBindNumbers() throws Exception {
+        for (boolean lossless : new boolean[] { false, true }) {
+            for (boolean lazy : new boolean[] { false, true }) {
+                AllTypes bean = builder(true).useLosslessNumbers(lossless).useLazyNumbers(lazy)
+                        .createReader("{\"id\": -9223372036854775808, \"price\": 1.25, \"ratio\": 1e2, \"rate\": 0.10, \"amount\": 0.10, \"count\": 2147483648, \"label\": \"x\"}")
+                        .parse(AllTypes.class);
+                assertEquals(Long.MIN_VALUE, bean.id);
+                assertEquals(1.25f, bean.price, 0.0f);
+                assertEquals(100.0, bean.ratio, 0.0);
+                assertEquals(0.1, bean.rate, 0.0);
+                assertEquals(lossless ? new BigDecimal("0.10") : new BigDecimal("0.1"), bean.amount);
+                // truncated as Long.intValue():
+                assertEquals(Integer.MIN_VALUE, bean.count);
+            }
+        }
+    }
+
+    @Test
+    public void testBindFailedSameAsObjectMapper() throws Exception {
+        String[] tests = { "\"count\": 1.5", "\"price\": 1", "\"count\": null", "\"count\": \"1\"", "\"name\": [1]",
+                "\"id\": 12345678901234567890", "\"scores\": [1.5]", "\"items\": [[]]" };
+        for (String test : tests) {
+            String s = "{\"label\": \"x\", " + test + "}";
+            Class<?> expected = exceptionOf(() -> builder(false).createReader(s).parse(AllTypes.class));
+            assertNotNull(expected);
+            assertEquals("Different exception when parse: " + s, expected,
+                    exceptionOf(() -> builder(true).createReader(s).parse(AllTypes.class)));
+        }
+    }
+
+    @Test
+    public void testValidate() throws Exception {
+        assertEquals(10, builder(true).createReader("{\"max\": 10, \"label\": \"x\"}").parse(AllTypes.class).max);
+        String[] tests = { "{\"max\": 11, \"label\": \"x\"}", "{\"max\": 1}", "{\"label\": null}" };
+        for (String s : tests) {
+            try {
+                builder(true).createReader(s).parse(AllTypes.class);
+                fail("Not caught JsonValidateException when parse: " + s);
+            } catch (JsonValidateException e) {
+                // ok
+            }
+        }
+        try {
+            builder(true).createReader("{\"count\": 1}").parse(AllTypes.class);
+            fail("Not caught JsonValidateException!");
+        } catch (JsonValidateException e) {
+            assertTrue(e.getMessage().contains("AllTypes.label"));
+        }
+    }
+
+    @Test
+    public void testValidateProductOrder() throws Exception {
+        String jsonOrder = "{\"productId\":\"A00001\", \"price\":10.8, \"num\":5, \"discount\":1.2, \"deliverDate\": \"2015-01-05\","
+                + " \"deliverTime\": \"12:20\", \"address\": {\"name\":\"Bob\", \"address\":\"No.123\", \"zipcode\":\"100101\"}}";
+        ProductOrder order = builder(true).registerTypeAdapter(LocalDate.class, new DateTypeAdapter())
+                .registerTypeAdapter(LocalTime.class, new TimeTypeAdapter()).createReader(jsonOrder).parse(ProductOrder.class);
+        assertEquals(5, order.num);
+        assertEquals(LocalDate.of(2015, 1, 5), order.deliverDate);
+        assertEquals("100101", order.address.zipcode);
+        String[] tests = { jsonOrder.replace("\"num\":5", "\"num\":0"), jsonOrder.replace("\"price\":10.8", "\"price\":100.5"),
+                jsonOrder.replace("\"zipcode\":\"100101\"", "\"zipcode\":\"1001\""), jsonOrder.replace(", \"zipcode\":\"100101\"", "") };
+        for (String s : tests) {
+            try {
+                builder(true).registerTypeAdapter(LocalDate.class, new DateTypeAdapter())
+                        .registerTypeAdapter(LocalTime.class, new TimeTypeAdapter()).createReader(s).parse(ProductOrder.class);
+                fail("Not caught JsonValidateException when parse: " + s);
+            } catch (JsonValidateException e) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidJson() throws Exception {
+        String[] tests = { "{\"label\": \"x\", \"count\": }", "{\"label\": \"x\", \"unknown\": [}", "{\"label\": \"x\"} 1",
+                "{\"label\": \"x\", \"items\": [{\"sku\": \"1\",}]}" };
+        for (String s : tests) {
+            try {
+                builder(true).createReader(s).parse(AllTypes.class);
+                fail("Not caught JsonParseException when parse: " + s);
+            } catch (JsonParseException e) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testParseAt() throws Exception {
+        Item item = builder(true).createReader(JSON).parseAt("$.items[1]", Item.class);
+        assertEquals("B", item.sku);
+        assertEquals(0, objects);
+    }
+
+    Class<?> exceptionOf(Callback callback) {
+        try {
+            callback.call();
+            return null;
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+
+    interface Callback {
+        void call() throws Exception;
+    }
+}
+
+enum Level {
+    LOW, HIGH
+}
+
+class AllTypes {
+    long id;
+    int count;
+    short small;
+    byte tiny;
+    float price;
+    double ratio;
+    double rate;
+    boolean active;
+    Integer boxed;
+    BigDecimal amount;
+    Level level;
+    String name;
+    int[] scores;
+    String[] names;
+    List<Object> nested;
+    List<Item> items;
+    Person owner;
+    Item[] itemArray;
+
+    @MaximumInteger(10)
+    int max;
+
+    @Required
+    String label;
+
+    // set by setter:
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,124 @@
+package com.itranswarp.jsonstream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of writing a string-heavy JSON document to memory, to a Writer,
+ * and as UTF-8 bytes to an OutputStream, and of writing number-heavy time
+ * series.
+ *
+ * Run main() with the test classpath after mvn test-compile.
+ *
+ * @author Michael Liao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonWriteBenchmark {
+
+    static final int COUNT = 1000;
+
+    List<Object> messages;
+    List<Object> points;
+    double[] samples;
+
+    @Setup
+    public void setUp() {
+        messages = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", "msg-" + i);
+            map.put("from", "user" + (i % 37) + "@example.com");
+            map.put("subject", "Re: quarterly report " + i);
+            map.put("body", "Hello,\n\tplease find the \"summary\" attached, and reply before Friday. Thanks!");
+            map.put("path", "/inbox/archive/" + i);
+            messages.add(map);
+        }
+        points = new ArrayList<>(COUNT);
+        samples = new double[COUNT * 10];
+        for (int i = 0; i < COUNT; i++) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("t", 1600000000000L + i * 1000L);
+            map.put("value", 20.0 + i * 0.37);
+            map.put("count", i * 7);
+            points.add(map);
+        }
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = Math.sin(i) * 1000.0;
+        }
+    }
+
+    @Benchmark
+    public Object writeToString() throws IOException {
+        return new JsonBuilder().createWriter().write(messages).toString();
+    }
+
+    @Benchmark
+    public Object writeToWriter() throws IOException {
+        StringWriter writer = new StringWriter(256 * COUNT);
+        new JsonBuilder().createWriter(writer).write(messages);
+        return writer;
+    }
+
+    @Benchmark
+    public Object writeToBytes() throws IOException {
+        return new JsonBuilder().createUtf8Writer().write(messages).toBytes();
+    }
+
+    @Benchmark
+    public Object writeToOutputStream() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(256 * COUNT);
+        new JsonBuilder().createWriter(output).write(messages);
+        return output;
+    }
+
+    @Benchmark
+    public Object writeToOutputStreamWriter() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(256 * COUNT);
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        new JsonBuilder().createWriter(writer).write(messages);
+        writer.flush();
+        return output;
+    }
+
+    @Benchmark
+    public Object writePoints() throws IOException {
+        return new JsonBuilder().createWriter().write(points).toString();
+    }
+
+    @Benchmark
+    public Object writeSamples() throws IOException {
+        return new JsonBuilder().createWriter().write(samples).toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonWriteBenchmark.class.getSimpleName()).build()).run();
+    }
+}
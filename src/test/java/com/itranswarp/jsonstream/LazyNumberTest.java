@@ -0,0 +1,168 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class LazyNumberTest {
+
+    static final String JSON = "{\"name\": \"Java\", \"version\": 1.8, \"level\": 99, \"longArray\": [1, -20, 300], \"big\": 123456789012345678901234567890}";
+
+    JsonBuilder builder() {
+        return new JsonBuilder().useLazyNumbers(true);
+    }
+
+    @Test
+    public void testParseFromString() throws Exception {
+        Map<?, ?> map = builder().createReader(JSON).parse(Map.class);
+        LazyNumber version = (LazyNumber) map.get("version");
+        // refer to the source string without copy:
+        assertSame(JSON, version.source);
+        assertNull(version.value);
+        assertEquals("1.8", version.toString());
+        assertEquals(1.8, version.doubleValue(), 0.0);
+        assertEquals(Double.valueOf(1.8), version.value);
+        assertEquals(99, ((Number) map.get("level")).intValue());
+        assertEquals(-20L, ((Number) ((List<?>) map.get("longArray")).get(1)).longValue());
+    }
+
+    @Test
+    public void testParseFromStream() throws Exception {
+        Map<?, ?> map = builder().createReader(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8))).parse(Map.class);
+        LazyNumber level = (LazyNumber) map.get("level");
+        assertEquals("99", level.toString());
+        assertEquals(Long.valueOf(99), level.getValue());
+    }
+
+    @Test
+    public void testOutOfRangeOnFirstUse() throws Exception {
+        Map<?, ?> map = builder().createReader(JSON).parse(Map.class);
+        LazyNumber big = (LazyNumber) map.get("big");
+        try {
+            big.longValue();
+            fail("Not caught JsonParseException!");
+        } catch (JsonParseException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testLosslessNumbers() throws Exception {
+        Map<?, ?> map = builder().useLosslessNumbers(true).createReader(JSON).parse(Map.class);
+        JsonNumber big = (JsonNumber) ((LazyNumber) map.get("big")).getValue();
+        assertEquals(new BigDecimal("123456789012345678901234567890"), big.bigDecimalValue());
+    }
+
+    @Test
+    public void testInvalidNumber() throws Exception {
+        String[] tests = { "[1.]", "[-]", "[1e]", "[1.5e+]" };
+        for (String s : tests) {
+            try {
+                builder().createReader(s).parse();
+                fail("Not caught JsonParseException when parse: " + s);
+            } catch (JsonParseException e) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testParseAsBean() throws Exception {
+        User user = builder().createReader(JSON).parse(User.class);
+        assertEquals("Java", user.name);
+        assertEquals(1.8, user.version, 0.0);
+        assertEquals(99, user.level);
+        assertArrayEquals(new long[] { 1, -20, 300 }, user.longArray);
+    }
+
+    @Test
+    public void testParseSingleNumber() throws Exception {
+        assertEquals(Long.valueOf(123), builder().createReader("123").parse(Long.class));
+        assertEquals(Double.valueOf(0.5), builder().createReader("0.5").parse(Double.class));
+        assertEquals("-1e3", builder().createReader("-1e3").parse(Number.class).toString());
+    }
+
+    @Test
+    public void testWriteLazyNumber() throws Exception {
+        Map<?, ?> map = builder().createReader("{\"a\": 1.50e3}").parse(Map.class);
+        JsonWriter writer = new JsonBuilder().createWriter();
+        writer.write(map);
+        assertEquals("{\"a\":1.50e3}", writer.toString());
+    }
+
+    @Test
+    public void testShareCharsOfStreamSource() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i == 0 ? "" : ",").append(i).append(".25e-1");
+        }
+        sb.append(']');
+        List<?> list = builder().createReader(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8))).parse(List.class);
+        assertEquals(500, list.size());
+        LazyNumber first = (LazyNumber) list.get(0);
+        LazyNumber second = (LazyNumber) list.get(1);
+        LazyNumber last = (LazyNumber) list.get(499);
+        // no copy for each number:
+        assertSame(first.source, second.source);
+        assertNotSame(first.source, last.source);
+        assertEquals("0.25e-1", first.toString());
+        assertEquals("499.25e-1", last.toString());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i * 10 + 2.5, ((Number) list.get(i)).doubleValue() * 100, 0.000001);
+        }
+    }
+
+    @Test
+    public void testAllocateLessThanBoxedNumbers() throws Exception {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+        Random random = new Random(123);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 2000; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"t\": ").append(1600000000000L + i * 1000L).append(", \"cpu\": ")
+                    .append(String.format(Locale.ROOT, "%.4f", random.nextDouble() * 100)).append(", \"mem\": ")
+                    .append(String.format(Locale.ROOT, "%.6f", random.nextDouble())).append('}');
+        }
+        sb.append(']');
+        String json = sb.toString();
+        for (boolean lossless : new boolean[] { false, true }) {
+            JsonBuilder boxed = new JsonBuilder().useLosslessNumbers(lossless);
+            JsonBuilder lazy = new JsonBuilder().useLosslessNumbers(lossless).useLazyNumbers(true);
+            long boxedBytes = Long.MAX_VALUE;
+            long lazyBytes = Long.MAX_VALUE;
+            for (int i = 0; i < 20; i++) {
+                boxedBytes = Math.min(boxedBytes, allocatedBytes(threadBean, boxed, json));
+                lazyBytes = Math.min(lazyBytes, allocatedBytes(threadBean, lazy, json));
+            }
+            if (lossless) {
+                // lazy number is smaller than JsonNumber:
+                assertTrue(lazyBytes + " < " + boxedBytes, lazyBytes < boxedBytes);
+            } else {
+                // lazy number is not larger than Long or Double:
+                assertTrue(lazyBytes + " <= " + boxedBytes, lazyBytes <= boxedBytes);
+            }
+        }
+    }
+
+    long allocatedBytes(com.sun.management.ThreadMXBean threadBean, JsonBuilder builder, String json) throws Exception {
+        long id = Thread.currentThread().getId();
+        long start = threadBean.getThreadAllocatedBytes(id);
+        Object obj = builder.createReader(json).parse();
+        long end = threadBean.getThreadAllocatedBytes(id);
+        assertNotNull(obj);
+        return end - start;
+    }
+}
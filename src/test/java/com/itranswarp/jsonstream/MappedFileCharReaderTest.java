@@ -0,0 +1,71 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedFileCharReaderTest {
+
+    Path file = null;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("jsonstream-", ".json");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    Path writeFile(String s) throws Exception {
+        Files.write(file, s.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testReadAcrossWindows() throws Exception {
+        String input = "abc中文def😀.{}[]é";
+        // very small windows so that multi-byte chars cross windows:
+        for (int windowSize = 1; windowSize <= 8; windowSize++) {
+            MappedFileCharReader reader = new MappedFileCharReader(writeFile(input), windowSize);
+            StringBuilder sb = new StringBuilder();
+            while (reader.hasMore()) {
+                char ch = reader.peek();
+                assertEquals(ch, reader.next());
+                sb.append(ch);
+            }
+            assertEquals(input, sb.toString());
+            try {
+                reader.next();
+                fail("Not caught ParseException!");
+            } catch (JsonParseException e) {
+                assertEquals("EOF", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testReadEmptyFile() throws Exception {
+        MappedFileCharReader reader = new MappedFileCharReader(writeFile(""));
+        assertFalse(reader.hasMore());
+    }
+
+    @Test
+    public void testParseSameAsCharReader() throws Exception {
+        String s = "{\"name\":\"English中文\", \"emoji\": \"😀\\u4E2d\", \"list\": [1, 2.5, true, null, \"é\"], \"nested\": {\"a\": [[]]}}";
+        Object expected = new JsonReader(new StringReader(s), null, null, null, null).parse();
+        assertEquals(expected, new JsonBuilder().createReader(writeFile(s)).parse());
+        for (int windowSize = 1; windowSize <= 16; windowSize++) {
+            assertEquals(expected, new JsonBuilder().createReader(new MappedFileCharReader(writeFile(s), windowSize)).parse());
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NumberFormatterTest {
+
+    char[] buffer = new char[NumberFormatter.MAX_LENGTH];
+
+    String formatLong(long n) {
+        return new String(buffer, 0, NumberFormatter.formatLong(n, buffer, 0));
+    }
+
+    String formatDouble(double d) {
+        return new String(buffer, 0, NumberFormatter.formatDouble(d, buffer, 0));
+    }
+
+    String formatFloat(float f) {
+        return new String(buffer, 0, NumberFormatter.formatFloat(f, buffer, 0));
+    }
+
+    @Test
+    public void testFormatLong() {
+        long[] values = { 0, 1, -1, 9, 10, -10, 99, 100, 12345, 1000000000000000000L, 999999999999999999L, Integer.MAX_VALUE,
+                Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (long n : values) {
+            assertEquals(Long.toString(n), formatLong(n));
+        }
+        Random random = new Random(123);
+        for (int i = 0; i < 100000; i++) {
+            long n = random.nextLong() >> random.nextInt(64);
+            assertEquals(Long.toString(n), formatLong(n));
+        }
+    }
+
+    @Test
+    public void testFormatDouble() {
+        assertEquals("0.0", formatDouble(0.0));
+        assertEquals("-0.0", formatDouble(-0.0));
+        assertEquals("1.0", formatDouble(1.0));
+        assertEquals("100.0", formatDouble(100.0));
+        assertEquals("-123.456", formatDouble(-123.456));
+        assertEquals("9999999.0", formatDouble(9999999.0));
+        assertEquals("1.0E7", formatDouble(1e7));
+        assertEquals("0.001", formatDouble(0.001));
+        assertEquals("9.0E-4", formatDouble(0.0009));
+        assertEquals("1.2E56", formatDouble(1.2e56));
+        assertEquals("1.0E23", formatDouble(1e23));
+        assertEquals("4.9E-324", formatDouble(Double.MIN_VALUE));
+        assertEquals("1.7976931348623157E308", formatDouble(Double.MAX_VALUE));
+        assertEquals("-2.2250738585072014E-308", formatDouble(-Double.MIN_NORMAL));
+        assertEquals("NaN", formatDouble(Double.NaN));
+        assertEquals("Infinity", formatDouble(Double.POSITIVE_INFINITY));
+        assertEquals("-Infinity", formatDouble(Double.NEGATIVE_INFINITY));
+        // shortest, while Double.toString() of JDK before 19 is not:
+        assertEquals("2.82879384806159E17", formatDouble(2.82879384806159E17));
+    }
+
+    @Test
+    public void testFormatRandomDouble() {
+        Random random = new Random(123);
+        for (int i = 0; i < 300000; i++) {
+            double d = i % 3 == 0 ? Double.longBitsToDouble(random.nextLong())
+                    : i % 3 == 1 ? random.nextInt(1000000) / 100.0 : random.nextDouble() * Math.pow(10, random.nextInt(40) - 20);
+            if (Double.isNaN(d)) {
+                continue;
+            }
+            String s = formatDouble(d);
+            String expected = Double.toString(d);
+            // round trip, and never longer than Double.toString():
+            assertEquals(expected, d, Double.parseDouble(s), 0.0);
+            assertTrue(expected + " -> " + s, s.length() <= expected.length());
+            assertEquals(expected.indexOf('E') >= 0, s.indexOf('E') >= 0);
+        }
+    }
+
+    @Test
+    public void testFormatFloat() {
+        assertEquals("0.0", formatFloat(0.0f));
+        assertEquals("-0.0", formatFloat(-0.0f));
+        assertEquals("2.5", formatFloat(2.5f));
+        assertEquals("0.1", formatFloat(0.1f));
+        assertEquals("5.0E9", formatFloat(0.5e10f));
+        assertEquals("1.6777216E7", formatFloat(16777216f));
+        assertEquals("1.4E-45", formatFloat(Float.MIN_VALUE));
+        assertEquals("3.4028235E38", formatFloat(Float.MAX_VALUE));
+        assertEquals("1.1754944E-38", formatFloat(Float.MIN_NORMAL));
+        assertEquals("NaN", formatFloat(Float.NaN));
+        assertEquals("-Infinity", formatFloat(Float.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void testFormatRandomFloat() {
+        Random random = new Random(123);
+        for (int i = 0; i < 300000; i++) {
+            float f = i % 2 == 0 ? Float.intBitsToFloat(random.nextInt()) : random.nextInt(100000) / 100f;
+            if (Float.isNaN(f)) {
+                continue;
+            }
+            String s = formatFloat(f);
+            String expected = Float.toString(f);
+            assertEquals(expected, f, Float.parseFloat(s), 0.0f);
+            assertTrue(expected + " -> " + s, s.length() <= expected.length());
+        }
+    }
+}
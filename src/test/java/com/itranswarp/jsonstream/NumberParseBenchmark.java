@@ -0,0 +1,249 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of reading numbers by TokenReader, compared with the previous
+ * StringBuilder and Math.pow() based implementation.
+ *
+ * Run main() with the test classpath after mvn test-compile.
+ *
+ * @author Michael Liao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberParseBenchmark {
+
+    static final int COUNT = 1000;
+
+    @Param({ "integer", "coordinate", "exponent" })
+    String kind;
+
+    char[] input;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(123);
+        StringBuilder sb = new StringBuilder(COUNT * 20);
+        for (int i = 0; i < COUNT; i++) {
+            switch (kind) {
+            case "integer":
+                sb.append(random.nextInt());
+                break;
+            case "coordinate":
+                // GeoJSON coordinate like -122.4194155:
+                sb.append(String.format(Locale.ROOT, "%.7f", random.nextDouble() * 360 - 180));
+                break;
+            default:
+                sb.append(String.format(Locale.ROOT, "%.6fe%d", random.nextDouble() * 1000, random.nextInt(40) - 20));
+                break;
+            }
+            sb.append(',');
+        }
+        input = sb.toString().toCharArray();
+    }
+
+    @Benchmark
+    public void readNumber(Blackhole bh) throws IOException {
+        CharReader charReader = new CharReader(input, 0, input.length);
+        TokenReader reader = new TokenReader(charReader);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(reader.readNumber());
+            charReader.next(); // skip ','
+        }
+    }
+
+    @Benchmark
+    public void readNumberLegacy(Blackhole bh) throws IOException {
+        CharReader charReader = new CharReader(input, 0, input.length);
+        LegacyNumberReader reader = new LegacyNumberReader(charReader);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(reader.readNumber());
+            charReader.next(); // skip ','
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NumberParseBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The previous implementation of TokenReader.readNumber(), kept for
+     * comparison.
+     */
+    static class LegacyNumberReader {
+
+        static final int READ_NUMBER_INT_PART = 0;
+        static final int READ_NUMBER_FRA_PART = 1;
+        static final int READ_NUMBER_EXP_PART = 2;
+        static final int READ_NUMBER_END = 3;
+
+        static final long MAX_SAFE_INTEGER = 9007199254740991L;
+        static final double MAX_SAFE_DOUBLE = 1.7976931348623157e+308;
+
+        final CharReader reader;
+
+        LegacyNumberReader(CharReader reader) {
+            this.reader = reader;
+        }
+
+        Number readNumber() throws IOException {
+            StringBuilder intPart = null;
+            StringBuilder fraPart = null;
+            StringBuilder expPart = null;
+            boolean hasFraPart = false;
+            boolean hasExpPart = false;
+            char ch = reader.peek();
+            boolean minusSign = ch == '-';
+            boolean expMinusSign = false;
+            if (minusSign) {
+                reader.next();
+            }
+            int status = READ_NUMBER_INT_PART;
+            for (;;) {
+                if (reader.hasMore()) {
+                    ch = reader.peek();
+                } else {
+                    status = READ_NUMBER_END;
+                }
+                switch (status) {
+                case READ_NUMBER_INT_PART:
+                    if (ch >= '0' && ch <= '9') {
+                        if (intPart == null) {
+                            intPart = new StringBuilder(10);
+                        }
+                        intPart.append(reader.next());
+                    } else if (ch == '.') {
+                        if (intPart == null) {
+                            throw new JsonParseException("Unexpected char: " + ch, reader.readed);
+                        }
+                        reader.next();
+                        hasFraPart = true;
+                        status = READ_NUMBER_FRA_PART;
+                    } else if (ch == 'e' || ch == 'E') {
+                        reader.next();
+                        hasExpPart = true;
+                        char signChar = reader.peek();
+                        if (signChar == '-' || signChar == '+') {
+                            expMinusSign = signChar == '-';
+                            reader.next();
+                        }
+                        status = READ_NUMBER_EXP_PART;
+                    } else {
+                        if (intPart == null) {
+                            throw new JsonParseException("Unexpected char: " + reader.next(), reader.readed);
+                        }
+                        status = READ_NUMBER_END;
+                    }
+                    continue;
+                case READ_NUMBER_FRA_PART:
+                    if (ch >= '0' && ch <= '9') {
+                        if (fraPart == null) {
+                            fraPart = new StringBuilder(10);
+                        }
+                        fraPart.append(reader.next());
+                    } else if (ch == 'e' || ch == 'E') {
+                        reader.next();
+                        hasExpPart = true;
+                        char signChar = reader.peek();
+                        if (signChar == '-' || signChar == '+') {
+                            expMinusSign = signChar == '-';
+                            reader.next();
+                        }
+                        status = READ_NUMBER_EXP_PART;
+                    } else {
+                        if (fraPart == null) {
+                            throw new JsonParseException("Unexpected char: " + reader.next(), reader.readed);
+                        }
+                        status = READ_NUMBER_END;
+                    }
+                    continue;
+                case READ_NUMBER_EXP_PART:
+                    if (ch >= '0' && ch <= '9') {
+                        if (expPart == null) {
+                            expPart = new StringBuilder(10);
+                        }
+                        expPart.append(reader.next());
+                    } else {
+                        if (expPart == null) {
+                            throw new JsonParseException("Unexpected char: " + reader.next(), reader.readed);
+                        }
+                        status = READ_NUMBER_END;
+                    }
+                    continue;
+                case READ_NUMBER_END:
+                    int readed = reader.readed;
+                    if (intPart == null) {
+                        throw new JsonParseException("Missing integer part of number.", readed);
+                    }
+                    long lInt = minusSign ? -string2Long(intPart, readed) : string2Long(intPart, readed);
+                    if (!hasFraPart && !hasExpPart) {
+                        return Long.valueOf(lInt);
+                    }
+                    if (hasFraPart && fraPart == null) {
+                        throw new JsonParseException("Missing fraction part of number.", readed);
+                    }
+                    double dFraPart = hasFraPart ? (minusSign ? -string2Fraction(fraPart, readed) : string2Fraction(fraPart, readed)) : 0.0;
+                    double number = hasExpPart
+                            ? (lInt + dFraPart) * Math.pow(10, expMinusSign ? -string2Long(expPart, readed) : string2Long(expPart, readed))
+                            : (lInt + dFraPart);
+                    if (number > MAX_SAFE_DOUBLE) {
+                        throw new NumberFormatException("Exceeded maximum value: 1.7976931348623157e+308");
+                    }
+                    return Double.valueOf(number);
+                default:
+                    continue;
+                }
+            }
+        }
+
+        long string2Long(CharSequence cs, int readed) {
+            if (cs.length() > 16) {
+                throw new JsonParseException("Number string is too long.", readed);
+            }
+            long n = 0;
+            for (int i = 0; i < cs.length(); i++) {
+                n = n * 10 + (cs.charAt(i) - '0');
+                if (n > MAX_SAFE_INTEGER) {
+                    throw new JsonParseException("Exceeded maximum value: " + MAX_SAFE_INTEGER, readed);
+                }
+            }
+            return n;
+        }
+
+        double string2Fraction(CharSequence cs, int readed) {
+            if (cs.length() > 16) {
+                throw new JsonParseException("Number string is too long.", readed);
+            }
+            double d = 0.0;
+            for (int i = 0; i < cs.length(); i++) {
+                int n = cs.charAt(i) - '0';
+                d = d + (n == 0 ? 0 : n / Math.pow(10, i + 1));
+            }
+            return d;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of parsing a newline-delimited JSON file to beans by parallel
+ * stream, with different number of threads. Each run is submitted to a
+ * ForkJoinPool of the given parallelism, so the stream runs on that pool
+ * instead of the common pool. Compare scores of threads=1 with others to see
+ * how throughput scales, which is limited by the number of CPU cores.
+ *
+ * Run main() with the test classpath after mvn test-compile.
+ *
+ * @author Michael Liao
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelStreamBenchmark {
+
+    static final int LINES = 200000;
+
+    @Param({ "1", "2", "4", "8" })
+    int threads;
+
+    Path file;
+    ForkJoinPool pool;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("jsonstream-bench-", ".ndjson");
+        StringBuilder sb = new StringBuilder(LINES * 100);
+        for (int i = 0; i < LINES; i++) {
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"user-").append(i).append("\", \"email\": \"user").append(i)
+                    .append("@example.com\", \"score\": ").append(i % 1000).append(".25, \"active\": ").append(i % 3 == 0).append("}\n");
+        }
+        Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long parseOrdered() throws Exception {
+        return pool.submit(() -> sumIds(true)).get();
+    }
+
+    @Benchmark
+    public long parseUnordered() throws Exception {
+        return pool.submit(() -> sumIds(false)).get();
+    }
+
+    long sumIds(boolean ordered) throws IOException {
+        return new JsonBuilder().createParallelStream(file, Account.class, ordered).mapToLong(account -> account.id).sum();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParallelStreamBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    public static class Account {
+        long id;
+        String name;
+        String email;
+        double score;
+        boolean active;
+    }
+}
@@ -0,0 +1,272 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+import org.junit.Test;
+
+public class PropertyAccessorsTest {
+
+    @Test
+    public void testLambdaGenerated() throws Exception {
+        Method m = AccessorBean.class.getDeclaredMethod("setAge", int.class);
+        Object fn = PropertyAccessors.newLambda(m, ObjIntConsumer.class, "accept", MethodType.methodType(void.class, Object.class, int.class),
+                MethodType.methodType(void.class, AccessorBean.class, int.class));
+        assertNotNull(fn);
+        AccessorBean bean = new AccessorBean();
+        @SuppressWarnings("unchecked")
+        ObjIntConsumer<Object> setter = (ObjIntConsumer<Object>) fn;
+        setter.accept(bean, 20);
+        assertEquals(20, bean.age);
+    }
+
+    @Test
+    public void testSetters() throws Exception {
+        PropertySetters pss = new PropertySetters(AccessorBean.class);
+        AccessorBean bean = new AccessorBean();
+        pss.getPropertySetter("age").setInt(bean, 18);
+        pss.getPropertySetter("id").setLong(bean, 123L);
+        pss.getPropertySetter("score").setDouble(bean, 9.5);
+        pss.getPropertySetter("weight").setFloat(bean, 1.5f);
+        pss.getPropertySetter("active").setBoolean(bean, true);
+        pss.getPropertySetter("name").setProperty(bean, "Bob");
+        pss.getPropertySetter("tags").setProperty(bean, List.of("a"));
+        assertEquals(18, bean.age);
+        assertEquals(123L, bean.id);
+        assertEquals(9.5, bean.score, 0.0);
+        assertEquals(1.5f, bean.weight, 0.0f);
+        assertTrue(bean.active);
+        assertEquals("Bob!", bean.name);
+        assertEquals(List.of("a"), bean.tags);
+        // boxed value is widened:
+        pss.getPropertySetter("score").setProperty(bean, Long.valueOf(3));
+        assertEquals(3.0, bean.score, 0.0);
+        pss.getPropertySetter("weight").setProperty(bean, Integer.valueOf(2));
+        assertEquals(2.0f, bean.weight, 0.0f);
+        pss.getPropertySetter("age").setProperty(bean, Integer.valueOf(30));
+        assertEquals(30, bean.age);
+        try {
+            pss.getPropertySetter("age").setProperty(bean, null);
+            fail("Not caught IllegalArgumentException!");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            pss.getPropertySetter("name").setProperty(bean, 123);
+            fail("Not caught ClassCastException!");
+        } catch (ClassCastException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testGetters() throws Exception {
+        AccessorBean bean = new AccessorBean();
+        bean.age = 12;
+        bean.id = 34L;
+        bean.name = "Alice";
+        bean.active = true;
+        PropertyGetters pgs = new PropertyGetters(AccessorBean.class);
+        assertEquals(Integer.valueOf(12), pgs.getPropertyGetter("age").getProperty(bean));
+        assertEquals(Long.valueOf(34), pgs.getPropertyGetter("id").getProperty(bean));
+        assertEquals("Alice", pgs.getPropertyGetter("name").getProperty(bean));
+        assertEquals(Boolean.TRUE, pgs.getPropertyGetter("active").getProperty(bean));
+    }
+
+    @Test
+    public void testLambdaForPrimitiveProperties() throws Exception {
+        PrimitiveBean bean = new PrimitiveBean();
+        String[] names = { "b", "s", "i", "l", "f", "d", "z", "c" };
+        Class<?>[] types = { byte.class, short.class, int.class, long.class, float.class, double.class, boolean.class, char.class };
+        for (int n = 0; n < names.length; n++) {
+            String name = names[n];
+            Method setter = PrimitiveBean.class.getDeclaredMethod("set" + name.toUpperCase(), types[n]);
+            assertTrue(name, PropertyAccessors.newSetter(setter) instanceof PropertyAccessors.LambdaSetter);
+            Method getter = PrimitiveBean.class.getDeclaredMethod("get" + name.toUpperCase());
+            assertTrue(name, PropertyAccessors.newGetter(getter) instanceof PropertyAccessors.LambdaGetter);
+        }
+        PropertySetters pss = new PropertySetters(PrimitiveBean.class);
+        pss.getPropertySetter("b").setByte(bean, (byte) 1);
+        pss.getPropertySetter("s").setShort(bean, (short) 2);
+        pss.getPropertySetter("i").setInt(bean, 3);
+        pss.getPropertySetter("l").setLong(bean, 4L);
+        pss.getPropertySetter("f").setFloat(bean, 5.5f);
+        pss.getPropertySetter("d").setDouble(bean, 6.5);
+        pss.getPropertySetter("z").setBoolean(bean, true);
+        pss.getPropertySetter("c").setProperty(bean, 'x');
+        PropertyGetters pgs = new PropertyGetters(PrimitiveBean.class);
+        assertEquals(Byte.valueOf((byte) 1), pgs.getPropertyGetter("b").getProperty(bean));
+        assertEquals(Short.valueOf((short) 2), pgs.getPropertyGetter("s").getProperty(bean));
+        assertEquals(Integer.valueOf(3), pgs.getPropertyGetter("i").getProperty(bean));
+        assertEquals(Long.valueOf(4L), pgs.getPropertyGetter("l").getProperty(bean));
+        assertEquals(Float.valueOf(5.5f), pgs.getPropertyGetter("f").getProperty(bean));
+        assertEquals(Double.valueOf(6.5), pgs.getPropertyGetter("d").getProperty(bean));
+        assertEquals(Boolean.TRUE, pgs.getPropertyGetter("z").getProperty(bean));
+        assertEquals(Character.valueOf('x'), pgs.getPropertyGetter("c").getProperty(bean));
+        // boxed value of other type is widened:
+        pss.getPropertySetter("d").setProperty(bean, Integer.valueOf(7));
+        assertEquals(7.0, bean.d, 0.0);
+        pss.getPropertySetter("l").setInt(bean, 8);
+        assertEquals(8L, bean.l);
+    }
+
+    @Test
+    public void testHandleForFields() throws Exception {
+        assertTrue(PropertyAccessors.newSetter(AccessorBean.class.getDeclaredField("weight")) instanceof PropertyAccessors.HandleSetter);
+        assertFalse(PropertyAccessors.newSetter(AccessorBean.class.getDeclaredField("weight")) instanceof PropertyAccessors.LambdaSetter);
+        assertTrue(PropertyAccessors.newGetter(AccessorBean.class.getDeclaredField("weight")) instanceof PropertyAccessors.HandleGetter);
+    }
+
+    @Test
+    public void testAccessorsOfBenchmarkBeans() throws Exception {
+        // fields of Trade are accessed by MethodHandle, and methods of TradeBean by lambda:
+        PropertyGetters tradeGetters = new PropertyGetters(BeanAccessBenchmark.Trade.class);
+        PropertyGetters tradeBeanGetters = new PropertyGetters(BeanAccessBenchmark.TradeBean.class);
+        for (String name : new String[] { "id", "quantity", "price", "symbol", "buy", "venue", "fee", "lot" }) {
+            Field field = BeanAccessBenchmark.Trade.class.getDeclaredField(name);
+            String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            PropertyAccessors.Setter s1 = PropertyAccessors.newSetter(field);
+            PropertyAccessors.Setter s2 = PropertyAccessors.newSetter(BeanAccessBenchmark.TradeBean.class.getMethod(setterName, field.getType()));
+            assertFalse(name, s1 instanceof PropertyAccessors.LambdaSetter);
+            assertTrue(name, s2 instanceof PropertyAccessors.LambdaSetter);
+            assertTrue(name, tradeGetters.getPropertyGetter(name) instanceof PropertyAccessors.HandleGetter);
+            assertTrue(name, tradeBeanGetters.getPropertyGetter(name) instanceof PropertyAccessors.LambdaGetter);
+        }
+    }
+
+    @Test
+    public void testSetterThrowsException() throws Exception {
+        PropertySetters pss = new PropertySetters(AccessorBean.class);
+        try {
+            pss.getPropertySetter("name").setProperty(new AccessorBean(), null);
+            fail("Not caught IllegalStateException!");
+        } catch (IllegalStateException e) {
+            assertEquals("name is null", e.getMessage());
+        }
+    }
+}
+
+class AccessorBean {
+
+    int age;
+    long id;
+    double score;
+    float weight;
+    boolean active;
+    String name;
+    List<String> tags;
+
+    public int getAge() {
+        return age;
+    }
+
+    public void setAge(int age) {
+        this.age = age;
+    }
+
+    @SuppressWarnings("unused")
+    private long getId() {
+        return id;
+    }
+
+    @SuppressWarnings("unused")
+    private void setId(long id) {
+        this.id = id;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setName(String name) {
+        if (name == null) {
+            throw new IllegalStateException("name is null");
+        }
+        this.name = name + "!";
+    }
+}
+
+class PrimitiveBean {
+
+    byte b;
+    short s;
+    int i;
+    long l;
+    float f;
+    double d;
+    boolean z;
+    char c;
+
+    public byte getB() {
+        return b;
+    }
+
+    public void setB(byte b) {
+        this.b = b;
+    }
+
+    public short getS() {
+        return s;
+    }
+
+    public void setS(short s) {
+        this.s = s;
+    }
+
+    public int getI() {
+        return i;
+    }
+
+    public void setI(int i) {
+        this.i = i;
+    }
+
+    public long getL() {
+        return l;
+    }
+
+    public void setL(long l) {
+        this.l = l;
+    }
+
+    public float getF() {
+        return f;
+    }
+
+    public void setF(float f) {
+        this.f = f;
+    }
+
+    public double getD() {
+        return d;
+    }
+
+    public void setD(double d) {
+        this.d = d;
+    }
+
+    public boolean getZ() {
+        return z;
+    }
+
+    public void setZ(boolean z) {
+        this.z = z;
+    }
+
+    public char getC() {
+        return c;
+    }
+
+    public void setC(char c) {
+        this.c = c;
+    }
+}
@@ -0,0 +1,55 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+
+public class StringCharReaderTest {
+
+    static final String JSON = "{\"name\":\"English中文\", \"emoji\": \"😀\\u4E2d\", \"list\": [12345, -2.5e-3, true, null, \"é\"], \"nested\": {\"a\": [[]]}}";
+
+    @Test
+    public void testNextAndPeek() throws Exception {
+        StringCharReader reader = new StringCharReader("abc");
+        assertTrue(reader.hasMore());
+        assertEquals('a', reader.peek());
+        assertEquals('a', reader.next());
+        assertEquals("bc", reader.next(2));
+        assertFalse(reader.hasMore());
+        try {
+            reader.next();
+            fail("Not caught ParseException!");
+        } catch (JsonParseException e) {
+            assertEquals("EOF", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadCharArray() throws Exception {
+        char[] chars = "##abc##".toCharArray();
+        CharReader reader = new CharReader(chars, 2, 3);
+        assertEquals('a', reader.next());
+        assertEquals('b', reader.peek());
+        assertEquals("bc", reader.next(2));
+        assertFalse(reader.hasMore());
+        try {
+            reader.peek();
+            fail("Not caught ParseException!");
+        } catch (JsonParseException e) {
+            assertEquals("EOF", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testParseSameAsCharReader() throws Exception {
+        Object expected = new JsonReader(new StringReader(JSON), null, null, null, null).parse();
+        assertEquals(expected, new JsonBuilder().createReader(JSON).parse());
+        assertEquals(expected, new JsonBuilder().createReader(new StringBuilder(JSON)).parse());
+        assertEquals(expected, new JsonBuilder().createReader(JSON.toCharArray()).parse());
+        char[] chars = ("  " + JSON + "##").toCharArray();
+        assertEquals(expected, new JsonBuilder().createReader(chars, 2, JSON.length()).parse());
+    }
+
+}
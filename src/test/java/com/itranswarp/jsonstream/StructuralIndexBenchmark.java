@@ -0,0 +1,113 @@
+package com.itranswarp.jsonstream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of parsing UTF-8 bytes by the two-stage parser, compared with
+ * TokenReader. Documents are arrays of objects with long text, arrays of
+ * pretty-printed objects, or arrays of numbers, in different sizes. The
+ * two-stage parser is faster for pretty-printed documents, since white spaces
+ * between structural chars are skipped by the index.
+ *
+ * Requires Java 17+. Run main() with the test classpath after mvn
+ * test-compile, and add target/classes/META-INF/versions/17 before
+ * target/classes.
+ *
+ * @author Michael Liao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class StructuralIndexBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    int size;
+
+    @Param({ "text", "pretty", "numbers" })
+    String kind;
+
+    byte[] input;
+
+    StructuralIndexer.Positions positions;
+
+    @Setup
+    public void setUp() {
+        if (!StructuralIndexer.isAvailable()) {
+            throw new IllegalStateException("StructuralIndexer is not available.");
+        }
+        Random random = new Random(123);
+        StringBuilder sb = new StringBuilder(size + 200);
+        sb.append('[');
+        while (sb.length() < size) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            if (kind.equals("text")) {
+                sb.append("{\"id\": ").append(random.nextInt(1000000)).append(", \"title\": \"Item ").append(random.nextInt())
+                        .append("\", \"description\": \"");
+                for (int i = random.nextInt(200); i > 0; i--) {
+                    sb.append((char) ('a' + random.nextInt(26)));
+                    if (random.nextInt(8) == 0) {
+                        sb.append(' ');
+                    }
+                }
+                sb.append("\", \"tags\": [\"json\", \"simd\"], \"active\": true}");
+            } else if (kind.equals("pretty")) {
+                // pretty-printed objects with nested arrays:
+                sb.append("\n    {\n        \"id\": ").append(random.nextInt(1000000)).append(",\n        \"name\": \"Item ")
+                        .append(random.nextInt(1000)).append("\",\n        \"active\": ").append(random.nextBoolean())
+                        .append(",\n        \"tags\": [\n            \"a\",\n            \"b\"\n        ],\n        \"owner\": {\n")
+                        .append("            \"id\": ").append(random.nextInt(100)).append(",\n            \"roles\": [\n")
+                        .append("                \"admin\"\n            ]\n        }\n    }");
+            } else {
+                sb.append(String.format(Locale.ROOT, "%.7f", random.nextDouble() * 360 - 180));
+            }
+        }
+        sb.append(']');
+        input = sb.toString().getBytes(StandardCharsets.UTF_8);
+        positions = new StructuralIndexer.Positions(IndexedJsonParser.initialCapacity(input.length));
+    }
+
+    @Benchmark
+    public int index() {
+        positions.count = 0;
+        StructuralIndexer.INSTANCE.index(input, 0, input.length, positions);
+        return positions.count;
+    }
+
+    @Benchmark
+    public Object parseIndexed() throws IOException {
+        return new JsonBuilder().useStructuralIndex(true).createReader(input).parse();
+    }
+
+    @Benchmark
+    public Object parseScalar() throws IOException {
+        return new JsonBuilder().createReader(input).parse();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StructuralIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
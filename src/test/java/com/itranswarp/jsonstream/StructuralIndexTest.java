@@ -0,0 +1,182 @@
+package com.itranswarp.jsonstream;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StructuralIndexTest {
+
+    @Before
+    public void checkAvailable() {
+        // requires Java 17+ with --add-modules jdk.incubator.vector:
+        Assume.assumeTrue(StructuralIndexer.isAvailable());
+    }
+
+    Object parseIndexed(String s) throws Exception {
+        return new JsonBuilder().useStructuralIndex(true).createReader(s.getBytes(StandardCharsets.UTF_8)).parse();
+    }
+
+    Object parseScalar(String s) throws Exception {
+        return new JsonBuilder().createReader(s.getBytes(StandardCharsets.UTF_8)).parse();
+    }
+
+    @Test
+    public void testIndexPositions() throws Exception {
+        String s = "{\"a\\\"}\": [1, -2.5e3, true], \"b\": null}";
+        byte[] data = s.getBytes(StandardCharsets.UTF_8);
+        StructuralIndexer.Positions positions = new StructuralIndexer.Positions(1);
+        StructuralIndexer.INSTANCE.index(data, 0, data.length, positions);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < positions.count; i++) {
+            sb.append(s.charAt(positions.array[i]));
+        }
+        assertEquals("{\":[1,-,t],\":n}", sb.toString());
+    }
+
+    @Test
+    public void testParseDenseStructuralChars() throws Exception {
+        // more than one position per 8 bytes:
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            sb.append(i == 0 ? "" : ",").append("[1,{},[]]");
+        }
+        sb.append(']');
+        String s = sb.toString();
+        assertTrue(IndexedJsonParser.initialCapacity(s.length()) < 5000 * 9);
+        assertEquals(parseScalar(s), parseIndexed(s));
+    }
+
+    @Test
+    public void testParseSimple() throws Exception {
+        String s = "{\"name\": \"Java\", \"version\": 17, \"tags\": [\"a\", \"\\\"b\\\\\", {}], \"empty\": [], \"ok\": true, \"none\": null}";
+        Object obj = parseIndexed(s);
+        assertEquals(parseScalar(s), obj);
+        assertEquals(Long.valueOf(17), ((Map<?, ?>) obj).get("version"));
+    }
+
+    @Test
+    public void testParseSingleValue() throws Exception {
+        assertEquals(Long.valueOf(123), parseIndexed("  123 "));
+        assertEquals("abc", parseIndexed("\"abc\""));
+        assertEquals(Boolean.FALSE, parseIndexed("false"));
+        assertNull(parseIndexed(" null"));
+    }
+
+    @Test
+    public void testParseStringsAcrossBlocks() throws Exception {
+        for (int n = 0; n < 200; n++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                sb.append(i % 7 == 0 ? "\\\\" : (i % 5 == 0 ? "\\\"" : (i % 3 == 0 ? "中" : "x")));
+            }
+            String s = "[\"" + sb + "\", \"" + sb + "\\\\\", {\"" + sb + "\": [" + n + "]}]";
+            assertEquals(parseScalar(s), parseIndexed(s));
+        }
+    }
+
+    @Test
+    public void testParseRandomDocuments() throws Exception {
+        Random random = new Random(1234);
+        for (int i = 0; i < 500; i++) {
+            String s = new JsonBuilder().createWriter().write(randomValue(random, 0)).toString();
+            assertEquals(s, parseScalar(s), parseIndexed(s));
+        }
+    }
+
+    @Test
+    public void testParseWithOptions() throws Exception {
+        String s = "{\"big\": 123456789012345678901234567890, \"rate\": 0.1}";
+        Map<?, ?> map = new JsonBuilder().useStructuralIndex(true).useLazyNumbers(true).useLosslessNumbers(true)
+                .createReader(s.getBytes(StandardCharsets.UTF_8)).parse(Map.class);
+        assertEquals("123456789012345678901234567890", map.get("big").toString());
+        assertEquals(0.1, ((Number) map.get("rate")).doubleValue(), 0.0);
+    }
+
+    @Test
+    public void testParseInvalid() throws Exception {
+        String[] tests = { "", " ", "{", "[", "]", "}", "[1,]", "[,1]", "[1 2]", "{\"a\" 1}", "{\"a\":}", "{\"a\":1,}", "{1:2}",
+                "[1}", "{\"a\":1]", "[tru]", "[truex]", "[nul]", "[123abc]", "[1.]", "[\"abc]", "[\"a\nb\"]", "[1] 2",
+                "[abc]", "\"a\"\"b\"", "[\"a\" \"b\"]" };
+        for (String s : tests) {
+            try {
+                parseIndexed(s);
+                fail("Not caught JsonParseException when parse: " + s);
+            } catch (JsonParseException e) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testMaximumDepth() throws Exception {
+        String nested = "[".repeat(Stack.MAX_DEPTH) + "]".repeat(Stack.MAX_DEPTH);
+        assertEquals(parseScalar(nested), parseIndexed(nested));
+        String tooDeep = "[".repeat(Stack.MAX_DEPTH + 50) + "]".repeat(Stack.MAX_DEPTH + 50);
+        for (boolean indexed : new boolean[] { false, true }) {
+            try {
+                if (indexed) {
+                    parseIndexed(tooDeep);
+                } else {
+                    parseScalar(tooDeep);
+                }
+                fail("Not caught StackOverflowError!");
+            } catch (StackOverflowError e) {
+                assertEquals("Maximum depth reached when parse JSON string.", e.getMessage());
+            }
+        }
+    }
+
+    Object randomValue(Random random, int depth) {
+        int type = random.nextInt(depth > 4 ? 5 : 7);
+        switch (type) {
+        case 0:
+            return null;
+        case 1:
+            return random.nextBoolean();
+        case 2:
+            return random.nextLong() >> random.nextInt(64);
+        case 3:
+            return random.nextDouble() * Math.pow(10, random.nextInt(40) - 20);
+        case 4:
+            return randomString(random);
+        case 5:
+            List<Object> list = new ArrayList<>();
+            for (int i = random.nextInt(10); i > 0; i--) {
+                list.add(randomValue(random, depth + 1));
+            }
+            return list;
+        default:
+            Map<String, Object> map = new HashMap<>();
+            for (int i = random.nextInt(10); i > 0; i--) {
+                map.put(randomKey(random), randomValue(random, depth + 1));
+            }
+            return map;
+        }
+    }
+
+    String randomString(Random random) {
+        return randomString(random, "abc\"\\/{}[]:, \t\né中");
+    }
+
+    String randomKey(Random random) {
+        // JsonWriter does not escape keys:
+        return randomString(random, "abc/{}[]:, é中");
+    }
+
+    String randomString(Random random, String chars) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(80); i > 0; i--) {
+            sb.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return sb.toString();
+    }
+}
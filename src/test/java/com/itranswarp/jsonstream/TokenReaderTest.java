@@ -2,7 +2,14 @@ package com.itranswarp.jsonstream;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -22,6 +29,83 @@ public class TokenReaderTest {
         assertEquals("English中文", prepareTokenReader("\"English\\u4E2d\\u6587\"").readString());
     }
 
+    @Test
+    public void testReadStringFromAllReaders() throws Exception {
+        String[] parts = { "abc", "English中文", "😀", "\\\"", "\\n", "\\u4E2d", " ", "é", "xyz0123456789" };
+        String[] decoded = { "abc", "English中文", "😀", "\"", "\n", "中", " ", "é", "xyz0123456789" };
+        Random random = new Random(123);
+        List<String> expected = new ArrayList<>();
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            StringBuilder raw = new StringBuilder();
+            StringBuilder str = new StringBuilder();
+            int n = random.nextInt(6);
+            for (int j = 0; j < n; j++) {
+                int k = random.nextInt(parts.length);
+                raw.append(parts[k]);
+                str.append(decoded[k]);
+            }
+            json.append(i == 0 ? "" : ",").append('\"').append(raw).append('\"');
+            expected.add(str.toString());
+        }
+        json.append("]");
+        for (JsonReader reader : allReaders(json.toString())) {
+            assertEquals(expected, reader.parse());
+        }
+        // skip the strings and read the value after them:
+        json.insert(0, "[").append(", {\"a\": [\"\\\"]\"]}]");
+        for (JsonReader reader : allReaders(json.toString())) {
+            assertEquals(Collections.singletonMap("a", Collections.singletonList("\"]")), reader.parseAt("$[1]"));
+        }
+    }
+
+    JsonReader[] allReaders(String s) {
+        byte[] data = s.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).flip();
+        ByteBuffer[] slices = new ByteBuffer[(data.length + 6) / 7];
+        for (int i = 0; i < slices.length; i++) {
+            slices[i] = ByteBuffer.wrap(data, i * 7, Math.min(7, data.length - i * 7));
+        }
+        JsonBuilder builder = new JsonBuilder().useBufferSize(16);
+        return new JsonReader[] {
+                builder.createReader(s),
+                builder.createReader(new StringBuilder(s)),
+                builder.createReader(s.toCharArray()),
+                builder.createReader(new StringReader(s)),
+                builder.createReader(new ByteArrayInputStream(data)),
+                builder.createReader(data),
+                builder.createReader(ByteBuffer.wrap(data)),
+                builder.createReader(ByteBuffer.wrap(data).asReadOnlyBuffer()),
+                builder.createReader(direct),
+                builder.createReader(slices)
+        };
+    }
+
+    @Test
+    public void testSkipValue() throws Exception {
+        String[] VALUES = { "\"abc\\\"\\\\\"", "123", "-1.5e10", "true", "false", "null", "{}", "[]",
+                "{\"a\": [1, {\"b\": \"}]\"}], \"c\": {}}", "[[[\"[\"]]]" };
+        for (String s : VALUES) {
+            TokenReader reader = prepareTokenReader(" " + s + " ,");
+            reader.skipValue();
+            assertEquals(Token.SEP_COMMA, reader.readNextToken());
+        }
+    }
+
+    @Test
+    public void testSkipValueFailed() throws Exception {
+        String[] INVALID_VALUES = { "", "\"abc", "\"a\nb\"", "[1, 2", "{\"a\": \"}\"", "tru", "1.", "x" };
+        for (String s : INVALID_VALUES) {
+            try {
+                prepareTokenReader(s).skipValue();
+                fail("Not caught ParseException: " + s);
+            } catch (JsonParseException e) {
+                // ok!
+            }
+        }
+    }
+
     @Test
     public void testReadStringFailed() throws Exception {
         String[] INVALID_STRINGS = {
@@ -120,40 +204,55 @@ public class TokenReaderTest {
         }
     }
 
+    static final double DELTA = 0.00000001;
+
     @Test
-    public void testString2LongOk() throws Exception {
-        TokenReader reader = new TokenReader(new CharReader(new StringReader("")));
-        assertEquals(0L, reader.string2Long("0", 0));
-        assertEquals(1L, reader.string2Long("1", 0));
-        assertEquals(12340090L, reader.string2Long("12340090", 0));
-        assertEquals(123L, reader.string2Long("0123", 0));
-        assertEquals(0L, reader.string2Long("000", 0));
-        assertEquals(10000000000L, reader.string2Long("10000000000", 0));
-        assertEquals(9007199254740991L, reader.string2Long("9007199254740991", 0));
+    public void testReadLongNumberOk() throws Exception {
+        assertEquals(9007199254740992L, prepareTokenReader("9007199254740992").readNumber());
+        assertEquals(1234567890123456789L, prepareTokenReader("1234567890123456789").readNumber());
+        assertEquals(Long.MAX_VALUE, prepareTokenReader("9223372036854775807").readNumber());
+        assertEquals(Long.MIN_VALUE, prepareTokenReader("-9223372036854775808").readNumber());
+        assertEquals(123L, prepareTokenReader("0000000000000000000000123").readNumber());
     }
 
-    @Test(expected = JsonParseException.class)
-    public void testString2LongFailed() throws Exception {
-        TokenReader reader = new TokenReader(new CharReader(new StringReader("")));
-        reader.string2Long("9007199254740992", 0);
+    @Test
+    public void testReadLongNumberOutOfRange() throws Exception {
+        String[] tests = { "9223372036854775808", "-9223372036854775809", "10000000000000000000", "123456789012345678901234567890" };
+        for (String s : tests) {
+            try {
+                prepareTokenReader(s).readNumber();
+                fail("Not caught ParseException when parse: " + s);
+            } catch (JsonParseException e) {
+                // ok!
+            }
+        }
     }
 
-    static final double DELTA = 0.00000001;
-
     @Test
-    public void testString2FractionOk() throws Exception {
-        TokenReader reader = new TokenReader(new CharReader(new StringReader("")));
-        assertEquals(0.0, reader.string2Fraction("0", 0), DELTA);
-        assertEquals(0.1, reader.string2Fraction("1", 0), DELTA);
-        assertEquals(0.012, reader.string2Fraction("012", 0), DELTA);
-        assertEquals(0.0505, reader.string2Fraction("0505", 0), DELTA);
-        assertEquals(0.9991, reader.string2Fraction("99910", 0), DELTA);
+    public void testReadDoubleNumberExactly() throws Exception {
+        String[] tests = {
+                "0.1", "0.3", "-0.0", "1.7976931348623157e308", "-2.2250738585072014E-308", "4.9e-324", "2.4703282292062328e-324",
+                "9007199254740993.0", "123456789012345678901234567890.123", "0.000000000000000000000000000000000000001234567890123456789012",
+                "1e-400", "3.14159265358979323846264338327950288419716939937510", "2.2250738585072011e-308",
+                "7.3177701707893310e+15", "1.00000000000000011102230246251565404236316680908203125", "100000000000000000000000e-23"
+        };
+        for (String s : tests) {
+            Double expected = Double.valueOf(s);
+            assertEquals(s, expected, prepareTokenReader(s).readNumber());
+        }
     }
 
-    @Test(expected = JsonParseException.class)
-    public void testString2FractionFailed() throws Exception {
-        TokenReader reader = new TokenReader(new CharReader(new StringReader("")));
-        reader.string2Fraction("01234567891234567", 0);
+    @Test
+    public void testReadDoubleNumberOutOfRange() throws Exception {
+        String[] tests = { "1e309", "-1.8e308", "123456789e99999999999" };
+        for (String s : tests) {
+            try {
+                prepareTokenReader(s).readNumber();
+                fail("Not caught ParseException when parse: " + s);
+            } catch (JsonParseException e) {
+                // ok!
+            }
+        }
     }
 
     @Test